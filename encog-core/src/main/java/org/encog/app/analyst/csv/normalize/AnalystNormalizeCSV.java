@@ -27,16 +27,25 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.encog.EncogError;
 import org.encog.app.analyst.EncogAnalyst;
 import org.encog.app.analyst.csv.TimeSeriesUtil;
 import org.encog.app.analyst.csv.basic.BasicFile;
+import org.encog.app.analyst.csv.basic.LoadedRow;
 import org.encog.app.analyst.missing.HandleMissingValues;
 import org.encog.app.analyst.script.normalize.AnalystField;
 import org.encog.app.analyst.util.CSVHeaders;
 import org.encog.app.quant.QuantError;
+import org.encog.ml.data.buffer.BufferedDataError;
+import org.encog.ml.data.buffer.EncogEGBFile;
 import org.encog.util.arrayutil.NormalizationAction;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.TaskGroup;
 import org.encog.util.csv.CSVFormat;
 import org.encog.util.csv.NumberList;
 import org.encog.util.csv.ReadCSV;
@@ -44,9 +53,26 @@ import org.encog.util.logging.EncogLogging;
 
 /**
  * Normalize, or denormalize, a CSV file.
+ * 
+ * The input file is read in chunks of rows. The chunks are normalized in
+ * parallel on the Encog thread pool, while the next chunks are being read,
+ * and the results are written in their original order. The output is the
+ * same as if the file had been processed one row at a time. The normalized
+ * data can be written either as CSV, or directly to an Encog binary (EGB)
+ * file.
  */
 public class AnalystNormalizeCSV extends BasicFile {
 
+	/**
+	 * The default number of rows in each chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	/**
+	 * The number of EGB records buffered before they are written.
+	 */
+	public static final int EGB_BUFFER_RECORDS = 1024;
+
 	/**
 	 * Extract fields from a file into a numeric array for machine learning.
 	 * @param analyst The analyst to use.
@@ -59,6 +85,27 @@ public class AnalystNormalizeCSV extends BasicFile {
 	public static final double[] extractFields(final EncogAnalyst analyst,
 			final CSVHeaders headers, final ReadCSV csv,
 			final int outputLength, final boolean skipOutput) {
+		return extractFields(analyst, headers, csv.getFormat(), new LoadedRow(
+				csv).getData(), outputLength, skipOutput);
+	}
+
+	/**
+	 * Extract fields from a row that was already read into a numeric array
+	 * for machine learning. This method does not modify any shared state, so
+	 * it may be called from several threads at once, provided each thread
+	 * uses its own format.
+	 * @param analyst The analyst to use.
+	 * @param headers The headers for the input data.
+	 * @param format The format used to parse numbers.
+	 * @param row The column values of the row.
+	 * @param outputLength The length of the returned array.
+	 * @param skipOutput True if the output should be skipped.
+	 * @return The encoded data, or null if the row should be skipped.
+	 */
+	public static final double[] extractFields(final EncogAnalyst analyst,
+			final CSVHeaders headers, final CSVFormat format,
+			final String[] row, final int outputLength,
+			final boolean skipOutput) {
 		final double[] output = new double[outputLength];
 		int outputIndex = 0;
 		for (final AnalystField stat : analyst.getScript().getNormalize()
@@ -73,7 +120,7 @@ public class AnalystNormalizeCSV extends BasicFile {
 			}
 
 			int index = headers.find(stat.getName());
-			final String str = csv.get(index).trim();
+			final String str = row[index].trim();
 			
 			// is this an unknown value?
 			if( str.equals("?") || str.length()==0 ) {				
@@ -92,7 +139,7 @@ public class AnalystNormalizeCSV extends BasicFile {
 			} else {
 			// known value
 				if (stat.getAction() == NormalizationAction.Normalize) {
-					double d = csv.getFormat().parse(str);
+					double d = format.parse(str);
 					d = stat.normalize(d);
 					output[outputIndex++] = d;
 				} else {
@@ -123,6 +170,17 @@ public class AnalystNormalizeCSV extends BasicFile {
 	 */
 	private CSVHeaders analystHeaders;
 
+	/**
+	 * The number of chunks to process at once, zero to use one for each
+	 * processor.
+	 */
+	private int threadCount;
+
+	/**
+	 * The number of rows in each chunk.
+	 */
+	private int chunkSize = AnalystNormalizeCSV.DEFAULT_CHUNK_SIZE;
+
 	/**
 	 * Analyze the file.
 	 * @param inputFilename The input file.
@@ -151,6 +209,74 @@ public class AnalystNormalizeCSV extends BasicFile {
 				this.analystHeaders.getHeaders());
 	}
 
+	/**
+	 * Determine the EGB column order. The EGB format requires the input
+	 * columns to come before the ideal columns, so the normalized columns are
+	 * reordered as needed.
+	 * 
+	 * @param isInput
+	 *            True to determine the input columns, false for the ideal
+	 *            columns.
+	 * @return The indexes of the columns, in the normalized output.
+	 */
+	private int[] determineEGBColumns(final boolean isInput) {
+		final boolean timeSeries = this.series.getTotalDepth() > 1;
+		final List<Integer> columns = new ArrayList<Integer>();
+		int index = 0;
+
+		for (final AnalystField field : this.analyst.getScript()
+				.getNormalize().getNormalizedFields()) {
+			int width;
+			if (field.isIgnored()) {
+				width = 0;
+			} else if (timeSeries) {
+				width = 1;
+			} else {
+				width = field.getColumnsNeeded();
+			}
+
+			final boolean include = isInput ? field.isInput() : field
+					.isOutput();
+			for (int i = 0; i < width; i++) {
+				if (include) {
+					columns.add(index);
+				}
+				index++;
+			}
+		}
+
+		final int[] result = new int[columns.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = columns.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of chunks to process at once.
+	 */
+	private int determineThreadCount() {
+		if (this.threadCount == 0) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return this.threadCount;
+	}
+
+	/**
+	 * @return The number of rows in each chunk.
+	 */
+	public final int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	/**
+	 * @return The number of chunks to process at once, zero to use one for
+	 *         each processor.
+	 */
+	public final int getThreadCount() {
+		return this.threadCount;
+	}
+
 	/**
 	 * Normalize the input file. Write to the specified file.
 	 * 
@@ -178,26 +304,7 @@ public class AnalystNormalizeCSV extends BasicFile {
 			}
 
 			resetStatus();
-			final int outputLength = this.analyst.determineUniqueColumns();
-
-			// write file contents
-			while (csv.next() && !shouldStop()) {
-				updateStatus(false);
-
-				double[] output = AnalystNormalizeCSV.extractFields(
-						this.analyst, this.analystHeaders, csv, outputLength,
-						false);
-
-				if (this.series.getTotalDepth() > 1) {
-					output = this.series.process(output);
-				}
-
-				if (output != null) {
-					final StringBuilder line = new StringBuilder();
-					NumberList.toList(getOutputFormat(), line, output);
-					tw.println(line);
-				}
-			}
+			process(csv, tw, null);
 		} catch (final IOException e) {
 			throw new QuantError(e);
 		} finally {
@@ -220,6 +327,180 @@ public class AnalystNormalizeCSV extends BasicFile {
 		}
 	}
 
+	/**
+	 * Normalize the input file directly to an Encog binary (EGB) file. The
+	 * input columns are written first, followed by the ideal columns, each
+	 * record has a significance of one. This produces the same training data
+	 * as normalizing to CSV and then generating an EGB file from it, without
+	 * the intermediate text file.
+	 * 
+	 * @param file
+	 *            The EGB file to write to.
+	 */
+	public final void normalizeToEGB(final File file) {
+		if (this.analyst == null) {
+			throw new EncogError(
+					"Can't normalize yet, file has not been analyzed.");
+		}
+
+		ReadCSV csv = null;
+		final EncogEGBFile egb = new EncogEGBFile(file);
+
+		try {
+			csv = new ReadCSV(getInputFilename().toString(),
+					isExpectInputHeaders(), getInputFormat());
+
+			final int[] input = determineEGBColumns(true);
+			final int[] ideal = determineEGBColumns(false);
+			egb.create(input.length, ideal.length);
+
+			resetStatus();
+			final EGBOutput output = new EGBOutput(egb, input, ideal);
+			process(csv, null, output);
+			output.flush();
+		} finally {
+			reportDone(false);
+			if (csv != null) {
+				try {
+					csv.close();
+				} catch (final Exception ex) {
+					EncogLogging.log(ex);
+				}
+			}
+
+			try {
+				egb.close();
+			} catch (final Exception ex) {
+				EncogLogging.log(ex);
+			}
+		}
+	}
+
+	/**
+	 * Normalize the rows of the input file, and write them to either a CSV or
+	 * an EGB file. Chunks of rows are normalized on the thread pool while
+	 * the next chunks are read, the chunks are written in the order they were
+	 * read.
+	 * 
+	 * @param csv
+	 *            The input file.
+	 * @param tw
+	 *            The CSV output, or null.
+	 * @param egb
+	 *            The EGB output, or null.
+	 */
+	private void process(final ReadCSV csv, final PrintWriter tw,
+			final EGBOutput egb) {
+		final int outputLength = this.analyst.determineUniqueColumns();
+		final int threads = determineThreadCount();
+
+		// time series rows depend on the rows before them, so they are
+		// windowed and formatted in order when written
+		final CSVFormat chunkFormat;
+		if (tw != null && this.series.getTotalDepth() <= 1) {
+			chunkFormat = getOutputFormat();
+		} else {
+			chunkFormat = null;
+		}
+
+		List<NormalizeChunk> pending = null;
+		TaskGroup pendingGroup = null;
+
+		for (;;) {
+			final List<NormalizeChunk> chunks = readChunks(csv, threads,
+					chunkFormat, outputLength);
+
+			TaskGroup group = null;
+			if (threads > 1) {
+				group = EngineConcurrency.getInstance().createTaskGroup();
+				for (final NormalizeChunk chunk : chunks) {
+					EngineConcurrency.getInstance().processTask(chunk, group);
+				}
+			} else {
+				for (final NormalizeChunk chunk : chunks) {
+					chunk.run();
+				}
+			}
+
+			// write the previous chunks while these are being processed
+			if (pending != null) {
+				writeChunks(pending, pendingGroup, tw, egb);
+			}
+
+			if (chunks.size() == 0) {
+				break;
+			}
+
+			pending = chunks;
+			pendingGroup = group;
+		}
+	}
+
+	/**
+	 * Read the next chunks of rows.
+	 * 
+	 * @param csv
+	 *            The input file.
+	 * @param count
+	 *            The maximum number of chunks to read.
+	 * @param format
+	 *            The format to produce text output with, or null.
+	 * @param outputLength
+	 *            The number of columns produced for each row.
+	 * @return The chunks that were read, empty at the end of the file.
+	 */
+	private List<NormalizeChunk> readChunks(final ReadCSV csv,
+			final int count, final CSVFormat format, final int outputLength) {
+		final List<NormalizeChunk> result = new ArrayList<NormalizeChunk>();
+
+		for (int i = 0; i < count; i++) {
+			final NormalizeChunk chunk = new NormalizeChunk(this.analyst,
+					this.analystHeaders, getInputFormat(), format,
+					outputLength);
+
+			while (chunk.size() < this.chunkSize && !shouldStop()
+					&& csv.next()) {
+				updateStatus(false);
+				chunk.add(new LoadedRow(csv));
+			}
+
+			if (chunk.size() == 0) {
+				break;
+			}
+			result.add(chunk);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Set the number of rows in each chunk.
+	 * 
+	 * @param theChunkSize
+	 *            The number of rows in each chunk.
+	 */
+	public final void setChunkSize(final int theChunkSize) {
+		if (theChunkSize < 1) {
+			throw new QuantError("Chunk size must be at least 1.");
+		}
+		this.chunkSize = theChunkSize;
+	}
+
+	/**
+	 * Set the number of chunks to process at once. One processes the file
+	 * on the calling thread.
+	 * 
+	 * @param theThreadCount
+	 *            The number of chunks to process at once, zero to use one
+	 *            for each processor.
+	 */
+	public final void setThreadCount(final int theThreadCount) {
+		if (theThreadCount < 0) {
+			throw new QuantError("Thread count must not be negative.");
+		}
+		this.threadCount = theThreadCount;
+	}
+
 	/**
 	 * Set the source file. This is useful if you want to use pre-existing stats
 	 * to normalize something and skip the analyze step.
@@ -238,6 +519,52 @@ public class AnalystNormalizeCSV extends BasicFile {
 		setInputFormat(format);
 	}
 
+	/**
+	 * Wait for chunks to be processed, and write them in order.
+	 * 
+	 * @param chunks
+	 *            The chunks to write.
+	 * @param group
+	 *            The task group the chunks were processed in, or null.
+	 * @param tw
+	 *            The CSV output, or null.
+	 * @param egb
+	 *            The EGB output, or null.
+	 */
+	private void writeChunks(final List<NormalizeChunk> chunks,
+			final TaskGroup group, final PrintWriter tw, final EGBOutput egb) {
+		if (group != null) {
+			group.waitForComplete();
+		}
+
+		final StringBuilder line = new StringBuilder();
+
+		for (final NormalizeChunk chunk : chunks) {
+			if (chunk.getError() != null) {
+				throw chunk.getError();
+			}
+
+			for (final String str : chunk.getLines()) {
+				tw.println(str);
+			}
+
+			for (double[] output : chunk.getData()) {
+				if (this.series.getTotalDepth() > 1) {
+					output = this.series.process(output);
+				}
+
+				if (output != null) {
+					if (tw != null) {
+						NumberList.toList(getOutputFormat(), line, output);
+						tw.println(line);
+					} else {
+						egb.write(output);
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Write the headers.
 	 * 
@@ -261,4 +588,86 @@ public class AnalystNormalizeCSV extends BasicFile {
 		tw.println(line.toString());
 	}
 
+	/**
+	 * Writes normalized rows to an EGB file, reordering the columns so that
+	 * the input columns come first. Records are buffered and written several
+	 * at a time.
+	 */
+	private static class EGBOutput {
+
+		/**
+		 * The EGB file.
+		 */
+		private final EncogEGBFile egb;
+
+		/**
+		 * The input columns, in the normalized output.
+		 */
+		private final int[] input;
+
+		/**
+		 * The ideal columns, in the normalized output.
+		 */
+		private final int[] ideal;
+
+		/**
+		 * The buffer that records are written to.
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Construct the EGB output.
+		 * 
+		 * @param theEGB
+		 *            The EGB file, already created.
+		 * @param theInput
+		 *            The input columns.
+		 * @param theIdeal
+		 *            The ideal columns.
+		 */
+		public EGBOutput(final EncogEGBFile theEGB, final int[] theInput,
+				final int[] theIdeal) {
+			this.egb = theEGB;
+			this.input = theInput;
+			this.ideal = theIdeal;
+			this.buffer = ByteBuffer.allocate(theEGB.getRecordSize()
+					* AnalystNormalizeCSV.EGB_BUFFER_RECORDS);
+			this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		/**
+		 * Write any buffered records to the file.
+		 */
+		public void flush() {
+			try {
+				this.buffer.flip();
+				while (this.buffer.hasRemaining()) {
+					this.egb.getFc().write(this.buffer);
+				}
+				this.buffer.clear();
+			} catch (final IOException ex) {
+				throw new BufferedDataError(ex);
+			}
+		}
+
+		/**
+		 * Write a normalized row.
+		 * 
+		 * @param output
+		 *            The normalized row.
+		 */
+		public void write(final double[] output) {
+			if (this.buffer.remaining() < this.egb.getRecordSize()) {
+				flush();
+			}
+
+			for (final int column : this.input) {
+				this.buffer.putDouble(output[column]);
+			}
+			for (final int column : this.ideal) {
+				this.buffer.putDouble(output[column]);
+			}
+			this.buffer.putDouble(1.0);
+		}
+	}
 }
@@ -0,0 +1,188 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.analyst.csv.normalize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.encog.app.analyst.EncogAnalyst;
+import org.encog.app.analyst.csv.basic.LoadedRow;
+import org.encog.app.analyst.util.CSVHeaders;
+import org.encog.util.concurrency.EngineTask;
+import org.encog.util.csv.CSVFormat;
+import org.encog.util.csv.NumberList;
+
+/**
+ * A block of consecutive CSV rows that is normalized as a single unit of work.
+ * Chunks are processed on the Encog thread pool and then written, in the
+ * order they were read, by the thread that owns the output file.
+ * 
+ * Each chunk uses its own copies of the input and output formats, so the
+ * synchronized number formatters are never shared between worker threads.
+ */
+public class NormalizeChunk implements EngineTask {
+
+	/**
+	 * The analyst to use.
+	 */
+	private final EncogAnalyst analyst;
+
+	/**
+	 * The headers for the input data.
+	 */
+	private final CSVHeaders headers;
+
+	/**
+	 * The format used to parse the input rows.
+	 */
+	private final CSVFormat inputFormat;
+
+	/**
+	 * The format used to produce output text, or null if only the numeric
+	 * rows are needed.
+	 */
+	private final CSVFormat outputFormat;
+
+	/**
+	 * The number of columns produced for each row.
+	 */
+	private final int outputLength;
+
+	/**
+	 * The rows that were read.
+	 */
+	private final List<LoadedRow> rows = new ArrayList<LoadedRow>();
+
+	/**
+	 * The normalized rows, rows that should be skipped are not included.
+	 */
+	private final List<double[]> data = new ArrayList<double[]>();
+
+	/**
+	 * The formatted lines, only produced if an output format was specified.
+	 */
+	private final List<String> lines = new ArrayList<String>();
+
+	/**
+	 * An error that occurred while processing this chunk.
+	 */
+	private RuntimeException error;
+
+	/**
+	 * Construct a normalization chunk.
+	 * 
+	 * @param theAnalyst
+	 *            The analyst to use.
+	 * @param theHeaders
+	 *            The headers for the input data.
+	 * @param theInputFormat
+	 *            The format of the input data.
+	 * @param theOutputFormat
+	 *            The format to produce text output with, or null if the
+	 *            numeric rows should be kept instead.
+	 * @param theOutputLength
+	 *            The number of columns produced for each row.
+	 */
+	public NormalizeChunk(final EncogAnalyst theAnalyst,
+			final CSVHeaders theHeaders, final CSVFormat theInputFormat,
+			final CSVFormat theOutputFormat, final int theOutputLength) {
+		this.analyst = theAnalyst;
+		this.headers = theHeaders;
+		this.inputFormat = new CSVFormat(theInputFormat.getDecimal(),
+				theInputFormat.getSeparator());
+		if (theOutputFormat == null) {
+			this.outputFormat = null;
+		} else {
+			this.outputFormat = new CSVFormat(theOutputFormat.getDecimal(),
+					theOutputFormat.getSeparator());
+		}
+		this.outputLength = theOutputLength;
+	}
+
+	/**
+	 * Add a row to this chunk.
+	 * 
+	 * @param row
+	 *            The row to add.
+	 */
+	public final void add(final LoadedRow row) {
+		this.rows.add(row);
+	}
+
+	/**
+	 * @return The normalized rows. Rows that were discarded because of
+	 *         missing values are not included.
+	 */
+	public final List<double[]> getData() {
+		return this.data;
+	}
+
+	/**
+	 * @return Any error that occurred while processing, or null.
+	 */
+	public final RuntimeException getError() {
+		return this.error;
+	}
+
+	/**
+	 * @return The formatted lines, if an output format was specified.
+	 */
+	public final List<String> getLines() {
+		return this.lines;
+	}
+
+	/**
+	 * @return The number of rows read into this chunk.
+	 */
+	public final int size() {
+		return this.rows.size();
+	}
+
+	/**
+	 * Normalize the rows in this chunk.
+	 */
+	public final void run() {
+		try {
+			final StringBuilder line = new StringBuilder();
+			for (final LoadedRow row : this.rows) {
+				final double[] output = AnalystNormalizeCSV.extractFields(
+						this.analyst, this.headers, this.inputFormat,
+						row.getData(), this.outputLength, false);
+
+				if (output != null) {
+					if (this.outputFormat != null) {
+						NumberList.toList(this.outputFormat, line, output);
+						this.lines.add(line.toString());
+					} else {
+						this.data.add(output);
+					}
+				}
+			}
+		} catch (final RuntimeException ex) {
+			this.error = ex;
+		} finally {
+			this.rows.clear();
+		}
+	}
+}
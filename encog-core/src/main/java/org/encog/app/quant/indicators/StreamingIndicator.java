@@ -0,0 +1,77 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant.indicators;
+
+/**
+ * An indicator that is updated one bar at a time, from a live feed, rather
+ * than calculated over a whole file. Streaming indicators keep only the
+ * window of bars they need, so their memory use does not grow with the feed,
+ * and each update takes constant, or amortized constant, time.
+ * 
+ * Predictive indicators look ahead of the bar they describe. Their value
+ * becomes available only once enough later bars have arrived, the delay
+ * reports how many bars behind the most recent bar the value is.
+ */
+public interface StreamingIndicator {
+
+	/**
+	 * @return The number of bars behind the most recent bar that the value
+	 *         describes, zero for indicators that only look back.
+	 */
+	int getDelay();
+
+	/**
+	 * @return The name of this indicator.
+	 */
+	String getName();
+
+	/**
+	 * @return The number of periods this indicator is for.
+	 */
+	int getPeriods();
+
+	/**
+	 * @return The current value of this indicator, only valid once the
+	 *         indicator is ready.
+	 */
+	double getValue();
+
+	/**
+	 * @return True if enough bars have been seen to produce a value.
+	 */
+	boolean isReady();
+
+	/**
+	 * Clear all bars seen so far.
+	 */
+	void reset();
+
+	/**
+	 * Update the indicator with the next bar.
+	 * 
+	 * @param close
+	 *            The closing price of the bar.
+	 */
+	void update(double close);
+}
@@ -0,0 +1,313 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant.indicators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.encog.app.quant.QuantError;
+import org.encog.app.quant.util.RingBuffer;
+import org.encog.ml.data.MLData;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.basic.BasicMLDataPair;
+
+/**
+ * Process indicators from a live feed, one bar at a time. This is the
+ * streaming counterpart of ProcessIndicators, rather than loading a whole
+ * file, only the most recent bars are kept, so memory use is constant.
+ * 
+ * Indicators that only look back are used as inputs. The most recent values
+ * of each input form a temporal window, which can be presented to a neural
+ * network as each bar arrives. Predictive indicators are used as ideal
+ * values. Their values arrive late, so the input windows are remembered
+ * until the matching ideal values are known, at which point a training pair
+ * can be produced.
+ */
+public class StreamingIndicators {
+
+	/**
+	 * The number of bars in each input window.
+	 */
+	private final int inputWindow;
+
+	/**
+	 * True if the close itself is an input.
+	 */
+	private final boolean includeClose;
+
+	/**
+	 * The indicators used as inputs.
+	 */
+	private final List<StreamingIndicator> inputs = 
+		new ArrayList<StreamingIndicator>();
+
+	/**
+	 * The predictive indicators, used as ideal values.
+	 */
+	private final List<StreamingIndicator> predictions = 
+		new ArrayList<StreamingIndicator>();
+
+	/**
+	 * The window of recent values for each input column.
+	 */
+	private RingBuffer[] windows;
+
+	/**
+	 * The input vectors, kept until their ideal values are known.
+	 */
+	private double[][] history;
+
+	/**
+	 * The position the next input vector will be written to.
+	 */
+	private int historyHead;
+
+	/**
+	 * The number of input vectors held.
+	 */
+	private int historyCount;
+
+	/**
+	 * Construct the streaming indicators.
+	 * 
+	 * @param theInputWindow
+	 *            The number of bars in each input window.
+	 * @param theIncludeClose
+	 *            True if the close itself should be an input.
+	 */
+	public StreamingIndicators(final int theInputWindow,
+			final boolean theIncludeClose) {
+		if (theInputWindow < 1) {
+			throw new QuantError("Input window must be at least 1.");
+		}
+		this.inputWindow = theInputWindow;
+		this.includeClose = theIncludeClose;
+	}
+
+	/**
+	 * Add an indicator. Indicators with a delay are used as ideal values,
+	 * all others are used as inputs. All predictive indicators must have the
+	 * same delay.
+	 * 
+	 * @param indicator
+	 *            The indicator to add.
+	 */
+	public final void addIndicator(final StreamingIndicator indicator) {
+		if (this.windows != null) {
+			throw new QuantError(
+					"Can't add indicators once bars have been processed.");
+		}
+
+		if (indicator.getDelay() > 0) {
+			if (this.predictions.size() > 0
+					&& this.predictions.get(0).getDelay() != indicator
+							.getDelay()) {
+				throw new QuantError(
+						"All predictive indicators must have the same delay.");
+			}
+			this.predictions.add(indicator);
+		} else {
+			this.inputs.add(indicator);
+		}
+	}
+
+	/**
+	 * Copy the current input windows to an array.
+	 * 
+	 * @param target
+	 *            The array to copy to.
+	 */
+	private void copyInput(final double[] target) {
+		int offset = 0;
+		for (final RingBuffer window : this.windows) {
+			window.toArray(target, offset);
+			offset += this.inputWindow;
+		}
+	}
+
+	/**
+	 * @return The delay of the predictive indicators.
+	 */
+	private int getDelay() {
+		if (this.predictions.size() == 0) {
+			return 0;
+		}
+		return this.predictions.get(0).getDelay();
+	}
+
+	/**
+	 * @return The size of the ideal data.
+	 */
+	public final int getIdealSize() {
+		return this.predictions.size();
+	}
+
+	/**
+	 * @return The current input window, oldest bar first for each column.
+	 */
+	public final MLData getInput() {
+		if (!isInputReady()) {
+			throw new QuantError("Not enough bars for an input window.");
+		}
+		final double[] result = new double[getInputSize()];
+		copyInput(result);
+		return new BasicMLData(result);
+	}
+
+	/**
+	 * @return The size of the input data.
+	 */
+	public final int getInputSize() {
+		final int columns = this.inputs.size() + (this.includeClose ? 1 : 0);
+		return columns * this.inputWindow;
+	}
+
+	/**
+	 * @return The number of bars in each input window.
+	 */
+	public final int getInputWindow() {
+		return this.inputWindow;
+	}
+
+	/**
+	 * @return The training pair for the bar whose ideal values just became
+	 *         known, the input is that bar's window.
+	 */
+	public final MLDataPair getPair() {
+		if (!isPairReady()) {
+			throw new QuantError("No training pair is ready.");
+		}
+
+		final int delay = getDelay();
+		int index = this.historyHead - 1 - delay;
+		if (index < 0) {
+			index += this.history.length;
+		}
+
+		final double[] ideal = new double[this.predictions.size()];
+		for (int i = 0; i < ideal.length; i++) {
+			ideal[i] = this.predictions.get(i).getValue();
+		}
+
+		return new BasicMLDataPair(new BasicMLData(this.history[index]
+				.clone()), new BasicMLData(ideal));
+	}
+
+	/**
+	 * @return True if a full input window is available.
+	 */
+	public final boolean isInputReady() {
+		return this.windows != null && this.windows.length > 0
+				&& this.windows[0].isFull();
+	}
+
+	/**
+	 * @return True if the ideal values for an earlier input window just
+	 *         became known.
+	 */
+	public final boolean isPairReady() {
+		if (this.predictions.size() == 0 || !isInputReady()) {
+			return false;
+		}
+
+		for (final StreamingIndicator indicator : this.predictions) {
+			if (!indicator.isReady()) {
+				return false;
+			}
+		}
+
+		return this.historyCount > getDelay();
+	}
+
+	/**
+	 * Clear all bars seen so far.
+	 */
+	public final void reset() {
+		for (final StreamingIndicator indicator : this.inputs) {
+			indicator.reset();
+		}
+		for (final StreamingIndicator indicator : this.predictions) {
+			indicator.reset();
+		}
+		if (this.windows != null) {
+			for (final RingBuffer window : this.windows) {
+				window.clear();
+			}
+		}
+		this.historyHead = 0;
+		this.historyCount = 0;
+	}
+
+	/**
+	 * Update all of the indicators with the next bar.
+	 * 
+	 * @param close
+	 *            The closing price of the bar.
+	 */
+	public final void update(final double close) {
+		if (this.windows == null) {
+			final int columns = getInputSize() / this.inputWindow;
+			if (columns == 0) {
+				throw new QuantError("There are no input columns.");
+			}
+			this.windows = new RingBuffer[columns];
+			for (int i = 0; i < columns; i++) {
+				this.windows[i] = new RingBuffer(this.inputWindow);
+			}
+			this.history = new double[getDelay() + 1][getInputSize()];
+		}
+
+		for (final StreamingIndicator indicator : this.inputs) {
+			indicator.update(close);
+		}
+		for (final StreamingIndicator indicator : this.predictions) {
+			indicator.update(close);
+		}
+
+		// inputs only enter the window once every input has a value
+		for (final StreamingIndicator indicator : this.inputs) {
+			if (!indicator.isReady()) {
+				return;
+			}
+		}
+
+		int column = 0;
+		if (this.includeClose) {
+			this.windows[column++].add(close);
+		}
+		for (final StreamingIndicator indicator : this.inputs) {
+			this.windows[column++].add(indicator.getValue());
+		}
+
+		// remember the window until its ideal values are known
+		if (isInputReady()) {
+			copyInput(this.history[this.historyHead]);
+			this.historyHead = (this.historyHead + 1) % this.history.length;
+			if (this.historyCount < this.history.length) {
+				this.historyCount++;
+			}
+		}
+	}
+}
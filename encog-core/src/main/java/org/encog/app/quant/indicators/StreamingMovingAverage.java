@@ -0,0 +1,129 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant.indicators;
+
+import org.encog.app.quant.util.RingBuffer;
+
+/**
+ * A simple moving average, updated one bar at a time. The running total is
+ * maintained in the same order as MovingAverage, so the streamed values
+ * match the values calculated over a whole file.
+ */
+public class StreamingMovingAverage implements StreamingIndicator {
+
+	/**
+	 * The number of periods in this indicator.
+	 */
+	private final int periods;
+
+	/**
+	 * The closes in the current window.
+	 */
+	private final RingBuffer window;
+
+	/**
+	 * The running total of the window.
+	 */
+	private double periodTotal;
+
+	/**
+	 * The current value.
+	 */
+	private double value;
+
+	/**
+	 * Construct the moving average.
+	 * 
+	 * @param thePeriods
+	 *            The number of periods in this indicator.
+	 */
+	public StreamingMovingAverage(final int thePeriods) {
+		this.periods = thePeriods;
+		this.window = new RingBuffer(thePeriods);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getDelay() {
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getName() {
+		return MovingAverage.NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getPeriods() {
+		return this.periods;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getValue() {
+		return this.value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean isReady() {
+		return this.window.isFull();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void reset() {
+		this.window.clear();
+		this.periodTotal = 0;
+		this.value = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void update(final double close) {
+		this.window.add(close);
+		this.periodTotal += close;
+		if (this.window.isFull()) {
+			this.value = this.periodTotal / this.periods;
+			// the oldest close leaves the window with the next bar
+			this.periodTotal -= this.window.getOldest();
+		}
+	}
+}
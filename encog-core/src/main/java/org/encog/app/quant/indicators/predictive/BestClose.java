@@ -28,9 +28,12 @@ import java.util.Map;
 import org.encog.app.analyst.csv.basic.BaseCachedColumn;
 import org.encog.app.analyst.csv.basic.FileData;
 import org.encog.app.quant.indicators.Indicator;
+import org.encog.app.quant.util.RollingExtreme;
 
 /**
- * Get the best close.
+ * Get the best close. The closes that follow each bar are tracked with a
+ * rolling maximum, so the calculation is linear in the length of the data,
+ * rather than in the length times the number of periods.
  */
 public class BestClose extends Indicator {
 
@@ -72,13 +75,14 @@ public class BestClose extends Indicator {
 		final double[] close = data.get(FileData.CLOSE).getData();
 		final double[] output = getData();
 
-		final int stop = length - this.periods;
-		for (int i = 0; i < stop; i++) {
-			double bestClose = Double.MIN_VALUE;
-			for (int j = 1; j <= this.periods; j++) {
-				bestClose = Math.max(close[i + j], bestClose);
+		final RollingExtreme best = new RollingExtreme(this.periods, true);
+		for (int i = 1; i < length; i++) {
+			best.add(close[i]);
+			// the window now holds the closes that follow bar i-periods
+			if (i >= this.periods) {
+				output[i - this.periods] = Math.max(best.get(),
+						Double.MIN_VALUE);
 			}
-			output[i] = bestClose;
 		}
 
 		for (int i = length - this.periods; i < length; i++) {
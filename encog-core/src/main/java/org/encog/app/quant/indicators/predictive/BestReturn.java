@@ -28,12 +28,40 @@ import java.util.Map;
 import org.encog.app.analyst.csv.basic.BaseCachedColumn;
 import org.encog.app.analyst.csv.basic.FileData;
 import org.encog.app.quant.indicators.Indicator;
+import org.encog.app.quant.util.RollingExtreme;
 
 /**
- * Get the best return.
+ * Get the best return. The closes that follow each bar are tracked with a
+ * rolling maximum and minimum, so the calculation is linear in the length of
+ * the data, rather than in the length times the number of periods.
  */
 public class BestReturn extends Indicator {
 
+	/**
+	 * Determine the best return from a base close, given the highest and
+	 * lowest of the closes that follow it. The return is monotonic in the
+	 * later close, so this matches checking every later close in turn. The
+	 * base close must not be zero.
+	 * 
+	 * @param baseClose
+	 *            The base close.
+	 * @param highest
+	 *            The highest later close.
+	 * @param lowest
+	 *            The lowest later close.
+	 * @return The best return.
+	 */
+	public static double bestReturn(final double baseClose,
+			final double highest, final double lowest) {
+		double rtn;
+		if (baseClose > 0) {
+			rtn = (highest - baseClose) / baseClose;
+		} else {
+			rtn = (lowest - baseClose) / baseClose;
+		}
+		return Math.max(rtn, Double.MIN_VALUE);
+	}
+
 	/**
 	 * The name of this indicator.
 	 */
@@ -72,16 +100,31 @@ public class BestReturn extends Indicator {
 		final double[] close = data.get(FileData.CLOSE).getData();
 		final double[] output = getData();
 
-		final int stop = length - this.periods;
-		for (int i = 0; i < stop; i++) {
-			double bestReturn = Double.MIN_VALUE;
+		final RollingExtreme highest = new RollingExtreme(this.periods, true);
+		final RollingExtreme lowest = new RollingExtreme(this.periods, false);
+		for (int k = 1; k < length; k++) {
+			highest.add(close[k]);
+			lowest.add(close[k]);
+
+			// the windows now hold the closes that follow bar i
+			final int i = k - this.periods;
+			if (i < 0) {
+				continue;
+			}
+
 			final double baseClose = close[i];
-			for (int j = 1; j <= this.periods; j++) {
-				final double newClose = close[i + j];
-				final double rtn = (newClose - baseClose) / baseClose;
-				bestReturn = Math.max(rtn, bestReturn);
+			if (baseClose == 0) {
+				double bestReturn = Double.MIN_VALUE;
+				for (int j = 1; j <= this.periods; j++) {
+					final double newClose = close[i + j];
+					final double rtn = (newClose - baseClose) / baseClose;
+					bestReturn = Math.max(rtn, bestReturn);
+				}
+				output[i] = bestReturn;
+			} else {
+				output[i] = BestReturn.bestReturn(baseClose, highest.get(),
+						lowest.get());
 			}
-			output[i] = bestReturn;
 		}
 
 		for (int i = length - this.periods; i < length; i++) {
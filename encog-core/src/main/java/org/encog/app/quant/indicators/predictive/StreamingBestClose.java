@@ -0,0 +1,128 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant.indicators.predictive;
+
+import org.encog.app.quant.indicators.StreamingIndicator;
+import org.encog.app.quant.util.RollingExtreme;
+
+/**
+ * Get the best close, one bar at a time. The value describes the bar that
+ * arrived the specified number of periods ago, and is the best close of the
+ * bars that followed it.
+ */
+public class StreamingBestClose implements StreamingIndicator {
+
+	/**
+	 * The number of periods this indicator is for.
+	 */
+	private final int periods;
+
+	/**
+	 * The best close of the most recent bars.
+	 */
+	private final RollingExtreme best;
+
+	/**
+	 * The number of bars seen.
+	 */
+	private long bars;
+
+	/**
+	 * The current value.
+	 */
+	private double value;
+
+	/**
+	 * Construct the object.
+	 * 
+	 * @param thePeriods
+	 *            The number of periods.
+	 */
+	public StreamingBestClose(final int thePeriods) {
+		this.periods = thePeriods;
+		this.best = new RollingExtreme(thePeriods, true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getDelay() {
+		return this.periods;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getName() {
+		return BestClose.NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getPeriods() {
+		return this.periods;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getValue() {
+		return this.value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean isReady() {
+		return this.bars > this.periods;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void reset() {
+		this.best.clear();
+		this.bars = 0;
+		this.value = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void update(final double close) {
+		this.best.add(close);
+		this.bars++;
+		if (isReady()) {
+			this.value = Math.max(this.best.get(), Double.MIN_VALUE);
+		}
+	}
+}
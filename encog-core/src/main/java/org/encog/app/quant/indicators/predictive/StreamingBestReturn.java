@@ -0,0 +1,152 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant.indicators.predictive;
+
+import org.encog.app.quant.indicators.StreamingIndicator;
+import org.encog.app.quant.util.RingBuffer;
+import org.encog.app.quant.util.RollingExtreme;
+
+/**
+ * Get the best return, one bar at a time. The value describes the bar that
+ * arrived the specified number of periods ago, and is the best return that
+ * could have been made by buying at its close and selling at one of the
+ * closes that followed.
+ */
+public class StreamingBestReturn implements StreamingIndicator {
+
+	/**
+	 * The number of periods this indicator is for.
+	 */
+	private final int periods;
+
+	/**
+	 * The base close, followed by the closes that came after it.
+	 */
+	private final RingBuffer closes;
+
+	/**
+	 * The highest close after the base close.
+	 */
+	private final RollingExtreme highest;
+
+	/**
+	 * The lowest close after the base close.
+	 */
+	private final RollingExtreme lowest;
+
+	/**
+	 * The current value.
+	 */
+	private double value;
+
+	/**
+	 * Construct the object.
+	 * 
+	 * @param thePeriods
+	 *            The number of periods.
+	 */
+	public StreamingBestReturn(final int thePeriods) {
+		this.periods = thePeriods;
+		this.closes = new RingBuffer(thePeriods + 1);
+		this.highest = new RollingExtreme(thePeriods, true);
+		this.lowest = new RollingExtreme(thePeriods, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getDelay() {
+		return this.periods;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getName() {
+		return BestReturn.NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getPeriods() {
+		return this.periods;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getValue() {
+		return this.value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean isReady() {
+		return this.closes.isFull();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void reset() {
+		this.closes.clear();
+		this.highest.clear();
+		this.lowest.clear();
+		this.value = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void update(final double close) {
+		this.closes.add(close);
+		this.highest.add(close);
+		this.lowest.add(close);
+
+		if (isReady()) {
+			final double baseClose = this.closes.getOldest();
+			if (baseClose == 0) {
+				double bestReturn = Double.MIN_VALUE;
+				for (int i = 0; i < this.periods; i++) {
+					final double rtn = (this.closes.get(i) - baseClose)
+							/ baseClose;
+					bestReturn = Math.max(rtn, bestReturn);
+				}
+				this.value = bestReturn;
+			} else {
+				this.value = BestReturn.bestReturn(baseClose, this.highest
+						.get(), this.lowest.get());
+			}
+		}
+	}
+}
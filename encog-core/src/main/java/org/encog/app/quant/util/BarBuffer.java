@@ -26,23 +26,58 @@ package org.encog.app.quant.util;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.encog.app.quant.QuantError;
 import org.encog.util.EngineArray;
 
 /**
- * A buffer of bar segments.
+ * A buffer of bar segments. The bars are held in a ring, and running totals
+ * are kept for the averages, so adding a bar and reading an average take
+ * constant time regardless of the number of periods. The totals are rebuilt
+ * from the bars once every period, which keeps rounding error from
+ * accumulating over a long feed.
  */
 public class BarBuffer {
 
 	/**
-	 * The bar data loaded.
+	 * The bar data loaded, stored circularly.
 	 */
-	private final List<double[]> data = new ArrayList<double[]>();
+	private final double[][] data;
 
 	/**
 	 * The number of periods.
 	 */
 	private final int periods;
 
+	/**
+	 * The position the next bar will be written to.
+	 */
+	private int head;
+
+	/**
+	 * The number of bars held.
+	 */
+	private int count;
+
+	/**
+	 * The running total of each field.
+	 */
+	private double[] totals;
+
+	/**
+	 * The running total of the gains of each field.
+	 */
+	private double[] gains;
+
+	/**
+	 * The running total of the losses of each field.
+	 */
+	private double[] losses;
+
+	/**
+	 * The number of changes since the totals were rebuilt.
+	 */
+	private int changes;
+
 	/**
 	 * Construct the object.
 	 * 
@@ -50,7 +85,11 @@ public class BarBuffer {
 	 *            The number of periods.
 	 */
 	public BarBuffer(final int thePeriods) {
+		if (thePeriods < 1) {
+			throw new QuantError("Periods must be at least 1.");
+		}
 		this.periods = thePeriods;
+		this.data = new double[thePeriods][];
 	}
 
 	/**
@@ -72,10 +111,31 @@ public class BarBuffer {
 	 *            The bar data.
 	 */
 	public final void add(final double[] d) {
-		this.data.add(0, EngineArray.arrayCopy(d));
-		if (this.data.size() > this.periods) {
-			this.data.remove(this.data.size() - 1);
+		if (this.totals == null) {
+			this.totals = new double[d.length];
+			this.gains = new double[d.length];
+			this.losses = new double[d.length];
+		} else if (d.length != this.totals.length) {
+			throw new QuantError("Bar has " + d.length
+					+ " fields, expected " + this.totals.length);
+		}
+
+		if (this.count == this.periods) {
+			removeOldest();
+		}
+
+		final double[] bar = EngineArray.arrayCopy(d);
+		if (this.count > 0) {
+			change(get(0), bar, 1);
 		}
+		for (int i = 0; i < bar.length; i++) {
+			this.totals[i] += bar[i];
+		}
+
+		this.data[this.head] = bar;
+		this.head = (this.head + 1) % this.periods;
+		this.count++;
+		changed();
 	}
 
 	/**
@@ -86,13 +146,10 @@ public class BarBuffer {
 	 * @return The average.
 	 */
 	public final double average(final int idx) {
-		double total = 0;
-		for (int i = 0; i < this.data.size(); i++) {
-			final double[] d = this.data.get(i);
-			total += d[idx];
+		if (this.count == 0) {
+			return Double.NaN;
 		}
-
-		return total / this.data.size();
+		return this.totals[idx] / this.count;
 	}
 
 	/**
@@ -103,23 +160,10 @@ public class BarBuffer {
 	 * @return The average gain.
 	 */
 	public final double averageGain(final int idx) {
-		double total = 0;
-		int count = 0;
-		for (int i = 0; i < this.data.size() - 1; i++) {
-			final double[] today = this.data.get(i);
-			final double[] yesterday = this.data.get(i + 1);
-			final double diff = today[idx] - yesterday[idx];
-			if (diff > 0) {
-				total += diff;
-			}
-			count++;
-		}
-
-		if (count == 0) {
+		if (this.count < 2) {
 			return 0;
-		} else {
-			return total / count;
 		}
+		return this.gains[idx] / (this.count - 1);
 	}
 
 	/**
@@ -130,30 +174,86 @@ public class BarBuffer {
 	 * @return The average loss.
 	 */
 	public final double averageLoss(final int idx) {
-		double total = 0;
-		int count = 0;
-		for (int i = 0; i < this.data.size() - 1; i++) {
-			final double[] today = this.data.get(i);
-			final double[] yesterday = this.data.get(i + 1);
-			final double diff = today[idx] - yesterday[idx];
-			if (diff < 0) {
-				total += Math.abs(diff);
+		if (this.count < 2) {
+			return 0;
+		}
+		return this.losses[idx] / (this.count - 1);
+	}
+
+	/**
+	 * Add, or remove, the change between two consecutive bars from the gain
+	 * and loss totals.
+	 * 
+	 * @param yesterday
+	 *            The older bar.
+	 * @param today
+	 *            The newer bar.
+	 * @param sign
+	 *            One to add the change, negative one to remove it.
+	 */
+	private void change(final double[] yesterday, final double[] today,
+			final int sign) {
+		for (int i = 0; i < today.length; i++) {
+			final double diff = today[i] - yesterday[i];
+			if (diff > 0) {
+				this.gains[i] += sign * diff;
+			} else if (diff < 0) {
+				this.losses[i] -= sign * diff;
 			}
-			count++;
 		}
+	}
 
-		if (count == 0) {
-			return 0;
-		} else {
-			return total / count;
+	/**
+	 * Note that the totals changed, and rebuild them once every period.
+	 */
+	private void changed() {
+		this.changes++;
+		if (this.changes < this.periods) {
+			return;
+		}
+
+		this.changes = 0;
+		EngineArray.fill(this.totals, 0);
+		EngineArray.fill(this.gains, 0);
+		EngineArray.fill(this.losses, 0);
+		for (int i = this.count - 1; i >= 0; i--) {
+			final double[] bar = get(i);
+			for (int j = 0; j < bar.length; j++) {
+				this.totals[j] += bar[j];
+			}
+			if (i > 0) {
+				change(bar, get(i - 1), 1);
+			}
+		}
+	}
+
+	/**
+	 * Get a bar by its age.
+	 * 
+	 * @param ago
+	 *            How many bars ago, zero is the most recent bar.
+	 * @return The bar.
+	 */
+	public final double[] get(final int ago) {
+		if (ago < 0 || ago >= this.count) {
+			throw new QuantError("Bar index out of range: " + ago);
 		}
+		int index = this.head - 1 - ago;
+		if (index < 0) {
+			index += this.periods;
+		}
+		return this.data[index];
 	}
 
 	/**
-	 * @return The data.
+	 * @return The data, the most recent bar first.
 	 */
 	public final List<double[]> getData() {
-		return this.data;
+		final List<double[]> result = new ArrayList<double[]>(this.count);
+		for (int i = 0; i < this.count; i++) {
+			result.add(get(i));
+		}
+		return result;
 	}
 
 	/**
@@ -161,7 +261,7 @@ public class BarBuffer {
 	 * @return True if the buffer is full.
 	 */
 	public final boolean getFull() {
-		return this.data.size() >= this.periods;
+		return this.count >= this.periods;
 	}
 
 	/**
@@ -174,8 +274,8 @@ public class BarBuffer {
 	public final double max(final int idx) {
 		double result = Double.MIN_VALUE;
 
-		for (final double[] d : this.data) {
-			result = Math.max(d[idx], result);
+		for (int i = 0; i < this.count; i++) {
+			result = Math.max(get(i)[idx], result);
 		}
 		return result;
 	}
@@ -190,8 +290,8 @@ public class BarBuffer {
 	public final double min(final int idx) {
 		double result = Double.MAX_VALUE;
 
-		for (final double[] d : this.data) {
-			result = Math.min(d[idx], result);
+		for (int i = 0; i < this.count; i++) {
+			result = Math.min(get(i)[idx], result);
 		}
 		return result;
 	}
@@ -202,14 +302,43 @@ public class BarBuffer {
 	 * @return The oldest bar in the buffer.
 	 */
 	public final double[] pop() {
-		if (this.data.size() == 0) {
+		if (this.count == 0) {
 			return null;
 		}
 
-		final int idx = this.data.size() - 1;
-		final double[] result = this.data.get(idx);
-		this.data.remove(idx);
+		final double[] result = removeOldest();
+		changed();
 		return result;
 	}
 
+	/**
+	 * Remove the oldest bar, and remove it from the totals.
+	 * 
+	 * @return The oldest bar.
+	 */
+	private double[] removeOldest() {
+		final double[] result = get(this.count - 1);
+		if (this.count > 1) {
+			change(result, get(this.count - 2), -1);
+		}
+		for (int i = 0; i < result.length; i++) {
+			this.totals[i] -= result[i];
+		}
+
+		int index = this.head - this.count;
+		if (index < 0) {
+			index += this.periods;
+		}
+		this.data[index] = null;
+		this.count--;
+		return result;
+	}
+
+	/**
+	 * @return The number of bars in the buffer.
+	 */
+	public final int size() {
+		return this.count;
+	}
+
 }
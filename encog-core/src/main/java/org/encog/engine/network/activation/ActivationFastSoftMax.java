@@ -0,0 +1,131 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.engine.network.activation;
+
+import org.encog.mathutil.FastMath;
+
+/**
+ * A high throughput version of ActivationSoftMax. The exp function is
+ * replaced with the approximation in FastMath, which has a relative error of
+ * less than 1E-8, so each output differs from ActivationSoftMax by a relative
+ * error of less than 2E-8. The largest input is subtracted before the
+ * exponent is taken, so large inputs do not overflow.
+ * 
+ * Use FastActivation to switch a network between the exact and the fast
+ * activation functions.
+ */
+public class ActivationFastSoftMax implements ActivationFunction {
+
+	/**
+	 * The serial id.
+	 */
+	private static final long serialVersionUID = 6404914353745611398L;
+
+	/**
+	 * The parameters.
+	 */
+	private final double[] params;
+
+	/**
+	 * Construct the fast soft-max activation function.
+	 */
+	public ActivationFastSoftMax() {
+		this.params = new double[0];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void activationFunction(final double[] x, final int start,
+			final int size) {
+		final int end = start + size;
+
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = start; i < end; i++) {
+			max = Math.max(max, x[i]);
+		}
+
+		double sum = 0;
+		for (int i = start; i < end; i++) {
+			x[i] = FastMath.exp(x[i] - max);
+			sum += x[i];
+		}
+
+		final double scale = 1.0 / sum;
+		for (int i = start; i < end; i++) {
+			x[i] *= scale;
+		}
+	}
+
+	/**
+	 * @return The object cloned;
+	 */
+	@Override
+	public final ActivationFunction clone() {
+		return new ActivationFastSoftMax();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double derivativeFunction(final double b, final double a) {
+		return 1.0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String[] getParamNames() {
+		final String[] result = {};
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double[] getParams() {
+		return this.params;
+	}
+
+	/**
+	 * @return Return true, softmax has a derivative.
+	 */
+	@Override
+	public final boolean hasDerivative() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void setParam(final int index, final double value) {
+		this.params[index] = value;
+	}
+
+}
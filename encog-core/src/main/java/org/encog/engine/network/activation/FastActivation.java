@@ -0,0 +1,116 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.engine.network.activation;
+
+/**
+ * Maps the exact activation functions to their high throughput versions, and
+ * back. The fast versions use the approximations in FastMath, see that class
+ * for the error bounds. They are opt-in, a network only uses them once
+ * FlatNetwork.useFastActivation has been called.
+ * 
+ * Exact function      Fast function
+ * ActivationSigmoid   ActivationFastSigmoid
+ * ActivationTANH      ActivationFastTANH
+ * ActivationSoftMax   ActivationFastSoftMax
+ * ActivationGaussian  ActivationFastGaussian
+ * 
+ * All other activation functions are left as they are.
+ */
+public final class FastActivation {
+
+	/**
+	 * Convert an activation function to its fast version.
+	 * 
+	 * @param af
+	 *            The activation function.
+	 * @return The fast version, or the same function if there is no fast
+	 *         version.
+	 */
+	public static ActivationFunction toFast(final ActivationFunction af) {
+		if (af instanceof ActivationSigmoid) {
+			return new ActivationFastSigmoid();
+		} else if (af instanceof ActivationTANH) {
+			return new ActivationFastTANH();
+		} else if (af instanceof ActivationSoftMax) {
+			return new ActivationFastSoftMax();
+		} else if (af instanceof ActivationGaussian) {
+			final ActivationGaussian gaussian = (ActivationGaussian) af;
+			final double[] p = gaussian.getParams();
+			return new ActivationFastGaussian(
+					p[ActivationGaussian.PARAM_GAUSSIAN_CENTER],
+					p[ActivationGaussian.PARAM_GAUSSIAN_PEAK],
+					p[ActivationGaussian.PARAM_GAUSSIAN_WIDTH]);
+		} else {
+			return af;
+		}
+	}
+
+	/**
+	 * Convert an activation function to its exact version.
+	 * 
+	 * @param af
+	 *            The activation function.
+	 * @return The exact version, or the same function if it is not a fast
+	 *         activation function.
+	 */
+	public static ActivationFunction toExact(final ActivationFunction af) {
+		if (af instanceof ActivationFastSigmoid) {
+			return new ActivationSigmoid();
+		} else if (af instanceof ActivationFastTANH) {
+			return new ActivationTANH();
+		} else if (af instanceof ActivationFastSoftMax) {
+			return new ActivationSoftMax();
+		} else if (af instanceof ActivationFastGaussian) {
+			final ActivationFastGaussian gaussian 
+				= (ActivationFastGaussian) af;
+			return new ActivationGaussian(gaussian.getCenter(), gaussian
+					.getPeak(), gaussian.getWidth());
+		} else {
+			return af;
+		}
+	}
+
+	/**
+	 * Convert an array of activation functions in place.
+	 * 
+	 * @param functions
+	 *            The activation functions.
+	 * @param fast
+	 *            True to convert to the fast versions, false to convert to
+	 *            the exact versions.
+	 */
+	public static void convert(final ActivationFunction[] functions,
+			final boolean fast) {
+		for (int i = 0; i < functions.length; i++) {
+			functions[i] = fast ? toFast(functions[i]) : toExact(functions[i]);
+		}
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private FastActivation() {
+
+	}
+}
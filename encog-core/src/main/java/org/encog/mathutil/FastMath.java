@@ -0,0 +1,173 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.mathutil;
+
+/**
+ * Fast approximations of exp and tanh, for use where throughput matters more
+ * than the last few digits of precision, such as activation functions.
+ * 
+ * The exp function reduces its argument to 2^k * e^g, with k an integer and
+ * |g| no larger than ln(2)/2. The power of two is built directly from the
+ * exponent bits, and e^g is evaluated with a degree 7 polynomial. The code is
+ * branch free, apart from clamping the argument, and contains no calls, so
+ * that loops that use it can be inlined and unrolled by the JIT.
+ * 
+ * Error bounds, measured against Math.exp and Math.tanh:
+ * 
+ * exp: relative error less than 1E-8 (EXP_MAX_ERROR) over the whole clamped
+ * range.
+ * 
+ * tanh: absolute error less than 1E-8 (TANH_MAX_ERROR).
+ * 
+ * The sigmoid, 1/(1+exp(-x)), computed with this exp has an absolute error of
+ * less than 1E-8.
+ * 
+ * Like BoundMath, the results never become infinite. Arguments to exp are
+ * clamped to the range EXP_MIN to EXP_MAX.
+ */
+public final class FastMath {
+
+	/**
+	 * The largest relative error of exp.
+	 */
+	public static final double EXP_MAX_ERROR = 1.0E-8;
+
+	/**
+	 * The largest absolute error of tanh.
+	 */
+	public static final double TANH_MAX_ERROR = 1.0E-8;
+
+	/**
+	 * The smallest argument to exp, smaller values are clamped. This keeps
+	 * the result a normal double.
+	 */
+	public static final double EXP_MIN = -708.0;
+
+	/**
+	 * The largest argument to exp, larger values are clamped. This keeps the
+	 * result finite.
+	 */
+	public static final double EXP_MAX = 709.0;
+
+	/**
+	 * Beyond this magnitude tanh is 1.0 (or -1.0) at double precision.
+	 */
+	public static final double TANH_LIMIT = 20.0;
+
+	/**
+	 * log2(e).
+	 */
+	private static final double LOG2E = 1.4426950408889634;
+
+	/**
+	 * ln(2).
+	 */
+	private static final double LN2 = 0.6931471805599453;
+
+	/**
+	 * 1.5 * 2^52. Adding and then subtracting this rounds a double to the
+	 * nearest integer, without a branch or a call.
+	 */
+	private static final double ROUND = 6755399441055744.0;
+
+	/**
+	 * The exponent bias of a double.
+	 */
+	private static final long EXPONENT_BIAS = 1023L;
+
+	/**
+	 * The number of mantissa bits in a double.
+	 */
+	private static final int MANTISSA_BITS = 52;
+
+	/**
+	 * Polynomial coefficient, 1/2!.
+	 */
+	private static final double C2 = 1.0 / 2.0;
+
+	/**
+	 * Polynomial coefficient, 1/3!.
+	 */
+	private static final double C3 = 1.0 / 6.0;
+
+	/**
+	 * Polynomial coefficient, 1/4!.
+	 */
+	private static final double C4 = 1.0 / 24.0;
+
+	/**
+	 * Polynomial coefficient, 1/5!.
+	 */
+	private static final double C5 = 1.0 / 120.0;
+
+	/**
+	 * Polynomial coefficient, 1/6!.
+	 */
+	private static final double C6 = 1.0 / 720.0;
+
+	/**
+	 * Polynomial coefficient, 1/7!.
+	 */
+	private static final double C7 = 1.0 / 5040.0;
+
+	/**
+	 * Calculate an approximation of e raised to the specified power.
+	 * 
+	 * @param a
+	 *            The power.
+	 * @return The result of the function.
+	 */
+	public static double exp(final double a) {
+		final double x = a < FastMath.EXP_MIN ? FastMath.EXP_MIN
+				: (a > FastMath.EXP_MAX ? FastMath.EXP_MAX : a);
+		final double y = x * FastMath.LOG2E;
+		final double k = (y + FastMath.ROUND) - FastMath.ROUND;
+		final double g = (y - k) * FastMath.LN2;
+		final double p = 1.0 + g * (1.0 + g * (FastMath.C2 + g 
+				* (FastMath.C3 + g * (FastMath.C4 + g * (FastMath.C5 + g
+				* (FastMath.C6 + g * FastMath.C7))))));
+		return p * Double.longBitsToDouble(((long) k + FastMath.EXPONENT_BIAS)
+				<< FastMath.MANTISSA_BITS);
+	}
+
+	/**
+	 * Calculate an approximation of the hyperbolic tangent.
+	 * 
+	 * @param a
+	 *            The value passed to the function.
+	 * @return The result of the function.
+	 */
+	public static double tanh(final double a) {
+		final double x = a < -FastMath.TANH_LIMIT ? -FastMath.TANH_LIMIT
+				: (a > FastMath.TANH_LIMIT ? FastMath.TANH_LIMIT : a);
+		return 1.0 - 2.0 / (FastMath.exp(2.0 * x) + 1.0);
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private FastMath() {
+
+	}
+}
@@ -30,6 +30,17 @@ package org.encog.mathutil.matrices;
  */
 public final class MatrixMath {
 
+	/**
+	 * The number of rows of the second matrix used at once by multiply. A
+	 * block of these rows, MULTIPLY_BLOCK * 4 columns wide, is 128K.
+	 */
+	public static final int MULTIPLY_BLOCK = 64;
+
+	/**
+	 * The size of the square tiles copied by transpose.
+	 */
+	public static final int TRANSPOSE_BLOCK = 32;
+
 	/**
 	 * Add two matrixes.
 	 * 
@@ -282,23 +293,38 @@ public final class MatrixMath {
 
 		final double[][] aData = a.getData();
 		final double[][] bData = b.getData();
+		final int inner = a.getCols();
+		final int cols = b.getCols();
 
-		final Matrix x = new Matrix(a.getRows(), b.getCols());
+		final Matrix x = new Matrix(a.getRows(), cols);
 		final double[][] c = x.getData();
-		final double[] bcolj = new double[a.getCols()];
-		for (int j = 0; j < b.getCols(); j++) {
-			for (int k = 0; k < a.getCols(); k++) {
-				bcolj[k] = bData[k][j];
-			}
-			for (int i = 0; i < a.getRows(); i++) {
-				final double[] arowi = aData[i];
-				double s = 0;
-				for (int k = 0; k < a.getCols(); k++) {
-					s += arowi[k] * bcolj[k];
+
+		// Each row of the result is built from whole rows of b, in blocks
+		// small enough to stay in the cache while a block of rows of a is
+		// processed. Each element still sums its products in order of k, so
+		// the result is the same as a plain triple loop.
+		new RowBlockTask(a.getRows()) {
+			@Override
+			protected void processRows(final int low, final int high) {
+				for (int kk = 0; kk < inner; kk += MULTIPLY_BLOCK) {
+					final int kEnd = Math.min(inner, kk + MULTIPLY_BLOCK);
+					for (int jj = 0; jj < cols; jj += MULTIPLY_BLOCK * 4) {
+						final int jEnd = Math.min(cols, jj + MULTIPLY_BLOCK * 4);
+						for (int i = low; i < high; i++) {
+							final double[] arowi = aData[i];
+							final double[] crowi = c[i];
+							for (int k = kk; k < kEnd; k++) {
+								final double aik = arowi[k];
+								final double[] browk = bData[k];
+								for (int j = jj; j < jEnd; j++) {
+									crowi[j] += aik * browk[j];
+								}
+							}
+						}
+					}
 				}
-				c[i][j] = s;
 			}
-		}
+		}.execute((long) inner * cols);
 		return x;
 
 	}
@@ -352,14 +378,24 @@ public final class MatrixMath {
 	 * @return The matrix transposed.
 	 */
 	public static Matrix transpose(final Matrix input) {
-		final double[][] transposeMatrix = new double[input.getCols()][input
-				.getRows()];
+		final int rows = input.getRows();
+		final int cols = input.getCols();
+		final double[][] transposeMatrix = new double[cols][rows];
 
 		final double[][] d = input.getData();
 
-		for (int r = 0; r < input.getRows(); r++) {
-			for (int c = 0; c < input.getCols(); c++) {
-				transposeMatrix[c][r] = d[r][c];
+		// copy in square tiles, so neither matrix is read down a column
+		// further than the cache can hold
+		for (int rr = 0; rr < rows; rr += TRANSPOSE_BLOCK) {
+			final int rEnd = Math.min(rows, rr + TRANSPOSE_BLOCK);
+			for (int cc = 0; cc < cols; cc += TRANSPOSE_BLOCK) {
+				final int cEnd = Math.min(cols, cc + TRANSPOSE_BLOCK);
+				for (int r = rr; r < rEnd; r++) {
+					final double[] row = d[r];
+					for (int c = cc; c < cEnd; c++) {
+						transposeMatrix[c][r] = row[c];
+					}
+				}
 			}
 		}
 
@@ -0,0 +1,171 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.mathutil.matrices;
+
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.EngineTask;
+
+/**
+ * Splits the rows of a matrix operation into blocks, and processes the blocks
+ * on the Encog thread pool. The calling thread processes blocks too, and the
+ * pool threads only take blocks that no one has started. The caller therefore
+ * only ever waits for blocks that are being processed, so a matrix operation
+ * can be used safely from inside a task that is itself on the thread pool.
+ */
+public abstract class RowBlockTask implements EngineTask {
+
+	/**
+	 * The amount of work, in multiply-adds, below which an operation is done
+	 * on the calling thread alone.
+	 */
+	public static final long PARALLEL_WORK = 1L << 18;
+
+	/**
+	 * The number of rows.
+	 */
+	private final int rows;
+
+	/**
+	 * The number of rows in each block.
+	 */
+	private int blockSize;
+
+	/**
+	 * The number of blocks.
+	 */
+	private int blockCount;
+
+	/**
+	 * The next block to be claimed.
+	 */
+	private int nextBlock;
+
+	/**
+	 * The number of blocks finished.
+	 */
+	private int finished;
+
+	/**
+	 * The first error thrown by a block.
+	 */
+	private RuntimeException error;
+
+	/**
+	 * Construct the task.
+	 * 
+	 * @param theRows
+	 *            The number of rows.
+	 */
+	public RowBlockTask(final int theRows) {
+		this.rows = theRows;
+	}
+
+	/**
+	 * Claim the next block.
+	 * 
+	 * @return The block, or -1 if every block has been claimed.
+	 */
+	private synchronized int claim() {
+		if (this.nextBlock >= this.blockCount || this.error != null) {
+			return -1;
+		}
+		return this.nextBlock++;
+	}
+
+	/**
+	 * Process the rows, in parallel if there is enough work.
+	 * 
+	 * @param workPerRow
+	 *            The approximate number of multiply-adds for each row.
+	 */
+	public final void execute(final long workPerRow) {
+		final int threads = Runtime.getRuntime().availableProcessors();
+		if (threads < 2 || this.rows < 2
+				|| workPerRow * this.rows < PARALLEL_WORK) {
+			processRows(0, this.rows);
+			return;
+		}
+
+		// several blocks for each thread, to even out the load
+		this.blockCount = Math.min(this.rows, threads * 4);
+		this.blockSize = (this.rows + this.blockCount - 1) / this.blockCount;
+		this.blockCount = (this.rows + this.blockSize - 1) / this.blockSize;
+
+		for (int i = 1; i < threads && i < this.blockCount; i++) {
+			EngineConcurrency.getInstance().processTask(this);
+		}
+		run();
+
+		synchronized (this) {
+			while (this.finished < this.blockCount) {
+				try {
+					wait();
+				} catch (final InterruptedException e) {
+					throw new MatrixError(e);
+				}
+			}
+		}
+
+		if (this.error != null) {
+			throw this.error;
+		}
+	}
+
+	/**
+	 * Process a range of rows.
+	 * 
+	 * @param low
+	 *            The first row.
+	 * @param high
+	 *            One past the last row.
+	 */
+	protected abstract void processRows(int low, int high);
+
+	/**
+	 * Process blocks until every block has been claimed.
+	 */
+	public final void run() {
+		int block;
+		while ((block = claim()) != -1) {
+			final int low = block * this.blockSize;
+			final int high = Math.min(this.rows, low + this.blockSize);
+			try {
+				processRows(low, high);
+			} catch (final RuntimeException ex) {
+				synchronized (this) {
+					if (this.error == null) {
+						this.error = ex;
+					}
+					// blocks that will now never be claimed count as done
+					this.finished += this.blockCount - this.nextBlock;
+					this.nextBlock = this.blockCount;
+				}
+			}
+			synchronized (this) {
+				this.finished++;
+				notifyAll();
+			}
+		}
+	}
+}
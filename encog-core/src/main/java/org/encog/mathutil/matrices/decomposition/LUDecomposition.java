@@ -25,6 +25,7 @@ package org.encog.mathutil.matrices.decomposition;
 
 import org.encog.mathutil.matrices.Matrix;
 import org.encog.mathutil.matrices.MatrixError;
+import org.encog.mathutil.matrices.RowBlockTask;
 
 /**
  * LU Decomposition.
@@ -45,6 +46,12 @@ import org.encog.mathutil.matrices.MatrixError;
 
 public class LUDecomposition {
 
+	/**
+	 * The number of columns factored at once by the blocked algorithm, which
+	 * is used for matrices with at least twice this many columns.
+	 */
+	public static final int BLOCK_SIZE = 64;
+
 	/**
 	 * Array for internal storage of decomposition.
 	 */
@@ -70,8 +77,6 @@ public class LUDecomposition {
 
 	public LUDecomposition(Matrix A) {
 
-		// Use a "left-looking", dot-product, Crout/Doolittle algorithm.
-
 		LU = A.getArrayCopy();
 		m = A.getRows();
 		n = A.getCols();
@@ -80,6 +85,14 @@ public class LUDecomposition {
 			piv[i] = i;
 		}
 		pivsign = 1;
+
+		if (m >= n && n >= BLOCK_SIZE * 2) {
+			decomposeBlocked();
+			return;
+		}
+
+		// Use a "left-looking", dot-product, Crout/Doolittle algorithm.
+
 		double[] LUrowi;
 		double[] LUcolj = new double[m];
 
@@ -139,6 +152,97 @@ public class LUDecomposition {
 		}
 	}
 
+	/**
+	 * Decompose with a blocked, "right-looking" algorithm. A panel of columns
+	 * is factored with partial pivoting, the rows of U to its right are
+	 * solved, and the rest of the matrix is then updated in one pass, which
+	 * is where most of the time is spent. The update is done in blocks of
+	 * rows, on several threads for large matrices. Rows are exchanged by
+	 * swapping the row arrays.
+	 */
+	private void decomposeBlocked() {
+		for (int j0 = 0; j0 < n; j0 += BLOCK_SIZE) {
+			final int jEnd = Math.min(n, j0 + BLOCK_SIZE);
+
+			// Factor the panel.
+
+			for (int j = j0; j < jEnd; j++) {
+				int p = j;
+				for (int i = j + 1; i < m; i++) {
+					if (Math.abs(LU[i][j]) > Math.abs(LU[p][j])) {
+						p = i;
+					}
+				}
+				if (p != j) {
+					final double[] t = LU[p];
+					LU[p] = LU[j];
+					LU[j] = t;
+					final int k = piv[p];
+					piv[p] = piv[j];
+					piv[j] = k;
+					pivsign = -pivsign;
+				}
+
+				final double[] rowj = LU[j];
+				if (rowj[j] != 0.0) {
+					for (int i = j + 1; i < m; i++) {
+						LU[i][j] /= rowj[j];
+					}
+				}
+				for (int i = j + 1; i < m; i++) {
+					final double[] rowi = LU[i];
+					final double lij = rowi[j];
+					if (lij != 0.0) {
+						for (int k = j + 1; k < jEnd; k++) {
+							rowi[k] -= lij * rowj[k];
+						}
+					}
+				}
+			}
+
+			if (jEnd == n) {
+				break;
+			}
+
+			// Solve for the rows of U to the right of the panel.
+
+			for (int j = j0; j < jEnd; j++) {
+				final double[] rowj = LU[j];
+				for (int i = j + 1; i < jEnd; i++) {
+					final double[] rowi = LU[i];
+					final double lij = rowi[j];
+					if (lij != 0.0) {
+						for (int k = jEnd; k < n; k++) {
+							rowi[k] -= lij * rowj[k];
+						}
+					}
+				}
+			}
+
+			// Update the rest of the matrix.
+
+			final int panelStart = j0;
+			final int panelEnd = jEnd;
+			new RowBlockTask(m - jEnd) {
+				@Override
+				protected void processRows(final int low, final int high) {
+					for (int i = panelEnd + low; i < panelEnd + high; i++) {
+						final double[] rowi = LU[i];
+						for (int j = panelStart; j < panelEnd; j++) {
+							final double lij = rowi[j];
+							if (lij != 0.0) {
+								final double[] rowj = LU[j];
+								for (int k = panelEnd; k < n; k++) {
+									rowi[k] -= lij * rowj[k];
+								}
+							}
+						}
+					}
+				}
+			}.execute((long) (jEnd - j0) * (n - jEnd));
+		}
+	}
+
 	/**
 	 * Is the matrix nonsingular?
 	 * 
@@ -34,6 +34,7 @@ import org.encog.ml.data.MLDataPair;
 import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.MLlDataError;
 import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.data.packed.PackedMLDataSet;
 
 /**
  * This class is not memory based, so very long files can be used, without
@@ -55,6 +56,9 @@ import org.encog.ml.data.basic.BasicMLDataSet;
  * The binary files produced by this class are in the Encog binary training
  * format, and can be used with any Encog platform. Encog binary files are
  * stored using "little endian" numbers.
+ * 
+ * Compact version 2 files, written by EncogEGB2Writer, can also be read. They
+ * are read only; calling beginLoad replaces them with a version 0 file.
  */
 public class BufferedNeuralDataSet implements
 	MLDataSet, Serializable {
@@ -91,6 +95,11 @@ public class BufferedNeuralDataSet implements
 	 */
 	private transient EncogEGBFile egb;
 
+	/**
+	 * The version 2 file, if the file is in that format, otherwise null.
+	 */
+	private transient EncogEGB2File compact;
+
 	/**
 	 * Additional sets that were opened.
 	 */
@@ -112,7 +121,7 @@ public class BufferedNeuralDataSet implements
 		this.file = binaryFile;
 		this.egb = new EncogEGBFile(binaryFile);
 		if (file.exists()) {
-			this.egb.open();
+			open();
 		}
 	}
 
@@ -120,7 +129,12 @@ public class BufferedNeuralDataSet implements
 	 * Open the binary file for reading.
 	 */
 	public final void open() {
-		this.egb.open();
+		if (EncogEGBFile.readVersion(this.file) == EncogEGB2File.VERSION) {
+			this.compact = new EncogEGB2File(this.file);
+			this.compact.open();
+		} else {
+			this.egb.open();
+		}
 	}
 
 	/**
@@ -136,7 +150,9 @@ public class BufferedNeuralDataSet implements
 	 */
 	@Override
 	public final long getRecordCount() {
-		if (this.egb == null) {
+		if (this.compact != null) {
+			return this.compact.getRecordCount();
+		} else if (this.egb == null) {
 			return 0;
 		} else {
 			return this.egb.getNumberOfRecords();
@@ -154,6 +170,11 @@ public class BufferedNeuralDataSet implements
 	 */
 	@Override
 	public final void getRecord(final long index, final MLDataPair pair) {
+		if (this.compact != null) {
+			this.compact.read(index, pair);
+			return;
+		}
+
 		this.egb.setLocation((int) index);
 		double[] inputTarget = pair.getInputArray();
 		this.egb.read(inputTarget);
@@ -248,6 +269,11 @@ public class BufferedNeuralDataSet implements
 			this.owner.removeAdditional(this);
 		}
 
+		if (this.compact != null) {
+			this.compact.close();
+			this.compact = null;
+		}
+
 		this.egb.close();
 		this.egb = null;
 	}
@@ -257,7 +283,9 @@ public class BufferedNeuralDataSet implements
 	 */
 	@Override
 	public final int getIdealSize() {
-		if (this.egb == null) {
+		if (this.compact != null) {
+			return this.compact.getIdealCount();
+		} else if (this.egb == null) {
 			return 0;
 		} else {
 			return this.egb.getIdealCount();
@@ -269,7 +297,9 @@ public class BufferedNeuralDataSet implements
 	 */
 	@Override
 	public final int getInputSize() {
-		if (this.egb == null) {
+		if (this.compact != null) {
+			return this.compact.getInputCount();
+		} else if (this.egb == null) {
 			return 0;
 		} else {
 			return this.egb.getInputCount();
@@ -281,7 +311,9 @@ public class BufferedNeuralDataSet implements
 	 */
 	@Override
 	public final boolean isSupervised() {
-		if (this.egb == null) {
+		if (this.compact != null) {
+			return this.compact.getIdealCount() > 0;
+		} else if (this.egb == null) {
 			return false;
 		} else {
 			return this.egb.getIdealCount() > 0;
@@ -328,6 +360,10 @@ public class BufferedNeuralDataSet implements
 	 *            The ideal size.
 	 */
 	public final void beginLoad(final int inputSize, final int idealSize) {
+		if (this.compact != null) {
+			this.compact.close();
+			this.compact = null;
+		}
 		this.egb.create(inputSize, idealSize);
 		this.loading = true;
 	}
@@ -356,12 +392,26 @@ public class BufferedNeuralDataSet implements
 	}
 
 	/**
-	 * @return The EGB file to use.
+	 * @return The EGB file to use. Version 2 files are read only, and have no
+	 *         EGB file to edit, so a BufferedDataError is thrown for them.
 	 */
 	public final EncogEGBFile getEGB() {
+		if (this.compact != null) {
+			throw new BufferedDataError(
+					"The file is in the compact version 2 format, which is "
+					+ "read only: " + this.file);
+		}
 		return this.egb;
 	}
 
+	/**
+	 * @return The version 2 file, or null if the file is in the version 0
+	 *         format.
+	 */
+	public final EncogEGB2File getCompact() {
+		return this.compact;
+	}
+
 	/**
 	 * Load the binary dataset to memory. Memory access is faster.
 	 * 
@@ -377,6 +427,23 @@ public class BufferedNeuralDataSet implements
 		return result;
 	}
 
+	/**
+	 * Load the binary dataset to a packed memory dataset. The file is read in
+	 * large sequential chunks, and the records are stored without any
+	 * per-record objects, so this is the best choice for very large files.
+	 * 
+	 * @return A packed memory dataset.
+	 */
+	public final PackedMLDataSet loadToPacked() {
+		if (this.compact != null) {
+			return new PackedMLDataSet(this);
+		}
+		PackedMLDataSet result = new PackedMLDataSet(getInputSize(),
+				getIdealSize());
+		result.load(this.egb);
+		return result;
+	}
+
 	/**
 	 * Load the specified training set.
 	 * 
@@ -0,0 +1,94 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.buffer;
+
+/**
+ * How a column is stored in a version 2 EGB file. The quantized types store
+ * each value as an unsigned integer, which is mapped back to the column's
+ * range with a scale and offset when read.
+ */
+public enum EGBColumnType {
+	/**
+	 * A full precision double, 8 bytes.
+	 */
+	Float64(8),
+
+	/**
+	 * A single precision float, 4 bytes.
+	 */
+	Float32(4),
+
+	/**
+	 * A 16-bit quantized value, 65536 steps over the column range.
+	 */
+	Int16(2),
+
+	/**
+	 * An 8-bit quantized value, 256 steps over the column range.
+	 */
+	Int8(1);
+
+	/**
+	 * The number of bytes per value.
+	 */
+	private final int size;
+
+	/**
+	 * Construct the type.
+	 * 
+	 * @param theSize
+	 *            The number of bytes per value.
+	 */
+	private EGBColumnType(final int theSize) {
+		this.size = theSize;
+	}
+
+	/**
+	 * @return The number of bytes per value.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * @return True if this type is quantized, and needs a column range.
+	 */
+	public boolean isQuantized() {
+		return this == Int16 || this == Int8;
+	}
+
+	/**
+	 * @return The largest quantized value, or zero if not quantized.
+	 */
+	public int getSteps() {
+		switch (this) {
+		case Int16:
+			return 0xffff;
+		case Int8:
+			return 0xff;
+		default:
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,639 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.buffer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An editing view over a version 0 EGB file. Inserting or deleting rows and
+ * columns through {@link EncogEGBFile} rewrites the file, so for a large file
+ * each edit costs a full pass. This class records those edits in memory
+ * instead, and {@link #compact()} applies all of them in one sequential pass.
+ * 
+ * Rows are kept as a list of extents of row ids. The rows already in the file
+ * have ids matching their record number, inserted rows get new ids. Columns are
+ * kept the same way. A value is read from the file when both its row and its
+ * column are in the file, otherwise it comes from an overlay of written
+ * values. Values written to cells already in the file are written in place.
+ * 
+ * Inserted rows default to zero, with a significance of one. Inserted columns
+ * default to zero.
+ * 
+ * This class is not thread safe. Read the file through this editor until it
+ * has been compacted.
+ */
+public class EGBEditor implements EGBRowStore {
+
+	/**
+	 * The number of rows copied at a time while compacting.
+	 */
+	public static final int COMPACT_ROWS = 4096;
+
+	/**
+	 * A run of rows with consecutive ids.
+	 */
+	private static class Extent {
+
+		/**
+		 * The id of the first row.
+		 */
+		private long first;
+
+		/**
+		 * The number of rows.
+		 */
+		private int length;
+
+		/**
+		 * Construct an extent.
+		 * 
+		 * @param theFirst
+		 *            The id of the first row.
+		 * @param theLength
+		 *            The number of rows.
+		 */
+		public Extent(final long theFirst, final int theLength) {
+			this.first = theFirst;
+			this.length = theLength;
+		}
+	}
+
+	/**
+	 * The file being edited.
+	 */
+	private final EncogEGBFile egb;
+
+	/**
+	 * The rows, in order.
+	 */
+	private final List<Extent> extents = new ArrayList<Extent>();
+
+	/**
+	 * The first row of each extent, or null if this must be rebuilt.
+	 */
+	private int[] extentStarts;
+
+	/**
+	 * The column ids, in order.
+	 */
+	private final List<Integer> columns = new ArrayList<Integer>();
+
+	/**
+	 * Values for cells that are not in the file, keyed by row and column id.
+	 */
+	private final Map<Long, Double> overlay = new HashMap<Long, Double>();
+
+	/**
+	 * The number of records in the file.
+	 */
+	private int physicalRows;
+
+	/**
+	 * The number of values per record in the file.
+	 */
+	private int physicalColumns;
+
+	/**
+	 * The next id for an inserted row.
+	 */
+	private long nextRowId;
+
+	/**
+	 * The next id for an inserted column.
+	 */
+	private int nextColumnId;
+
+	/**
+	 * The number of rows.
+	 */
+	private int numberOfRecords;
+
+	/**
+	 * The number of input columns.
+	 */
+	private int inputCount;
+
+	/**
+	 * The number of ideal columns.
+	 */
+	private int idealCount;
+
+	/**
+	 * True if there are edits that have not been compacted.
+	 */
+	private boolean edited;
+
+	/**
+	 * Construct an editor over an open EGB file.
+	 * 
+	 * @param theEGB
+	 *            The file to edit.
+	 */
+	public EGBEditor(final EncogEGBFile theEGB) {
+		this.egb = theEGB;
+		reset();
+	}
+
+	/**
+	 * Start again from the current contents of the file.
+	 */
+	private void reset() {
+		this.physicalRows = this.egb.getNumberOfRecords();
+		this.physicalColumns = this.egb.getRecordCount();
+		this.numberOfRecords = this.physicalRows;
+		this.inputCount = this.egb.getInputCount();
+		this.idealCount = this.egb.getIdealCount();
+		this.nextRowId = this.physicalRows;
+		this.nextColumnId = this.physicalColumns;
+
+		this.extents.clear();
+		if (this.physicalRows > 0) {
+			this.extents.add(new Extent(0, this.physicalRows));
+		}
+		this.extentStarts = null;
+
+		this.columns.clear();
+		for (int i = 0; i < this.physicalColumns; i++) {
+			this.columns.add(i);
+		}
+
+		this.overlay.clear();
+		this.edited = false;
+	}
+
+	/**
+	 * @return The file being edited.
+	 */
+	public final EncogEGBFile getEGB() {
+		return this.egb;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public final int getNumberOfRecords() {
+		return this.numberOfRecords;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public final int getRecordCount() {
+		return this.columns.size();
+	}
+
+	/**
+	 * @return The number of input columns.
+	 */
+	public final int getInputCount() {
+		return this.inputCount;
+	}
+
+	/**
+	 * @return The number of ideal columns.
+	 */
+	public final int getIdealCount() {
+		return this.idealCount;
+	}
+
+	/**
+	 * @return True if there are edits that have not been compacted.
+	 */
+	public final boolean isEdited() {
+		return this.edited;
+	}
+
+	/**
+	 * @return The number of extents the rows are split into.
+	 */
+	public final int getExtentCount() {
+		return this.extents.size();
+	}
+
+	/**
+	 * Insert a row of zeros with a significance of one.
+	 * 
+	 * @param row
+	 *            Where to insert the row, from zero to the number of records.
+	 */
+	public final void addRow(final int row) {
+		if ((row < 0) || (row > this.numberOfRecords)) {
+			throw new BufferedDataError("Row " + row + " is out of range.");
+		}
+
+		final long id = this.nextRowId++;
+
+		if (row == this.numberOfRecords) {
+			final Extent last = this.extents.isEmpty() ? null : this.extents
+					.get(this.extents.size() - 1);
+			if ((last != null) && (last.first + last.length == id)) {
+				last.length++;
+			} else {
+				this.extents.add(new Extent(id, 1));
+			}
+		} else {
+			final int index = findExtent(row);
+			final Extent extent = this.extents.get(index);
+			final int offset = row - this.extentStarts[index];
+
+			if (offset == 0) {
+				final Extent prior = (index > 0) ? this.extents
+						.get(index - 1) : null;
+				if ((prior != null) && (prior.first + prior.length == id)) {
+					prior.length++;
+				} else {
+					this.extents.add(index, new Extent(id, 1));
+				}
+			} else {
+				final Extent tail = new Extent(extent.first + offset,
+						extent.length - offset);
+				extent.length = offset;
+				this.extents.add(index + 1, new Extent(id, 1));
+				this.extents.add(index + 2, tail);
+			}
+		}
+
+		this.numberOfRecords++;
+		this.extentStarts = null;
+		this.edited = true;
+	}
+
+	/**
+	 * Delete a row.
+	 * 
+	 * @param row
+	 *            The row to delete.
+	 */
+	public final void deleteRow(final int row) {
+		final int index = findExtent(row);
+		final Extent extent = this.extents.get(index);
+		final int offset = row - this.extentStarts[index];
+		final long id = extent.first + offset;
+
+		if (extent.length == 1) {
+			this.extents.remove(index);
+		} else if (offset == 0) {
+			extent.first++;
+			extent.length--;
+		} else if (offset == extent.length - 1) {
+			extent.length--;
+		} else {
+			final Extent tail = new Extent(id + 1, extent.length - offset - 1);
+			extent.length = offset;
+			this.extents.add(index + 1, tail);
+		}
+
+		if (id >= this.physicalRows) {
+			for (final int column : this.columns) {
+				this.overlay.remove(key(id, column));
+			}
+		}
+
+		this.numberOfRecords--;
+		this.extentStarts = null;
+		this.edited = true;
+	}
+
+	/**
+	 * Insert a column of zeros.
+	 * 
+	 * @param col
+	 *            Where to insert the column.
+	 * @param isInput
+	 *            True for an input column, false for an ideal column.
+	 */
+	public final void addColumn(final int col, final boolean isInput) {
+		if ((col < 0) || (col >= this.columns.size())) {
+			throw new BufferedDataError("Column " + col + " is out of range.");
+		}
+		this.columns.add(col, this.nextColumnId++);
+		if (isInput) {
+			this.inputCount++;
+		} else {
+			this.idealCount++;
+		}
+		this.edited = true;
+	}
+
+	/**
+	 * Delete a column. The significance column can not be deleted.
+	 * 
+	 * @param col
+	 *            The column to delete.
+	 */
+	public final void deleteCol(final int col) {
+		if ((col < 0) || (col >= this.columns.size() - 1)) {
+			throw new BufferedDataError("Column " + col
+					+ " can not be deleted.");
+		}
+		if (col < this.inputCount) {
+			this.inputCount--;
+		} else {
+			this.idealCount--;
+		}
+		this.columns.remove(col);
+		this.edited = true;
+	}
+
+	/**
+	 * Read one value.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @param col
+	 *            The column.
+	 * @return The value.
+	 */
+	public final double read(final int row, final int col) {
+		final long id = rowId(row);
+		final int column = columnId(col);
+		if ((id < this.physicalRows) && (column < this.physicalColumns)) {
+			return this.egb.read((int) id, column);
+		}
+		return overlayValue(id, column);
+	}
+
+	/**
+	 * Write one value.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @param col
+	 *            The column.
+	 * @param v
+	 *            The value.
+	 */
+	public final void write(final int row, final int col, final double v) {
+		final long id = rowId(row);
+		final int column = columnId(col);
+		if ((id < this.physicalRows) && (column < this.physicalColumns)) {
+			this.egb.write((int) id, column, v);
+		} else {
+			this.overlay.put(key(id, column), v);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public final void readRows(final long firstRow, final int count,
+			final double[] d) {
+		final int recordCount = this.columns.size();
+		int row = (int) firstRow;
+		int done = 0;
+		double[] physical = null;
+
+		while (done < count) {
+			final int index = findExtent(row);
+			final Extent extent = this.extents.get(index);
+			final int offset = row - this.extentStarts[index];
+			final int run = Math.min(count - done, extent.length - offset);
+			final long id = extent.first + offset;
+
+			if (id < this.physicalRows) {
+				final int size = run * this.physicalColumns;
+				if ((physical == null) || (physical.length < size)) {
+					physical = new double[size];
+				}
+				this.egb.readRows(id, run, physical);
+				for (int r = 0; r < run; r++) {
+					final int target = (done + r) * recordCount;
+					final int source = r * this.physicalColumns;
+					for (int c = 0; c < recordCount; c++) {
+						final int column = this.columns.get(c);
+						d[target + c] = (column < this.physicalColumns) 
+							? physical[source + column] 
+							: overlayValue(id + r, column);
+					}
+				}
+			} else {
+				for (int r = 0; r < run; r++) {
+					final int target = (done + r) * recordCount;
+					for (int c = 0; c < recordCount; c++) {
+						d[target + c] = overlayValue(id + r, this.columns
+								.get(c));
+					}
+				}
+			}
+
+			done += run;
+			row += run;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public final void writeRows(final long firstRow, final int count,
+			final double[] d) {
+		final int recordCount = this.columns.size();
+		int row = (int) firstRow;
+		int done = 0;
+		double[] physical = null;
+
+		while (done < count) {
+			final int index = findExtent(row);
+			final Extent extent = this.extents.get(index);
+			final int offset = row - this.extentStarts[index];
+			final int run = Math.min(count - done, extent.length - offset);
+			final long id = extent.first + offset;
+
+			if (id < this.physicalRows) {
+				// keep the values of deleted columns, they go at compaction
+				final int size = run * this.physicalColumns;
+				if ((physical == null) || (physical.length < size)) {
+					physical = new double[size];
+				}
+				this.egb.readRows(id, run, physical);
+				for (int r = 0; r < run; r++) {
+					final int source = (done + r) * recordCount;
+					final int target = r * this.physicalColumns;
+					for (int c = 0; c < recordCount; c++) {
+						final int column = this.columns.get(c);
+						if (column < this.physicalColumns) {
+							physical[target + column] = d[source + c];
+						} else {
+							this.overlay.put(key(id + r, column), 
+									d[source + c]);
+						}
+					}
+				}
+				this.egb.writeRows(id, run, physical);
+			} else {
+				for (int r = 0; r < run; r++) {
+					final int source = (done + r) * recordCount;
+					for (int c = 0; c < recordCount; c++) {
+						this.overlay.put(key(id + r, this.columns.get(c)),
+								d[source + c]);
+					}
+				}
+			}
+
+			done += run;
+			row += run;
+		}
+	}
+
+	/**
+	 * Apply the edits to the file in one sequential pass. The records are
+	 * written to a temporary file beside the original, which then replaces
+	 * it, and the EGB file is reopened. Nothing is done if there are no
+	 * edits.
+	 */
+	public final void compact() {
+		if (!this.edited) {
+			return;
+		}
+
+		final File file = this.egb.getFile();
+		final File temp = new File(file.getPath() + ".tmp");
+		final EncogEGBFile target = new EncogEGBFile(temp);
+		final int recordCount = this.columns.size();
+
+		try {
+			target.create(this.inputCount, this.idealCount);
+			final double[] buffer = new double[EGBEditor.COMPACT_ROWS
+					* recordCount];
+			for (int row = 0; row < this.numberOfRecords; 
+				row += EGBEditor.COMPACT_ROWS) {
+				final int count = Math.min(EGBEditor.COMPACT_ROWS,
+						this.numberOfRecords - row);
+				readRows(row, count, buffer);
+				target.writeRows(row, count, buffer);
+			}
+		} finally {
+			target.close();
+		}
+
+		this.egb.close();
+		if (!temp.renameTo(file)) {
+			// some platforms will not rename over an existing file
+			if (!file.delete() || !temp.renameTo(file)) {
+				throw new BufferedDataError("Could not replace " + file
+						+ " with the compacted file " + temp);
+			}
+		}
+		this.egb.open();
+		reset();
+	}
+
+	/**
+	 * Get the value of a cell that is not in the file.
+	 * 
+	 * @param id
+	 *            The row id.
+	 * @param column
+	 *            The column id.
+	 * @return The value.
+	 */
+	private double overlayValue(final long id, final int column) {
+		final Double value = this.overlay.get(key(id, column));
+		if (value != null) {
+			return value;
+		}
+		// the significance column is never deleted, so it keeps its id
+		if ((id >= this.physicalRows) 
+				&& (column == this.physicalColumns - 1)) {
+			return 1.0;
+		}
+		return 0;
+	}
+
+	/**
+	 * Find the extent that holds a row.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @return The index of the extent.
+	 */
+	private int findExtent(final int row) {
+		if ((row < 0) || (row >= this.numberOfRecords)) {
+			throw new BufferedDataError("Row " + row + " is out of range.");
+		}
+
+		if (this.extentStarts == null) {
+			this.extentStarts = new int[this.extents.size()];
+			int start = 0;
+			for (int i = 0; i < this.extentStarts.length; i++) {
+				this.extentStarts[i] = start;
+				start += this.extents.get(i).length;
+			}
+		}
+
+		int low = 0;
+		int high = this.extentStarts.length - 1;
+		while (low < high) {
+			final int mid = (low + high + 1) >>> 1;
+			if (this.extentStarts[mid] <= row) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get the id of a row.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @return The row id.
+	 */
+	private long rowId(final int row) {
+		final int index = findExtent(row);
+		return this.extents.get(index).first + (row - this.extentStarts[index]);
+	}
+
+	/**
+	 * Get the id of a column.
+	 * 
+	 * @param col
+	 *            The column.
+	 * @return The column id.
+	 */
+	private int columnId(final int col) {
+		if ((col < 0) || (col >= this.columns.size())) {
+			throw new BufferedDataError("Column " + col + " is out of range.");
+		}
+		return this.columns.get(col);
+	}
+
+	/**
+	 * Build the overlay key for a cell.
+	 * 
+	 * @param id
+	 *            The row id.
+	 * @param column
+	 *            The column id.
+	 * @return The key.
+	 */
+	private static Long key(final long id, final int column) {
+		return (id << 32) | column;
+	}
+}
@@ -0,0 +1,369 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.buffer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A row-block cache over an EGB file or an {@link EGBEditor}, for callers that touch one value at a
+ * time, such as a table view. Records are read and written in blocks of
+ * consecutive rows, the least recently used blocks are evicted, and the blocks
+ * following the last access in the scroll direction are read ahead.
+ * 
+ * Writes change the cached block only and are written back when the block is
+ * evicted or {@link #flush()} is called. Call {@link #invalidate()} before any
+ * structural change to the file, such as adding or removing rows or columns.
+ * 
+ * This class is not thread safe.
+ */
+public class EGBRowCache {
+
+	/**
+	 * The default number of rows in a block.
+	 */
+	public static final int DEFAULT_BLOCK_ROWS = 256;
+
+	/**
+	 * The default number of blocks to hold.
+	 */
+	public static final int DEFAULT_MAX_BLOCKS = 64;
+
+	/**
+	 * The default number of blocks to read ahead.
+	 */
+	public static final int DEFAULT_READ_AHEAD = 1;
+
+	/**
+	 * A block of consecutive rows.
+	 */
+	private static class Block {
+
+		/**
+		 * The first row in the block.
+		 */
+		private final long firstRow;
+
+		/**
+		 * The number of rows in the block.
+		 */
+		private final int rows;
+
+		/**
+		 * The values, row by row.
+		 */
+		private final double[] data;
+
+		/**
+		 * True if the block has changes not yet written.
+		 */
+		private boolean dirty;
+
+		/**
+		 * Construct a block.
+		 * 
+		 * @param theFirstRow
+		 *            The first row in the block.
+		 * @param theRows
+		 *            The number of rows.
+		 * @param recordCount
+		 *            The number of values per row.
+		 */
+		public Block(final long theFirstRow, final int theRows,
+				final int recordCount) {
+			this.firstRow = theFirstRow;
+			this.rows = theRows;
+			this.data = new double[theRows * recordCount];
+		}
+	}
+
+	/**
+	 * The records being cached.
+	 */
+	private final EGBRowStore egb;
+
+	/**
+	 * The number of rows in a block.
+	 */
+	private final int blockRows;
+
+	/**
+	 * The most blocks to hold.
+	 */
+	private final int maxBlocks;
+
+	/**
+	 * The number of blocks to read ahead of a miss.
+	 */
+	private final int readAhead;
+
+	/**
+	 * The cached blocks, in least recently used order.
+	 */
+	private final LinkedHashMap<Long, Block> blocks;
+
+	/**
+	 * The block accessed last.
+	 */
+	private long lastBlock = -1;
+
+	/**
+	 * The scroll direction, 1 or -1.
+	 */
+	private int direction = 1;
+
+	/**
+	 * The number of values found in the cache.
+	 */
+	private long hits;
+
+	/**
+	 * The number of blocks read from the file.
+	 */
+	private long misses;
+
+	/**
+	 * Construct a cache with the default sizes.
+	 * 
+	 * @param theEGB
+	 *            The open EGB file, or an editor over one.
+	 */
+	public EGBRowCache(final EGBRowStore theEGB) {
+		this(theEGB, EGBRowCache.DEFAULT_BLOCK_ROWS,
+				EGBRowCache.DEFAULT_MAX_BLOCKS, EGBRowCache.DEFAULT_READ_AHEAD);
+	}
+
+	/**
+	 * Construct a cache.
+	 * 
+	 * @param theEGB
+	 *            The open EGB file, or an editor over one.
+	 * @param theBlockRows
+	 *            The number of rows in a block.
+	 * @param theMaxBlocks
+	 *            The most blocks to hold, more than the read ahead.
+	 * @param theReadAhead
+	 *            The number of blocks to read ahead in the scroll direction.
+	 */
+	public EGBRowCache(final EGBRowStore theEGB, final int theBlockRows,
+			final int theMaxBlocks, final int theReadAhead) {
+		if (theBlockRows < 1) {
+			throw new BufferedDataError("A block must hold at least one row.");
+		}
+		if ((theReadAhead < 0) || (theMaxBlocks <= theReadAhead)) {
+			throw new BufferedDataError(
+					"The cache must hold more blocks than it reads ahead.");
+		}
+		this.egb = theEGB;
+		this.blockRows = theBlockRows;
+		this.maxBlocks = theMaxBlocks;
+		this.readAhead = theReadAhead;
+		this.blocks = new LinkedHashMap<Long, Block>(16, 0.75f, true);
+	}
+
+	/**
+	 * Read one value.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @param col
+	 *            The column.
+	 * @return The value.
+	 */
+	public final double read(final int row, final int col) {
+		final Block block = obtainBlock(row);
+		return block.data[index(block, row, col)];
+	}
+
+	/**
+	 * Read a whole row.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @param d
+	 *            The array to read into, getRecordCount() long.
+	 */
+	public final void read(final int row, final double[] d) {
+		final Block block = obtainBlock(row);
+		System.arraycopy(block.data, index(block, row, 0), d, 0,
+				this.egb.getRecordCount());
+	}
+
+	/**
+	 * Write one value. The file is updated when the block is written back.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @param col
+	 *            The column.
+	 * @param v
+	 *            The value.
+	 */
+	public final void write(final int row, final int col, final double v) {
+		final Block block = obtainBlock(row);
+		block.data[index(block, row, col)] = v;
+		block.dirty = true;
+	}
+
+	/**
+	 * Write back every changed block.
+	 */
+	public final void flush() {
+		for (final Block block : this.blocks.values()) {
+			writeBack(block);
+		}
+	}
+
+	/**
+	 * Write back every changed block and empty the cache. Call this before
+	 * the rows or columns of the file change.
+	 */
+	public final void invalidate() {
+		flush();
+		this.blocks.clear();
+		this.lastBlock = -1;
+	}
+
+	/**
+	 * @return The number of reads and writes served from a cached block.
+	 */
+	public final long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * @return The number of blocks read from the file.
+	 */
+	public final long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * @return The number of blocks held.
+	 */
+	public final int getBlockCount() {
+		return this.blocks.size();
+	}
+
+	/**
+	 * Find the offset of a value in a block.
+	 * 
+	 * @param block
+	 *            The block.
+	 * @param row
+	 *            The row.
+	 * @param col
+	 *            The column.
+	 * @return The offset into the block data.
+	 */
+	private int index(final Block block, final int row, final int col) {
+		final int recordCount = this.egb.getRecordCount();
+		if ((col < 0) || (col >= recordCount)) {
+			throw new BufferedDataError("Column " + col
+					+ " is out of range.");
+		}
+		return ((int) (row - block.firstRow) * recordCount) + col;
+	}
+
+	/**
+	 * Get the block holding a row, loading it and reading ahead on a miss.
+	 * 
+	 * @param row
+	 *            The row.
+	 * @return The block.
+	 */
+	private Block obtainBlock(final int row) {
+		if ((row < 0) || (row >= this.egb.getNumberOfRecords())) {
+			throw new BufferedDataError("Row " + row + " is out of range.");
+		}
+
+		final long blockIndex = row / this.blockRows;
+		if (this.lastBlock != -1 && blockIndex != this.lastBlock) {
+			this.direction = (blockIndex > this.lastBlock) ? 1 : -1;
+		}
+		this.lastBlock = blockIndex;
+
+		Block block = this.blocks.get(blockIndex);
+		if (block != null) {
+			this.hits++;
+			return block;
+		}
+
+		// read ahead first, so the requested block is the most recent
+		for (int i = this.readAhead; i > 0; i--) {
+			final long ahead = blockIndex + (i * this.direction);
+			if ((ahead >= 0) && !this.blocks.containsKey(ahead)) {
+				loadBlock(ahead);
+			}
+		}
+
+		block = loadBlock(blockIndex);
+		return block;
+	}
+
+	/**
+	 * Read a block from the file, evicting the least recently used block if
+	 * the cache is full.
+	 * 
+	 * @param blockIndex
+	 *            The block to read.
+	 * @return The block, or null if it is past the end of the file.
+	 */
+	private Block loadBlock(final long blockIndex) {
+		final long firstRow = blockIndex * this.blockRows;
+		final long available = this.egb.getNumberOfRecords() - firstRow;
+		if (available <= 0) {
+			return null;
+		}
+
+		final int rows = (int) Math.min(this.blockRows, available);
+		final Block block = new Block(firstRow, rows,
+				this.egb.getRecordCount());
+		this.egb.readRows(firstRow, rows, block.data);
+		this.misses++;
+
+		while (this.blocks.size() >= this.maxBlocks) {
+			final Iterator<Map.Entry<Long, Block>> itr = this.blocks
+					.entrySet().iterator();
+			writeBack(itr.next().getValue());
+			itr.remove();
+		}
+		this.blocks.put(blockIndex, block);
+		return block;
+	}
+
+	/**
+	 * Write a block back to the file if it has changed.
+	 * 
+	 * @param block
+	 *            The block.
+	 */
+	private void writeBack(final Block block) {
+		if (block.dirty) {
+			this.egb.writeRows(block.firstRow, block.rows, block.data);
+			block.dirty = false;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.buffer;
+
+/**
+ * Random access to the fixed size records of an EGB file, or of a view over
+ * one. Each record holds the input values, the ideal values and the
+ * significance.
+ */
+public interface EGBRowStore {
+
+	/**
+	 * @return The number of records.
+	 */
+	int getNumberOfRecords();
+
+	/**
+	 * @return The number of values in each record.
+	 */
+	int getRecordCount();
+
+	/**
+	 * Read a block of consecutive records.
+	 * 
+	 * @param firstRow
+	 *            The first record to read.
+	 * @param count
+	 *            The number of records to read.
+	 * @param d
+	 *            The array to read into, at least count * getRecordCount()
+	 *            long.
+	 */
+	void readRows(long firstRow, int count, double[] d);
+
+	/**
+	 * Write a block of consecutive records.
+	 * 
+	 * @param firstRow
+	 *            The first record to write.
+	 * @param count
+	 *            The number of records to write.
+	 * @param d
+	 *            The values to write, count * getRecordCount() long.
+	 */
+	void writeRows(long firstRow, int count, double[] d);
+}
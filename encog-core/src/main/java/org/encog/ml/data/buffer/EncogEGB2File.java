@@ -0,0 +1,553 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.encog.ml.data.MLDataPair;
+
+/**
+ * Reads an Encog Binary Training file in the version 2 format (ENCOG-02).
+ * 
+ * Where a version 0 file stores every value as a double in a fixed size
+ * record, a version 2 file groups records into blocks. Within a block each
+ * column is stored contiguously, in its own storage type, and the block may
+ * be compressed. A block index at the end of the file gives the position of
+ * every block, so any record can be read by decoding only its block. The
+ * most recently decoded block is cached, so reading records in order decodes
+ * each block once.
+ * 
+ * Version 2 files are written with EncogEGB2Writer, and are read only.
+ * BufferedNeuralDataSet reads both versions.
+ */
+public class EncogEGB2File {
+
+	/**
+	 * The version number stored in the header.
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * The size of the fixed part of the header.
+	 */
+	public static final int HEADER_SIZE = 40;
+
+	/**
+	 * The size of the header for each column.
+	 */
+	public static final int COLUMN_HEADER_SIZE = 17;
+
+	/**
+	 * The size of each entry in the block index.
+	 */
+	public static final int INDEX_ENTRY_SIZE = 12;
+
+	/**
+	 * Header offset of the record count.
+	 */
+	public static final int OFFSET_RECORD_COUNT = 16;
+
+	/**
+	 * Header offset of the block index position.
+	 */
+	public static final int OFFSET_INDEX = 32;
+
+	/**
+	 * The file.
+	 */
+	private final File file;
+
+	/**
+	 * The underlying file.
+	 */
+	private RandomAccessFile raf;
+
+	/**
+	 * The number of input values per record.
+	 */
+	private int inputCount;
+
+	/**
+	 * The number of ideal values per record.
+	 */
+	private int idealCount;
+
+	/**
+	 * The number of records.
+	 */
+	private long recordCount;
+
+	/**
+	 * The number of records in each block, except perhaps the last.
+	 */
+	private int blockRecords;
+
+	/**
+	 * The compression used.
+	 */
+	private EGBCompression compression;
+
+	/**
+	 * The storage type of each column.
+	 */
+	private EGBColumnType[] types;
+
+	/**
+	 * The scale of each quantized column.
+	 */
+	private double[] scale;
+
+	/**
+	 * The offset of each quantized column.
+	 */
+	private double[] offset;
+
+	/**
+	 * The bytes before each column, in one row.
+	 */
+	private int[] columnOffset;
+
+	/**
+	 * The size of one uncompressed row.
+	 */
+	private int rowSize;
+
+	/**
+	 * The file position of each block.
+	 */
+	private long[] blockPosition;
+
+	/**
+	 * The stored length of each block.
+	 */
+	private int[] blockLength;
+
+	/**
+	 * The block currently decoded, or -1.
+	 */
+	private int currentBlock = -1;
+
+	/**
+	 * The number of records in the current block.
+	 */
+	private int currentBlockRecords;
+
+	/**
+	 * The decoded current block.
+	 */
+	private byte[] block;
+
+	/**
+	 * View of the decoded current block.
+	 */
+	private ByteBuffer blockView;
+
+	/**
+	 * Holds a block as read from the file.
+	 */
+	private byte[] stored;
+
+	/**
+	 * Holds a decompressed block before unshuffling.
+	 */
+	private byte[] shuffled;
+
+	/**
+	 * Used to decompress deflate blocks.
+	 */
+	private Inflater inflater;
+
+	/**
+	 * Construct the reader. Call open before reading.
+	 * 
+	 * @param theFile
+	 *            The file to read.
+	 */
+	public EncogEGB2File(final File theFile) {
+		this.file = theFile;
+	}
+
+	/**
+	 * Open the file and read its header and block index.
+	 */
+	public final void open() {
+		try {
+			this.raf = new RandomAccessFile(this.file, "r");
+
+			final ByteBuffer header = readBytes(0, EncogEGB2File.HEADER_SIZE);
+			final byte[] id = new byte[8];
+			header.get(id);
+			if (EncogEGBFile.parseVersion(id) != EncogEGB2File.VERSION) {
+				throw new BufferedDataError(
+						"File is not an EGB version 2 file: " + this.file);
+			}
+
+			this.inputCount = header.getInt();
+			this.idealCount = header.getInt();
+			this.recordCount = header.getLong();
+			this.blockRecords = header.getInt();
+			final int codec = header.getInt();
+			final long indexPosition = header.getLong();
+
+			if (codec < 0 || codec >= EGBCompression.values().length
+					|| this.blockRecords < 1) {
+				throw new BufferedDataError("Invalid EGB header: " + this.file);
+			}
+			this.compression = EGBCompression.values()[codec];
+
+			final int columns = this.inputCount + this.idealCount + 1;
+			this.types = new EGBColumnType[columns];
+			this.scale = new double[columns];
+			this.offset = new double[columns];
+			this.columnOffset = new int[columns];
+			this.rowSize = 0;
+
+			final ByteBuffer columnHeader = readBytes(
+					EncogEGB2File.HEADER_SIZE, columns
+							* EncogEGB2File.COLUMN_HEADER_SIZE);
+			for (int i = 0; i < columns; i++) {
+				final int type = columnHeader.get();
+				if (type < 0 || type >= EGBColumnType.values().length) {
+					throw new BufferedDataError("Invalid column type: " + type);
+				}
+				this.types[i] = EGBColumnType.values()[type];
+				this.scale[i] = columnHeader.getDouble();
+				this.offset[i] = columnHeader.getDouble();
+				this.columnOffset[i] = this.rowSize;
+				this.rowSize += this.types[i].getSize();
+			}
+
+			final int blocks = (int) ((this.recordCount + this.blockRecords - 1) 
+					/ this.blockRecords);
+			this.blockPosition = new long[blocks];
+			this.blockLength = new int[blocks];
+			int largest = 0;
+			if (blocks > 0) {
+				final ByteBuffer index = readBytes(indexPosition, blocks
+						* EncogEGB2File.INDEX_ENTRY_SIZE);
+				for (int i = 0; i < blocks; i++) {
+					this.blockPosition[i] = index.getLong();
+					this.blockLength[i] = index.getInt();
+					largest = Math.max(largest, this.blockLength[i]);
+				}
+			}
+
+			final int blockSize = this.blockRecords * this.rowSize;
+			this.block = new byte[blockSize];
+			this.blockView = ByteBuffer.wrap(this.block).order(
+					ByteOrder.LITTLE_ENDIAN);
+			if (this.compression != EGBCompression.None) {
+				this.stored = new byte[largest];
+				this.shuffled = new byte[blockSize];
+			}
+			if (this.compression == EGBCompression.Deflate) {
+				this.inflater = new Inflater();
+			}
+			this.currentBlock = -1;
+		} catch (final IOException ex) {
+			close();
+			throw new BufferedDataError(ex);
+		}
+	}
+
+	/**
+	 * Read bytes from the file.
+	 * 
+	 * @param position
+	 *            Where to read from.
+	 * @param length
+	 *            How many bytes to read.
+	 * @return A little-endian buffer holding the bytes.
+	 * @throws IOException
+	 *             If the bytes could not be read.
+	 */
+	private ByteBuffer readBytes(final long position, final int length)
+		throws IOException {
+		final byte[] result = new byte[length];
+		this.raf.seek(position);
+		this.raf.readFully(result);
+		return ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Close the file.
+	 */
+	public final void close() {
+		try {
+			if (this.raf != null) {
+				this.raf.close();
+				this.raf = null;
+			}
+			if (this.inflater != null) {
+				this.inflater.end();
+				this.inflater = null;
+			}
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		}
+	}
+
+	/**
+	 * Decode a block, if it is not already the current block.
+	 * 
+	 * @param index
+	 *            The block to decode.
+	 */
+	private void loadBlock(final int index) {
+		if (index == this.currentBlock) {
+			return;
+		}
+
+		final int records = (int) Math.min(this.blockRecords,
+				this.recordCount - ((long) index * this.blockRecords));
+		final int size = records * this.rowSize;
+
+		try {
+			this.raf.seek(this.blockPosition[index]);
+			final int length = this.blockLength[index];
+			switch (this.compression) {
+			case None:
+				this.raf.readFully(this.block, 0, size);
+				break;
+			case LZ4:
+				this.raf.readFully(this.stored, 0, length);
+				LZ4Block.decompress(this.stored, length, this.shuffled, size);
+				unshuffle(records);
+				break;
+			case Deflate:
+				this.raf.readFully(this.stored, 0, length);
+				this.inflater.reset();
+				this.inflater.setInput(this.stored, 0, length);
+				int done = 0;
+				while (done < size) {
+					final int count = this.inflater.inflate(this.shuffled,
+							done, size - done);
+					if (count == 0 && (this.inflater.finished() 
+							|| this.inflater.needsInput())) {
+						throw new BufferedDataError("Corrupt deflate block.");
+					}
+					done += count;
+				}
+				unshuffle(records);
+				break;
+			default:
+				throw new BufferedDataError("Unknown compression.");
+			}
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		} catch (final DataFormatException ex) {
+			throw new BufferedDataError(ex);
+		}
+
+		this.currentBlock = index;
+		this.currentBlockRecords = records;
+	}
+
+	/**
+	 * Undo the byte shuffle applied to compressed blocks. Within each column
+	 * the writer stores the first byte of every value, then the second byte,
+	 * and so on, which compresses much better than whole values.
+	 * 
+	 * @param records
+	 *            The number of records in the block.
+	 */
+	private void unshuffle(final int records) {
+		for (int c = 0; c < this.types.length; c++) {
+			final int start = this.columnOffset[c] * records;
+			final int width = this.types[c].getSize();
+			EncogEGB2File.shuffle(this.shuffled, this.block, start, records,
+					width, false);
+		}
+	}
+
+	/**
+	 * Shuffle or unshuffle the bytes of one column of a block.
+	 * 
+	 * @param src
+	 *            The source block.
+	 * @param dst
+	 *            The target block.
+	 * @param start
+	 *            The start of the column in both blocks.
+	 * @param count
+	 *            The number of values.
+	 * @param width
+	 *            The size of each value.
+	 * @param forward
+	 *            True to shuffle, false to unshuffle.
+	 */
+	static void shuffle(final byte[] src, final byte[] dst, final int start,
+			final int count, final int width, final boolean forward) {
+		if (width == 1) {
+			System.arraycopy(src, start, dst, start, count);
+			return;
+		}
+		for (int b = 0; b < width; b++) {
+			int plane = start + (b * count);
+			int value = start + b;
+			for (int i = 0; i < count; i++) {
+				if (forward) {
+					dst[plane] = src[value];
+				} else {
+					dst[value] = src[plane];
+				}
+				plane++;
+				value += width;
+			}
+		}
+	}
+
+	/**
+	 * Read one value from the current block.
+	 * 
+	 * @param record
+	 *            The record within the block.
+	 * @param col
+	 *            The column.
+	 * @return The value.
+	 */
+	private double readValue(final int record, final int col) {
+		final EGBColumnType type = this.types[col];
+		final int position = (this.columnOffset[col] * this.currentBlockRecords)
+				+ (record * type.getSize());
+		switch (type) {
+		case Float64:
+			return this.blockView.getDouble(position);
+		case Float32:
+			return this.blockView.getFloat(position);
+		case Int16:
+			return this.offset[col]
+					+ ((this.blockView.getShort(position) & 0xffff) 
+							* this.scale[col]);
+		case Int8:
+			return this.offset[col]
+					+ ((this.block[position] & 0xff) * this.scale[col]);
+		default:
+			throw new BufferedDataError("Unknown column type.");
+		}
+	}
+
+	/**
+	 * Read a record.
+	 * 
+	 * @param row
+	 *            The record to read.
+	 * @param input
+	 *            Receives the input values.
+	 * @param ideal
+	 *            Receives the ideal values, may be null.
+	 * @return The significance of the record.
+	 */
+	public final double read(final long row, final double[] input,
+			final double[] ideal) {
+		if (row < 0 || row >= this.recordCount) {
+			throw new BufferedDataError("Record out of range: " + row);
+		}
+		loadBlock((int) (row / this.blockRecords));
+		final int record = (int) (row % this.blockRecords);
+
+		for (int i = 0; i < this.inputCount; i++) {
+			input[i] = readValue(record, i);
+		}
+		if (ideal != null) {
+			for (int i = 0; i < this.idealCount; i++) {
+				ideal[i] = readValue(record, this.inputCount + i);
+			}
+		}
+		return readValue(record, this.inputCount + this.idealCount);
+	}
+
+	/**
+	 * Read a record into a pair.
+	 * 
+	 * @param row
+	 *            The record to read.
+	 * @param pair
+	 *            The pair to read into.
+	 */
+	public final void read(final long row, final MLDataPair pair) {
+		pair.setSignificance(read(row, pair.getInputArray(), 
+				pair.getIdealArray()));
+	}
+
+	/**
+	 * @return The file.
+	 */
+	public final File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * @return The number of input values per record.
+	 */
+	public final int getInputCount() {
+		return this.inputCount;
+	}
+
+	/**
+	 * @return The number of ideal values per record.
+	 */
+	public final int getIdealCount() {
+		return this.idealCount;
+	}
+
+	/**
+	 * @return The number of records.
+	 */
+	public final long getRecordCount() {
+		return this.recordCount;
+	}
+
+	/**
+	 * @return The number of records per block.
+	 */
+	public final int getBlockRecords() {
+		return this.blockRecords;
+	}
+
+	/**
+	 * @return The compression used.
+	 */
+	public final EGBCompression getCompression() {
+		return this.compression;
+	}
+
+	/**
+	 * Get the storage type of a column. Input columns come first, then ideal
+	 * columns, then the significance.
+	 * 
+	 * @param col
+	 *            The column.
+	 * @return The storage type.
+	 */
+	public final EGBColumnType getColumnType(final int col) {
+		return this.types[col];
+	}
+}
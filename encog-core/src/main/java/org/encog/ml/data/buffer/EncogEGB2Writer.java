@@ -0,0 +1,586 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Deflater;
+
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.util.EngineArray;
+
+/**
+ * Writes an Encog Binary Training file in the version 2 format. See
+ * EncogEGB2File for a description of the format.
+ * 
+ * Set the column types, compression and block size, then write the records
+ * in order and close the writer. Quantized columns need the range of their
+ * values up front; the convert method will find the ranges by reading the
+ * source data twice.
+ */
+public class EncogEGB2Writer {
+
+	/**
+	 * The default size of an uncompressed block, in bytes.
+	 */
+	public static final int DEFAULT_BLOCK_BYTES = 64 * 1024;
+
+	/**
+	 * The file being written.
+	 */
+	private final File file;
+
+	/**
+	 * The number of input values per record.
+	 */
+	private final int inputCount;
+
+	/**
+	 * The number of ideal values per record.
+	 */
+	private final int idealCount;
+
+	/**
+	 * The storage type of each column.
+	 */
+	private final EGBColumnType[] types;
+
+	/**
+	 * The scale of each quantized column.
+	 */
+	private final double[] scale;
+
+	/**
+	 * The offset of each quantized column.
+	 */
+	private final double[] offset;
+
+	/**
+	 * The compression to use.
+	 */
+	private EGBCompression compression = EGBCompression.LZ4;
+
+	/**
+	 * The number of records per block, or zero to size by bytes.
+	 */
+	private int blockRecords;
+
+	/**
+	 * The underlying file, null until the first write.
+	 */
+	private RandomAccessFile raf;
+
+	/**
+	 * The bytes before each column, in one row.
+	 */
+	private int[] columnOffset;
+
+	/**
+	 * The size of one row.
+	 */
+	private int rowSize;
+
+	/**
+	 * The block being filled.
+	 */
+	private byte[] block;
+
+	/**
+	 * View of the block being filled.
+	 */
+	private ByteBuffer blockView;
+
+	/**
+	 * Holds a shuffled block.
+	 */
+	private byte[] shuffled;
+
+	/**
+	 * Holds a compressed block.
+	 */
+	private byte[] compressed;
+
+	/**
+	 * Used for deflate compression.
+	 */
+	private Deflater deflater;
+
+	/**
+	 * The number of records in the block being filled.
+	 */
+	private int blockCount;
+
+	/**
+	 * The total number of records written.
+	 */
+	private long recordCount;
+
+	/**
+	 * The file position of each block written.
+	 */
+	private long[] blockPosition = new long[16];
+
+	/**
+	 * The stored length of each block written.
+	 */
+	private int[] blockLength = new int[16];
+
+	/**
+	 * The number of blocks written.
+	 */
+	private int blocks;
+
+	/**
+	 * Where the next block will be written.
+	 */
+	private long position;
+
+	/**
+	 * Construct a writer. All columns default to Float64.
+	 * 
+	 * @param theFile
+	 *            The file to write, any existing file is replaced.
+	 * @param theInputCount
+	 *            The number of input values per record.
+	 * @param theIdealCount
+	 *            The number of ideal values per record.
+	 */
+	public EncogEGB2Writer(final File theFile, final int theInputCount,
+			final int theIdealCount) {
+		this.file = theFile;
+		this.inputCount = theInputCount;
+		this.idealCount = theIdealCount;
+		final int columns = theInputCount + theIdealCount + 1;
+		this.types = new EGBColumnType[columns];
+		this.scale = new double[columns];
+		this.offset = new double[columns];
+		for (int i = 0; i < columns; i++) {
+			this.types[i] = EGBColumnType.Float64;
+		}
+	}
+
+	/**
+	 * Make sure the file has not been started.
+	 */
+	private void checkNotStarted() {
+		if (this.raf != null) {
+			throw new BufferedDataError(
+					"The layout cannot be changed after writing has begun.");
+		}
+	}
+
+	/**
+	 * Set the storage type of a column. Input columns come first, then ideal
+	 * columns, then the significance.
+	 * 
+	 * @param col
+	 *            The column.
+	 * @param type
+	 *            The storage type.
+	 * @param min
+	 *            The smallest value the column holds, used by quantized types.
+	 * @param max
+	 *            The largest value the column holds, used by quantized types.
+	 */
+	public final void setColumn(final int col, final EGBColumnType type,
+			final double min, final double max) {
+		checkNotStarted();
+		this.types[col] = type;
+		if (type.isQuantized()) {
+			this.offset[col] = min;
+			this.scale[col] = (max > min) ? (max - min) / type.getSteps() : 0;
+		} else {
+			this.offset[col] = 0;
+			this.scale[col] = 0;
+		}
+	}
+
+	/**
+	 * Set the storage type of every input and ideal column.
+	 * 
+	 * @param type
+	 *            The storage type.
+	 * @param min
+	 *            The smallest value, used by quantized types.
+	 * @param max
+	 *            The largest value, used by quantized types.
+	 */
+	public final void setColumns(final EGBColumnType type, final double min,
+			final double max) {
+		for (int i = 0; i < this.inputCount + this.idealCount; i++) {
+			setColumn(i, type, min, max);
+		}
+	}
+
+	/**
+	 * @param theCompression
+	 *            The compression to use.
+	 */
+	public final void setCompression(final EGBCompression theCompression) {
+		checkNotStarted();
+		this.compression = theCompression;
+	}
+
+	/**
+	 * Set the number of records per block. Smaller blocks make random access
+	 * cheaper, larger blocks compress better.
+	 * 
+	 * @param theBlockRecords
+	 *            The records per block, or zero for about 64KB per block.
+	 */
+	public final void setBlockRecords(final int theBlockRecords) {
+		checkNotStarted();
+		this.blockRecords = theBlockRecords;
+	}
+
+	/**
+	 * Create the file and write the header.
+	 * 
+	 * @throws IOException
+	 *             If the file could not be written.
+	 */
+	private void begin() throws IOException {
+		final int columns = this.types.length;
+		this.columnOffset = new int[columns];
+		this.rowSize = 0;
+		for (int i = 0; i < columns; i++) {
+			this.columnOffset[i] = this.rowSize;
+			this.rowSize += this.types[i].getSize();
+		}
+
+		if (this.blockRecords < 1) {
+			this.blockRecords = Math.max(1,
+					EncogEGB2Writer.DEFAULT_BLOCK_BYTES / this.rowSize);
+		}
+
+		final int blockSize = this.blockRecords * this.rowSize;
+		this.block = new byte[blockSize];
+		this.blockView = ByteBuffer.wrap(this.block).order(
+				ByteOrder.LITTLE_ENDIAN);
+		if (this.compression != EGBCompression.None) {
+			this.shuffled = new byte[blockSize];
+			this.compressed = new byte[LZ4Block
+					.maxCompressedLength(blockSize)];
+		}
+		if (this.compression == EGBCompression.Deflate) {
+			this.deflater = new Deflater(Deflater.BEST_SPEED);
+		}
+
+		final int headerSize = EncogEGB2File.HEADER_SIZE
+				+ (columns * EncogEGB2File.COLUMN_HEADER_SIZE);
+		final ByteBuffer header = ByteBuffer.allocate(headerSize).order(
+				ByteOrder.LITTLE_ENDIAN);
+		header.put(EncogEGBFile.createID(EncogEGB2File.VERSION));
+		header.putInt(this.inputCount);
+		header.putInt(this.idealCount);
+		header.putLong(0);
+		header.putInt(this.blockRecords);
+		header.putInt(this.compression.ordinal());
+		header.putLong(0);
+		for (int i = 0; i < columns; i++) {
+			header.put((byte) this.types[i].ordinal());
+			header.putDouble(this.scale[i]);
+			header.putDouble(this.offset[i]);
+		}
+
+		this.file.delete();
+		this.raf = new RandomAccessFile(this.file, "rw");
+		this.raf.write(header.array());
+		this.position = headerSize;
+	}
+
+	/**
+	 * Store one value in the block being filled.
+	 * 
+	 * @param col
+	 *            The column.
+	 * @param value
+	 *            The value.
+	 */
+	private void putValue(final int col, final double value) {
+		final EGBColumnType type = this.types[col];
+		final int pos = (this.columnOffset[col] * this.blockRecords)
+				+ (this.blockCount * type.getSize());
+		switch (type) {
+		case Float64:
+			this.blockView.putDouble(pos, value);
+			break;
+		case Float32:
+			this.blockView.putFloat(pos, (float) value);
+			break;
+		case Int16:
+			this.blockView.putShort(pos, (short) quantize(col, value));
+			break;
+		case Int8:
+			this.block[pos] = (byte) quantize(col, value);
+			break;
+		default:
+			throw new BufferedDataError("Unknown column type.");
+		}
+	}
+
+	/**
+	 * Quantize a value to the range of its column.
+	 * 
+	 * @param col
+	 *            The column.
+	 * @param value
+	 *            The value.
+	 * @return The quantized value.
+	 */
+	private int quantize(final int col, final double value) {
+		if (this.scale[col] == 0) {
+			return 0;
+		}
+		final long q = Math.round((value - this.offset[col])
+				/ this.scale[col]);
+		return (int) Math.max(0, Math.min(this.types[col].getSteps(), q));
+	}
+
+	/**
+	 * Write a record.
+	 * 
+	 * @param input
+	 *            The input values.
+	 * @param ideal
+	 *            The ideal values, may be null if there are none.
+	 * @param significance
+	 *            The significance of the record.
+	 */
+	public final void write(final double[] input, final double[] ideal,
+			final double significance) {
+		try {
+			if (this.raf == null) {
+				begin();
+			}
+
+			for (int i = 0; i < this.inputCount; i++) {
+				putValue(i, input[i]);
+			}
+			for (int i = 0; i < this.idealCount; i++) {
+				putValue(this.inputCount + i, ideal[i]);
+			}
+			putValue(this.inputCount + this.idealCount, significance);
+
+			this.blockCount++;
+			this.recordCount++;
+			if (this.blockCount == this.blockRecords) {
+				flushBlock();
+			}
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		}
+	}
+
+	/**
+	 * Write a record.
+	 * 
+	 * @param pair
+	 *            The record to write.
+	 */
+	public final void write(final MLDataPair pair) {
+		write(pair.getInputArray(), pair.getIdealArray(), 
+				pair.getSignificance());
+	}
+
+	/**
+	 * Compress and write the block being filled.
+	 * 
+	 * @throws IOException
+	 *             If the block could not be written.
+	 */
+	private void flushBlock() throws IOException {
+		final int records = this.blockCount;
+
+		// pack the columns of a partial block together
+		if (records < this.blockRecords) {
+			for (int c = 1; c < this.types.length; c++) {
+				System.arraycopy(this.block, this.columnOffset[c]
+						* this.blockRecords, this.block, this.columnOffset[c]
+						* records, this.types[c].getSize() * records);
+			}
+		}
+
+		final int size = records * this.rowSize;
+		byte[] out;
+		int length;
+
+		if (this.compression == EGBCompression.None) {
+			out = this.block;
+			length = size;
+		} else {
+			for (int c = 0; c < this.types.length; c++) {
+				EncogEGB2File.shuffle(this.block, this.shuffled,
+						this.columnOffset[c] * records, records,
+						this.types[c].getSize(), true);
+			}
+			out = this.compressed;
+			if (this.compression == EGBCompression.LZ4) {
+				length = LZ4Block.compress(this.shuffled, size, out);
+			} else {
+				this.deflater.reset();
+				this.deflater.setInput(this.shuffled, 0, size);
+				this.deflater.finish();
+				length = 0;
+				while (!this.deflater.finished()) {
+					if (length == out.length) {
+						final byte[] larger = new byte[out.length * 2];
+						System.arraycopy(out, 0, larger, 0, length);
+						out = larger;
+						this.compressed = larger;
+					}
+					length += this.deflater.deflate(out, length, out.length
+							- length);
+				}
+			}
+		}
+
+		this.raf.seek(this.position);
+		this.raf.write(out, 0, length);
+
+		if (this.blocks == this.blockPosition.length) {
+			final long[] positions = new long[this.blocks * 2];
+			final int[] lengths = new int[this.blocks * 2];
+			System.arraycopy(this.blockPosition, 0, positions, 0, this.blocks);
+			System.arraycopy(this.blockLength, 0, lengths, 0, this.blocks);
+			this.blockPosition = positions;
+			this.blockLength = lengths;
+		}
+		this.blockPosition[this.blocks] = this.position;
+		this.blockLength[this.blocks] = length;
+		this.blocks++;
+		this.position += length;
+		this.blockCount = 0;
+	}
+
+	/**
+	 * Write any partial block, the block index and the final header, then
+	 * close the file.
+	 */
+	public final void close() {
+		try {
+			if (this.raf == null) {
+				begin();
+			}
+			if (this.blockCount > 0) {
+				flushBlock();
+			}
+
+			final ByteBuffer index = ByteBuffer.allocate(
+					this.blocks * EncogEGB2File.INDEX_ENTRY_SIZE).order(
+					ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < this.blocks; i++) {
+				index.putLong(this.blockPosition[i]);
+				index.putInt(this.blockLength[i]);
+			}
+			this.raf.seek(this.position);
+			this.raf.write(index.array());
+
+			final ByteBuffer patch = ByteBuffer.allocate(8).order(
+					ByteOrder.LITTLE_ENDIAN);
+			patch.putLong(0, this.recordCount);
+			this.raf.seek(EncogEGB2File.OFFSET_RECORD_COUNT);
+			this.raf.write(patch.array());
+			patch.putLong(0, this.position);
+			this.raf.seek(EncogEGB2File.OFFSET_INDEX);
+			this.raf.write(patch.array());
+
+			this.raf.setLength(this.position + index.capacity());
+			this.raf.close();
+			this.raf = null;
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		} finally {
+			if (this.deflater != null) {
+				this.deflater.end();
+				this.deflater = null;
+			}
+		}
+	}
+
+	/**
+	 * @return The number of records written so far.
+	 */
+	public final long getRecordCount() {
+		return this.recordCount;
+	}
+
+	/**
+	 * Write a data set to a version 2 file. For quantized types the range of
+	 * each column is found first, which reads the data set twice.
+	 * 
+	 * @param source
+	 *            The data to write.
+	 * @param target
+	 *            The file to write.
+	 * @param type
+	 *            The storage type for the input and ideal columns.
+	 * @param theCompression
+	 *            The compression to use.
+	 */
+	public static void convert(final MLDataSet source, final File target,
+			final EGBColumnType type, final EGBCompression theCompression) {
+		final int inputCount = source.getInputSize();
+		final int idealCount = source.getIdealSize();
+		final EncogEGB2Writer writer = new EncogEGB2Writer(target,
+				inputCount, idealCount);
+		writer.setCompression(theCompression);
+
+		if (type.isQuantized()) {
+			final int columns = inputCount + idealCount;
+			final double[] min = new double[columns];
+			final double[] max = new double[columns];
+			EngineArray.fill(min, Double.POSITIVE_INFINITY);
+			EngineArray.fill(max, Double.NEGATIVE_INFINITY);
+			for (final MLDataPair pair : source) {
+				for (int i = 0; i < inputCount; i++) {
+					min[i] = Math.min(min[i], pair.getInputArray()[i]);
+					max[i] = Math.max(max[i], pair.getInputArray()[i]);
+				}
+				for (int i = 0; i < idealCount; i++) {
+					final double d = pair.getIdealArray()[i];
+					min[inputCount + i] = Math.min(min[inputCount + i], d);
+					max[inputCount + i] = Math.max(max[inputCount + i], d);
+				}
+			}
+			for (int i = 0; i < columns; i++) {
+				if (min[i] > max[i]) {
+					min[i] = max[i] = 0;
+				}
+				writer.setColumn(i, type, min[i], max[i]);
+			}
+		} else {
+			writer.setColumns(type, 0, 0);
+		}
+
+		for (final MLDataPair pair : source) {
+			writer.write(pair);
+		}
+		writer.close();
+	}
+}
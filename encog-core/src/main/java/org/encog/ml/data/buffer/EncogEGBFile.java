@@ -24,17 +24,22 @@
 package org.encog.ml.data.buffer;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 
 /**
- * Used to access an Encog Binary Training file (*.EGB).
+ * Used to access an Encog Binary Training file (*.EGB) in the version 0
+ * format (ENCOG-00), where every value is a little-endian double and each
+ * record is a fixed size. These files can be edited in place. Compact, read
+ * only version 2 files are handled by EncogEGB2File.
  * 
  */
-public class EncogEGBFile {
+public class EncogEGBFile implements EGBRowStore {
 
 	/**
 	 * The size of a double.
@@ -46,6 +51,84 @@ public class EncogEGBFile {
 	 */
 	public static final int HEADER_SIZE = EncogEGBFile.DOUBLE_SIZE * 3;
 
+	/**
+	 * The size of the identifier at the start of every EGB file.
+	 */
+	public static final int ID_SIZE = 8;
+
+	/**
+	 * Create the identifier for the start of an EGB file.
+	 * 
+	 * @param version
+	 *            The format version.
+	 * @return The identifier, for example ENCOG-00.
+	 */
+	public static byte[] createID(final int version) {
+		final String str = "ENCOG-" + (version / 10) + (version % 10);
+		final byte[] result = new byte[EncogEGBFile.ID_SIZE];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = (byte) str.charAt(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Parse the identifier at the start of an EGB file.
+	 * 
+	 * @param id
+	 *            The identifier bytes.
+	 * @return The format version.
+	 */
+	public static int parseVersion(final byte[] id) {
+		final String prefix = "ENCOG-";
+		for (int i = 0; i < prefix.length(); i++) {
+			if (id[i] != prefix.charAt(i)) {
+				throw new BufferedDataError(
+						"File is not a valid Encog binary file.");
+			}
+		}
+		try {
+			return Integer.parseInt("" + (char) id[6] + (char) id[7]);
+		} catch (final NumberFormatException ex) {
+			throw new BufferedDataError("File has invalid version number.");
+		}
+	}
+
+	/**
+	 * Read the format version of an EGB file.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @return The format version.
+	 */
+	public static int readVersion(final File file) {
+		InputStream is = null;
+		try {
+			is = new FileInputStream(file);
+			final byte[] id = new byte[EncogEGBFile.ID_SIZE];
+			int done = 0;
+			while (done < id.length) {
+				final int count = is.read(id, done, id.length - done);
+				if (count < 0) {
+					throw new BufferedDataError(
+							"File is not a valid Encog binary file:" + file);
+				}
+				done += count;
+			}
+			return EncogEGBFile.parseVersion(id);
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (final IOException ex) {
+					// ignore
+				}
+			}
+		}
+	}
+
 	/**
 	 * The file that we are working with.
 	 */
@@ -199,8 +282,7 @@ public class EncogEGBFile {
 			this.recordSize = this.recordCount * EncogEGBFile.DOUBLE_SIZE;
 
 			// adjust file size
-			this.raf.setLength((this.numberOfRecords * this.recordSize)
-					+ EncogEGBFile.HEADER_SIZE);
+			this.raf.setLength(calculateIndex(this.numberOfRecords));
 
 		} catch (final IOException ex) {
 			throw new BufferedDataError(ex);
@@ -217,13 +299,11 @@ public class EncogEGBFile {
 		try {
 			this.numberOfRecords++;
 
-			this.raf.setLength((this.numberOfRecords * this.recordSize)
-					+ EncogEGBFile.HEADER_SIZE);
+			this.raf.setLength(calculateIndex(this.numberOfRecords));
 
 			for (int i = this.numberOfRecords - 1; i >= row; i--) {
-				final int s = EncogEGBFile.HEADER_SIZE + (this.recordSize * i);
-				final int t = EncogEGBFile.HEADER_SIZE + (this.recordSize * i)
-						+ this.recordSize;
+				final long s = calculateIndex(i);
+				final long t = calculateIndex(i + 1);
 
 				clear();
 				this.fc.read(this.recordBuffer, s);
@@ -237,8 +317,7 @@ public class EncogEGBFile {
 			}
 			this.recordBuffer.putDouble(1.0);
 			this.recordBuffer.flip();
-			this.fc.write(this.recordBuffer, EncogEGBFile.HEADER_SIZE
-					+ (this.recordSize * row));
+			this.fc.write(this.recordBuffer, calculateIndex(row));
 
 		} catch (final IOException ex) {
 			throw new BufferedDataError(ex);
@@ -266,9 +345,8 @@ public class EncogEGBFile {
 	 *            The column to read.
 	 * @return THe value read.
 	 */
-	private int calculateIndex(final int row, final int col) {
-		return EncogEGBFile.HEADER_SIZE + (row * this.recordSize)
-				+ (col * EncogEGBFile.DOUBLE_SIZE);
+	private long calculateIndex(final int row, final int col) {
+		return calculateIndex(row) + ((long) col * EncogEGBFile.DOUBLE_SIZE);
 	}
 
 	/**
@@ -456,8 +534,7 @@ public class EncogEGBFile {
 			this.recordSize = this.recordCount * EncogEGBFile.DOUBLE_SIZE;
 
 			// adjust file size
-			this.raf.setLength((this.numberOfRecords * this.recordSize)
-					+ EncogEGBFile.HEADER_SIZE);
+			this.raf.setLength(calculateIndex(this.numberOfRecords));
 
 		} catch (final IOException ex) {
 			throw new BufferedDataError(ex);
@@ -474,9 +551,8 @@ public class EncogEGBFile {
 	public final void deleteRow(final int row) {
 		try {
 			for (int i = row; i < this.numberOfRecords - 1; i++) {
-				final int s = EncogEGBFile.HEADER_SIZE + (this.recordSize * i)
-						+ this.recordSize;
-				final int t = EncogEGBFile.HEADER_SIZE + (this.recordSize * i);
+				final long s = calculateIndex(i + 1);
+				final long t = calculateIndex(i);
 
 				clear();
 				this.fc.read(this.recordBuffer, s);
@@ -486,8 +562,7 @@ public class EncogEGBFile {
 
 			this.numberOfRecords--;
 
-			this.raf.setLength((this.numberOfRecords * this.recordSize)
-					+ EncogEGBFile.HEADER_SIZE);
+			this.raf.setLength(calculateIndex(this.numberOfRecords));
 		} catch (final IOException ex) {
 			throw new BufferedDataError(ex);
 		}
@@ -575,36 +650,19 @@ public class EncogEGBFile {
 			this.headerBuffer.clear();
 			this.headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
 
-			boolean isEncogFile = true;
-
 			this.fc.read(this.headerBuffer);
 			this.headerBuffer.position(0);
 
-			isEncogFile = isEncogFile ? this.headerBuffer.get() == 'E' : false;
-			isEncogFile = isEncogFile ? this.headerBuffer.get() == 'N' : false;
-			isEncogFile = isEncogFile ? this.headerBuffer.get() == 'C' : false;
-			isEncogFile = isEncogFile ? this.headerBuffer.get() == 'O' : false;
-			isEncogFile = isEncogFile ? this.headerBuffer.get() == 'G' : false;
-			isEncogFile = isEncogFile ? this.headerBuffer.get() == '-' : false;
-
-			if (!isEncogFile) {
+			final byte[] id = new byte[EncogEGBFile.ID_SIZE];
+			this.headerBuffer.get(id);
+			final int version = EncogEGBFile.parseVersion(id);
+			if (version == EncogEGB2File.VERSION) {
+				throw new BufferedDataError("File is a version 2 EGB file, "
+						+ "which is read only, use EncogEGB2File: "
+						+ this.file);
+			} else if (version > 0) {
 				throw new BufferedDataError(
-						"File is not a valid Encog binary file:"
-								+ this.file.toString());
-			}
-
-			final char v1 = (char) this.headerBuffer.get();
-			final char v2 = (char) this.headerBuffer.get();
-			final String versionStr = "" + v1 + v2;
-
-			try {
-				final int version = Integer.parseInt(versionStr);
-				if (version > 0) {
-					throw new BufferedDataError(
 "File is from a newer version of Encog than is currently in use.");
-				}
-			} catch (final NumberFormatException ex) {
-				throw new BufferedDataError("File has invalid version number.");
 			}
 
 			this.inputCount = (int) this.headerBuffer.getDouble();
@@ -615,9 +673,14 @@ public class EncogEGBFile {
 			if( this.recordSize==0 ) {
 				this.numberOfRecords = 0;
 			} else {
-				this.numberOfRecords 
-					= (int) ((this.file.length() - EncogEGBFile.HEADER_SIZE) 
-						/ this.recordSize);
+				final long records = (this.file.length() 
+						- EncogEGBFile.HEADER_SIZE) / this.recordSize;
+				if (records > Integer.MAX_VALUE) {
+					throw new BufferedDataError("File has more records than "
+							+ "a version 0 EGB file can address, "
+							+ "convert it to version 2: " + this.file);
+				}
+				this.numberOfRecords = (int) records;
 			}
 
 			this.recordBuffer = ByteBuffer.allocate(this.recordSize);
@@ -709,6 +772,65 @@ public class EncogEGBFile {
 
 	}
 
+	/**
+	 * Read a block of consecutive records with one positioned read.
+	 * 
+	 * @param firstRow
+	 *            The first record to read.
+	 * @param count
+	 *            The number of records to read.
+	 * @param d
+	 *            The array to read into, at least count * getRecordCount()
+	 *            long.
+	 */
+	public final void readRows(final long firstRow, final int count,
+			final double[] d) {
+		try {
+			final ByteBuffer buffer = ByteBuffer.allocate(count
+					* this.recordSize);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			long location = calculateIndex(firstRow);
+			while (buffer.hasRemaining()) {
+				final int read = this.fc.read(buffer, location);
+				if (read < 0) {
+					throw new BufferedDataError("Unexpected end of file at row "
+							+ (firstRow + count - 1) + ".");
+				}
+				location += read;
+			}
+			buffer.flip();
+			buffer.asDoubleBuffer().get(d, 0, count * this.recordCount);
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		}
+	}
+
+	/**
+	 * Write a block of consecutive records with one positioned write.
+	 * 
+	 * @param firstRow
+	 *            The first record to write.
+	 * @param count
+	 *            The number of records to write.
+	 * @param d
+	 *            The values to write, count * getRecordCount() long.
+	 */
+	public final void writeRows(final long firstRow, final int count,
+			final double[] d) {
+		try {
+			final ByteBuffer buffer = ByteBuffer.allocate(count
+					* this.recordSize);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.asDoubleBuffer().put(d, 0, count * this.recordCount);
+			long location = calculateIndex(firstRow);
+			while (buffer.hasRemaining()) {
+				location += this.fc.write(buffer, location);
+			}
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		}
+	}
+
 	/**
 	 * Set the current location to the specified row.
 	 * 
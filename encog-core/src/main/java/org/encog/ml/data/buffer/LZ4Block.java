@@ -0,0 +1,280 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.buffer;
+
+import java.util.Arrays;
+
+/**
+ * Compresses and decompresses data in the LZ4 block format. This is a small,
+ * greedy implementation: it finds matches through a hash of four byte
+ * sequences, which keeps compression fast and makes decompression little
+ * more than a series of array copies.
+ */
+public final class LZ4Block {
+
+	/**
+	 * The minimum length of a match.
+	 */
+	public static final int MIN_MATCH = 4;
+
+	/**
+	 * The number of bytes at the end of a block that must be literals.
+	 */
+	public static final int LAST_LITERALS = 5;
+
+	/**
+	 * No match may start within this many bytes of the end of a block.
+	 */
+	public static final int MF_LIMIT = 12;
+
+	/**
+	 * The largest distance back that a match can refer to.
+	 */
+	public static final int MAX_DISTANCE = 0xffff;
+
+	/**
+	 * The number of bits in the hash table index.
+	 */
+	public static final int HASH_LOG = 12;
+
+	/**
+	 * Private constructor.
+	 */
+	private LZ4Block() {
+
+	}
+
+	/**
+	 * The largest size that compressing the specified number of bytes can
+	 * produce, for incompressible data.
+	 * 
+	 * @param length
+	 *            The number of bytes to compress.
+	 * @return The largest compressed size.
+	 */
+	public static int maxCompressedLength(final int length) {
+		return length + (length / 255) + 16;
+	}
+
+	/**
+	 * Read a little-endian int.
+	 * 
+	 * @param b
+	 *            The array.
+	 * @param i
+	 *            The index.
+	 * @return The value.
+	 */
+	private static int readInt(final byte[] b, final int i) {
+		return (b[i] & 0xff) | ((b[i + 1] & 0xff) << 8)
+				| ((b[i + 2] & 0xff) << 16) | ((b[i + 3] & 0xff) << 24);
+	}
+
+	/**
+	 * Write a length that did not fit in a token nibble.
+	 * 
+	 * @param dst
+	 *            The output.
+	 * @param op
+	 *            The output position.
+	 * @param length
+	 *            The remaining length, the nibble value already removed.
+	 * @return The new output position.
+	 */
+	private static int writeLength(final byte[] dst, final int op,
+			final int length) {
+		int pos = op;
+		int remaining = length;
+		while (remaining >= 255) {
+			dst[pos++] = (byte) 255;
+			remaining -= 255;
+		}
+		dst[pos++] = (byte) remaining;
+		return pos;
+	}
+
+	/**
+	 * Write literals, and the token that introduces them.
+	 * 
+	 * @param dst
+	 *            The output.
+	 * @param op
+	 *            The output position.
+	 * @param src
+	 *            The input.
+	 * @param anchor
+	 *            The first literal.
+	 * @param literals
+	 *            The number of literals.
+	 * @param matchNibble
+	 *            The low nibble of the token.
+	 * @return The new output position.
+	 */
+	private static int writeLiterals(final byte[] dst, final int op,
+			final byte[] src, final int anchor, final int literals,
+			final int matchNibble) {
+		int pos = op;
+		if (literals >= 15) {
+			dst[pos++] = (byte) ((15 << 4) | matchNibble);
+			pos = writeLength(dst, pos, literals - 15);
+		} else {
+			dst[pos++] = (byte) ((literals << 4) | matchNibble);
+		}
+		System.arraycopy(src, anchor, dst, pos, literals);
+		return pos + literals;
+	}
+
+	/**
+	 * Compress a block.
+	 * 
+	 * @param src
+	 *            The data to compress.
+	 * @param length
+	 *            The number of bytes to compress.
+	 * @param dst
+	 *            The output, which must hold at least maxCompressedLength
+	 *            bytes.
+	 * @return The compressed length.
+	 */
+	public static int compress(final byte[] src, final int length,
+			final byte[] dst) {
+		final int[] table = new int[1 << LZ4Block.HASH_LOG];
+		Arrays.fill(table, -1);
+
+		final int matchStartLimit = length - LZ4Block.MF_LIMIT;
+		final int matchEndLimit = length - LZ4Block.LAST_LITERALS;
+		int anchor = 0;
+		int ip = 0;
+		int op = 0;
+
+		while (ip < matchStartLimit) {
+			final int sequence = LZ4Block.readInt(src, ip);
+			final int hash = (sequence * -1640531535) 
+				>>> (32 - LZ4Block.HASH_LOG);
+			final int ref = table[hash];
+			table[hash] = ip;
+
+			if (ref < 0 || ip - ref > LZ4Block.MAX_DISTANCE
+					|| LZ4Block.readInt(src, ref) != sequence) {
+				ip++;
+				continue;
+			}
+
+			int matchLength = LZ4Block.MIN_MATCH;
+			while (ip + matchLength < matchEndLimit
+					&& src[ref + matchLength] == src[ip + matchLength]) {
+				matchLength++;
+			}
+
+			final int extra = matchLength - LZ4Block.MIN_MATCH;
+			op = LZ4Block.writeLiterals(dst, op, src, anchor, ip - anchor,
+					Math.min(extra, 15));
+			final int offset = ip - ref;
+			dst[op++] = (byte) offset;
+			dst[op++] = (byte) (offset >>> 8);
+			if (extra >= 15) {
+				op = LZ4Block.writeLength(dst, op, extra - 15);
+			}
+
+			ip += matchLength;
+			anchor = ip;
+		}
+
+		return LZ4Block.writeLiterals(dst, op, src, anchor, length - anchor,
+				0);
+	}
+
+	/**
+	 * Decompress a block.
+	 * 
+	 * @param src
+	 *            The compressed data.
+	 * @param srcLength
+	 *            The compressed length.
+	 * @param dst
+	 *            The output.
+	 * @param dstLength
+	 *            The expected decompressed length.
+	 */
+	public static void decompress(final byte[] src, final int srcLength,
+			final byte[] dst, final int dstLength) {
+		int ip = 0;
+		int op = 0;
+
+		try {
+			while (true) {
+				final int token = src[ip++] & 0xff;
+
+				int literals = token >>> 4;
+				if (literals == 15) {
+					int b;
+					do {
+						b = src[ip++] & 0xff;
+						literals += b;
+					} while (b == 255);
+				}
+				System.arraycopy(src, ip, dst, op, literals);
+				ip += literals;
+				op += literals;
+
+				if (ip >= srcLength) {
+					break;
+				}
+
+				final int offset = (src[ip] & 0xff) | ((src[ip + 1] & 0xff) << 8);
+				ip += 2;
+				int matchLength = token & 0x0f;
+				if (matchLength == 15) {
+					int b;
+					do {
+						b = src[ip++] & 0xff;
+						matchLength += b;
+					} while (b == 255);
+				}
+				matchLength += LZ4Block.MIN_MATCH;
+
+				final int ref = op - offset;
+				if (offset == 0 || ref < 0) {
+					throw new BufferedDataError("Corrupt LZ4 block.");
+				}
+				if (offset >= matchLength) {
+					System.arraycopy(dst, ref, dst, op, matchLength);
+				} else {
+					// overlapping copy, repeats the last offset bytes
+					for (int i = 0; i < matchLength; i++) {
+						dst[op + i] = dst[ref + i];
+					}
+				}
+				op += matchLength;
+			}
+		} catch (final IndexOutOfBoundsException e) {
+			throw new BufferedDataError("Corrupt LZ4 block.");
+		}
+
+		if (op != dstLength) {
+			throw new BufferedDataError("Corrupt LZ4 block, expected "
+					+ dstLength + " bytes, but decoded " + op + ".");
+		}
+	}
+}
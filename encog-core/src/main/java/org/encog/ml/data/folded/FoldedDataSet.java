@@ -157,7 +157,7 @@ public class FoldedDataSet implements MLDataSet {
 		this.foldSize = (int) (this.underlying.getRecordCount() 
 					/ this.numFolds);
 		this.lastFoldSize = (int) (this.underlying.getRecordCount() 
-					- (this.foldSize * this.numFolds));
+					- (this.foldSize * (this.numFolds - 1)));
 		setCurrentFold(0);
 	}
 
@@ -287,7 +287,7 @@ public class FoldedDataSet implements MLDataSet {
 					"Can't set the fold on a non-top-level set.");
 		}
 
-		if (currentFold >= this.numFolds) {
+		if (theCurrentFold >= this.numFolds) {
 			throw new TrainingError(
 		"Can't set the current fold to be greater than " 
 					+ "the number of folds.");
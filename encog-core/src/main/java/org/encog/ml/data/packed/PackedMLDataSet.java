@@ -0,0 +1,629 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.data.packed;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+import org.encog.EncogError;
+import org.encog.ml.data.MLData;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.MLlDataError;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.ml.data.buffer.BufferedDataError;
+import org.encog.ml.data.buffer.EncogEGBFile;
+
+/**
+ * A memory based dataset that stores input, ideal and significance values in
+ * packed primitive arrays. Where BasicMLDataSet holds a BasicMLDataPair and two
+ * BasicMLData objects for every record, this dataset holds a handful of large
+ * double arrays, each containing many records laid out one after the other.
+ * This removes the per-record object overhead and lets training loops stream
+ * through memory sequentially.
+ * 
+ * The arrays are allocated in blocks, so the dataset can grow without copying
+ * all existing records, and can hold more values than fit in a single Java
+ * array.
+ * 
+ * The getRecord method copies a record into the arrays already held by the
+ * pair passed to it, so a single pair can be reused for every record without
+ * any allocation. The iterator creates a new pair for each record, as callers
+ * are allowed to hold on to the pairs it returns.
+ * 
+ * Datasets returned by openAdditional share the same storage as the dataset
+ * that created them, so they are cheap to create.
+ */
+public class PackedMLDataSet implements Serializable, MLDataSet {
+
+	/**
+	 * An iterator to be used with the PackedMLDataSet. This iterator does not
+	 * support removes.
+	 */
+	public class PackedMLIterator implements Iterator<MLDataPair> {
+
+		/**
+		 * The index that the iterator is currently at.
+		 */
+		private long currentIndex = 0;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public final boolean hasNext() {
+			return this.currentIndex < PackedMLDataSet.this.getRecordCount();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public final MLDataPair next() {
+			if (!hasNext()) {
+				return null;
+			}
+
+			final MLDataPair pair = BasicMLDataPair.createPair(
+					getInputSize(), getIdealSize());
+			getRecord(this.currentIndex++, pair);
+			return pair;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public final void remove() {
+			throw new EncogError("Called remove, unsupported operation.");
+		}
+	}
+
+	/**
+	 * The storage shared between a dataset and any additional datasets opened
+	 * from it.
+	 */
+	private static final class Store implements Serializable {
+
+		/**
+		 * The serial id.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of input values per record.
+		 */
+		private final int inputSize;
+
+		/**
+		 * The number of ideal values per record.
+		 */
+		private final int idealSize;
+
+		/**
+		 * The maximum number of records held by one block.
+		 */
+		private final int rowsPerBlock;
+
+		/**
+		 * The input blocks.
+		 */
+		private double[][] inputBlocks = new double[0][];
+
+		/**
+		 * The ideal blocks, empty arrays for unsupervised data.
+		 */
+		private double[][] idealBlocks = new double[0][];
+
+		/**
+		 * The significance blocks.
+		 */
+		private double[][] significanceBlocks = new double[0][];
+
+		/**
+		 * The number of blocks allocated.
+		 */
+		private int blockCount;
+
+		/**
+		 * The number of records stored.
+		 */
+		private long recordCount;
+
+		/**
+		 * Construct the storage.
+		 * 
+		 * @param theInputSize
+		 *            The input size.
+		 * @param theIdealSize
+		 *            The ideal size.
+		 * @param theRowsPerBlock
+		 *            The maximum number of records per block.
+		 */
+		Store(final int theInputSize, final int theIdealSize,
+				final int theRowsPerBlock) {
+			this.inputSize = theInputSize;
+			this.idealSize = theIdealSize;
+			this.rowsPerBlock = theRowsPerBlock;
+		}
+
+		/**
+		 * @return The number of records the allocated blocks can hold.
+		 */
+		private long capacity() {
+			if (this.blockCount == 0) {
+				return 0;
+			}
+			return ((long) (this.blockCount - 1) * this.rowsPerBlock)
+					+ this.significanceBlocks[this.blockCount - 1].length;
+		}
+
+		/**
+		 * Make sure the blocks can hold the specified number of records.
+		 * 
+		 * @param records
+		 *            The number of records required.
+		 */
+		void ensureCapacity(final long records) {
+			long capacity = capacity();
+			while (capacity < records) {
+				final long needed = records - capacity;
+				final int lastRows = this.blockCount == 0 ? this.rowsPerBlock
+						: this.significanceBlocks[this.blockCount - 1].length;
+
+				if (lastRows < this.rowsPerBlock) {
+					// grow the last block, doubling to amortize the copy
+					final int rows = (int) Math.min(this.rowsPerBlock,
+							Math.max(lastRows * 2L, lastRows + needed));
+					resizeBlock(this.blockCount - 1, rows);
+				} else {
+					final int rows = (int) Math.min(this.rowsPerBlock,
+							Math.max(PackedMLDataSet.INITIAL_BLOCK_ROWS,
+									needed));
+					addBlock(rows);
+				}
+				capacity = capacity();
+			}
+		}
+
+		/**
+		 * Add a new block.
+		 * 
+		 * @param rows
+		 *            The number of records the block should hold.
+		 */
+		private void addBlock(final int rows) {
+			if (this.blockCount == this.significanceBlocks.length) {
+				final int size = Math.max(4, this.blockCount * 2);
+				this.inputBlocks = copyOf(this.inputBlocks, size);
+				this.idealBlocks = copyOf(this.idealBlocks, size);
+				this.significanceBlocks = copyOf(this.significanceBlocks,
+						size);
+			}
+			this.inputBlocks[this.blockCount] 
+			                 = new double[rows * this.inputSize];
+			this.idealBlocks[this.blockCount] 
+			                 = new double[rows * this.idealSize];
+			this.significanceBlocks[this.blockCount] = new double[rows];
+			this.blockCount++;
+		}
+
+		/**
+		 * Resize an existing block, keeping its contents.
+		 * 
+		 * @param block
+		 *            The block to resize.
+		 * @param rows
+		 *            The number of records the block should hold.
+		 */
+		private void resizeBlock(final int block, final int rows) {
+			this.inputBlocks[block] = copyOf(this.inputBlocks[block], rows
+					* this.inputSize);
+			this.idealBlocks[block] = copyOf(this.idealBlocks[block], rows
+					* this.idealSize);
+			this.significanceBlocks[block] = copyOf(
+					this.significanceBlocks[block], rows);
+		}
+
+		/**
+		 * Add one record.
+		 * 
+		 * @param input
+		 *            The input values.
+		 * @param ideal
+		 *            The ideal values, may be null for unsupervised data.
+		 * @param significance
+		 *            The significance.
+		 */
+		void append(final double[] input, final double[] ideal,
+				final double significance) {
+			ensureCapacity(this.recordCount + 1);
+			final int block = (int) (this.recordCount / this.rowsPerBlock);
+			final int row = (int) (this.recordCount 
+					- ((long) block * this.rowsPerBlock));
+
+			System.arraycopy(input, 0, this.inputBlocks[block], row
+					* this.inputSize, this.inputSize);
+			if (this.idealSize > 0) {
+				System.arraycopy(ideal, 0, this.idealBlocks[block], row
+						* this.idealSize, this.idealSize);
+			}
+			this.significanceBlocks[block][row] = significance;
+			this.recordCount++;
+		}
+
+		/**
+		 * Add one record, read from a buffer laid out as EGB records are:
+		 * input, then ideal, then significance. Capacity must already have
+		 * been ensured.
+		 * 
+		 * @param source
+		 *            The buffer to read from.
+		 */
+		void append(final DoubleBuffer source) {
+			final int block = (int) (this.recordCount / this.rowsPerBlock);
+			final int row = (int) (this.recordCount 
+					- ((long) block * this.rowsPerBlock));
+
+			source.get(this.inputBlocks[block], row * this.inputSize,
+					this.inputSize);
+			source.get(this.idealBlocks[block], row * this.idealSize,
+					this.idealSize);
+			this.significanceBlocks[block][row] = source.get();
+			this.recordCount++;
+		}
+
+		/**
+		 * Copy one record out of storage.
+		 * 
+		 * @param index
+		 *            The record to read.
+		 * @param input
+		 *            The array to copy the input into.
+		 * @param ideal
+		 *            The array to copy the ideal into, or null to skip.
+		 * @return The significance of the record.
+		 */
+		double read(final long index, final double[] input,
+				final double[] ideal) {
+			if (index < 0 || index >= this.recordCount) {
+				throw new MLlDataError("Record index out of range: " + index);
+			}
+
+			final int block = (int) (index / this.rowsPerBlock);
+			final int row = (int) (index - ((long) block * this.rowsPerBlock));
+
+			System.arraycopy(this.inputBlocks[block], row * this.inputSize,
+					input, 0, this.inputSize);
+			if (ideal != null && this.idealSize > 0) {
+				System.arraycopy(this.idealBlocks[block], row 
+						* this.idealSize, ideal, 0, this.idealSize);
+			}
+			return this.significanceBlocks[block][row];
+		}
+
+		/**
+		 * Copy an array of blocks into a new, larger, array.
+		 * 
+		 * @param blocks
+		 *            The blocks.
+		 * @param size
+		 *            The new size.
+		 * @return The new array.
+		 */
+		private static double[][] copyOf(final double[][] blocks, 
+				final int size) {
+			final double[][] result = new double[size][];
+			System.arraycopy(blocks, 0, result, 0, blocks.length);
+			return result;
+		}
+
+		/**
+		 * Copy an array into a new array of a different size.
+		 * 
+		 * @param data
+		 *            The array.
+		 * @param size
+		 *            The new size.
+		 * @return The new array.
+		 */
+		private static double[] copyOf(final double[] data, final int size) {
+			final double[] result = new double[size];
+			System.arraycopy(data, 0, result, 0, Math.min(size, data.length));
+			return result;
+		}
+	}
+
+	/**
+	 * The serial id.
+	 */
+	private static final long serialVersionUID = 2710565413924355764L;
+
+	/**
+	 * The default number of values (input, ideal and significance) to hold in
+	 * one block, 1M doubles, or 8MB.
+	 */
+	public static final int DEFAULT_BLOCK_VALUES = 1 << 20;
+
+	/**
+	 * The number of records that a newly created block starts out with. Blocks
+	 * grow until they reach their full size, so that small datasets do not
+	 * allocate a whole block.
+	 */
+	public static final int INITIAL_BLOCK_ROWS = 64;
+
+	/**
+	 * The number of EGB records to read per file channel read.
+	 */
+	public static final int EGB_READ_SIZE = 1 << 20;
+
+	/**
+	 * The storage, shared with any additional datasets.
+	 */
+	private final Store store;
+
+	/**
+	 * Construct an empty dataset.
+	 * 
+	 * @param inputSize
+	 *            The input size.
+	 * @param idealSize
+	 *            The ideal size, zero for unsupervised data.
+	 */
+	public PackedMLDataSet(final int inputSize, final int idealSize) {
+		this(inputSize, idealSize, PackedMLDataSet.DEFAULT_BLOCK_VALUES);
+	}
+
+	/**
+	 * Construct an empty dataset, specifying the block size.
+	 * 
+	 * @param inputSize
+	 *            The input size.
+	 * @param idealSize
+	 *            The ideal size, zero for unsupervised data.
+	 * @param blockValues
+	 *            The number of values to hold in one block.
+	 */
+	public PackedMLDataSet(final int inputSize, final int idealSize,
+			final int blockValues) {
+		final int recordValues = inputSize + idealSize + 1;
+		this.store = new Store(inputSize, idealSize, Math.max(1, blockValues
+				/ recordValues));
+	}
+
+	/**
+	 * Construct a data set from an input and ideal array.
+	 * 
+	 * @param input
+	 *            The input into the machine learning method for training.
+	 * @param ideal
+	 *            The ideal output for training, or null for unsupervised.
+	 */
+	public PackedMLDataSet(final double[][] input, final double[][] ideal) {
+		this(input.length > 0 ? input[0].length : 0,
+				(ideal != null && ideal.length > 0) ? ideal[0].length : 0);
+		this.store.ensureCapacity(input.length);
+		for (int i = 0; i < input.length; i++) {
+			this.store.append(input[i], ideal == null ? null : ideal[i], 1.0);
+		}
+	}
+
+	/**
+	 * Copy whatever dataset type is specified into a packed dataset.
+	 * 
+	 * @param set
+	 *            The dataset to copy.
+	 */
+	public PackedMLDataSet(final MLDataSet set) {
+		this(set.getInputSize(), set.getIdealSize());
+		this.store.ensureCapacity(set.getRecordCount());
+		for (final MLDataPair pair : set) {
+			add(pair);
+		}
+	}
+
+	/**
+	 * Construct a dataset that shares the storage of another.
+	 * 
+	 * @param theStore
+	 *            The storage to share.
+	 */
+	private PackedMLDataSet(final Store theStore) {
+		this.store = theStore;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void add(final MLData theData) {
+		this.store.append(theData.getData(), null, 1.0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void add(final MLData inputData, final MLData idealData) {
+		this.store.append(inputData.getData(), idealData == null ? null
+				: idealData.getData(), 1.0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void add(final MLDataPair inputData) {
+		this.store.append(inputData.getInputArray(), inputData
+				.getIdealArray(), inputData.getSignificance());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void close() {
+		// nothing to close
+	}
+
+	/**
+	 * Reserve room for the specified number of records. Calling this before
+	 * adding a known number of records avoids growing the blocks in steps.
+	 * 
+	 * @param records
+	 *            The total number of records to make room for.
+	 */
+	public final void ensureCapacity(final long records) {
+		this.store.ensureCapacity(records);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getIdealSize() {
+		return this.store.idealSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getInputSize() {
+		return this.store.inputSize;
+	}
+
+	/**
+	 * Read a record into the arrays already held by the pair, no objects are
+	 * allocated.
+	 * 
+	 * @param index
+	 *            The index to read.
+	 * @param pair
+	 *            The pair that the record will be copied into.
+	 */
+	@Override
+	public final void getRecord(final long index, final MLDataPair pair) {
+		pair.setSignificance(this.store.read(index, pair.getInputArray(),
+				pair.getIdealArray()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getRecordCount() {
+		return this.store.recordCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean isSupervised() {
+		return this.store.idealSize > 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Iterator<MLDataPair> iterator() {
+		return new PackedMLIterator();
+	}
+
+	/**
+	 * Load every record of an open EGB file, appending them to this dataset.
+	 * The file is read sequentially in large chunks, rather than one record
+	 * at a time.
+	 * 
+	 * @param egb
+	 *            The EGB file, must already be open.
+	 */
+	public final void load(final EncogEGBFile egb) {
+		if (egb.getInputCount() != getInputSize()
+				|| egb.getIdealCount() != getIdealSize()) {
+			throw new BufferedDataError(
+					"EGB file does not match the size of the dataset.");
+		}
+
+		final long records = egb.getNumberOfRecords();
+		final int recordSize = egb.getRecordSize();
+		final int chunkRecords = Math.max(1, PackedMLDataSet.EGB_READ_SIZE
+				/ recordSize);
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(chunkRecords
+				* recordSize);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		this.store.ensureCapacity(this.store.recordCount + records);
+
+		try {
+			final FileChannel fc = egb.getFc();
+			long position = EncogEGBFile.HEADER_SIZE;
+			long remaining = records;
+
+			while (remaining > 0) {
+				final int count = (int) Math.min(chunkRecords, remaining);
+				buffer.clear();
+				buffer.limit(count * recordSize);
+				while (buffer.hasRemaining()) {
+					final int read = fc.read(buffer, position
+							+ buffer.position());
+					if (read < 0) {
+						throw new BufferedDataError(
+								"Unexpected end of EGB file.");
+					}
+				}
+				buffer.flip();
+
+				final DoubleBuffer values = buffer.asDoubleBuffer();
+				for (int i = 0; i < count; i++) {
+					this.store.append(values);
+				}
+
+				position += (long) count * recordSize;
+				remaining -= count;
+			}
+		} catch (final IOException ex) {
+			throw new BufferedDataError(ex);
+		}
+	}
+
+	/**
+	 * Open an additional dataset. The new dataset shares the storage of this
+	 * one, so no records are copied.
+	 * 
+	 * @return The new dataset.
+	 */
+	@Override
+	public final MLDataSet openAdditional() {
+		return new PackedMLDataSet(this.store);
+	}
+
+}
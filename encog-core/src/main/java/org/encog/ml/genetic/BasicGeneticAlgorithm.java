@@ -59,8 +59,8 @@ public class BasicGeneticAlgorithm extends GeneticAlgorithm {
 		final int matingPopulationSize = (int) (getPopulation()
 				.getPopulationSize() * getMatingPopulation());
 
-		final TaskGroup group = EngineConcurrency.getInstance()
-				.createTaskGroup();
+		final EngineConcurrency engine = getEngine();
+		final TaskGroup group = engine.createTaskGroup();
 
 		// mate and form the next generation
 		for (int i = 0; i < countToMate; i++) {
@@ -76,7 +76,7 @@ public class BasicGeneticAlgorithm extends GeneticAlgorithm {
 					child2);
 
 			if( this.isMultiThreaded() ) {
-				EngineConcurrency.getInstance().processTask(worker, group);
+				engine.processTask(worker, group);
 			} else {
 				worker.run();
 			}
@@ -31,6 +31,7 @@ import org.encog.ml.genetic.genome.GenomeComparator;
 import org.encog.ml.genetic.mutate.Mutate;
 import org.encog.ml.genetic.population.Population;
 import org.encog.ml.genetic.species.Species;
+import org.encog.util.concurrency.EngineConcurrency;
 
 /**
  * Implements a genetic algorithm. This is an abstract class. Other classes are
@@ -89,6 +90,11 @@ public abstract class GeneticAlgorithm {
 	 */
 	private boolean multiThreaded = true;
 
+	/**
+	 * The concurrency object to use, or null for the shared instance.
+	 */
+	private EngineConcurrency engine;
+
 	/**
 	 * Add a genome.
 	 * 
@@ -289,5 +295,25 @@ public abstract class GeneticAlgorithm {
 	 */
 	public final void setMultiThreaded(boolean multiThreaded) {
 		this.multiThreaded = multiThreaded;
-	}	
+	}
+
+	/**
+	 * @return The concurrency object that runs the mating tasks.
+	 */
+	public final EngineConcurrency getEngine() {
+		if (this.engine == null) {
+			return EngineConcurrency.getInstance();
+		}
+		return this.engine;
+	}
+
+	/**
+	 * Set the concurrency object that runs the mating tasks.
+	 * 
+	 * @param theEngine
+	 *            The concurrency object, or null for the shared instance.
+	 */
+	public final void setEngine(final EngineConcurrency theEngine) {
+		this.engine = theEngine;
+	}
 }
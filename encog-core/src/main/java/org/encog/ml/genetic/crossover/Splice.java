@@ -24,10 +24,12 @@
 package org.encog.ml.genetic.crossover;
 
 import org.encog.ml.genetic.genome.Chromosome;
+import org.encog.ml.genetic.genome.DoubleChromosome;
 
 /**
  * A simple cross over where genes are simply "spliced". Genes are allowed to
- * repeat.
+ * repeat. Chromosomes backed by a primitive array are spliced with array
+ * copies, rather than gene by gene.
  */
 public class Splice implements Crossover {
 
@@ -58,13 +60,20 @@ public class Splice implements Crossover {
 	 */
 	public final void mate(final Chromosome mother, final Chromosome father,
 			final Chromosome offspring1, final Chromosome offspring2) {
-		final int geneLength = mother.getGenes().size();
+		final int geneLength = mother.size();
 
 		// the chromosome must be cut at two positions, determine them
 		final int cutpoint1 = (int) (Math.random() 
 				* (geneLength - this.cutLength));
 		final int cutpoint2 = cutpoint1 + this.cutLength;
 
+		if (mother instanceof DoubleChromosome) {
+			mate((DoubleChromosome) mother, (DoubleChromosome) father,
+					(DoubleChromosome) offspring1,
+					(DoubleChromosome) offspring2, cutpoint1, cutpoint2);
+			return;
+		}
+
 		// handle cut section
 		for (int i = 0; i < geneLength; i++) {
 			if (!((i < cutpoint1) || (i > cutpoint2))) {
@@ -81,4 +90,40 @@ public class Splice implements Crossover {
 			}
 		}
 	}
+
+	/**
+	 * Mate two chromosomes that are backed by primitive arrays.
+	 * @param mother
+	 *            The mother.
+	 * @param father
+	 *            The father.
+	 * @param offspring1
+	 *            Returns the first offspring
+	 * @param offspring2
+	 *            Returns the second offspring.
+	 * @param cutpoint1
+	 *            The first value of the cut section.
+	 * @param cutpoint2
+	 *            The last value of the cut section.
+	 */
+	private void mate(final DoubleChromosome mother,
+			final DoubleChromosome father, final DoubleChromosome offspring1,
+			final DoubleChromosome offspring2, final int cutpoint1,
+			final int cutpoint2) {
+		final double[] m = mother.getData();
+		final double[] f = father.getData();
+		final double[] o1 = offspring1.getData();
+		final double[] o2 = offspring2.getData();
+		final int cutEnd = Math.min(cutpoint2 + 1, m.length);
+
+		// outer sections
+		System.arraycopy(m, 0, o1, 0, cutpoint1);
+		System.arraycopy(f, 0, o2, 0, cutpoint1);
+		System.arraycopy(m, cutEnd, o1, cutEnd, m.length - cutEnd);
+		System.arraycopy(f, cutEnd, o2, cutEnd, m.length - cutEnd);
+
+		// cut section
+		System.arraycopy(f, cutpoint1, o1, cutpoint1, cutEnd - cutpoint1);
+		System.arraycopy(m, cutpoint1, o2, cutpoint1, cutEnd - cutpoint1);
+	}
 }
@@ -26,8 +26,10 @@ package org.encog.ml.genetic.crossover;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.encog.ml.genetic.GeneticError;
 import org.encog.ml.genetic.genes.Gene;
 import org.encog.ml.genetic.genome.Chromosome;
+import org.encog.ml.genetic.genome.DoubleChromosome;
 
 /**
  * A simple cross over where genes are simply "spliced". Genes are not allowed
@@ -88,6 +90,11 @@ public class SpliceNoRepeat implements Crossover {
 	 */
 	public final void mate(final Chromosome mother, final Chromosome father,
 			final Chromosome offspring1, final Chromosome offspring2) {
+		if (mother instanceof DoubleChromosome) {
+			throw new GeneticError(
+					"A no-repeat splice requires chromosomes of gene objects.");
+		}
+
 		final int geneLength = father.getGenes().size();
 
 		// the chromosome must be cut at two positions, determine them
@@ -90,7 +90,7 @@ public abstract class BasicGenome implements Genome, Serializable {
 
 		// sum the genes in the chromosomes.
 		for (final Chromosome chromosome : this.chromosomes) {
-			result += chromosome.getGenes().size();
+			result += chromosome.size();
 		}
 		return result;
 	}
@@ -91,7 +91,7 @@ public class Chromosome implements Serializable {
 	/**
 	 * @return The number of genes in this chromosome.
 	 */
-	public final int size() {
+	public int size() {
 		return genes.size();
 	}
 
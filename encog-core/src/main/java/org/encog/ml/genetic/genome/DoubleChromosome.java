@@ -0,0 +1,95 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.genetic.genome;
+
+/**
+ * A chromosome of floating point values, stored in a primitive array rather
+ * than as individual gene objects. This is used when a chromosome is very
+ * large, such as the weights of a neural network, where one object per gene
+ * would use far more memory than the values themselves.
+ * 
+ * The gene list of this chromosome is always empty, crossover and mutation
+ * operators access the values through getData. The array may be shared with
+ * the organism, in which case changes to the chromosome are seen by the
+ * organism without being decoded.
+ */
+public class DoubleChromosome extends Chromosome {
+
+	/**
+	 * Serial id.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The values of this chromosome.
+	 */
+	private double[] data;
+
+	/**
+	 * Construct a chromosome of the specified length.
+	 * 
+	 * @param length
+	 *            The number of values.
+	 */
+	public DoubleChromosome(final int length) {
+		this(new double[length]);
+	}
+
+	/**
+	 * Construct a chromosome that uses the specified array. The array is not
+	 * copied.
+	 * 
+	 * @param theData
+	 *            The values of this chromosome.
+	 */
+	public DoubleChromosome(final double[] theData) {
+		this.data = theData;
+	}
+
+	/**
+	 * @return The values of this chromosome.
+	 */
+	public final double[] getData() {
+		return this.data;
+	}
+
+	/**
+	 * Set the array that holds the values of this chromosome. The array is
+	 * not copied.
+	 * 
+	 * @param theData
+	 *            The values of this chromosome.
+	 */
+	public final void setData(final double[] theData) {
+		this.data = theData;
+	}
+
+	/**
+	 * @return The number of values in this chromosome.
+	 */
+	@Override
+	public final int size() {
+		return this.data.length;
+	}
+}
@@ -26,6 +26,7 @@ package org.encog.ml.genetic.mutate;
 import org.encog.ml.genetic.genes.DoubleGene;
 import org.encog.ml.genetic.genes.Gene;
 import org.encog.ml.genetic.genome.Chromosome;
+import org.encog.ml.genetic.genome.DoubleChromosome;
 
 /**
  * A simple mutation based on random numbers.
@@ -50,6 +51,15 @@ public class MutatePerturb implements Mutate {
 	 * @param chromosome The chromosome to mutate.
 	 */
 	public final void performMutation(final Chromosome chromosome) {
+		if (chromosome instanceof DoubleChromosome) {
+			final double[] data = ((DoubleChromosome) chromosome).getData();
+			for (int i = 0; i < data.length; i++) {
+				data[i] += (perturbAmount - (Math.random() 
+						* perturbAmount * 2));
+			}
+			return;
+		}
+
 		for (final Gene gene : chromosome.getGenes()) {
 			if (gene instanceof DoubleGene) {
 				final DoubleGene doubleGene = (DoubleGene) gene;
@@ -25,6 +25,7 @@ package org.encog.ml.genetic.mutate;
 
 import org.encog.ml.genetic.genes.Gene;
 import org.encog.ml.genetic.genome.Chromosome;
+import org.encog.ml.genetic.genome.DoubleChromosome;
 
 /**
  * A simple mutation where genes are shuffled.
@@ -37,7 +38,7 @@ public class MutateShuffle implements Mutate {
 	 * @param chromosome The chromosome to mutate.
 	 */
 	public final void performMutation(final Chromosome chromosome) {
-		final int length = chromosome.getGenes().size();
+		final int length = chromosome.size();
 		int iswap1 = (int) (Math.random() * length);
 		int iswap2 = (int) (Math.random() * length);
 
@@ -60,6 +61,14 @@ public class MutateShuffle implements Mutate {
 			iswap2 = temp;
 		}
 
+		if (chromosome instanceof DoubleChromosome) {
+			final double[] data = ((DoubleChromosome) chromosome).getData();
+			final double temp = data[iswap1];
+			data[iswap1] = data[iswap2];
+			data[iswap2] = temp;
+			return;
+		}
+
 		final Gene gene1 = chromosome.getGenes().get(iswap1);
 		final Gene gene2 = chromosome.getGenes().get(iswap2);
 
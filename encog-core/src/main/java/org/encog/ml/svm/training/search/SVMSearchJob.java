@@ -344,10 +344,7 @@ public class SVMSearchJob extends ConcurrentJob implements MLTrain {
 		pack.getSvm().getParams().C = pack.getC();
 
 		double error;
-		
-		pack.getSvm().getParams().C = this.currentConst;
-		pack.getSvm().getParams().gamma = this.currentGamma;
-		
+
 		if( fold==0 ) {
 			// train it			
 			pack.getSvm().setModel(svm.svm_train(this.problem, pack.getSvm().getParams()));
@@ -360,29 +357,41 @@ public class SVMSearchJob extends ConcurrentJob implements MLTrain {
 			error = SVMTrain.evaluate(pack.getSvm().getParams(),
 					this.problem, target);
 		}
-		
-		// new best error?
-		if (!Double.isNaN(error)) {
-			if (error < this.bestError) {
-				this.bestConst = pack.getC();
-				this.bestGamma = pack.getGamma();
-				this.bestError = error;
-			}
-		}
+
+		context.setResult(error);
+		updateBest(pack, error);
 
 		// report progress
 		final StringBuilder message = new StringBuilder();
 
 		message.append("Current: gamma= ");
-		message.append(Format.formatDouble(this.currentGamma, 2));
+		message.append(Format.formatDouble(pack.getGamma(), 2));
 		message.append("; Const: ");
-		message.append(Format.formatDouble(this.currentConst, 2));
+		message.append(Format.formatDouble(pack.getC(), 2));
 		message.append("; Best Error: " + Format.formatPercent(this.bestError));
 
 		reportStatus(context, message.toString());
 
 	}
 
+	/**
+	 * Record a unit's error if it is the best so far. Units finish on several
+	 * threads, so this is synchronized.
+	 * 
+	 * @param pack
+	 *            The unit that was evaluated.
+	 * @param error
+	 *            The error of the unit.
+	 */
+	private synchronized void updateBest(final SVMJobPackage pack,
+			final double error) {
+		if (!Double.isNaN(error) && (error < this.bestError)) {
+			this.bestConst = pack.getC();
+			this.bestGamma = pack.getGamma();
+			this.bestError = error;
+		}
+	}
+
 	@Override
 	public Object requestNextTask() {
 		if (this.done || getShouldStop()) {
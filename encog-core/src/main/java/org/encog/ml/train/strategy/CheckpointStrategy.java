@@ -0,0 +1,490 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.train.strategy;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.encog.ml.MLEncodable;
+import org.encog.ml.train.MLTrain;
+import org.encog.neural.networks.training.TrainingError;
+import org.encog.neural.networks.training.propagation.Propagation;
+import org.encog.neural.networks.training.propagation.TrainingContinuation;
+import org.encog.persist.EncogDirectoryPersistence;
+import org.encog.persist.PersistError;
+import org.encog.util.logging.EncogLogging;
+
+/**
+ * Periodically saves the state of training so that it can be restored after
+ * the process is stopped. The checkpoint holds the weights of the method
+ * being trained, the iteration count and error, and, if the trainer can
+ * continue, the state returned by pause, such as the RPROP update values.
+ * 
+ * Saving does not block training. After an iteration the state is copied into
+ * one of two preallocated buffers, and a background thread writes it to a
+ * temporary file that is then renamed over the checkpoint file, so the file on
+ * disk is always complete. If a checkpoint is taken while the previous one is
+ * still being written, the newer state replaces any state that is waiting to
+ * be written.
+ * 
+ * To resume, add the strategy to a new trainer for the same method and call
+ * restore before the first iteration.
+ */
+public class CheckpointStrategy implements Strategy {
+
+	/**
+	 * Continuation tag for the encoded weights of the method.
+	 */
+	public static final String CHECKPOINT_WEIGHTS = "CHECKPOINT_WEIGHTS";
+
+	/**
+	 * Continuation tag for the iteration count and the error.
+	 */
+	public static final String CHECKPOINT_PROGRESS = "CHECKPOINT_PROGRESS";
+
+	/**
+	 * The file to write the checkpoint to.
+	 */
+	private final File file;
+
+	/**
+	 * The number of iterations between checkpoints.
+	 */
+	private final int interval;
+
+	/**
+	 * The two snapshot buffers.
+	 */
+	private final TrainingContinuation[] buffers = new TrainingContinuation[2];
+
+	/**
+	 * Guards the buffer indexes below.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * The index of the buffer being written, or -1.
+	 */
+	private int writing = -1;
+
+	/**
+	 * The index of the buffer waiting to be written, or -1.
+	 */
+	private int pending = -1;
+
+	/**
+	 * The training algorithm that is using this strategy.
+	 */
+	private MLTrain train;
+
+	/**
+	 * The method being trained.
+	 */
+	private MLEncodable method;
+
+	/**
+	 * The thread that writes the checkpoints, or null if it is not running.
+	 * Guarded by the lock.
+	 */
+	private Thread writer;
+
+	/**
+	 * Set to stop the writer thread.
+	 */
+	private boolean closed;
+
+	/**
+	 * The error from the most recent write, if it failed.
+	 */
+	private PersistError error;
+
+	/**
+	 * The number of checkpoints written.
+	 */
+	private int checkpointCount;
+
+	/**
+	 * Construct a checkpoint strategy.
+	 * 
+	 * @param theFile
+	 *            The file to write the checkpoint to.
+	 * @param theInterval
+	 *            The number of iterations between checkpoints.
+	 */
+	public CheckpointStrategy(final File theFile, final int theInterval) {
+		if (theInterval < 1) {
+			throw new TrainingError("Checkpoint interval must be at least 1.");
+		}
+		this.file = theFile;
+		this.interval = theInterval;
+	}
+
+	/**
+	 * Initialize this strategy.
+	 * 
+	 * @param theTrain
+	 *            The training algorithm.
+	 */
+	@Override
+	public void init(final MLTrain theTrain) {
+		this.train = theTrain;
+
+		if (!(theTrain.getMethod() instanceof MLEncodable)) {
+			throw new TrainingError(
+					"To use the checkpoint strategy the machine learning method must support MLEncodable.");
+		}
+
+		this.method = (MLEncodable) theTrain.getMethod();
+	}
+
+	/**
+	 * Called just before a training iteration.
+	 */
+	@Override
+	public void preIteration() {
+	}
+
+	/**
+	 * Called just after a training iteration. Takes a checkpoint if the
+	 * interval has been reached.
+	 */
+	@Override
+	public void postIteration() {
+		if (this.train.getIteration() % this.interval == 0) {
+			checkpoint();
+		}
+	}
+
+	/**
+	 * Copy the current training state and queue it to be written.
+	 */
+	public final void checkpoint() {
+		synchronized (this.lock) {
+			throwError();
+			if (this.closed) {
+				throw new TrainingError("Checkpoint strategy has been closed.");
+			}
+
+			final int target;
+			if (this.pending != -1) {
+				target = this.pending;
+			} else if (this.writing == 0) {
+				target = 1;
+			} else {
+				target = 0;
+			}
+
+			this.buffers[target] = capture(this.buffers[target]);
+			this.pending = target;
+
+			startWriter();
+			this.lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Copy the training state into a buffer, reusing its arrays where they
+	 * are the right size.
+	 * 
+	 * @param buffer
+	 *            The buffer to copy into, or null.
+	 * @return The buffer holding the state.
+	 */
+	private TrainingContinuation capture(final TrainingContinuation buffer) {
+		final TrainingContinuation result;
+		if (buffer == null) {
+			result = new TrainingContinuation();
+		} else {
+			result = buffer;
+		}
+
+		final double[] weights = reuse(result, CHECKPOINT_WEIGHTS,
+				this.method.encodedArrayLength());
+		this.method.encodeToArray(weights);
+
+		final double[] progress = reuse(result, CHECKPOINT_PROGRESS, 2);
+		progress[0] = this.train.getIteration();
+		progress[1] = this.train.getError();
+
+		if (this.train.canContinue()) {
+			final TrainingContinuation state = this.train.pause();
+			result.setTrainingType(state.getTrainingType());
+			for (final Map.Entry<String, Object> entry : state.getContents()
+					.entrySet()) {
+				final double[] source = (double[]) entry.getValue();
+				final double[] target = reuse(result, entry.getKey(),
+						source.length);
+				System.arraycopy(source, 0, target, 0, source.length);
+			}
+		} else {
+			result.setTrainingType(this.train.getClass().getSimpleName());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get an array from a buffer, allocating it if it is missing or the wrong
+	 * size.
+	 * 
+	 * @param buffer
+	 *            The buffer.
+	 * @param key
+	 *            The key of the array.
+	 * @param length
+	 *            The length required.
+	 * @return The array.
+	 */
+	private static double[] reuse(final TrainingContinuation buffer,
+			final String key, final int length) {
+		double[] result = (double[]) buffer.get(key);
+		if (result == null || result.length != length) {
+			result = new double[length];
+			buffer.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Start the thread that writes checkpoints, unless it is already running.
+	 * Must be called holding the lock.
+	 */
+	private void startWriter() {
+		if (this.writer != null) {
+			return;
+		}
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					writeLoop();
+				} finally {
+					// let the next checkpoint start a new thread
+					synchronized (CheckpointStrategy.this.lock) {
+						CheckpointStrategy.this.writer = null;
+						CheckpointStrategy.this.writing = -1;
+						CheckpointStrategy.this.lock.notifyAll();
+					}
+				}
+			}
+		}, "Encog checkpoint");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Write checkpoints as they become pending, until closed or interrupted.
+	 */
+	private void writeLoop() {
+		while (true) {
+			final TrainingContinuation buffer;
+			synchronized (this.lock) {
+				while (this.pending == -1 && !this.closed) {
+					try {
+						this.lock.wait();
+					} catch (final InterruptedException e) {
+						return;
+					}
+				}
+				if (this.pending == -1) {
+					return;
+				}
+				this.writing = this.pending;
+				this.pending = -1;
+				buffer = this.buffers[this.writing];
+			}
+
+			PersistError failed = null;
+			try {
+				write(buffer);
+			} catch (final PersistError ex) {
+				failed = ex;
+			} catch (final RuntimeException ex) {
+				failed = new PersistError(ex);
+			}
+
+			synchronized (this.lock) {
+				this.writing = -1;
+				if (failed == null) {
+					this.checkpointCount++;
+				} else {
+					this.error = failed;
+				}
+				this.lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Write a checkpoint to a temporary file and rename it over the
+	 * checkpoint file.
+	 * 
+	 * @param buffer
+	 *            The checkpoint to write.
+	 */
+	private void write(final TrainingContinuation buffer) {
+		final File temp = new File(this.file.getPath() + ".tmp");
+		OutputStream os = null;
+		try {
+			os = new BufferedOutputStream(new FileOutputStream(temp));
+			EncogDirectoryPersistence.saveObject(os, buffer);
+			os.close();
+			os = null;
+		} catch (final IOException ex) {
+			throw new PersistError(ex);
+		} finally {
+			if (os != null) {
+				try {
+					os.close();
+				} catch (final IOException e) {
+					EncogLogging.log(e);
+				}
+			}
+		}
+
+		if (!temp.renameTo(this.file)) {
+			// some platforms will not rename over an existing file
+			this.file.delete();
+			if (!temp.renameTo(this.file)) {
+				throw new PersistError("Could not rename " + temp + " to "
+						+ this.file);
+			}
+		}
+	}
+
+	/**
+	 * Throw, and clear, the error from the last write. Must be called holding
+	 * the lock.
+	 */
+	private void throwError() {
+		final PersistError e = this.error;
+		if (e != null) {
+			this.error = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Wait until every checkpoint taken so far has been written.
+	 */
+	public final void waitForCompletion() {
+		synchronized (this.lock) {
+			while (this.pending != -1 || this.writing != -1) {
+				// the writer may have been interrupted with work pending
+				if (this.writer == null && !this.closed) {
+					startWriter();
+				}
+				try {
+					this.lock.wait();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			throwError();
+		}
+	}
+
+	/**
+	 * Write any outstanding checkpoint and stop the writer thread.
+	 */
+	public final void close() {
+		try {
+			waitForCompletion();
+		} finally {
+			synchronized (this.lock) {
+				this.closed = true;
+				this.lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Restore training from the checkpoint file, if there is one. The weights,
+	 * iteration count and error are restored, and the trainer is resumed if it
+	 * can continue and the saved state is for the same training type.
+	 * 
+	 * @return True if a checkpoint was restored.
+	 */
+	public final boolean restore() {
+		if (!this.file.exists()) {
+			return false;
+		}
+
+		final Object obj = EncogDirectoryPersistence.loadObject(this.file);
+		if (!(obj instanceof TrainingContinuation)) {
+			throw new TrainingError("Not a checkpoint file: " + this.file);
+		}
+		final TrainingContinuation state = (TrainingContinuation) obj;
+
+		final double[] weights = (double[]) state.get(CHECKPOINT_WEIGHTS);
+		final double[] progress = (double[]) state.get(CHECKPOINT_PROGRESS);
+		if (weights == null || progress == null) {
+			throw new TrainingError("Not a checkpoint file: " + this.file);
+		}
+
+		this.method.decodeFromArray(weights);
+		this.train.setIteration((int) progress[0]);
+		this.train.setError(progress[1]);
+		if (this.train instanceof Propagation) {
+			((Propagation) this.train).getFlatTraining().setIteration(
+					(int) progress[0]);
+		}
+
+		if (this.train.canContinue()
+				&& this.train.getClass().getSimpleName()
+						.equals(state.getTrainingType())) {
+			this.train.resume(state);
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return The number of checkpoints written.
+	 */
+	public final int getCheckpointCount() {
+		synchronized (this.lock) {
+			return this.checkpointCount;
+		}
+	}
+
+	/**
+	 * @return The file the checkpoint is written to.
+	 */
+	public final File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * @return The number of iterations between checkpoints.
+	 */
+	public final int getInterval() {
+		return this.interval;
+	}
+}
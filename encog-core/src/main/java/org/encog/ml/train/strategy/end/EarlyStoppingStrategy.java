@@ -0,0 +1,365 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.ml.train.strategy.end;
+
+import org.encog.ml.MLMethod;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.train.MLTrain;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.networks.ContainsFlat;
+import org.encog.neural.networks.training.TrainingError;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.EngineTask;
+import org.encog.util.concurrency.TaskGroup;
+
+/**
+ * Stop training once the error on a validation set has not improved for a
+ * number of iterations, and put back the weights that gave the lowest
+ * validation error.
+ * 
+ * After each iteration the weights are copied to a clone of the network, and
+ * the validation error of the copy is calculated on the Encog thread pool
+ * while the next iteration trains. The result is collected after that next
+ * iteration, so validation costs almost no time, but training may run one
+ * iteration past the point where it should have stopped. The best weights
+ * are still the ones restored.
+ * 
+ * The method being trained must contain a flat network, such as a
+ * BasicNetwork.
+ */
+public class EarlyStoppingStrategy implements EndTrainingStrategy {
+
+	/**
+	 * Calculates the validation error of the copy of the network.
+	 */
+	private class ValidationTask implements EngineTask {
+
+		/**
+		 * The validation error.
+		 */
+		private double error;
+
+		/**
+		 * The error that stopped the task, if any.
+		 */
+		private RuntimeException exception;
+
+		/**
+		 * Calculate the validation error.
+		 */
+		public void run() {
+			try {
+				this.error = EarlyStoppingStrategy.this.copy
+						.calculateError(EarlyStoppingStrategy.this.validation);
+			} catch (final RuntimeException ex) {
+				this.exception = ex;
+			}
+		}
+	}
+
+	/**
+	 * The default number of iterations without improvement before training
+	 * stops.
+	 */
+	public static final int DEFAULT_PATIENCE = 10;
+
+	/**
+	 * The validation set.
+	 */
+	private final MLDataSet validation;
+
+	/**
+	 * The number of iterations without improvement before training stops.
+	 */
+	private final int patience;
+
+	/**
+	 * Should the best weights be restored when training stops.
+	 */
+	private boolean restoreBest = true;
+
+	/**
+	 * The training algorithm that is using this strategy.
+	 */
+	private MLTrain train;
+
+	/**
+	 * The flat network being trained.
+	 */
+	private FlatNetwork network;
+
+	/**
+	 * The copy of the network that is validated.
+	 */
+	private FlatNetwork copy;
+
+	/**
+	 * The weights with the lowest validation error so far.
+	 */
+	private double[] bestWeights;
+
+	/**
+	 * The lowest validation error so far.
+	 */
+	private double bestError;
+
+	/**
+	 * The iteration that had the lowest validation error.
+	 */
+	private int bestIteration;
+
+	/**
+	 * The most recent validation error.
+	 */
+	private double validationError;
+
+	/**
+	 * The number of iterations seen.
+	 */
+	private int iteration;
+
+	/**
+	 * The number of iterations since the validation error improved.
+	 */
+	private int badIterations;
+
+	/**
+	 * The iteration being validated, or zero if none.
+	 */
+	private int pendingIteration;
+
+	/**
+	 * The task group of the validation being calculated.
+	 */
+	private TaskGroup group;
+
+	/**
+	 * The validation being calculated.
+	 */
+	private ValidationTask task;
+
+	/**
+	 * Flag to indicate if training should stop.
+	 */
+	private boolean shouldStop;
+
+	/**
+	 * Construct the strategy with the default patience.
+	 * 
+	 * @param theValidation
+	 *            The validation set.
+	 */
+	public EarlyStoppingStrategy(final MLDataSet theValidation) {
+		this(theValidation, EarlyStoppingStrategy.DEFAULT_PATIENCE);
+	}
+
+	/**
+	 * Construct the strategy.
+	 * 
+	 * @param theValidation
+	 *            The validation set.
+	 * @param thePatience
+	 *            The number of iterations without improvement in the
+	 *            validation error before training stops.
+	 */
+	public EarlyStoppingStrategy(final MLDataSet theValidation,
+			final int thePatience) {
+		if (thePatience < 1) {
+			throw new TrainingError("Patience must be at least 1.");
+		}
+		this.validation = theValidation;
+		this.patience = thePatience;
+	}
+
+	/**
+	 * Record the result of the validation being calculated, waiting for it if
+	 * it is not done.
+	 */
+	private void collect() {
+		if (this.pendingIteration == 0) {
+			return;
+		}
+		this.group.waitForComplete();
+		final int validated = this.pendingIteration;
+		this.pendingIteration = 0;
+		if (this.task.exception != null) {
+			throw this.task.exception;
+		}
+
+		this.validationError = this.task.error;
+		if (this.validationError < this.bestError) {
+			this.bestError = this.validationError;
+			this.bestIteration = validated;
+			System.arraycopy(this.copy.getWeights(), 0, this.bestWeights, 0,
+					this.bestWeights.length);
+			this.badIterations = 0;
+		} else {
+			this.badIterations++;
+			if (this.badIterations >= this.patience) {
+				this.shouldStop = true;
+				if (this.restoreBest) {
+					restoreBest();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Wait for the validation being calculated, and record its result. Call
+	 * this when training ends for some other reason, so that the final
+	 * iteration is considered.
+	 */
+	public final void finish() {
+		collect();
+	}
+
+	/**
+	 * @return The lowest validation error so far.
+	 */
+	public final double getBestError() {
+		return this.bestError;
+	}
+
+	/**
+	 * @return The iteration that had the lowest validation error, counted
+	 *         from 1, or zero if none has been validated.
+	 */
+	public final int getBestIteration() {
+		return this.bestIteration;
+	}
+
+	/**
+	 * @return The weights with the lowest validation error, or null if none
+	 *         have been validated.
+	 */
+	public final double[] getBestWeights() {
+		return this.bestIteration == 0 ? null : this.bestWeights;
+	}
+
+	/**
+	 * @return The number of iterations without improvement before training
+	 *         stops.
+	 */
+	public final int getPatience() {
+		return this.patience;
+	}
+
+	/**
+	 * @return The most recent validation error.
+	 */
+	public final double getValidationError() {
+		return this.validationError;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init(final MLTrain theTrain) {
+		this.train = theTrain;
+		this.network = null;
+		this.shouldStop = false;
+		this.iteration = 0;
+		this.badIterations = 0;
+		this.bestIteration = 0;
+		this.pendingIteration = 0;
+		this.bestError = Double.POSITIVE_INFINITY;
+		this.validationError = Double.NaN;
+	}
+
+	/**
+	 * @return True if the best weights are restored when training stops.
+	 */
+	public final boolean isRestoreBest() {
+		return this.restoreBest;
+	}
+
+	/**
+	 * Collect the previous validation, then start validating the weights of
+	 * this iteration.
+	 */
+	@Override
+	public void postIteration() {
+		if (this.network == null) {
+			final MLMethod method = this.train.getMethod();
+			if (!(method instanceof ContainsFlat)) {
+				throw new TrainingError(
+						"Early stopping requires a method with a flat network.");
+			}
+			this.network = ((ContainsFlat) method).getFlat();
+			// a flat clone shares the weights, so give the copy its own
+			this.copy = this.network.clone();
+			this.copy.setWeights(new double[this.network.getWeights().length]);
+			this.bestWeights = new double[this.network.getWeights().length];
+		}
+
+		this.iteration++;
+		collect();
+		if (this.shouldStop) {
+			return;
+		}
+
+		System.arraycopy(this.network.getWeights(), 0, this.copy.getWeights(),
+				0, this.bestWeights.length);
+		this.task = new ValidationTask();
+		this.group = EngineConcurrency.getInstance().createTaskGroup();
+		this.pendingIteration = this.iteration;
+		EngineConcurrency.getInstance().processTask(this.task, this.group);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void preIteration() {
+	}
+
+	/**
+	 * Copy the weights with the lowest validation error back to the network.
+	 */
+	public final void restoreBest() {
+		if (this.bestIteration != 0) {
+			System.arraycopy(this.bestWeights, 0, this.network.getWeights(),
+					0, this.bestWeights.length);
+		}
+	}
+
+	/**
+	 * Set if the best weights are restored when training stops.
+	 * 
+	 * @param theRestoreBest
+	 *            True to restore the best weights.
+	 */
+	public final void setRestoreBest(final boolean theRestoreBest) {
+		this.restoreBest = theRestoreBest;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean shouldStop() {
+		return this.shouldStop;
+	}
+}
@@ -33,10 +33,13 @@ import org.encog.engine.network.activation.ActivationFunction;
 import org.encog.engine.network.activation.ActivationLinear;
 import org.encog.engine.network.activation.ActivationSigmoid;
 import org.encog.engine.network.activation.ActivationTANH;
+import org.encog.engine.network.activation.FastActivation;
 import org.encog.mathutil.error.ErrorCalculation;
 import org.encog.ml.data.MLDataPair;
 import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.neural.flat.kernel.LayerKernel;
+import org.encog.neural.flat.kernel.LayerKernelFactory;
 import org.encog.neural.networks.BasicNetwork;
 import org.encog.util.EngineArray;
 
@@ -173,6 +176,13 @@ public class FlatNetwork implements Serializable {
 	 */
 	private boolean hasContext;
 
+	/**
+	 * The specialized layer kernels, one per layer, or null to use the
+	 * generic layer calculation. Kernels are a runtime option, they are not
+	 * persisted.
+	 */
+	private transient LayerKernel[] layerKernels;
+
 	/**
 	 * Default constructor.
 	 */
@@ -348,6 +358,11 @@ public class FlatNetwork implements Serializable {
 
 		result.beginTraining = this.beginTraining;
 		result.endTraining = this.endTraining;
+
+		if (this.layerKernels != null) {
+			result.layerKernels = LayerKernelFactory
+					.create(result.activationFunctions);
+		}
 	}
 
 	/**
@@ -394,21 +409,27 @@ public class FlatNetwork implements Serializable {
 
 		int index = this.weightIndex[currentLayer - 1];
 
-		final int limitX = outputIndex + outputSize;
-		final int limitY = inputIndex + inputSize;
-
-		// weight values
-		for (int x = outputIndex; x < limitX; x++) {
-			double sum = 0;
-			for (int y = inputIndex; y < limitY; y++) {
-				sum += this.weights[index++] * this.layerOutput[y];
+		if (this.layerKernels != null) {
+			this.layerKernels[currentLayer - 1].compute(this.weights, index,
+					this.layerOutput, this.layerSums, inputIndex, inputSize,
+					outputIndex, outputSize);
+		} else {
+			final int limitX = outputIndex + outputSize;
+			final int limitY = inputIndex + inputSize;
+
+			// weight values
+			for (int x = outputIndex; x < limitX; x++) {
+				double sum = 0;
+				for (int y = inputIndex; y < limitY; y++) {
+					sum += this.weights[index++] * this.layerOutput[y];
+				}
+				this.layerSums[x] = sum;
+				this.layerOutput[x] = sum;
 			}
-			this.layerSums[x] = sum;
-			this.layerOutput[x] = sum;
-		}
 
-		this.activationFunctions[currentLayer - 1].activationFunction(
-				this.layerOutput, outputIndex, outputSize);
+			this.activationFunctions[currentLayer - 1].activationFunction(
+					this.layerOutput, outputIndex, outputSize);
+		}
 
 		// update context values
 		final int offset = this.contextTargetOffset[currentLayer];
@@ -690,6 +711,11 @@ public class FlatNetwork implements Serializable {
 		this.layerOutput = new double[neuronCount];
 		this.layerSums = new double[neuronCount];
 
+		if (this.layerKernels != null) {
+			this.layerKernels = LayerKernelFactory
+					.create(this.activationFunctions);
+		}
+
 		clearContext();
 	}
 
@@ -723,12 +749,56 @@ public class FlatNetwork implements Serializable {
 		}
 	}
 
+	/**
+	 * Switch between the exact activation functions and their high throughput
+	 * approximations. Activation functions that have no fast version are left
+	 * unchanged. See FastActivation for details.
+	 * @param fast True to use the fast activation functions, false to go back
+	 * to the exact ones.
+	 */
+	public final void useFastActivation(final boolean fast) {
+		FastActivation.convert(this.activationFunctions, fast);
+		if (this.layerKernels != null) {
+			this.layerKernels = LayerKernelFactory
+					.create(this.activationFunctions);
+		}
+	}
+
+	/**
+	 * Switch between the generic layer calculation and specialized layer
+	 * kernels. The kernels calculate the weighted sums of several neurons at
+	 * once, and apply the activation function with no virtual call per
+	 * neuron. They are selected by activation function, see
+	 * LayerKernelFactory, and give exactly the same results as the generic
+	 * calculation. Kernels are not persisted, they must be enabled again
+	 * after a network is loaded.
+	 * @param use True to use the layer kernels.
+	 */
+	public final void useLayerKernels(final boolean use) {
+		if (use) {
+			this.layerKernels = LayerKernelFactory
+					.create(this.activationFunctions);
+		} else {
+			this.layerKernels = null;
+		}
+	}
+
+	/**
+	 * @return True if this network uses specialized layer kernels.
+	 */
+	public final boolean isUsingLayerKernels() {
+		return this.layerKernels != null;
+	}
+
 	/**
 	 * Set the activation functions.
 	 * @param af The activation functions.
 	 */
 	public final void setActivationFunctions(final ActivationFunction[] af) {
 		this.activationFunctions = af;
+		if (this.layerKernels != null) {
+			this.layerKernels = LayerKernelFactory.create(af);
+		}
 
 	}
 
@@ -0,0 +1,105 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+/**
+ * The base for the layer kernels that calculate the weighted sums with plain
+ * Java loops. The sums are calculated four neurons at a time, and written to
+ * both the layer sums and the layer outputs. The subclass then applies its
+ * activation function to the outputs in place, with no virtual call per
+ * neuron.
+ */
+public abstract class BasicLayerKernel implements LayerKernel {
+
+	/**
+	 * The serial id.
+	 */
+	private static final long serialVersionUID = -2113872652457040727L;
+
+	/**
+	 * Apply the activation function to the weighted sums of a layer.
+	 * 
+	 * @param layerOutput
+	 *            The layer outputs, which hold the weighted sums on entry.
+	 * @param start
+	 *            The index of the first neuron.
+	 * @param size
+	 *            The number of neurons.
+	 */
+	protected abstract void activate(double[] layerOutput, int start,
+			int size);
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void compute(final double[] weights, final int weightIndex,
+			final double[] layerOutput, final double[] layerSums,
+			final int inputIndex, final int inputSize,
+			final int outputIndex, final int outputSize) {
+		final int limitX = outputIndex + outputSize;
+		int x = outputIndex;
+		int w0 = weightIndex;
+
+		// four neurons at a time, each input is loaded once for all four
+		for (; x + 3 < limitX; x += 4) {
+			final int w1 = w0 + inputSize;
+			final int w2 = w1 + inputSize;
+			final int w3 = w2 + inputSize;
+			double s0 = 0;
+			double s1 = 0;
+			double s2 = 0;
+			double s3 = 0;
+			for (int i = 0; i < inputSize; i++) {
+				final double in = layerOutput[inputIndex + i];
+				s0 += weights[w0 + i] * in;
+				s1 += weights[w1 + i] * in;
+				s2 += weights[w2 + i] * in;
+				s3 += weights[w3 + i] * in;
+			}
+			layerSums[x] = s0;
+			layerSums[x + 1] = s1;
+			layerSums[x + 2] = s2;
+			layerSums[x + 3] = s3;
+			layerOutput[x] = s0;
+			layerOutput[x + 1] = s1;
+			layerOutput[x + 2] = s2;
+			layerOutput[x + 3] = s3;
+			w0 = w3 + inputSize;
+		}
+
+		// the remaining neurons
+		for (; x < limitX; x++) {
+			double sum = 0;
+			for (int i = 0; i < inputSize; i++) {
+				sum += weights[w0 + i] * layerOutput[inputIndex + i];
+			}
+			layerSums[x] = sum;
+			layerOutput[x] = sum;
+			w0 += inputSize;
+		}
+
+		activate(layerOutput, outputIndex, outputSize);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+import java.io.Serializable;
+
+/**
+ * A layer kernel calculates one layer of a flat network: the weighted sum of
+ * the previous layer, followed by the activation function. Kernels are
+ * specialized for one activation function, so that the activation is applied
+ * with no virtual call per neuron. Most kernels extend BasicLayerKernel,
+ * which calculates the weighted sums.
+ * 
+ * Every kernel must produce exactly the same layer sums and outputs as the
+ * generic code in FlatNetwork.computeLayer, so that a network gives the same
+ * results with and without kernels. The only exception is LayerKernelVector
+ * when accelerated vector operations are in use.
+ * 
+ * The input and output ranges of layerOutput never overlap, as the flat
+ * network stores each layer in its own range of the array.
+ */
+public interface LayerKernel extends Serializable {
+
+	/**
+	 * Calculate one layer.
+	 * 
+	 * @param weights
+	 *            The weights of the network.
+	 * @param weightIndex
+	 *            The index of the first weight for this layer.
+	 * @param layerOutput
+	 *            The layer outputs, the input to this layer is read from here,
+	 *            and the output of this layer is written here.
+	 * @param layerSums
+	 *            The layer sums, the weighted sums of this layer are written
+	 *            here, before the activation function is applied.
+	 * @param inputIndex
+	 *            The index of the first input neuron.
+	 * @param inputSize
+	 *            The number of input neurons, including bias and context.
+	 * @param outputIndex
+	 *            The index of the first output neuron.
+	 * @param outputSize
+	 *            The number of output neurons that are fed by the input.
+	 */
+	void compute(double[] weights, int weightIndex, double[] layerOutput,
+			double[] layerSums, int inputIndex, int inputSize,
+			int outputIndex, int outputSize);
+}
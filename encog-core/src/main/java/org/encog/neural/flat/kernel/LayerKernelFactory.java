@@ -0,0 +1,90 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+import org.encog.engine.network.activation.ActivationFastSigmoid;
+import org.encog.engine.network.activation.ActivationFastTANH;
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.engine.network.activation.ActivationLinear;
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.engine.network.activation.ActivationTANH;
+
+/**
+ * Selects the layer kernel to use for an activation function. Activation
+ * functions with a specialized kernel get that kernel, all others get the
+ * generic kernel. When accelerated vector operations are available, see
+ * VectorOpsFactory, the fast activations keep their kernels and all others
+ * get the vector kernel.
+ */
+public final class LayerKernelFactory {
+
+	/**
+	 * Create a kernel for the specified activation function.
+	 * 
+	 * @param af
+	 *            The activation function.
+	 * @return The kernel.
+	 */
+	public static LayerKernel create(final ActivationFunction af) {
+		if (VectorOpsFactory.isAccelerated()
+				&& !(af instanceof ActivationFastSigmoid)
+				&& !(af instanceof ActivationFastTANH)) {
+			return new LayerKernelVector(af, VectorOpsFactory.getInstance());
+		} else if (af instanceof ActivationSigmoid) {
+			return new LayerKernelSigmoid();
+		} else if (af instanceof ActivationFastSigmoid) {
+			return new LayerKernelFastSigmoid();
+		} else if (af instanceof ActivationTANH) {
+			return new LayerKernelTANH();
+		} else if (af instanceof ActivationFastTANH) {
+			return new LayerKernelFastTANH();
+		} else if (af instanceof ActivationLinear) {
+			return new LayerKernelLinear();
+		} else {
+			return new LayerKernelGeneric(af);
+		}
+	}
+
+	/**
+	 * Create a kernel for each of the specified activation functions.
+	 * 
+	 * @param functions
+	 *            The activation functions, one per layer.
+	 * @return The kernels, one per layer.
+	 */
+	public static LayerKernel[] create(final ActivationFunction[] functions) {
+		final LayerKernel[] result = new LayerKernel[functions.length];
+		for (int i = 0; i < functions.length; i++) {
+			result[i] = create(functions[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private LayerKernelFactory() {
+
+	}
+}
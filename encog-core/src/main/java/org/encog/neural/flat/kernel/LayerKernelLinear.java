@@ -0,0 +1,45 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+/**
+ * A layer kernel for ActivationLinear. The output of each neuron is simply
+ * its weighted sum.
+ */
+public class LayerKernelLinear extends BasicLayerKernel {
+
+	/**
+	 * The serial id.
+	 */
+	private static final long serialVersionUID = -4460237128466519270L;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected final void activate(final double[] layerOutput,
+			final int start, final int size) {
+		// the outputs are already the weighted sums
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.engine.network.activation.ActivationTANH;
+
+/**
+ * A layer kernel that uses the vector operations, one dot product per neuron
+ * followed by a vectorized activation. This is used in place of the other
+ * kernels when accelerated vector operations are available. As the vector
+ * operations may sum in a different order, the results can differ from the
+ * generic code in the last bits.
+ */
+public class LayerKernelVector implements LayerKernel {
+
+	/**
+	 * The serial id.
+	 */
+	private static final long serialVersionUID = -3160620426829213585L;
+
+	/**
+	 * The activation function.
+	 */
+	private final ActivationFunction activation;
+
+	/**
+	 * The vector operations to use.
+	 */
+	private final transient VectorOps ops;
+
+	/**
+	 * Construct the kernel.
+	 * 
+	 * @param theActivation
+	 *            The activation function to apply to the layer.
+	 * @param theOps
+	 *            The vector operations to use.
+	 */
+	public LayerKernelVector(final ActivationFunction theActivation,
+			final VectorOps theOps) {
+		this.activation = theActivation;
+		this.ops = theOps;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void compute(final double[] weights, final int weightIndex,
+			final double[] layerOutput, final double[] layerSums,
+			final int inputIndex, final int inputSize,
+			final int outputIndex, final int outputSize) {
+		final int limitX = outputIndex + outputSize;
+		int w = weightIndex;
+
+		for (int x = outputIndex; x < limitX; x++) {
+			final double sum = this.ops.dot(weights, w, layerOutput,
+					inputIndex, inputSize);
+			layerSums[x] = sum;
+			layerOutput[x] = sum;
+			w += inputSize;
+		}
+
+		if (this.activation instanceof ActivationSigmoid) {
+			this.ops.sigmoid(layerOutput, outputIndex, outputSize);
+		} else if (this.activation instanceof ActivationTANH) {
+			this.ops.tanh(layerOutput, outputIndex, outputSize);
+		} else {
+			this.activation.activationFunction(layerOutput, outputIndex,
+					outputSize);
+		}
+	}
+}
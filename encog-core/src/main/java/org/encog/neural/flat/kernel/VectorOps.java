@@ -0,0 +1,104 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+/**
+ * The vector operations used by the flat network kernels and the gradient
+ * workers. The portable implementation is plain Java. Other implementations,
+ * such as one based on explicit SIMD instructions, can be supplied on the
+ * classpath as a service provider for this interface, see VectorOpsFactory.
+ * 
+ * Element-wise operations (axpy) must give exactly the same results as the
+ * portable implementation. Reductions (dot) and the activation loops may
+ * differ in the last bits, as a vector implementation sums in a different
+ * order and may use its own exp and tanh.
+ */
+public interface VectorOps {
+
+	/**
+	 * Calculate the dot product of two ranges.
+	 * 
+	 * @param a
+	 *            The first array.
+	 * @param aIndex
+	 *            The first index into the first array.
+	 * @param b
+	 *            The second array.
+	 * @param bIndex
+	 *            The first index into the second array.
+	 * @param length
+	 *            The number of elements.
+	 * @return The dot product.
+	 */
+	double dot(double[] a, int aIndex, double[] b, int bIndex, int length);
+
+	/**
+	 * Add a multiple of one range to another, y = y + alpha * x.
+	 * 
+	 * @param alpha
+	 *            The multiplier.
+	 * @param x
+	 *            The array to add.
+	 * @param xIndex
+	 *            The first index into x.
+	 * @param y
+	 *            The array to add to.
+	 * @param yIndex
+	 *            The first index into y.
+	 * @param length
+	 *            The number of elements.
+	 */
+	void axpy(double alpha, double[] x, int xIndex, double[] y, int yIndex,
+			int length);
+
+	/**
+	 * Apply the sigmoid function, as calculated by ActivationSigmoid, to a
+	 * range.
+	 * 
+	 * @param d
+	 *            The array.
+	 * @param start
+	 *            The first index.
+	 * @param size
+	 *            The number of elements.
+	 */
+	void sigmoid(double[] d, int start, int size);
+
+	/**
+	 * Apply the hyperbolic tangent function to a range.
+	 * 
+	 * @param d
+	 *            The array.
+	 * @param start
+	 *            The first index.
+	 * @param size
+	 *            The number of elements.
+	 */
+	void tanh(double[] d, int start, int size);
+
+	/**
+	 * @return A short name for this implementation, for logging.
+	 */
+	String getName();
+}
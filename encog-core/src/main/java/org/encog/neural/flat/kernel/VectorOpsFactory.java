@@ -0,0 +1,121 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.encog.util.logging.EncogLogging;
+
+/**
+ * Selects the vector operations to use. The first VectorOps service provider
+ * on the classpath that can be loaded is used, for example the SIMD provider
+ * in the encog-simd module. If there is none, or it can not run on this JVM,
+ * the portable operations are used.
+ * 
+ * Setting the system property encog.vectorops to "portable" always selects
+ * the portable operations.
+ */
+public final class VectorOpsFactory {
+
+	/**
+	 * The system property that can be used to force the portable operations.
+	 */
+	public static final String PROPERTY = "encog.vectorops";
+
+	/**
+	 * The operations in use, selected on first use.
+	 */
+	private static VectorOps instance;
+
+	/**
+	 * @return The vector operations to use.
+	 */
+	public static synchronized VectorOps getInstance() {
+		if (VectorOpsFactory.instance == null) {
+			VectorOpsFactory.instance = VectorOpsFactory.select();
+			EncogLogging.log(EncogLogging.LEVEL_INFO, "Using "
+					+ VectorOpsFactory.instance.getName()
+					+ " vector operations.");
+		}
+		return VectorOpsFactory.instance;
+	}
+
+	/**
+	 * @return True if the operations in use are not the portable ones.
+	 */
+	public static boolean isAccelerated() {
+		return !(getInstance() instanceof VectorOpsPortable);
+	}
+
+	/**
+	 * Set the vector operations to use, mainly for testing.
+	 * 
+	 * @param ops
+	 *            The operations, or null to select them again on next use.
+	 */
+	public static synchronized void setInstance(final VectorOps ops) {
+		VectorOpsFactory.instance = ops;
+	}
+
+	/**
+	 * Find the operations to use.
+	 * 
+	 * @return The operations.
+	 */
+	private static VectorOps select() {
+		if ("portable".equalsIgnoreCase(System
+				.getProperty(VectorOpsFactory.PROPERTY))) {
+			return new VectorOpsPortable();
+		}
+
+		try {
+			final Iterator<VectorOps> itr = ServiceLoader.load(
+					VectorOps.class).iterator();
+			while (itr.hasNext()) {
+				try {
+					return itr.next();
+				} catch (final ServiceConfigurationError e) {
+					EncogLogging.log(e);
+				} catch (final LinkageError e) {
+					// the provider needs classes this JVM does not have
+					EncogLogging.log(EncogLogging.LEVEL_INFO,
+							"Vector operations not available: " + e);
+				}
+			}
+		} catch (final ServiceConfigurationError e) {
+			EncogLogging.log(e);
+		}
+
+		return new VectorOpsPortable();
+	}
+
+	/**
+	 * Private constructor.
+	 */
+	private VectorOpsFactory() {
+
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.kernel;
+
+import org.encog.mathutil.BoundMath;
+
+/**
+ * Plain Java vector operations. Gives exactly the same results as the loops
+ * in FlatNetwork and the activation functions.
+ */
+public class VectorOpsPortable implements VectorOps {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double dot(final double[] a, final int aIndex,
+			final double[] b, final int bIndex, final int length) {
+		double sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += a[aIndex + i] * b[bIndex + i];
+		}
+		return sum;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void axpy(final double alpha, final double[] x,
+			final int xIndex, final double[] y, final int yIndex,
+			final int length) {
+		for (int i = 0; i < length; i++) {
+			y[yIndex + i] += alpha * x[xIndex + i];
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void sigmoid(final double[] d, final int start,
+			final int size) {
+		for (int i = start; i < start + size; i++) {
+			d[i] = 1.0 / (1.0 + BoundMath.exp(-1 * d[i]));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void tanh(final double[] d, final int start, final int size) {
+		for (int i = start; i < start + size; i++) {
+			d[i] = Math.tanh(d[i]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getName() {
+		return "portable";
+	}
+}
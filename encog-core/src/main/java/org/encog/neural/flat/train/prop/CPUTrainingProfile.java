@@ -0,0 +1,151 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.prop;
+
+import org.encog.EncogError;
+
+/**
+ * Describes how TrainFlatNetworkProp divides the gradient calculation among
+ * CPU threads. This is the CPU counterpart of the OpenCL training profile.
+ * 
+ * threadCount - The number of gradient workers. Zero lets Encog choose, based
+ * on the number of processors and the size of the training set.
+ * 
+ * chunkSize - The number of training records a worker claims at a time. Zero
+ * gives each worker one fixed, equal share of the records, which is the
+ * default behavior. With a chunk size, workers claim chunks until the records
+ * run out, so a worker that is slowed down, for example by another process,
+ * does less of the work.
+ * 
+ * batchSize - The number of training records used by each iteration. Zero
+ * uses the whole training set. Otherwise each iteration uses the next batch
+ * of records. The last batch stops at the end of the training set, so it may
+ * be smaller, and the batch after it starts again at the first record. This
+ * is mainly useful with backpropagation and Manhattan training; RPROP and SCG
+ * expect the gradient of the whole training set.
+ * 
+ * Recurrent networks, which carry context from one record to the next, are
+ * always trained with fixed shares and the whole training set.
+ * 
+ * There is no single precision or NUMA setting, as the flat network is
+ * calculated in double precision and Java offers no control over which CPU a
+ * thread runs on. On NUMA machines, start the JVM with -XX:+UseNUMA, so that
+ * each worker's network copy is allocated close to the thread that created it.
+ * 
+ * Use CPUTrainingProfileTuner to find the fastest profile for a network and
+ * training set.
+ */
+public class CPUTrainingProfile {
+
+	/**
+	 * The number of gradient workers, zero for automatic.
+	 */
+	private final int threadCount;
+
+	/**
+	 * The number of records claimed at a time, zero for fixed shares.
+	 */
+	private final int chunkSize;
+
+	/**
+	 * The number of records per iteration, zero for all.
+	 */
+	private final int batchSize;
+
+	/**
+	 * Construct a profile that chooses the thread count automatically and
+	 * uses fixed shares of the whole training set.
+	 */
+	public CPUTrainingProfile() {
+		this(0, 0, 0);
+	}
+
+	/**
+	 * Construct a profile.
+	 * 
+	 * @param theThreadCount
+	 *            The number of gradient workers, zero for automatic.
+	 * @param theChunkSize
+	 *            The number of records a worker claims at a time, zero for
+	 *            fixed shares.
+	 * @param theBatchSize
+	 *            The number of records per iteration, zero for all.
+	 */
+	public CPUTrainingProfile(final int theThreadCount,
+			final int theChunkSize, final int theBatchSize) {
+		if ((theThreadCount < 0) || (theChunkSize < 0) || (theBatchSize < 0)) {
+			throw new EncogError(
+					"The thread count, chunk size and batch size cannot be below zero.");
+		}
+		this.threadCount = theThreadCount;
+		this.chunkSize = theChunkSize;
+		this.batchSize = theBatchSize;
+	}
+
+	/**
+	 * @return The number of gradient workers, zero for automatic.
+	 */
+	public final int getThreadCount() {
+		return this.threadCount;
+	}
+
+	/**
+	 * @return The number of records a worker claims at a time, zero for fixed
+	 *         shares.
+	 */
+	public final int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	/**
+	 * @return The number of records per iteration, zero for all.
+	 */
+	public final int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * @return True if workers claim records in chunks, rather than each
+	 *         having a fixed share.
+	 */
+	public final boolean isChunked() {
+		return (this.chunkSize > 0) || (this.batchSize > 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String toString() {
+		final StringBuilder result = new StringBuilder();
+		result.append("[CPUTrainingProfile: threads=");
+		result.append(this.threadCount);
+		result.append(", chunk=");
+		result.append(this.chunkSize);
+		result.append(", batch=");
+		result.append(this.batchSize);
+		result.append("]");
+		return result.toString();
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.prop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.encog.ml.data.MLDataSet;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.util.logging.EncogLogging;
+
+/**
+ * Finds the fastest CPUTrainingProfile for a network and training set. Each
+ * candidate profile is timed by calculating the gradients of a copy of the
+ * network a few times, so the network itself is not changed. The candidates
+ * combine one, half and all of the processors with fixed shares and two chunk
+ * sizes. The batch size, if any, is kept the same for every candidate, as it
+ * changes how the network learns rather than just how fast.
+ */
+public class CPUTrainingProfileTuner {
+
+	/**
+	 * The default number of timed iterations per candidate.
+	 */
+	public static final int DEFAULT_ITERATIONS = 5;
+
+	/**
+	 * The smallest chunk size tried.
+	 */
+	public static final int MIN_CHUNK = 16;
+
+	/**
+	 * The network to tune for.
+	 */
+	private final FlatNetwork network;
+
+	/**
+	 * The training data to tune for.
+	 */
+	private final MLDataSet training;
+
+	/**
+	 * The batch size used by every candidate.
+	 */
+	private final int batchSize;
+
+	/**
+	 * The number of timed iterations per candidate.
+	 */
+	private final int iterations;
+
+	/**
+	 * The fastest profile found, or null if not yet tuned.
+	 */
+	private CPUTrainingProfile best;
+
+	/**
+	 * The time per iteration of the fastest profile, in milliseconds.
+	 */
+	private double bestMillis;
+
+	/**
+	 * Construct a tuner that uses the whole training set each iteration.
+	 * 
+	 * @param theNetwork
+	 *            The network to tune for.
+	 * @param theTraining
+	 *            The training data to tune for.
+	 */
+	public CPUTrainingProfileTuner(final FlatNetwork theNetwork,
+			final MLDataSet theTraining) {
+		this(theNetwork, theTraining, 0, DEFAULT_ITERATIONS);
+	}
+
+	/**
+	 * Construct a tuner.
+	 * 
+	 * @param theNetwork
+	 *            The network to tune for.
+	 * @param theTraining
+	 *            The training data to tune for.
+	 * @param theBatchSize
+	 *            The batch size used by every candidate, zero for the whole
+	 *            training set.
+	 * @param theIterations
+	 *            The number of timed iterations per candidate.
+	 */
+	public CPUTrainingProfileTuner(final FlatNetwork theNetwork,
+			final MLDataSet theTraining, final int theBatchSize,
+			final int theIterations) {
+		this.network = theNetwork;
+		this.training = theTraining;
+		this.batchSize = theBatchSize;
+		this.iterations = Math.max(1, theIterations);
+	}
+
+	/**
+	 * @return The candidate profiles.
+	 */
+	private List<CPUTrainingProfile> candidates() {
+		final int cores = Runtime.getRuntime().availableProcessors();
+		final int records = (int) this.training.getRecordCount();
+		final int perIteration = (this.batchSize == 0) ? records : Math.min(
+				records, this.batchSize);
+
+		final List<Integer> threads = new ArrayList<Integer>();
+		threads.add(1);
+		if (cores / 2 > 1) {
+			threads.add(cores / 2);
+		}
+		if (cores > 1) {
+			threads.add(cores);
+		}
+
+		final List<CPUTrainingProfile> result = new ArrayList<CPUTrainingProfile>();
+		for (final int t : threads) {
+			result.add(new CPUTrainingProfile(t, 0, this.batchSize));
+			if (t > 1) {
+				int lastChunk = 0;
+				for (final int divisor : new int[] { 4, 16 }) {
+					final int chunk = Math.max(MIN_CHUNK, perIteration
+							/ (t * divisor));
+					if (chunk != lastChunk && chunk < perIteration) {
+						result.add(new CPUTrainingProfile(t, chunk,
+								this.batchSize));
+						lastChunk = chunk;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Time one profile.
+	 * 
+	 * @param profile
+	 *            The profile to time.
+	 * @return The time per iteration, in milliseconds.
+	 */
+	private double time(final CPUTrainingProfile profile) {
+		final TrainFlatNetworkResilient train = new TrainFlatNetworkResilient(
+				this.network.clone(), this.training);
+		train.setProfile(profile);
+
+		// warm up, which also creates the workers
+		train.calculateGradients();
+
+		final long start = System.nanoTime();
+		for (int i = 0; i < this.iterations; i++) {
+			train.calculateGradients();
+		}
+		return (System.nanoTime() - start) / 1000000.0 / this.iterations;
+	}
+
+	/**
+	 * Time every candidate profile and choose the fastest.
+	 * 
+	 * @return The fastest profile.
+	 */
+	public CPUTrainingProfile tune() {
+		this.best = null;
+		this.bestMillis = Double.MAX_VALUE;
+
+		for (final CPUTrainingProfile profile : candidates()) {
+			final double millis = time(profile);
+			EncogLogging.log(EncogLogging.LEVEL_DEBUG, "Profile " + profile
+					+ ": " + millis + "ms per iteration");
+			if (millis < this.bestMillis) {
+				this.best = profile;
+				this.bestMillis = millis;
+			}
+		}
+
+		EncogLogging.log(EncogLogging.LEVEL_INFO, "Fastest CPU profile: "
+				+ this.best);
+		return this.best;
+	}
+
+	/**
+	 * @return The fastest profile, or null if tune has not been called.
+	 */
+	public CPUTrainingProfile getBest() {
+		return this.best;
+	}
+
+	/**
+	 * @return The time per iteration of the fastest profile, in milliseconds.
+	 */
+	public double getBestMillis() {
+		return this.bestMillis;
+	}
+}
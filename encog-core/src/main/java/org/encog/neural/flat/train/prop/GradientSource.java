@@ -0,0 +1,67 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.prop;
+
+import org.encog.neural.error.ErrorFunction;
+import org.encog.neural.flat.FlatNetwork;
+
+/**
+ * Calculates gradients somewhere other than the local gradient workers, for
+ * example on remote machines that each hold part of the training data. When
+ * a gradient source is set on a propagation trainer, the trainer asks it for
+ * the gradients each iteration and applies its own update rule to them.
+ */
+public interface GradientSource {
+
+	/**
+	 * Prepare to calculate gradients for the specified network. Called once,
+	 * before the first iteration.
+	 * 
+	 * @param network
+	 *            The network being trained.
+	 * @param ef
+	 *            The error function to use.
+	 * @param fixFlatSpot
+	 *            True if the flat spot of sigmoid derivatives should be fixed.
+	 */
+	void init(FlatNetwork network, ErrorFunction ef, boolean fixFlatSpot);
+
+	/**
+	 * Calculate the gradients for the specified weights, over all of the
+	 * training data.
+	 * 
+	 * @param weights
+	 *            The current weights.
+	 * @param gradients
+	 *            The array to add the gradients to.
+	 * @return The error for the specified weights.
+	 */
+	double calculateGradients(double[] weights, double[] gradients);
+
+	/**
+	 * @return The number of training records that each gradient calculation
+	 *         covers.
+	 */
+	long getRecordCount();
+}
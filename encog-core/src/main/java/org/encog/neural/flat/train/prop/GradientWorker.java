@@ -23,6 +23,8 @@
  */
 package org.encog.neural.flat.train.prop;
 
+import java.util.Arrays;
+
 import org.encog.engine.network.activation.ActivationFunction;
 import org.encog.mathutil.error.ErrorCalculation;
 import org.encog.ml.data.MLDataPair;
@@ -30,6 +32,8 @@ import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.basic.BasicMLDataPair;
 import org.encog.neural.error.ErrorFunction;
 import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.flat.kernel.VectorOps;
+import org.encog.neural.flat.kernel.VectorOpsFactory;
 import org.encog.util.EngineArray;
 import org.encog.util.concurrency.EngineTask;
 
@@ -133,6 +137,37 @@ public class GradientWorker implements EngineTask {
 	 */
 	private final ErrorFunction errorFunction;
 
+	/**
+	 * The vector operations used to accumulate the gradients.
+	 */
+	private final VectorOps ops;
+
+	/**
+	 * The weighted delta sums of the level being processed, one per neuron
+	 * of the lower layer.
+	 */
+	private final double[] levelSums;
+
+	/**
+	 * The number of records processed during the last run.
+	 */
+	private int recordCount;
+
+	/**
+	 * The error of the records processed during the last run.
+	 */
+	private double lastError;
+
+	/**
+	 * The time spent calculating during the last run, in nanoseconds.
+	 */
+	private long computeNanos;
+
+	/**
+	 * The time spent reporting during the last run, in nanoseconds.
+	 */
+	private long reduceNanos;
+
 	/**
 	 * Construct a gradient worker.
 	 * 
@@ -157,6 +192,7 @@ public class GradientWorker implements EngineTask {
 		this.low = theLow;
 		this.high = theHigh;
 		this.owner = theOwner;
+		this.recordCount = theHigh - theLow + 1;
 		this.flatSpot = flatSpot;
 		this.errorFunction = ef;
 
@@ -172,6 +208,13 @@ public class GradientWorker implements EngineTask {
 		this.layerSums = network.getLayerSums();
 		this.layerFeedCounts = network.getLayerFeedCounts();
 
+		this.ops = VectorOpsFactory.getInstance();
+		int maxCount = 0;
+		for (final int count : this.layerCounts) {
+			maxCount = Math.max(maxCount, count);
+		}
+		this.levelSums = new double[maxCount];
+
 		this.pair = BasicMLDataPair.createPair(network.getInputCount(), network
 				.getOutputCount());
 	}
@@ -235,39 +278,93 @@ public class GradientWorker implements EngineTask {
 				.getActivationFunctions()[currentLevel + 1];
 		final double currentFlatSpot = this.flatSpot[currentLevel + 1];
 
-		// handle weights
+		// handle weights, one row of weights per upper neuron, so each row
+		// is a contiguous range of the weights and gradients
+		final double[] sums = this.levelSums;
+		Arrays.fill(sums, 0, fromLayerSize, 0);
+		int wi = index;
+		int xi = toLayerIndex;
+		for (int x = 0; x < toLayerSize; x++) {
+			final double delta = this.layerDelta[xi];
+			this.ops.axpy(delta, this.layerOutput, fromLayerIndex,
+					this.gradients, wi, fromLayerSize);
+			this.ops.axpy(delta, this.weights, wi, sums, 0, fromLayerSize);
+			wi += fromLayerSize;
+			xi++;
+		}
+
 		int yi = fromLayerIndex;
 		for (int y = 0; y < fromLayerSize; y++) {
-			final double output = this.layerOutput[yi];
-			double sum = 0;
-			int xi = toLayerIndex;
-			int wi = index + y;
-			for (int x = 0; x < toLayerSize; x++) {
-				this.gradients[wi] += output * this.layerDelta[xi];
-				sum += this.weights[wi] * this.layerDelta[xi];
-				wi += fromLayerSize;
-				xi++;
-			}
-
-			this.layerDelta[yi] = sum
+			this.layerDelta[yi] = sums[y]
 					* (activation.derivativeFunction(this.layerSums[yi],this.layerOutput[yi])+currentFlatSpot);
 			yi++;
 		}
 	}
 
+	/**
+	 * @return The time spent calculating during the last run, in
+	 *         nanoseconds.
+	 */
+	public final long getComputeNanos() {
+		return this.computeNanos;
+	}
+
+	/**
+	 * @return The time spent reporting gradients during the last run, in
+	 *         nanoseconds.
+	 */
+	public final long getReduceNanos() {
+		return this.reduceNanos;
+	}
+
+	/**
+	 * @return The number of training records this worker processed during
+	 *         the last run.
+	 */
+	public final int getRecordCount() {
+		return this.recordCount;
+	}
+
+	/**
+	 * @return The error of the records processed during the last run.
+	 */
+	public final double getLastError() {
+		return this.lastError;
+	}
+
 	/**
 	 * Perform the gradient calculation for the specified index range.
 	 */
 	public final void run() {
 		try {
+			final long start = System.nanoTime();
 			this.errorCalculation.reset();
-			for (int i = this.low; i <= this.high; i++) {
-				this.training.getRecord(i, this.pair);
-				process(this.pair.getInputArray(), this.pair.getIdealArray(),pair.getSignificance());
+			if (this.owner.isChunked()) {
+				// claim chunks of records until there are none left
+				this.recordCount = 0;
+				int first;
+				while ((first = this.owner.claimChunk()) >= 0) {
+					final int end = Math.min(first + this.owner.getChunkSize(),
+							this.owner.getChunkLimit());
+					for (int i = first; i < end; i++) {
+						this.training.getRecord(i, this.pair);
+						process(this.pair.getInputArray(), this.pair.getIdealArray(),pair.getSignificance());
+					}
+					this.recordCount += end - first;
+				}
+			} else {
+				for (int i = this.low; i <= this.high; i++) {
+					this.training.getRecord(i, this.pair);
+					process(this.pair.getInputArray(), this.pair.getIdealArray(),pair.getSignificance());
+				}
 			}
 			final double error = this.errorCalculation.calculate();
+			this.lastError = error;
+			final long computed = System.nanoTime();
 			this.owner.report(this.gradients, error, null);
 			EngineArray.fill(this.gradients, 0);
+			this.computeNanos = computed - start;
+			this.reduceNanos = System.nanoTime() - computed;
 		} catch (final Throwable ex) {
 			this.owner.report(null, 0, ex);
 		}
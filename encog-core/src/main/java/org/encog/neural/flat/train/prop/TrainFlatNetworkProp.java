@@ -23,6 +23,12 @@
  */
 package org.encog.neural.flat.train.prop;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.encog.Encog;
 import org.encog.EncogError;
 import org.encog.engine.network.activation.ActivationFunction;
@@ -125,6 +131,98 @@ public abstract class TrainFlatNetworkProp implements TrainFlatNetwork {
 	 */
 	private ErrorFunction ef = new LinearErrorFunction();
 
+	/**
+	 * The concurrency object to use, or null for the shared instance.
+	 */
+	private EngineConcurrency engine;
+
+	/**
+	 * Calculates the gradients in place of the local workers, or null.
+	 */
+	private GradientSource gradientSource;
+
+	/**
+	 * How the gradient calculation is divided among threads, or null for the
+	 * default.
+	 */
+	private CPUTrainingProfile profile;
+
+	/**
+	 * True if the workers claim records in chunks.
+	 */
+	private boolean chunked;
+
+	/**
+	 * The number of records a worker claims at a time.
+	 */
+	private int chunkSize;
+
+	/**
+	 * The next record to be claimed in this iteration.
+	 */
+	private final AtomicInteger nextChunk = new AtomicInteger();
+
+	/**
+	 * The end, exclusive, of the records used by this iteration.
+	 */
+	private int chunkLimit;
+
+	/**
+	 * The first record of the next batch.
+	 */
+	private int batchOffset;
+
+	/**
+	 * The listeners that receive per-iteration metrics.
+	 */
+	private final List<TrainingMetricsListener> metricsListeners = 
+		new ArrayList<TrainingMetricsListener>();
+
+	/**
+	 * Wall time spent calculating gradients in the current iteration.
+	 */
+	private long gradientNanos;
+
+	/**
+	 * Worker compute time accumulated in the current iteration.
+	 */
+	private long computeNanos;
+
+	/**
+	 * Worker report time accumulated in the current iteration.
+	 */
+	private long reduceNanos;
+
+	/**
+	 * Time spent waiting on the workers in the current iteration.
+	 */
+	private long waitNanos;
+
+	/**
+	 * The run time of this trainer's pooled tasks during the iteration.
+	 */
+	private long poolTaskNanos;
+
+	/**
+	 * The queue time of this trainer's pooled tasks during the iteration.
+	 */
+	private long poolQueueNanos;
+
+	/**
+	 * Records processed in the current iteration.
+	 */
+	private long recordsProcessed;
+
+	/**
+	 * The garbage collection count when the iteration began.
+	 */
+	private long startGCCount;
+
+	/**
+	 * The garbage collection time when the iteration began.
+	 */
+	private long startGCMillis;
+
 	/**
 	 * Train a flat network multithreaded.
 	 * 
@@ -156,28 +254,139 @@ public abstract class TrainFlatNetworkProp implements TrainFlatNetwork {
 			init();
 		}
 
+		if (this.gradientSource != null) {
+			final long start = System.nanoTime();
+			this.currentError = this.gradientSource.calculateGradients(
+					this.network.getWeights(), this.gradients);
+			this.gradientNanos += System.nanoTime() - start;
+			this.recordsProcessed += this.gradientSource.getRecordCount();
+			return;
+		}
+
 		if (this.network.getHasContext()) {
 			this.workers[0].getNetwork().clearContext();
 		}
 
 		this.totalError = 0;
+		final long start = System.nanoTime();
+
+		if (this.chunked) {
+			beginChunks();
+		}
 
 		if (this.workers.length > 1) {
 
-			final TaskGroup group = EngineConcurrency.getInstance()
-					.createTaskGroup();
+			final EngineConcurrency engine = getEngine();
+			final TaskGroup group = engine.createTaskGroup();
 
 			for (final GradientWorker worker : this.workers) {
-				EngineConcurrency.getInstance().processTask(worker, group);
+				engine.processTask(worker, group);
 			}
 
+			final long waitStart = System.nanoTime();
 			group.waitForComplete();
+			this.waitNanos += System.nanoTime() - waitStart;
+			this.poolTaskNanos += group.getTaskNanos();
+			this.poolQueueNanos += group.getQueueNanos();
 		} else {
 			this.workers[0].run();
 		}
 
-		this.currentError = this.totalError / this.workers.length;
+		if (this.chunked) {
+			// workers may process different numbers of records
+			double weighted = 0;
+			long count = 0;
+			for (final GradientWorker worker : this.workers) {
+				weighted += worker.getLastError() * worker.getRecordCount();
+				count += worker.getRecordCount();
+			}
+			this.currentError = (count == 0) ? 0 : weighted / count;
+		} else {
+			this.currentError = this.totalError / this.workers.length;
+		}
+		this.gradientNanos += System.nanoTime() - start;
+
+		for (final GradientWorker worker : this.workers) {
+			this.computeNanos += worker.getComputeNanos();
+			this.reduceNanos += worker.getReduceNanos();
+			this.recordsProcessed += worker.getRecordCount();
+		}
+
+	}
+
+	/**
+	 * Set the records used by this iteration, and reset the chunks.
+	 */
+	private void beginChunks() {
+		final int recordCount = (int) this.indexable.getRecordCount();
+		final int batch = this.profile.getBatchSize();
+		if (batch == 0 || batch >= recordCount) {
+			this.nextChunk.set(0);
+			this.chunkLimit = recordCount;
+		} else {
+			this.nextChunk.set(this.batchOffset);
+			this.chunkLimit = Math.min(this.batchOffset + batch, recordCount);
+			this.batchOffset = (this.chunkLimit == recordCount) ? 0
+					: this.chunkLimit;
+		}
+	}
+
+	/**
+	 * Called by the workers to claim the next chunk of records.
+	 * 
+	 * @return The index of the first record of the chunk, or -1 if there are
+	 *         no more records in this iteration.
+	 */
+	final int claimChunk() {
+		final int start = this.nextChunk.getAndAdd(this.chunkSize);
+		if (start >= this.chunkLimit) {
+			return -1;
+		}
+		return start;
+	}
+
+	/**
+	 * @return True if the workers claim records in chunks.
+	 */
+	final boolean isChunked() {
+		return this.chunked;
+	}
+
+	/**
+	 * @return The number of records claimed at a time.
+	 */
+	final int getChunkSize() {
+		return this.chunkSize;
+	}
 
+	/**
+	 * @return The end, exclusive, of the records used by this iteration.
+	 */
+	final int getChunkLimit() {
+		return this.chunkLimit;
+	}
+
+	/**
+	 * @return The CPU training profile, or null if none has been set.
+	 */
+	public final CPUTrainingProfile getProfile() {
+		return this.profile;
+	}
+
+	/**
+	 * Set how the gradient calculation is divided among threads. This must
+	 * be set before the first iteration. The thread count of the profile, if
+	 * not zero, takes the place of the number of threads.
+	 * 
+	 * @param theProfile
+	 *            The profile, or null for the default.
+	 */
+	public final void setProfile(final CPUTrainingProfile theProfile) {
+		if (this.workers != null) {
+			throw new EncogError(
+					"The training profile must be set before training begins.");
+		}
+		this.profile = theProfile;
 	}
 
 	/**
@@ -282,9 +491,56 @@ public abstract class TrainFlatNetworkProp implements TrainFlatNetwork {
 		}
 		
 		
-		// setup workers
+		if (this.gradientSource != null) {
+			if (this.network.getHasContext()) {
+				throw new EncogError(
+				"A gradient source cannot be used with a recurrent network.");
+			}
+			this.gradientSource.init(this.network, this.ef,
+					this.shouldFixFlatSpot);
+			this.workers = new GradientWorker[0];
+			initOthers();
+			return;
+		}
+
+		// setup workers, sized to the profile or a private pool if one was
+		// set
+		int threads = this.numThreads;
+		if (this.profile != null && this.profile.getThreadCount() > 0) {
+			threads = this.profile.getThreadCount();
+		}
+		if (threads == 0 && this.engine != null) {
+			threads = this.engine.getThreadCount();
+		}
+
+		// recurrent networks need each worker to see consecutive records
+		final int recordCount = (int) this.indexable.getRecordCount();
+		this.chunked = (this.profile != null) && this.profile.isChunked()
+				&& !this.network.getHasContext();
+		int perIteration = recordCount;
+		if (this.chunked && this.profile.getBatchSize() > 0) {
+			perIteration = Math.min(recordCount, this.profile.getBatchSize());
+		}
+
 		final DetermineWorkload determine = new DetermineWorkload(
-				this.numThreads, (int) this.indexable.getRecordCount());
+				threads, perIteration);
+
+		if (this.chunked) {
+			this.workers = new GradientWorker[determine.getThreadCount()];
+			this.chunkSize = this.profile.getChunkSize();
+			if (this.chunkSize == 0) {
+				this.chunkSize = (perIteration + this.workers.length - 1)
+						/ this.workers.length;
+			}
+			this.batchOffset = 0;
+			for (int i = 0; i < this.workers.length; i++) {
+				this.workers[i] = new GradientWorker(this.network.clone(),
+						this, this.indexable.openAdditional(), 0,
+						recordCount - 1, this.flatSpot, this.ef);
+			}
+			initOthers();
+			return;
+		}
 
 		this.workers = new GradientWorker[determine.getThreadCount()];
 
@@ -306,6 +562,7 @@ public abstract class TrainFlatNetworkProp implements TrainFlatNetwork {
 	@Override
 	public void iteration() {
 
+		final long start = beginMetrics();
 		this.iteration++;
 
 		calculateGradients();
@@ -330,6 +587,145 @@ public abstract class TrainFlatNetworkProp implements TrainFlatNetwork {
 		if (this.reportedException != null) {
 			throw (new EncogError(this.reportedException));
 		}
+
+		endMetrics(start);
+	}
+
+	/**
+	 * @return The concurrency object used to run the gradient workers. This
+	 *         is the shared instance unless another has been set.
+	 */
+	public EngineConcurrency getEngine() {
+		if (this.engine == null) {
+			return EngineConcurrency.getInstance();
+		}
+		return this.engine;
+	}
+
+	/**
+	 * Set the concurrency object used to run the gradient workers. This must
+	 * be called before the first iteration. If the thread count is left at
+	 * zero, one worker is created per thread of the given pool.
+	 * 
+	 * @param theEngine
+	 *            The concurrency object, or null for the shared instance.
+	 */
+	public void setEngine(final EngineConcurrency theEngine) {
+		this.engine = theEngine;
+	}
+
+	/**
+	 * @return The gradient source, or null if gradients are calculated by
+	 *         local workers.
+	 */
+	public GradientSource getGradientSource() {
+		return this.gradientSource;
+	}
+
+	/**
+	 * Calculate the gradients with the specified source rather than with
+	 * local workers. The training data passed to the constructor is then not
+	 * used for gradients. This must be called before the first iteration.
+	 * 
+	 * @param theSource
+	 *            The gradient source, or null to use local workers.
+	 */
+	public void setGradientSource(final GradientSource theSource) {
+		this.gradientSource = theSource;
+	}
+
+	/**
+	 * Add a listener that will receive timing metrics at the end of each
+	 * iteration. Metrics are only gathered while at least one listener is
+	 * registered.
+	 * 
+	 * @param listener
+	 *            The listener to add.
+	 */
+	public void addMetricsListener(final TrainingMetricsListener listener) {
+		this.metricsListeners.add(listener);
+	}
+
+	/**
+	 * Remove a metrics listener.
+	 * 
+	 * @param listener
+	 *            The listener to remove.
+	 */
+	public void removeMetricsListener(
+			final TrainingMetricsListener listener) {
+		this.metricsListeners.remove(listener);
+	}
+
+	/**
+	 * @return The registered metrics listeners.
+	 */
+	public List<TrainingMetricsListener> getMetricsListeners() {
+		return this.metricsListeners;
+	}
+
+	/**
+	 * Begin gathering metrics for an iteration. Subclasses that override
+	 * iteration should call this first, and endMetrics last.
+	 * 
+	 * @return The start time of the iteration.
+	 */
+	protected final long beginMetrics() {
+		this.gradientNanos = 0;
+		this.computeNanos = 0;
+		this.reduceNanos = 0;
+		this.waitNanos = 0;
+		this.poolTaskNanos = 0;
+		this.poolQueueNanos = 0;
+		this.recordsProcessed = 0;
+
+		if (this.metricsListeners.isEmpty()) {
+			return 0;
+		}
+
+		this.startGCCount = 0;
+		this.startGCMillis = 0;
+		for (final GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			this.startGCCount += Math.max(0, gc.getCollectionCount());
+			this.startGCMillis += Math.max(0, gc.getCollectionTime());
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Finish gathering metrics for an iteration and pass them to the
+	 * listeners. Time not spent calculating gradients is counted as learn
+	 * time.
+	 * 
+	 * @param start
+	 *            The start time returned by beginMetrics.
+	 */
+	protected final void endMetrics(final long start) {
+		if (this.metricsListeners.isEmpty()) {
+			return;
+		}
+
+		final long total = System.nanoTime() - start;
+
+		long gcCount = 0;
+		long gcMillis = 0;
+		for (final GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			gcCount += Math.max(0, gc.getCollectionCount());
+			gcMillis += Math.max(0, gc.getCollectionTime());
+		}
+
+		final TrainingMetrics metrics = new TrainingMetrics(this.iteration,
+				this.currentError, this.recordsProcessed, this.workers.length,
+				total, this.gradientNanos,
+				Math.max(0, total - this.gradientNanos), this.computeNanos,
+				this.reduceNanos, this.waitNanos, this.poolTaskNanos,
+				this.poolQueueNanos, gcCount - this.startGCCount, gcMillis - this.startGCMillis);
+
+		for (final TrainingMetricsListener listener : this.metricsListeners) {
+			listener.iterationComplete(metrics);
+		}
 	}
 
 	/**
@@ -299,6 +299,20 @@ public class TrainFlatNetworkResilient extends TrainFlatNetworkProp {
 		return updateValues;
 	}
 
+	/**
+	 * @return The last weight changes, used by RPROP+ to backtrack.
+	 */
+	public double[] getLastWeightChange() {
+		return lastWeightChange;
+	}
+
+	/**
+	 * @return The last deltas, used by RPROP-.
+	 */
+	public double[] getLastDelta() {
+		return lastDelta;
+	}
+
 	/**
 	 * @return the rpropType
 	 */
@@ -190,6 +190,8 @@ public class TrainFlatNetworkSCG extends TrainFlatNetworkProp {
 	@Override
 	public void iteration() {
 
+		final long start = beginMetrics();
+
 		if (this.mustInit) {
 			init();
 		}
@@ -325,6 +327,8 @@ public class TrainFlatNetworkSCG extends TrainFlatNetworkProp {
 		++this.k;
 
 		EngineArray.arrayCopy(this.weights, this.network.getWeights());
+
+		endMetrics(start);
 	}
 
 	/**
@@ -347,4 +351,79 @@ public class TrainFlatNetworkSCG extends TrainFlatNetworkProp {
 		
 	}
 
+
+	/**
+	 * @return The current search direction.
+	 */
+	public final double[] getP() {
+		return this.p;
+	}
+
+	/**
+	 * @return The current steepest descent direction.
+	 */
+	public final double[] getR() {
+		return this.r;
+	}
+
+	/**
+	 * @return The weights being trained.
+	 */
+	public final double[] getWeights() {
+		return this.weights;
+	}
+
+	/**
+	 * @return The weights from the previous step.
+	 */
+	public final double[] getOldWeights() {
+		return this.oldWeights;
+	}
+
+	/**
+	 * @return The gradients from the previous step.
+	 */
+	public final double[] getOldGradient() {
+		return this.oldGradient;
+	}
+
+	/**
+	 * @return The current gradients.
+	 */
+	public final double[] getGradients() {
+		return this.gradients;
+	}
+
+	/**
+	 * Get the scalar state of the algorithm, so that training can be
+	 * resumed later.
+	 * 
+	 * @return The scalar state, in the order read by setState.
+	 */
+	public final double[] getState() {
+		return new double[] { this.lambda, this.lambda2, this.k,
+				this.success ? 1 : 0, this.restart ? 1 : 0, this.magP,
+				this.delta, this.oldError, this.mustInit ? 1 : 0,
+				this.currentError };
+	}
+
+	/**
+	 * Restore the scalar state of the algorithm.
+	 * 
+	 * @param state
+	 *            The state, as returned by getState.
+	 */
+	public final void setState(final double[] state) {
+		this.lambda = state[0];
+		this.lambda2 = state[1];
+		this.k = (int) state[2];
+		this.success = state[3] > 0;
+		this.restart = state[4] > 0;
+		this.magP = state[5];
+		this.delta = state[6];
+		this.oldError = state[7];
+		this.mustInit = state[8] > 0;
+		this.currentError = state[9];
+	}
+
 }
@@ -0,0 +1,356 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.prop;
+
+/**
+ * Timing and throughput figures for a single iteration of propagation
+ * training. An instance is handed to each registered
+ * TrainingMetricsListener at the end of every iteration. All times are in
+ * nanoseconds.
+ */
+public class TrainingMetrics {
+
+	/**
+	 * The iteration number.
+	 */
+	private final int iteration;
+
+	/**
+	 * The error after the iteration.
+	 */
+	private final double error;
+
+	/**
+	 * The number of training records processed.
+	 */
+	private final long records;
+
+	/**
+	 * The number of gradient workers.
+	 */
+	private final int workerCount;
+
+	/**
+	 * The wall time for the whole iteration.
+	 */
+	private final long iterationNanos;
+
+	/**
+	 * The wall time spent calculating gradients.
+	 */
+	private final long gradientNanos;
+
+	/**
+	 * The wall time spent applying the gradients to the weights.
+	 */
+	private final long learnNanos;
+
+	/**
+	 * The time the workers spent calculating, summed over all workers.
+	 */
+	private final long computeNanos;
+
+	/**
+	 * The time the workers spent reporting gradients, summed over all
+	 * workers. This includes waiting for the report lock.
+	 */
+	private final long reduceNanos;
+
+	/**
+	 * The time the training thread spent blocked waiting for workers.
+	 */
+	private final long waitNanos;
+
+	/**
+	 * The time this trainer's pooled tasks spent running, summed over all
+	 * tasks.
+	 */
+	private final long poolTaskNanos;
+
+	/**
+	 * The time this trainer's pooled tasks spent waiting for a pool thread,
+	 * summed over all tasks.
+	 */
+	private final long poolQueueNanos;
+
+	/**
+	 * The number of garbage collections during the iteration.
+	 */
+	private final long gcCount;
+
+	/**
+	 * The garbage collection time during the iteration, in milliseconds.
+	 */
+	private final long gcMillis;
+
+	/**
+	 * Construct the metrics.
+	 * 
+	 * @param theIteration
+	 *            The iteration number.
+	 * @param theError
+	 *            The error after the iteration.
+	 * @param theRecords
+	 *            The number of records processed.
+	 * @param theWorkerCount
+	 *            The number of gradient workers.
+	 * @param theIterationNanos
+	 *            The wall time for the iteration.
+	 * @param theGradientNanos
+	 *            The wall time spent calculating gradients.
+	 * @param theLearnNanos
+	 *            The wall time spent updating weights.
+	 * @param theComputeNanos
+	 *            The summed worker compute time.
+	 * @param theReduceNanos
+	 *            The summed worker report time.
+	 * @param theWaitNanos
+	 *            The time spent waiting for the workers.
+	 * @param theGCCount
+	 *            The number of garbage collections.
+	 * @param theGCMillis
+	 *            The garbage collection time, in milliseconds.
+	 */
+	public TrainingMetrics(final int theIteration, final double theError,
+			final long theRecords, final int theWorkerCount,
+			final long theIterationNanos, final long theGradientNanos,
+			final long theLearnNanos, final long theComputeNanos,
+			final long theReduceNanos, final long theWaitNanos,
+			final long theGCCount, final long theGCMillis) {
+		this(theIteration, theError, theRecords, theWorkerCount,
+				theIterationNanos, theGradientNanos, theLearnNanos,
+				theComputeNanos, theReduceNanos, theWaitNanos, 0, 0,
+				theGCCount, theGCMillis);
+	}
+
+	/**
+	 * Construct the metrics, including the pool timing of the trainer's
+	 * tasks.
+	 * 
+	 * @param theIteration
+	 *            The iteration number.
+	 * @param theError
+	 *            The error after the iteration.
+	 * @param theRecords
+	 *            The number of records processed.
+	 * @param theWorkerCount
+	 *            The number of gradient workers.
+	 * @param theIterationNanos
+	 *            The wall time for the iteration.
+	 * @param theGradientNanos
+	 *            The wall time spent calculating gradients.
+	 * @param theLearnNanos
+	 *            The wall time spent updating weights.
+	 * @param theComputeNanos
+	 *            The summed worker compute time.
+	 * @param theReduceNanos
+	 *            The summed worker report time.
+	 * @param theWaitNanos
+	 *            The time spent waiting for the workers.
+	 * @param thePoolTaskNanos
+	 *            The summed run time of the trainer's pooled tasks.
+	 * @param thePoolQueueNanos
+	 *            The summed queue time of the trainer's pooled tasks.
+	 * @param theGCCount
+	 *            The number of garbage collections.
+	 * @param theGCMillis
+	 *            The garbage collection time, in milliseconds.
+	 */
+	public TrainingMetrics(final int theIteration, final double theError,
+			final long theRecords, final int theWorkerCount,
+			final long theIterationNanos, final long theGradientNanos,
+			final long theLearnNanos, final long theComputeNanos,
+			final long theReduceNanos, final long theWaitNanos,
+			final long thePoolTaskNanos, final long thePoolQueueNanos,
+			final long theGCCount, final long theGCMillis) {
+		this.iteration = theIteration;
+		this.error = theError;
+		this.records = theRecords;
+		this.workerCount = theWorkerCount;
+		this.iterationNanos = theIterationNanos;
+		this.gradientNanos = theGradientNanos;
+		this.learnNanos = theLearnNanos;
+		this.computeNanos = theComputeNanos;
+		this.reduceNanos = theReduceNanos;
+		this.waitNanos = theWaitNanos;
+		this.poolTaskNanos = thePoolTaskNanos;
+		this.poolQueueNanos = thePoolQueueNanos;
+		this.gcCount = theGCCount;
+		this.gcMillis = theGCMillis;
+	}
+
+	/**
+	 * @return The iteration number.
+	 */
+	public int getIteration() {
+		return this.iteration;
+	}
+
+	/**
+	 * @return The error after the iteration.
+	 */
+	public double getError() {
+		return this.error;
+	}
+
+	/**
+	 * @return The number of training records processed.
+	 */
+	public long getRecords() {
+		return this.records;
+	}
+
+	/**
+	 * @return The number of gradient workers.
+	 */
+	public int getWorkerCount() {
+		return this.workerCount;
+	}
+
+	/**
+	 * @return The wall time for the whole iteration.
+	 */
+	public long getIterationNanos() {
+		return this.iterationNanos;
+	}
+
+	/**
+	 * @return The wall time spent calculating gradients.
+	 */
+	public long getGradientNanos() {
+		return this.gradientNanos;
+	}
+
+	/**
+	 * @return The wall time spent applying gradients to the weights.
+	 */
+	public long getLearnNanos() {
+		return this.learnNanos;
+	}
+
+	/**
+	 * @return The worker compute time, summed over all workers.
+	 */
+	public long getComputeNanos() {
+		return this.computeNanos;
+	}
+
+	/**
+	 * @return The worker report time, summed over all workers.
+	 */
+	public long getReduceNanos() {
+		return this.reduceNanos;
+	}
+
+	/**
+	 * @return The time the training thread waited for the workers.
+	 */
+	public long getWaitNanos() {
+		return this.waitNanos;
+	}
+
+	/**
+	 * @return The time this trainer's pooled tasks spent running, summed
+	 *         over all tasks. Tasks of other jobs sharing the pool are not
+	 *         included.
+	 */
+	public long getPoolTaskNanos() {
+		return this.poolTaskNanos;
+	}
+
+	/**
+	 * @return The time this trainer's pooled tasks spent waiting for a pool
+	 *         thread, summed over all tasks.
+	 */
+	public long getPoolQueueNanos() {
+		return this.poolQueueNanos;
+	}
+
+	/**
+	 * @return The number of garbage collections during the iteration.
+	 */
+	public long getGCCount() {
+		return this.gcCount;
+	}
+
+	/**
+	 * @return The garbage collection time during the iteration, in
+	 *         milliseconds.
+	 */
+	public long getGCMillis() {
+		return this.gcMillis;
+	}
+
+	/**
+	 * @return The number of training records processed per second.
+	 */
+	public double getRecordsPerSecond() {
+		if (this.iterationNanos <= 0) {
+			return 0;
+		}
+		return this.records * 1.0e9 / this.iterationNanos;
+	}
+
+	/**
+	 * The fraction of the available worker time that was spent computing.
+	 * A value near one means the workers were kept busy; a low value means
+	 * time was lost to scheduling, reduction or an uneven split of the data.
+	 * 
+	 * @return The worker utilization, between zero and one.
+	 */
+	public double getUtilization() {
+		final double available = (double) this.gradientNanos
+				* this.workerCount;
+		if (available <= 0) {
+			return 0;
+		}
+		return Math.min(1.0, this.computeNanos / available);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder();
+		result.append("[TrainingMetrics: iteration=");
+		result.append(this.iteration);
+		result.append(", error=");
+		result.append(this.error);
+		result.append(", records/sec=");
+		result.append((long) getRecordsPerSecond());
+		result.append(", utilization=");
+		result.append((int) (getUtilization() * 100));
+		result.append("%, gradient=");
+		result.append(this.gradientNanos / 1000);
+		result.append("us, learn=");
+		result.append(this.learnNanos / 1000);
+		result.append("us, wait=");
+		result.append(this.waitNanos / 1000);
+		result.append("us, gc=");
+		result.append(this.gcMillis);
+		result.append("ms]");
+		return result.toString();
+	}
+}
@@ -0,0 +1,333 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.remote;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.encog.EncogError;
+import org.encog.neural.error.ErrorFunction;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.flat.train.prop.GradientSource;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.EngineTask;
+import org.encog.util.concurrency.TaskGroup;
+
+/**
+ * Calculates gradients on several gradient servers, each of which holds a
+ * shard of the training data. Each iteration the current weights are sent to
+ * every server at once, and the gradients they return are summed, so that
+ * the result is the same as calculating over all of the data locally.
+ * 
+ * To use, add the servers, then pass the coordinator to setGradientSource on
+ * the propagation trainer before the first iteration. Call close when
+ * training is done.
+ */
+public class GradientCoordinator implements GradientSource {
+
+	/**
+	 * The default time to wait for a server, in milliseconds.
+	 */
+	public static final int DEFAULT_TIMEOUT = 60000;
+
+	/**
+	 * A connection to one gradient server.
+	 */
+	private static class Node implements EngineTask {
+
+		/**
+		 * The server address.
+		 */
+		private final InetSocketAddress address;
+
+		/**
+		 * The connection, or null if not connected.
+		 */
+		private RemoteConnection connection;
+
+		/**
+		 * The weights to send.
+		 */
+		private double[] weights;
+
+		/**
+		 * The gradients received.
+		 */
+		private double[] gradients;
+
+		/**
+		 * The error received.
+		 */
+		private double error;
+
+		/**
+		 * The number of records the server holds.
+		 */
+		private long recordCount;
+
+		/**
+		 * Construct a node.
+		 * 
+		 * @param theAddress
+		 *            The server address.
+		 */
+		public Node(final InetSocketAddress theAddress) {
+			this.address = theAddress;
+		}
+
+		/**
+		 * Exchange weights for gradients with the server.
+		 */
+		public void run() {
+			try {
+				this.connection.getOut().writeInt(
+						RemoteConnection.COMMAND_GRADIENTS);
+				this.connection.writeArray(this.weights);
+				this.connection.getOut().flush();
+				this.connection.readStatus();
+				this.error = this.connection.getIn().readDouble();
+				this.connection.readArray(this.gradients);
+			} catch (final IOException e) {
+				throw new EncogError(e);
+			}
+		}
+	}
+
+	/**
+	 * The servers.
+	 */
+	private final List<Node> nodes = new ArrayList<Node>();
+
+	/**
+	 * The time to wait for a server, in milliseconds.
+	 */
+	private int timeout = GradientCoordinator.DEFAULT_TIMEOUT;
+
+	/**
+	 * The total number of records over all servers.
+	 */
+	private long recordCount;
+
+	/**
+	 * The concurrency object used to talk to the servers, or null to use
+	 * one of our own on an I/O executor.
+	 */
+	private EngineConcurrency engine;
+
+	/**
+	 * The I/O executor created by init when no concurrency object was set.
+	 */
+	private ExecutorService ioExecutor;
+
+	/**
+	 * The concurrency object running on the I/O executor.
+	 */
+	private EngineConcurrency ioEngine;
+
+	/**
+	 * Add a gradient server.
+	 * 
+	 * @param host
+	 *            The host the server runs on.
+	 * @param port
+	 *            The port the server listens on.
+	 */
+	public void addServer(final String host, final int port) {
+		this.nodes.add(new Node(new InetSocketAddress(host, port)));
+	}
+
+	/**
+	 * @return The number of servers.
+	 */
+	public int getServerCount() {
+		return this.nodes.size();
+	}
+
+	/**
+	 * @return The time to wait for a server, in milliseconds.
+	 */
+	public int getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Set how long to wait for a server before giving up. Gradient requests
+	 * over large shards may take a while, so this should be generous.
+	 * 
+	 * @param theTimeout
+	 *            The timeout in milliseconds, zero to wait forever.
+	 */
+	public void setTimeout(final int theTimeout) {
+		this.timeout = theTimeout;
+	}
+
+	/**
+	 * Set the concurrency object used to talk to the servers. The tasks
+	 * spend most of their time blocked on the network, so an I/O executor
+	 * suits them.
+	 * 
+	 * @param theEngine
+	 *            The concurrency object, or null to create one on an I/O
+	 *            executor when training starts.
+	 */
+	public void setEngine(final EngineConcurrency theEngine) {
+		this.engine = theEngine;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getRecordCount() {
+		return this.recordCount;
+	}
+
+	/**
+	 * Connect to the servers and send them the network.
+	 * 
+	 * @param network
+	 *            The network being trained.
+	 * @param ef
+	 *            The error function.
+	 * @param fixFlatSpot
+	 *            Should the flat spot be fixed.
+	 */
+	@Override
+	public void init(final FlatNetwork network, final ErrorFunction ef,
+			final boolean fixFlatSpot) {
+		if (this.nodes.isEmpty()) {
+			throw new EncogError("No gradient servers have been added.");
+		}
+
+		final String errorFunction;
+		try {
+			errorFunction = RemoteConnection.getErrorFunctionName(ef);
+		} catch (final IOException e) {
+			throw new EncogError(e);
+		}
+
+		this.recordCount = 0;
+		for (final Node node : this.nodes) {
+			try {
+				final Socket socket = new Socket();
+				socket.connect(node.address, this.timeout);
+				socket.setSoTimeout(this.timeout);
+				node.connection = new RemoteConnection(socket);
+				node.connection.getOut().writeInt(RemoteConnection.MAGIC);
+				node.connection.getOut().writeInt(RemoteConnection.VERSION);
+				node.connection.getOut().flush();
+				node.connection.readStatus();
+
+				node.connection.getOut().writeInt(
+						RemoteConnection.COMMAND_INIT);
+				node.connection.writeNetwork(network);
+				node.connection.getOut().writeUTF(errorFunction);
+				node.connection.getOut().writeBoolean(fixFlatSpot);
+				node.connection.getOut().flush();
+				node.connection.readStatus();
+				node.recordCount = node.connection.getIn().readLong();
+			} catch (final IOException e) {
+				close();
+				throw new EncogError(e);
+			}
+
+			node.weights = new double[network.getWeights().length];
+			node.gradients = new double[network.getWeights().length];
+			this.recordCount += node.recordCount;
+		}
+
+		if (this.recordCount == 0) {
+			close();
+			throw new EncogError("The gradient servers hold no records.");
+		}
+
+		if (this.engine == null && this.ioEngine == null) {
+			this.ioExecutor = EngineConcurrency.createIOExecutor();
+			this.ioEngine = new EngineConcurrency(this.ioExecutor);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double calculateGradients(final double[] weights,
+			final double[] gradients) {
+		final EngineConcurrency concurrency = this.engine == null 
+			? this.ioEngine : this.engine;
+		if (concurrency == null) {
+			throw new EncogError("The gradient coordinator is closed.");
+		}
+		final TaskGroup group = concurrency.createTaskGroup();
+
+		for (final Node node : this.nodes) {
+			if (node.connection == null) {
+				throw new EncogError("The gradient coordinator is closed.");
+			}
+			System.arraycopy(weights, 0, node.weights, 0, weights.length);
+			concurrency.processTask(node, group);
+		}
+
+		group.waitForComplete();
+
+		// sum in a fixed order, so results do not depend on timing
+		double error = 0;
+		for (final Node node : this.nodes) {
+			for (int i = 0; i < gradients.length; i++) {
+				gradients[i] += node.gradients[i];
+			}
+			error += node.error * node.recordCount;
+		}
+		return error / this.recordCount;
+	}
+
+	/**
+	 * Tell the servers training is done, close the connections, and shut
+	 * down the I/O executor if we created one.
+	 */
+	public void close() {
+		if (this.ioExecutor != null) {
+			this.ioExecutor.shutdown();
+			this.ioExecutor = null;
+			this.ioEngine = null;
+		}
+		for (final Node node : this.nodes) {
+			if (node.connection != null) {
+				try {
+					node.connection.getOut().writeInt(
+							RemoteConnection.COMMAND_CLOSE);
+					node.connection.getOut().flush();
+				} catch (final IOException e) {
+					// closing anyway
+				}
+				node.connection.close();
+				node.connection = null;
+			}
+		}
+	}
+}
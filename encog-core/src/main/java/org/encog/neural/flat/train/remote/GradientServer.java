@@ -0,0 +1,354 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.remote;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+import org.encog.Encog;
+import org.encog.EncogError;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.ml.data.folded.FoldedDataSet;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.util.logging.EncogLogging;
+
+/**
+ * Serves gradient calculations to a GradientCoordinator. Each server holds one
+ * shard of the training data. For every iteration the coordinator sends the
+ * current weights, and the server replies with the gradients and error over
+ * its shard, calculated with local gradient workers.
+ * 
+ * Connections are served one at a time. A server can be started from the
+ * command line with main, or embedded and run on a thread of its own.
+ * 
+ * The protocol has no authentication or encryption. Anyone who can connect
+ * can train against the server's data and read the gradients it returns. For
+ * this reason the server listens only on the loopback address unless another
+ * address is given. Only bind to an address on a trusted network, or reach
+ * the server through a secure tunnel.
+ */
+public class GradientServer implements Runnable {
+
+	/**
+	 * The shard of training data.
+	 */
+	private final MLDataSet training;
+
+	/**
+	 * The server socket.
+	 */
+	private final ServerSocket serverSocket;
+
+	/**
+	 * The number of threads to calculate gradients with, zero for automatic.
+	 */
+	private int threadCount;
+
+	/**
+	 * Has the server been asked to stop.
+	 */
+	private volatile boolean stopped;
+
+	/**
+	 * Create a gradient server that listens on the loopback address only.
+	 * 
+	 * @param theTraining
+	 *            The shard of training data this server holds.
+	 * @param port
+	 *            The port to listen on, or zero to pick a free port.
+	 */
+	public GradientServer(final MLDataSet theTraining, final int port) {
+		this(theTraining, port, null);
+	}
+
+	/**
+	 * Create a gradient server.
+	 * 
+	 * @param theTraining
+	 *            The shard of training data this server holds.
+	 * @param port
+	 *            The port to listen on, or zero to pick a free port.
+	 * @param bindAddress
+	 *            The address to listen on, or null for the loopback address.
+	 *            The protocol has no authentication, so only use an address
+	 *            on a trusted network.
+	 */
+	public GradientServer(final MLDataSet theTraining, final int port,
+			final InetAddress bindAddress) {
+		this.training = theTraining;
+		try {
+			final InetAddress address = (bindAddress == null) ? InetAddress
+					.getByName(null) : bindAddress;
+			this.serverSocket = new ServerSocket(port, 0, address);
+		} catch (final IOException e) {
+			throw new EncogError(e);
+		}
+	}
+
+	/**
+	 * @return The port the server is listening on.
+	 */
+	public int getPort() {
+		return this.serverSocket.getLocalPort();
+	}
+
+	/**
+	 * @return The number of threads to calculate gradients with.
+	 */
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+
+	/**
+	 * Set the number of threads to calculate gradients with.
+	 * 
+	 * @param theThreadCount
+	 *            The thread count, zero for automatic.
+	 */
+	public void setThreadCount(final int theThreadCount) {
+		this.threadCount = theThreadCount;
+	}
+
+	/**
+	 * Start serving on a new daemon thread.
+	 * 
+	 * @return The thread.
+	 */
+	public Thread start() {
+		final Thread thread = new Thread(this, "encog-gradient-server-"
+				+ getPort());
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Stop the server. Any connection being served is closed once the
+	 * current request completes.
+	 */
+	public void stop() {
+		this.stopped = true;
+		try {
+			this.serverSocket.close();
+		} catch (final IOException e) {
+			// nothing more can be done
+		}
+	}
+
+	/**
+	 * Accept and serve connections until stopped.
+	 */
+	public void run() {
+		while (!this.stopped) {
+			Socket socket;
+			try {
+				socket = this.serverSocket.accept();
+			} catch (final SocketException e) {
+				// the server socket was closed by stop
+				break;
+			} catch (final IOException e) {
+				throw new EncogError(e);
+			}
+
+			RemoteConnection connection = null;
+			try {
+				connection = new RemoteConnection(socket);
+				serve(connection);
+			} catch (final EOFException e) {
+				// the coordinator went away
+			} catch (final IOException e) {
+				EncogLogging.log(e);
+			} finally {
+				if (connection != null) {
+					connection.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Serve a single coordinator.
+	 * 
+	 * @param connection
+	 *            The connection to the coordinator.
+	 * @throws IOException
+	 *             If the connection fails.
+	 */
+	private void serve(final RemoteConnection connection) throws IOException {
+		if (connection.getIn().readInt() != RemoteConnection.MAGIC
+				|| connection.getIn().readInt() != RemoteConnection.VERSION) {
+			connection.writeError(new EncogError(
+					"Unsupported gradient protocol."));
+			return;
+		}
+		connection.getOut().writeInt(RemoteConnection.STATUS_OK);
+		connection.getOut().flush();
+
+		ShardGradients shard = null;
+		double[] weights = null;
+		double[] gradients = null;
+
+		while (!this.stopped) {
+			final int command = connection.getIn().readInt();
+			switch (command) {
+			case RemoteConnection.COMMAND_INIT:
+				final FlatNetwork network;
+				final String errorFunction;
+				final boolean fixFlatSpot;
+				try {
+					network = connection.readNetwork();
+					errorFunction = connection.getIn().readUTF();
+					fixFlatSpot = connection.getIn().readBoolean();
+				} catch (final EOFException e) {
+					throw e;
+				} catch (final IOException e) {
+					// a rejected frame leaves the stream out of step, so close
+					connection.writeError(e);
+					return;
+				} catch (final RuntimeException e) {
+					connection.writeError(e);
+					return;
+				}
+				try {
+					shard = createShard(network, errorFunction, fixFlatSpot);
+					weights = new double[shard.getNetwork().getWeights().length];
+					gradients = new double[weights.length];
+				} catch (final Throwable t) {
+					connection.writeError(t);
+					return;
+				}
+				connection.getOut().writeInt(RemoteConnection.STATUS_OK);
+				connection.getOut().writeLong(this.training.getRecordCount());
+				connection.getOut().flush();
+				break;
+			case RemoteConnection.COMMAND_GRADIENTS:
+				if (shard == null) {
+					connection.writeError(new EncogError(
+							"Gradients requested before init."));
+					return;
+				}
+				connection.readArray(weights);
+				final double error;
+				try {
+					error = shard.calculate(weights, gradients);
+				} catch (final Throwable t) {
+					connection.writeError(t);
+					return;
+				}
+				connection.getOut().writeInt(RemoteConnection.STATUS_OK);
+				connection.getOut().writeDouble(error);
+				connection.writeArray(gradients);
+				connection.getOut().flush();
+				break;
+			case RemoteConnection.COMMAND_CLOSE:
+				return;
+			default:
+				connection.writeError(new EncogError("Unknown command: "
+						+ command));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Create the gradient calculation for a network sent by the coordinator.
+	 * 
+	 * @param network
+	 *            The network.
+	 * @param errorFunction
+	 *            The name of the error function.
+	 * @param fixFlatSpot
+	 *            Should the flat spot be fixed.
+	 * @return The gradient calculation.
+	 * @throws IOException
+	 *             If the error function is not known.
+	 */
+	private ShardGradients createShard(final FlatNetwork network,
+			final String errorFunction, final boolean fixFlatSpot)
+		throws IOException {
+		if (network.getInputCount() != this.training.getInputSize()
+				|| network.getOutputCount() != this.training.getIdealSize()) {
+			throw new EncogError("The network does not match the shape of "
+					+ "this server's training data.");
+		}
+
+		final ShardGradients result = new ShardGradients(network,
+				this.training);
+		result.setErrorFunction(RemoteConnection
+				.createErrorFunction(errorFunction));
+		result.fixFlatSpot(fixFlatSpot);
+		result.setNumThreads(this.threadCount);
+		return result;
+	}
+
+	/**
+	 * Run a gradient server from the command line. Arguments are the port,
+	 * the EGB file holding the training data, optionally the shard number and
+	 * shard count, so that several servers can share one file, and
+	 * optionally the address to listen on. The default address is loopback.
+	 * 
+	 * @param args
+	 *            The command line arguments.
+	 */
+	public static void main(final String[] args) {
+		if (args.length < 2 || args.length > 5) {
+			System.out.println("Usage: GradientServer port file.egb "
+					+ "[shard shardCount] [bindAddress]");
+			return;
+		}
+
+		final int port = Integer.parseInt(args[0]);
+		MLDataSet training = new BufferedNeuralDataSet(new File(args[1]));
+
+		InetAddress bindAddress = null;
+		if (args.length == 3 || args.length == 5) {
+			try {
+				bindAddress = InetAddress.getByName(args[args.length - 1]);
+			} catch (final IOException e) {
+				throw new EncogError(e);
+			}
+		}
+
+		if (args.length >= 4) {
+			final FoldedDataSet folded = new FoldedDataSet(training);
+			folded.fold(Integer.parseInt(args[3]));
+			folded.setCurrentFold(Integer.parseInt(args[2]));
+			training = folded;
+		}
+
+		final GradientServer server = new GradientServer(training, port,
+				bindAddress);
+		System.out.println("Serving " + training.getRecordCount()
+				+ " records on " + server.serverSocket.getInetAddress()
+				+ " port " + server.getPort());
+		server.run();
+		Encog.getInstance().shutdown();
+	}
+}
@@ -0,0 +1,331 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.encog.neural.error.ATanErrorFunction;
+import org.encog.neural.error.ErrorFunction;
+import org.encog.neural.error.LinearErrorFunction;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.PersistBasicNetwork;
+
+/**
+ * One end of a connection between a gradient coordinator and a gradient
+ * server. Holds the socket streams and a reusable buffer used to send and
+ * receive arrays of doubles in bulk.
+ * 
+ * Nothing received is trusted to name a class. The network is sent as the
+ * text of an EG file, and the error function by a name from a fixed list.
+ * Every length received is checked before anything is allocated for it.
+ */
+class RemoteConnection {
+
+	/**
+	 * Identifies the protocol, sent when a connection is opened.
+	 */
+	public static final int MAGIC = 0x45474453;
+
+	/**
+	 * The protocol version.
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * The largest network, as EG text, that will be accepted, in bytes.
+	 */
+	public static final int MAX_NETWORK_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * The name sent for LinearErrorFunction.
+	 */
+	public static final String ERROR_LINEAR = "linear";
+
+	/**
+	 * The name sent for ATanErrorFunction.
+	 */
+	public static final String ERROR_ATAN = "atan";
+
+	/**
+	 * Command: set up the network to calculate gradients for.
+	 */
+	public static final int COMMAND_INIT = 1;
+
+	/**
+	 * Command: calculate the gradients for a set of weights.
+	 */
+	public static final int COMMAND_GRADIENTS = 2;
+
+	/**
+	 * Command: close the connection.
+	 */
+	public static final int COMMAND_CLOSE = 3;
+
+	/**
+	 * Reply: the command succeeded.
+	 */
+	public static final int STATUS_OK = 0;
+
+	/**
+	 * Reply: the command failed, an error message follows.
+	 */
+	public static final int STATUS_ERROR = 1;
+
+	/**
+	 * The socket.
+	 */
+	private final Socket socket;
+
+	/**
+	 * The input stream.
+	 */
+	private final DataInputStream in;
+
+	/**
+	 * The output stream.
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * Buffer used to convert between doubles and bytes.
+	 */
+	private byte[] buffer = new byte[0];
+
+	/**
+	 * Open a connection over the specified socket.
+	 * 
+	 * @param theSocket
+	 *            The socket.
+	 * @throws IOException
+	 *             If the streams could not be opened.
+	 */
+	public RemoteConnection(final Socket theSocket) throws IOException {
+		this.socket = theSocket;
+		this.socket.setTcpNoDelay(true);
+		this.in = new DataInputStream(new BufferedInputStream(
+				theSocket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(
+				theSocket.getOutputStream()));
+	}
+
+	/**
+	 * @return The input stream.
+	 */
+	public DataInputStream getIn() {
+		return this.in;
+	}
+
+	/**
+	 * @return The output stream.
+	 */
+	public DataOutputStream getOut() {
+		return this.out;
+	}
+
+	/**
+	 * @return The socket.
+	 */
+	public Socket getSocket() {
+		return this.socket;
+	}
+
+	/**
+	 * Make sure the buffer can hold the specified number of doubles.
+	 * 
+	 * @param count
+	 *            The number of doubles.
+	 */
+	private void ensureBuffer(final int count) {
+		if (this.buffer.length < count * 8) {
+			this.buffer = new byte[count * 8];
+		}
+	}
+
+	/**
+	 * Write an array of doubles, preceded by its length.
+	 * 
+	 * @param data
+	 *            The array to write.
+	 * @throws IOException
+	 *             If the array could not be written.
+	 */
+	public void writeArray(final double[] data) throws IOException {
+		ensureBuffer(data.length);
+		ByteBuffer.wrap(this.buffer).order(ByteOrder.BIG_ENDIAN)
+				.asDoubleBuffer().put(data);
+		this.out.writeInt(data.length);
+		this.out.write(this.buffer, 0, data.length * 8);
+	}
+
+	/**
+	 * Read an array of doubles written by writeArray.
+	 * 
+	 * @param data
+	 *            The array to read into, its length must match.
+	 * @throws IOException
+	 *             If the array could not be read, or is the wrong length.
+	 */
+	public void readArray(final double[] data) throws IOException {
+		final int length = this.in.readInt();
+		if (length != data.length) {
+			throw new IOException("Expected an array of " + data.length
+					+ " values, but received " + length + ".");
+		}
+		ensureBuffer(length);
+		this.in.readFully(this.buffer, 0, length * 8);
+		ByteBuffer.wrap(this.buffer).order(ByteOrder.BIG_ENDIAN)
+				.asDoubleBuffer().get(data);
+	}
+
+	/**
+	 * Write a network, as the text of an EG file preceded by its length.
+	 * 
+	 * @param network
+	 *            The network to write.
+	 * @throws IOException
+	 *             If the network could not be written.
+	 */
+	public void writeNetwork(final FlatNetwork network) throws IOException {
+		final BasicNetwork basic = new BasicNetwork();
+		basic.getStructure().setFlat(network);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new PersistBasicNetwork().save(bytes, basic);
+		if (bytes.size() > RemoteConnection.MAX_NETWORK_SIZE) {
+			throw new IOException("The network is too large to send.");
+		}
+		this.out.writeInt(bytes.size());
+		bytes.writeTo(this.out);
+	}
+
+	/**
+	 * Read a network written by writeNetwork.
+	 * 
+	 * @return The network.
+	 * @throws IOException
+	 *             If the network could not be read, or is too large.
+	 */
+	public FlatNetwork readNetwork() throws IOException {
+		final int length = this.in.readInt();
+		if (length < 0 || length > RemoteConnection.MAX_NETWORK_SIZE) {
+			throw new IOException("Invalid network length: " + length);
+		}
+		final byte[] data = new byte[length];
+		this.in.readFully(data);
+		final BasicNetwork basic = (BasicNetwork) new PersistBasicNetwork()
+				.read(new ByteArrayInputStream(data));
+		return basic.getStructure().getFlat();
+	}
+
+	/**
+	 * Get the name an error function is sent as.
+	 * 
+	 * @param ef
+	 *            The error function.
+	 * @return The name.
+	 * @throws IOException
+	 *             If the error function cannot be sent.
+	 */
+	public static String getErrorFunctionName(final ErrorFunction ef)
+		throws IOException {
+		if (ef.getClass() == LinearErrorFunction.class) {
+			return RemoteConnection.ERROR_LINEAR;
+		} else if (ef.getClass() == ATanErrorFunction.class) {
+			return RemoteConnection.ERROR_ATAN;
+		}
+		throw new IOException("Error function not supported remotely: "
+				+ ef.getClass().getName());
+	}
+
+	/**
+	 * Create the error function for a name sent by getErrorFunctionName.
+	 * 
+	 * @param name
+	 *            The name.
+	 * @return The error function.
+	 * @throws IOException
+	 *             If the name is not known.
+	 */
+	public static ErrorFunction createErrorFunction(final String name)
+		throws IOException {
+		if (RemoteConnection.ERROR_LINEAR.equals(name)) {
+			return new LinearErrorFunction();
+		} else if (RemoteConnection.ERROR_ATAN.equals(name)) {
+			return new ATanErrorFunction();
+		}
+		throw new IOException("Unknown error function: " + name);
+	}
+
+	/**
+	 * Write an error reply.
+	 * 
+	 * @param t
+	 *            The error.
+	 * @throws IOException
+	 *             If the reply could not be written.
+	 */
+	public void writeError(final Throwable t) throws IOException {
+		this.out.writeInt(RemoteConnection.STATUS_ERROR);
+		this.out.writeUTF(String.valueOf(t));
+		this.out.flush();
+	}
+
+	/**
+	 * Read a status reply, throwing if the remote end reported an error.
+	 * 
+	 * @throws IOException
+	 *             If the remote end reported an error.
+	 */
+	public void readStatus() throws IOException {
+		final int status = this.in.readInt();
+		if (status == RemoteConnection.STATUS_ERROR) {
+			throw new IOException("Remote error from "
+					+ this.socket.getRemoteSocketAddress() + ": "
+					+ this.in.readUTF());
+		} else if (status != RemoteConnection.STATUS_OK) {
+			throw new IOException("Unexpected status " + status + " from "
+					+ this.socket.getRemoteSocketAddress());
+		}
+	}
+
+	/**
+	 * Close the connection.
+	 */
+	public void close() {
+		try {
+			this.socket.close();
+		} catch (final IOException e) {
+			// nothing more can be done
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.remote;
+
+import org.encog.ml.data.MLDataSet;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.flat.train.prop.TrainFlatNetworkProp;
+import org.encog.util.EngineArray;
+
+/**
+ * Calculates gradients over a gradient server's shard of the training data.
+ * This reuses the local gradient workers of propagation training, but never
+ * updates the weights itself; the coordinator does that.
+ */
+class ShardGradients extends TrainFlatNetworkProp {
+
+	/**
+	 * Construct the shard calculation.
+	 * 
+	 * @param network
+	 *            The network, as sent by the coordinator.
+	 * @param training
+	 *            The shard of training data.
+	 */
+	public ShardGradients(final FlatNetwork network, final MLDataSet training) {
+		super(network, training);
+	}
+
+	/**
+	 * Calculate the gradients for the specified weights.
+	 * 
+	 * @param weights
+	 *            The weights.
+	 * @param result
+	 *            Holds the gradients.
+	 * @return The error over the shard.
+	 */
+	public double calculate(final double[] weights, final double[] result) {
+		EngineArray.arrayCopy(weights, this.network.getWeights());
+		calculateGradients();
+		EngineArray.arrayCopy(this.gradients, result);
+		EngineArray.fill(this.gradients, 0);
+		return getError();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double updateWeight(final double[] gradients,
+			final double[] lastGradient, final int index) {
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void initOthers() {
+		// nothing to do
+	}
+}
@@ -26,8 +26,10 @@ package org.encog.neural.neat;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.encog.ml.genetic.genes.Gene;
 import org.encog.ml.genetic.genome.Chromosome;
@@ -66,11 +68,14 @@ public class PersistNEATPopulation implements EncogPersistor {
 		Map<Species, Integer> leaderMap = new HashMap<Species, Integer>();
 		Map<Integer, Genome> genomeMap = new HashMap<Integer, Genome>();
 		EncogFileSection section;
+		String line;
 
-		while ((section = in.readNextSection()) != null) {
+		// sections are streamed a record at a time, so a large population
+		// is never held in memory as text
+		while ((section = in.readNextSectionHeader()) != null) {
 			if (section.getSectionName().equals("NEAT-POPULATION")
 					&& section.getSubSectionName().equals("INNOVATIONS")) {
-				for (String line : section.getLines()) {
+				while ((line = in.readNextLine()) != null) {
 					List<String> cols = EncogFileSection.splitColumns(line);
 					NEATInnovation innovation = new NEATInnovation();
 					innovation.setInnovationID(Integer.parseInt(cols.get(0)));
@@ -86,7 +91,7 @@ public class PersistNEATPopulation implements EncogPersistor {
 				}
 			} else if (section.getSectionName().equals("NEAT-POPULATION")
 					&& section.getSubSectionName().equals("SPECIES")) {
-				for (String line : section.getLines()) {
+				while ((line = in.readNextLine()) != null) {
 					String[] cols = line.split(",");
 					BasicSpecies species = new BasicSpecies();
 
@@ -94,8 +99,8 @@ public class PersistNEATPopulation implements EncogPersistor {
 					species.setAge(Integer.parseInt(cols[1]));
 					species.setBestScore(CSVFormat.EG_FORMAT.parse(cols[2]));
 					species.setGensNoImprovement(Integer.parseInt(cols[3]));
-					species.setSpawnsRequired(CSVFormat.EG_FORMAT
-							.parse(cols[4]));
+					// cols[4] is the number to spawn, which is derived from
+					// the spawns required
 					species.setSpawnsRequired(CSVFormat.EG_FORMAT
 							.parse(cols[5]));
 					leaderMap.put(species, Integer.parseInt(cols[6]));
@@ -104,56 +109,15 @@ public class PersistNEATPopulation implements EncogPersistor {
 				}
 			} else if (section.getSectionName().equals("NEAT-POPULATION")
 					&& section.getSubSectionName().equals("GENOMES")) {
-				NEATGenome lastGenome = null;
-				for (String line : section.getLines()) {
-					List<String> cols = EncogFileSection.splitColumns(line);
-					if (cols.get(0).equalsIgnoreCase("g") ) {
-						lastGenome = new NEATGenome();
-						lastGenome.setNeuronsChromosome(new Chromosome());
-						lastGenome.setLinksChromosome(new Chromosome());
-						lastGenome.getChromosomes().add(
-								lastGenome.getNeuronsChromosome());
-						lastGenome.getChromosomes().add(
-								lastGenome.getLinksChromosome());
-						lastGenome.setGenomeID(Integer.parseInt(cols.get(1)));
-						lastGenome.setSpeciesID(Integer.parseInt(cols.get(2)));
-						lastGenome.setAdjustedScore(CSVFormat.EG_FORMAT
-								.parse(cols.get(3)));
-						lastGenome.setAmountToSpawn(CSVFormat.EG_FORMAT
-								.parse(cols.get(4)));
-						lastGenome.setNetworkDepth(Integer.parseInt(cols.get(5)));
-						lastGenome.setScore(CSVFormat.EG_FORMAT.parse(cols.get(6)));
-						result.add(lastGenome);
-						genomeMap.put((int) lastGenome.getGenomeID(),
-								lastGenome);
-					} else if (cols.get(0).equalsIgnoreCase("n") ) {
-						NEATNeuronGene neuronGene = new NEATNeuronGene();
-						neuronGene.setId(Integer.parseInt(cols.get(1)));
-						neuronGene.setNeuronType(PersistNEATPopulation
-								.stringToNeuronType(cols.get(2)));
-						neuronGene.setEnabled(Integer.parseInt(cols.get(3))>0);
-						neuronGene.setInnovationId(Integer.parseInt(cols.get(4)));
-						neuronGene.setActivationResponse(CSVFormat.EG_FORMAT
-								.parse(cols.get(5)));
-						neuronGene
-								.setSplitX(CSVFormat.EG_FORMAT.parse(cols.get(6)));
-						neuronGene
-								.setSplitY(CSVFormat.EG_FORMAT.parse(cols.get(7)));
-						lastGenome.getNeurons().add(neuronGene);
-					} else if (cols.get(0).equalsIgnoreCase("l")) {
-						NEATLinkGene linkGene = new NEATLinkGene();
-						linkGene.setId(Integer.parseInt(cols.get(1)));
-						linkGene.setEnabled(Integer.parseInt(cols.get(2))>0);
-						linkGene.setRecurrent(Integer.parseInt(cols.get(3))>0);
-						linkGene.setFromNeuronID(Integer.parseInt(cols.get(4)));
-						linkGene.setToNeuronID(Integer.parseInt(cols.get(5)));
-						linkGene.setWeight(CSVFormat.EG_FORMAT.parse(cols.get(6)));
-						linkGene.setInnovationId(Integer.parseInt(cols.get(7)));
-						lastGenome.getLinks().add(linkGene);
-					}
-				}
+				readGenomes(in, result, genomeMap, true);
+			} else if (section.getSectionName().equals("NEAT-POPULATION")
+					&& section.getSubSectionName().equals("LEADERS")) {
+				readGenomes(in, result, genomeMap, false);
 			} else if (section.getSectionName().equals("NEAT-POPULATION")
 					&& section.getSubSectionName().equals("CONFIG")) {
+				while ((line = in.readNextLine()) != null) {
+					section.getLines().add(line);
+				}
 				Map<String, String> params = section.parseParams();
 				
 				result.setNeatActivationFunction(EncogFileSection.parseActivationFunction(params,NEATPopulation.PROPERTY_NEAT_ACTIVATION));
@@ -208,6 +172,16 @@ public class PersistNEATPopulation implements EncogPersistor {
 		for (Species species : leaderMap.keySet()) {
 			int leaderID = leaderMap.get(species);
 			Genome leader = genomeMap.get(leaderID);
+			// files written before leaders were saved may be missing one,
+			// training needs one, so use a member of the species instead
+			if (leader == null && species.getMembers().size() > 0) {
+				leader = species.getMembers().get(0);
+			}
+			if (leader != null) {
+				((NEATGenome) leader).setInputCount(result.getInputCount());
+				((NEATGenome) leader).setOutputCount(result.getOutputCount());
+				leader.setPopulation(result);
+			}
 			species.setLeader(leader);
 			((BasicSpecies)species).setPopulation(result);
 		}
@@ -215,6 +189,73 @@ public class PersistNEATPopulation implements EncogPersistor {
 		return result;
 	}
 
+	/**
+	 * Read the genomes of a GENOMES or LEADERS section.
+	 * 
+	 * @param in
+	 *            The reader, positioned after the section header.
+	 * @param result
+	 *            The population being read.
+	 * @param genomeMap
+	 *            The genomes read so far, by id.
+	 * @param addToPopulation
+	 *            True to add the genomes to the population, false if they
+	 *            are only species leaders.
+	 */
+	private void readGenomes(EncogReadHelper in, NEATPopulation result,
+			Map<Integer, Genome> genomeMap, boolean addToPopulation) {
+		String line;
+		NEATGenome lastGenome = null;
+		while ((line = in.readNextLine()) != null) {
+			List<String> cols = EncogFileSection.splitColumns(line);
+			if (cols.get(0).equalsIgnoreCase("g") ) {
+				lastGenome = new NEATGenome();
+				lastGenome.setNeuronsChromosome(new Chromosome());
+				lastGenome.setLinksChromosome(new Chromosome());
+				lastGenome.getChromosomes().add(
+						lastGenome.getNeuronsChromosome());
+				lastGenome.getChromosomes().add(
+						lastGenome.getLinksChromosome());
+				lastGenome.setGenomeID(Integer.parseInt(cols.get(1)));
+				lastGenome.setSpeciesID(Integer.parseInt(cols.get(2)));
+				lastGenome.setAdjustedScore(CSVFormat.EG_FORMAT
+						.parse(cols.get(3)));
+				lastGenome.setAmountToSpawn(CSVFormat.EG_FORMAT
+						.parse(cols.get(4)));
+				lastGenome.setNetworkDepth(Integer.parseInt(cols.get(5)));
+				lastGenome.setScore(CSVFormat.EG_FORMAT.parse(cols.get(6)));
+				if (addToPopulation) {
+					result.add(lastGenome);
+				}
+				genomeMap.put((int) lastGenome.getGenomeID(), lastGenome);
+			} else if (cols.get(0).equalsIgnoreCase("n") ) {
+				NEATNeuronGene neuronGene = new NEATNeuronGene();
+				neuronGene.setId(Integer.parseInt(cols.get(1)));
+				neuronGene.setNeuronType(PersistNEATPopulation
+						.stringToNeuronType(cols.get(2)));
+				neuronGene.setEnabled(Integer.parseInt(cols.get(3))>0);
+				neuronGene.setInnovationId(Integer.parseInt(cols.get(4)));
+				neuronGene.setActivationResponse(CSVFormat.EG_FORMAT
+						.parse(cols.get(5)));
+				neuronGene
+						.setSplitX(CSVFormat.EG_FORMAT.parse(cols.get(6)));
+				neuronGene
+						.setSplitY(CSVFormat.EG_FORMAT.parse(cols.get(7)));
+				lastGenome.getNeurons().add(neuronGene);
+			} else if (cols.get(0).equalsIgnoreCase("l")) {
+				NEATLinkGene linkGene = new NEATLinkGene();
+				linkGene.setId(Integer.parseInt(cols.get(1)));
+				linkGene.setEnabled(Integer.parseInt(cols.get(2))>0);
+				linkGene.setRecurrent(Integer.parseInt(cols.get(3))>0);
+				linkGene.setFromNeuronID(Integer.parseInt(cols.get(4)));
+				linkGene.setToNeuronID(Integer.parseInt(cols.get(5)));
+				linkGene.setWeight(CSVFormat.EG_FORMAT.parse(cols.get(6)));
+				linkGene.setInnovationId(Integer.parseInt(cols.get(7)));
+				lastGenome.getLinks().add(linkGene);
+			}
+		}
+	}
+
 	@Override
 	public void save(OutputStream os, Object obj) {
 		EncogWriteHelper out = new EncogWriteHelper(os);
@@ -265,41 +306,17 @@ public class PersistNEATPopulation implements EncogPersistor {
 			}
 		}
 		out.addSubSection("GENOMES");
+		Set<Long> genomeIDs = new HashSet<Long>();
 		for (Genome genome : pop.getGenomes()) {
-			NEATGenome neatGenome = (NEATGenome) genome;
-			out.addColumn("g");
-			out.addColumn(neatGenome.getGenomeID());
-			out.addColumn(neatGenome.getSpeciesID());
-			out.addColumn(neatGenome.getAdjustedScore());
-			out.addColumn(neatGenome.getAmountToSpawn());
-			out.addColumn(neatGenome.getNetworkDepth());
-			out.addColumn(neatGenome.getScore());
-			out.writeLine();
-
-			for (Gene neuronGene : neatGenome.getNeurons().getGenes()) {
-				NEATNeuronGene neatNeuronGene = (NEATNeuronGene) neuronGene;
-				out.addColumn("n");
-				out.addColumn(neatNeuronGene.getId());
-				out.addColumn(PersistNEATPopulation
-						.neuronTypeToString(neatNeuronGene.getNeuronType()));
-				out.addColumn(neatNeuronGene.isEnabled());
-				out.addColumn(neatNeuronGene.getInnovationId());
-				out.addColumn(neatNeuronGene.getActivationResponse());
-				out.addColumn(neatNeuronGene.getSplitX());
-				out.addColumn(neatNeuronGene.getSplitY());
-				out.writeLine();
-			}
-			for (Gene linkGene : neatGenome.getLinks().getGenes()) {
-				NEATLinkGene neatLinkGene = (NEATLinkGene) linkGene;
-				out.addColumn("l");
-				out.addColumn(neatLinkGene.getId());
-				out.addColumn(neatLinkGene.isEnabled());
-				out.addColumn(neatLinkGene.isRecurrent());
-				out.addColumn(neatLinkGene.getFromNeuronID());
-				out.addColumn(neatLinkGene.getToNeuronID());
-				out.addColumn(neatLinkGene.getWeight());
-				out.addColumn(neatLinkGene.getInnovationId());
-				out.writeLine();
+			writeGenome(out, (NEATGenome) genome);
+			genomeIDs.add(genome.getGenomeID());
+		}
+		// leaders from earlier generations are kept, so training can resume
+		out.addSubSection("LEADERS");
+		for (Species species : pop.getSpecies()) {
+			Genome leader = species.getLeader();
+			if (leader != null && genomeIDs.add(leader.getGenomeID())) {
+				writeGenome(out, (NEATGenome) leader);
 			}
 		}
 		out.addSubSection("SPECIES");
@@ -317,6 +334,51 @@ public class PersistNEATPopulation implements EncogPersistor {
 
 	}
 
+	/**
+	 * Write a genome, followed by its neurons and links.
+	 * 
+	 * @param out
+	 *            The writer.
+	 * @param neatGenome
+	 *            The genome to write.
+	 */
+	private void writeGenome(EncogWriteHelper out, NEATGenome neatGenome) {
+		out.addColumn("g");
+		out.addColumn(neatGenome.getGenomeID());
+		out.addColumn(neatGenome.getSpeciesID());
+		out.addColumn(neatGenome.getAdjustedScore());
+		out.addColumn(neatGenome.getAmountToSpawn());
+		out.addColumn(neatGenome.getNetworkDepth());
+		out.addColumn(neatGenome.getScore());
+		out.writeLine();
+
+		for (Gene neuronGene : neatGenome.getNeurons().getGenes()) {
+			NEATNeuronGene neatNeuronGene = (NEATNeuronGene) neuronGene;
+			out.addColumn("n");
+			out.addColumn(neatNeuronGene.getId());
+			out.addColumn(PersistNEATPopulation
+					.neuronTypeToString(neatNeuronGene.getNeuronType()));
+			out.addColumn(neatNeuronGene.isEnabled());
+			out.addColumn(neatNeuronGene.getInnovationId());
+			out.addColumn(neatNeuronGene.getActivationResponse());
+			out.addColumn(neatNeuronGene.getSplitX());
+			out.addColumn(neatNeuronGene.getSplitY());
+			out.writeLine();
+		}
+		for (Gene linkGene : neatGenome.getLinks().getGenes()) {
+			NEATLinkGene neatLinkGene = (NEATLinkGene) linkGene;
+			out.addColumn("l");
+			out.addColumn(neatLinkGene.getId());
+			out.addColumn(neatLinkGene.isEnabled());
+			out.addColumn(neatLinkGene.isRecurrent());
+			out.addColumn(neatLinkGene.getFromNeuronID());
+			out.addColumn(neatLinkGene.getToNeuronID());
+			out.addColumn(neatLinkGene.getWeight());
+			out.addColumn(neatLinkGene.getInnovationId());
+			out.writeLine();
+		}
+	}
+
 	@Override
 	public int getFileVersion() {
 		return 1;
@@ -0,0 +1,365 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.neat.training;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.encog.ml.genetic.genes.Gene;
+import org.encog.ml.genetic.genome.Chromosome;
+import org.encog.ml.genetic.genome.Genome;
+import org.encog.ml.genetic.innovation.Innovation;
+import org.encog.ml.genetic.species.BasicSpecies;
+import org.encog.ml.genetic.species.Species;
+import org.encog.neural.neat.NEATPopulation;
+import org.encog.persist.EncogDirectoryPersistence;
+import org.encog.persist.PersistError;
+import org.encog.util.logging.EncogLogging;
+
+/**
+ * Writes checkpoints of a NEAT population while evolution continues. Each
+ * checkpoint takes a copy of the population on the calling thread, which is
+ * quick, and then saves the copy to an EG file on a background thread. The
+ * file is first written to a temporary file and then renamed, so the
+ * checkpoint on disk is always complete.
+ * 
+ * At most one save is outstanding. If a checkpoint is requested while the
+ * previous one is still being written, the caller waits for it to finish.
+ * 
+ * Typical use is to call iterationComplete after each call to iteration on
+ * the NEATTraining object, and close once training is done.
+ */
+public class NEATCheckpoint {
+
+	/**
+	 * The file the checkpoint is written to.
+	 */
+	private final File file;
+
+	/**
+	 * The number of iterations between checkpoints.
+	 */
+	private final int interval;
+
+	/**
+	 * The save that is currently running, or null.
+	 */
+	private Thread pending;
+
+	/**
+	 * The error from the most recent save, if it failed.
+	 */
+	private volatile PersistError error;
+
+	/**
+	 * The number of checkpoints that have been written.
+	 */
+	private volatile int checkpointCount;
+
+	/**
+	 * Construct a checkpoint that saves after every iteration.
+	 * 
+	 * @param theFile
+	 *            The file to save to.
+	 */
+	public NEATCheckpoint(final File theFile) {
+		this(theFile, 1);
+	}
+
+	/**
+	 * Construct a checkpoint.
+	 * 
+	 * @param theFile
+	 *            The file to save to.
+	 * @param theInterval
+	 *            The number of iterations between checkpoints.
+	 */
+	public NEATCheckpoint(final File theFile, final int theInterval) {
+		if (theInterval < 1) {
+			throw new PersistError("Checkpoint interval must be at least 1.");
+		}
+		this.file = theFile;
+		this.interval = theInterval;
+	}
+
+	/**
+	 * Called after a training iteration. Saves a checkpoint if the
+	 * interval has been reached.
+	 * 
+	 * @param train
+	 *            The training object.
+	 */
+	public final void iterationComplete(final NEATTraining train) {
+		if (train.getIteration() % this.interval == 0) {
+			checkpoint((NEATPopulation) train.getPopulation());
+		}
+	}
+
+	/**
+	 * Save a checkpoint of the population. The population is copied before
+	 * this method returns, and can be changed as soon as it does.
+	 * 
+	 * @param population
+	 *            The population to save.
+	 */
+	public final synchronized void checkpoint(
+			final NEATPopulation population) {
+		waitForCompletion();
+
+		final NEATPopulation copy = NEATCheckpoint.snapshot(population);
+		this.pending = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					write(copy);
+					NEATCheckpoint.this.checkpointCount++;
+				} catch (final PersistError ex) {
+					NEATCheckpoint.this.error = ex;
+				} catch (final RuntimeException ex) {
+					NEATCheckpoint.this.error = new PersistError(ex);
+				}
+			}
+		}, "NEAT checkpoint");
+		this.pending.setDaemon(true);
+		this.pending.start();
+	}
+
+	/**
+	 * Wait for any outstanding save to finish. If the save failed, its error
+	 * is thrown here.
+	 */
+	public final synchronized void waitForCompletion() {
+		if (this.pending != null) {
+			boolean interrupted = false;
+			while (this.pending.isAlive()) {
+				try {
+					this.pending.join();
+				} catch (final InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			this.pending = null;
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		final PersistError e = this.error;
+		if (e != null) {
+			this.error = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Wait for the last checkpoint to be written.
+	 */
+	public final void close() {
+		waitForCompletion();
+	}
+
+	/**
+	 * @return The number of checkpoints that have been written.
+	 */
+	public final int getCheckpointCount() {
+		return this.checkpointCount;
+	}
+
+	/**
+	 * @return The file the checkpoint is written to.
+	 */
+	public final File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * @return The number of iterations between checkpoints.
+	 */
+	public final int getInterval() {
+		return this.interval;
+	}
+
+	/**
+	 * Write the population to a temporary file and rename it over the
+	 * checkpoint file.
+	 * 
+	 * @param population
+	 *            The population to write.
+	 */
+	private void write(final NEATPopulation population) {
+		final File temp = new File(this.file.getPath() + ".tmp");
+		OutputStream os = null;
+		try {
+			os = new BufferedOutputStream(new FileOutputStream(temp));
+			EncogDirectoryPersistence.saveObject(os, population);
+			os.close();
+			os = null;
+		} catch (final IOException ex) {
+			throw new PersistError(ex);
+		} finally {
+			if (os != null) {
+				try {
+					os.close();
+				} catch (final IOException e) {
+					EncogLogging.log(e);
+				}
+			}
+		}
+
+		if (!temp.renameTo(this.file)) {
+			// some platforms will not rename over an existing file
+			this.file.delete();
+			if (!temp.renameTo(this.file)) {
+				throw new PersistError("Could not rename " + temp + " to "
+						+ this.file);
+			}
+		}
+	}
+
+	/**
+	 * Copy everything about a population that is persisted. Innovations are
+	 * never changed once created, so they are shared with the original.
+	 * 
+	 * @param source
+	 *            The population to copy.
+	 * @return The copy.
+	 */
+	public static NEATPopulation snapshot(final NEATPopulation source) {
+		final NEATPopulation result = new NEATPopulation();
+		result.setNeatActivationFunction(source.getNeatActivationFunction()
+				.clone());
+		result.setOutputActivationFunction(source
+				.getOutputActivationFunction().clone());
+		result.setSnapshot(source.isSnapshot());
+		result.setInputCount(source.getInputCount());
+		result.setOutputCount(source.getOutputCount());
+		result.setOldAgePenalty(source.getOldAgePenalty());
+		result.setOldAgeThreshold(source.getOldAgeThreshold());
+		result.setPopulationSize(source.getPopulationSize());
+		result.setSurvivalRate(source.getSurvivalRate());
+		result.setYoungBonusAgeThreshhold(source.getYoungBonusAgeThreshold());
+		result.setYoungScoreBonus(source.getYoungScoreBonus());
+		result.getGenomeIDGenerate().setCurrentID(
+				source.getGenomeIDGenerate().getCurrentID());
+		result.getInnovationIDGenerate().setCurrentID(
+				source.getInnovationIDGenerate().getCurrentID());
+		result.getGeneIDGenerate().setCurrentID(
+				source.getGeneIDGenerate().getCurrentID());
+		result.getSpeciesIDGenerate().setCurrentID(
+				source.getSpeciesIDGenerate().getCurrentID());
+
+		final NEATInnovationList innovations = new NEATInnovationList();
+		innovations.setPopulation(result);
+		result.setInnovations(innovations);
+		if (source.getInnovations() != null) {
+			for (final Innovation innovation : source.getInnovations()
+					.getInnovations()) {
+				innovations.add(innovation);
+			}
+		}
+
+		final Map<Long, NEATGenome> genomeMap = new HashMap<Long, NEATGenome>();
+		for (final Genome genome : source.getGenomes()) {
+			final NEATGenome copy = NEATCheckpoint
+					.copyGenome((NEATGenome) genome);
+			result.add(copy);
+			genomeMap.put(copy.getGenomeID(), copy);
+		}
+
+		for (final Species species : source.getSpecies()) {
+			final BasicSpecies copy = new BasicSpecies();
+			copy.setSpeciesID((int) species.getSpeciesID());
+			copy.setAge(species.getAge());
+			copy.setBestScore(species.getBestScore());
+			copy.setGensNoImprovement(species.getGensNoImprovement());
+			copy.setSpawnsRequired(species.getSpawnsRequired());
+			copy.setPopulation(result);
+			if (species.getLeader() != null) {
+				// the leader may have left the population, keep it anyway
+				NEATGenome leader = genomeMap.get(species.getLeader()
+						.getGenomeID());
+				if (leader == null) {
+					leader = NEATCheckpoint.copyGenome((NEATGenome) species
+							.getLeader());
+				}
+				copy.setLeader(leader);
+			}
+			for (final Genome member : species.getMembers()) {
+				final NEATGenome m = genomeMap.get(member.getGenomeID());
+				if (m != null) {
+					copy.getMembers().add(m);
+				}
+			}
+			result.getSpecies().add(copy);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Copy a genome, including the gene ids and innovation ids, which the
+	 * NEATGenome copy constructor does not keep.
+	 * 
+	 * @param source
+	 *            The genome to copy.
+	 * @return The copy.
+	 */
+	private static NEATGenome copyGenome(final NEATGenome source) {
+		final NEATGenome result = new NEATGenome();
+		result.setNeuronsChromosome(new Chromosome());
+		result.setLinksChromosome(new Chromosome());
+		result.getChromosomes().add(result.getNeuronsChromosome());
+		result.getChromosomes().add(result.getLinksChromosome());
+		result.setGenomeID(source.getGenomeID());
+		result.setSpeciesID(source.getSpeciesID());
+		result.setAdjustedScore(source.getAdjustedScore());
+		result.setAmountToSpawn(source.getAmountToSpawn());
+		result.setNetworkDepth(source.getNetworkDepth());
+		result.setScore(source.getScore());
+		result.setInputCount(source.getInputCount());
+		result.setOutputCount(source.getOutputCount());
+
+		for (final Gene gene : source.getNeurons().getGenes()) {
+			final NEATNeuronGene neuron = new NEATNeuronGene();
+			neuron.copy(gene);
+			neuron.setEnabled(gene.isEnabled());
+			neuron.setInnovationId(gene.getInnovationId());
+			result.getNeurons().add(neuron);
+		}
+
+		for (final Gene gene : source.getLinks().getGenes()) {
+			final NEATLinkGene link = new NEATLinkGene();
+			link.copy(gene);
+			link.setId(gene.getId());
+			result.getLinks().add(link);
+		}
+
+		return result;
+	}
+}
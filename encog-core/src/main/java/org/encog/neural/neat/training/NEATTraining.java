@@ -687,6 +687,13 @@ public class NEATTraining extends GeneticAlgorithm implements MLTrain {
 
 		getPopulation().claim(this);
 
+		// leaders from earlier generations may no longer be in the population
+		for (final Species s : getPopulation().getSpecies()) {
+			if (s.getLeader() != null) {
+				s.getLeader().setGeneticAlgorithm(this);
+			}
+		}
+
 		resetAndKill();
 		sortAndRecord();
 		speciateAndCalculateSpawnLevels();
@@ -0,0 +1,223 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.networks.training.anneal;
+
+import java.util.Random;
+
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.training.CalculateScore;
+import org.encog.util.EngineArray;
+import org.encog.util.concurrency.EngineTask;
+
+/**
+ * One chain of a parallel simulated annealing run. Each chain anneals its own
+ * clone of the network, using its own random number generator, so that
+ * several chains can run at once. The chain works directly on the weights of
+ * the flat network, so no arrays are encoded or decoded for each cycle.
+ * 
+ * A chain follows the same procedure as NeuralSimulatedAnnealing, each cycle
+ * perturbs the best weights found so far, by an amount that shrinks with the
+ * temperature, and keeps the result if it scores better.
+ */
+public class AnnealChain implements EngineTask {
+
+	/**
+	 * The network this chain anneals.
+	 */
+	private final BasicNetwork network;
+
+	/**
+	 * Used to calculate the score.
+	 */
+	private final CalculateScore calculateScore;
+
+	/**
+	 * The random number generator for this chain.
+	 */
+	private final Random random;
+
+	/**
+	 * The best weights found by this chain.
+	 */
+	private final double[] best;
+
+	/**
+	 * The score of the best weights.
+	 */
+	private double bestScore;
+
+	/**
+	 * The starting temperature of the whole run.
+	 */
+	private double startTemperature;
+
+	/**
+	 * The temperature of the next cycle.
+	 */
+	private double temperature;
+
+	/**
+	 * The ratio the temperature is multiplied by after each cycle.
+	 */
+	private double ratio;
+
+	/**
+	 * The number of cycles to run when this task is run.
+	 */
+	private int cycles;
+
+	/**
+	 * An error that occurred while running.
+	 */
+	private RuntimeException error;
+
+	/**
+	 * Construct an annealing chain.
+	 * 
+	 * @param theNetwork
+	 *            The network to anneal, this chain must have its own copy.
+	 * @param theCalculateScore
+	 *            Used to calculate the score.
+	 * @param theRandom
+	 *            The random number generator for this chain.
+	 */
+	public AnnealChain(final BasicNetwork theNetwork,
+			final CalculateScore theCalculateScore, final Random theRandom) {
+		this.network = theNetwork;
+		this.calculateScore = theCalculateScore;
+		this.random = theRandom;
+		this.best = new double[theNetwork.encodedArrayLength()];
+	}
+
+	/**
+	 * @return The best weights found by this chain.
+	 */
+	public final double[] getBest() {
+		return this.best;
+	}
+
+	/**
+	 * @return The score of the best weights.
+	 */
+	public final double getBestScore() {
+		return this.bestScore;
+	}
+
+	/**
+	 * @return Any error that occurred while running, or null.
+	 */
+	public final RuntimeException getError() {
+		return this.error;
+	}
+
+	/**
+	 * @return The temperature of the next cycle.
+	 */
+	public final double getTemperature() {
+		return this.temperature;
+	}
+
+	/**
+	 * Determine if one score is better than another.
+	 * 
+	 * @param score
+	 *            The score to check.
+	 * @param other
+	 *            The score to compare against.
+	 * @return True if the score is better.
+	 */
+	private boolean isBetter(final double score, final double other) {
+		if (this.calculateScore.shouldMinimize()) {
+			return score < other;
+		}
+		return score > other;
+	}
+
+	/**
+	 * Prepare to run cycles.
+	 * 
+	 * @param theStartTemperature
+	 *            The starting temperature of the whole run.
+	 * @param theTemperature
+	 *            The temperature of the first cycle.
+	 * @param theRatio
+	 *            The ratio the temperature is multiplied by after each cycle.
+	 * @param theCycles
+	 *            The number of cycles to run.
+	 */
+	public final void prepare(final double theStartTemperature,
+			final double theTemperature, final double theRatio,
+			final int theCycles) {
+		this.startTemperature = theStartTemperature;
+		this.temperature = theTemperature;
+		this.ratio = theRatio;
+		this.cycles = theCycles;
+	}
+
+	/**
+	 * Run the prepared number of cycles.
+	 */
+	public final void run() {
+		try {
+			final double[] weights = this.network.getStructure().getFlat()
+					.getWeights();
+
+			for (int i = 0; i < this.cycles; i++) {
+				final double scale = this.temperature / this.startTemperature;
+				for (int j = 0; j < weights.length; j++) {
+					final double add = NeuralSimulatedAnnealing.CUT
+							- this.random.nextDouble();
+					weights[j] = this.best[j] + add * scale;
+				}
+
+				final double score = this.calculateScore
+						.calculateScore(this.network);
+				if (isBetter(score, this.bestScore)) {
+					EngineArray.arrayCopy(weights, this.best);
+					this.bestScore = score;
+				}
+
+				this.temperature *= this.ratio;
+			}
+
+			EngineArray.arrayCopy(this.best, weights);
+		} catch (final RuntimeException ex) {
+			this.error = ex;
+		}
+	}
+
+	/**
+	 * Start this chain from the specified weights.
+	 * 
+	 * @param weights
+	 *            The weights to start from.
+	 * @param score
+	 *            The score of the weights.
+	 */
+	public final void setBest(final double[] weights, final double score) {
+		EngineArray.arrayCopy(weights, this.best);
+		this.network.decodeFromArray(weights);
+		this.bestScore = score;
+	}
+}
@@ -23,12 +23,18 @@
  */
 package org.encog.neural.networks.training.anneal;
 
+import java.util.Random;
+
 import org.encog.ml.TrainingImplementationType;
 import org.encog.ml.train.BasicTraining;
 import org.encog.neural.networks.BasicNetwork;
 import org.encog.neural.networks.structure.NetworkCODEC;
 import org.encog.neural.networks.training.CalculateScore;
+import org.encog.neural.networks.training.TrainingError;
 import org.encog.neural.networks.training.propagation.TrainingContinuation;
+import org.encog.util.EngineArray;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.TaskGroup;
 import org.encog.util.logging.EncogLogging;
 
 /**
@@ -48,6 +54,12 @@ import org.encog.util.logging.EncogLogging;
  * create your own implementation of the CalculateScore method. This class can
  * then score the networks any way that you like.
  * 
+ * Several annealing chains can be run at once, see setChains. Each chain
+ * anneals its own clone of the network on the Encog thread pool. Every few
+ * cycles the chains exchange states: the best weights found by any chain
+ * become the starting point of all chains. When more than one chain is used,
+ * the score object must be safe to call from several threads at once.
+ * 
  */
 public class NeuralSimulatedAnnealing extends BasicTraining {
 
@@ -56,6 +68,11 @@ public class NeuralSimulatedAnnealing extends BasicTraining {
 	 */
 	public static final double CUT = 0.5;
 
+	/**
+	 * The default number of cycles between state exchanges.
+	 */
+	public static final int DEFAULT_EXCHANGE_CYCLES = 10;
+
 	/**
 	 * The neural network that is to be trained.
 	 */
@@ -71,6 +88,21 @@ public class NeuralSimulatedAnnealing extends BasicTraining {
 	 */
 	private final CalculateScore calculateScore;
 
+	/**
+	 * The number of annealing chains to run at once.
+	 */
+	private int chains = 1;
+
+	/**
+	 * The number of cycles between state exchanges.
+	 */
+	private int exchangeCycles = NeuralSimulatedAnnealing.DEFAULT_EXCHANGE_CYCLES;
+
+	/**
+	 * The chains, created when first needed.
+	 */
+	private AnnealChain[] annealChains;
+
 	/**
 	 * Construct a simulated annleaing trainer for a feedforward neural network.
 	 * 
@@ -123,6 +155,20 @@ public class NeuralSimulatedAnnealing extends BasicTraining {
 		return getArray();
 	}
 
+	/**
+	 * @return The number of annealing chains run at once.
+	 */
+	public final int getChains() {
+		return this.chains;
+	}
+
+	/**
+	 * @return The number of cycles between state exchanges.
+	 */
+	public final int getExchangeCycles() {
+		return this.exchangeCycles;
+	}
+
 	/**
 	 * @return The object used to calculate the score.
 	 */
@@ -146,16 +192,114 @@ public class NeuralSimulatedAnnealing extends BasicTraining {
 		EncogLogging.log(EncogLogging.LEVEL_INFO,
 				"Performing Simulated Annealing iteration.");
 		preIteration();
-		this.anneal.iteration();
-		setError(this.anneal.calculateScore());
+		if (this.chains > 1) {
+			setError(iterationChains());
+		} else {
+			this.anneal.iteration();
+			setError(this.anneal.calculateScore());
+		}
 		postIteration();
 	}
 
+	/**
+	 * Perform one iteration with several chains. The cycles are run in
+	 * rounds, each chain runs a round on the thread pool, and the chains
+	 * then exchange states.
+	 * 
+	 * @return The score of the best weights found.
+	 */
+	private double iterationChains() {
+		if (this.annealChains == null
+				|| this.annealChains.length != this.chains) {
+			this.annealChains = new AnnealChain[this.chains];
+			for (int i = 0; i < this.chains; i++) {
+				this.annealChains[i] = new AnnealChain(
+						(BasicNetwork) this.network.clone(),
+						this.calculateScore, new Random());
+			}
+		}
+
+		final double startTemp = this.anneal.getStartTemperature();
+		final double ratio = Math.exp(Math.log(this.anneal
+				.getStopTemperature()
+				/ startTemp)
+				/ (this.anneal.getCycles() - 1));
+
+		double[] best = NetworkCODEC.networkToArray(this.network);
+		double bestScore = this.calculateScore.calculateScore(this.network);
+		double temperature = startTemp;
+
+		int cycle = 0;
+		while (cycle < this.anneal.getCycles()) {
+			final int round = Math.min(this.exchangeCycles, this.anneal
+					.getCycles()
+					- cycle);
+
+			final TaskGroup group = EngineConcurrency.getInstance()
+					.createTaskGroup();
+			for (final AnnealChain chain : this.annealChains) {
+				chain.setBest(best, bestScore);
+				chain.prepare(startTemp, temperature, ratio, round);
+				EngineConcurrency.getInstance().processTask(chain, group);
+			}
+			group.waitForComplete();
+
+			// exchange, every chain continues from the best state
+			for (final AnnealChain chain : this.annealChains) {
+				if (chain.getError() != null) {
+					throw chain.getError();
+				}
+				if (this.anneal.isShouldMinimize() ? chain.getBestScore() 
+						< bestScore : chain.getBestScore() > bestScore) {
+					// copy, the chain overwrites its own array next round
+					EngineArray.arrayCopy(chain.getBest(), best);
+					bestScore = chain.getBestScore();
+				}
+			}
+
+			temperature = this.annealChains[0].getTemperature();
+			cycle += round;
+		}
+
+		putArray(best);
+		this.anneal.setTemperature(temperature);
+		this.anneal.setScore(bestScore);
+		return bestScore;
+	}
+
 	@Override
 	public TrainingContinuation pause() {
 		return null;
 	}
 
+	/**
+	 * Set the number of annealing chains to run at once. One, the default,
+	 * runs a single chain on the calling thread.
+	 * 
+	 * @param theChains
+	 *            The number of chains.
+	 */
+	public final void setChains(final int theChains) {
+		if (theChains < 1) {
+			throw new TrainingError("There must be at least one chain.");
+		}
+		this.chains = theChains;
+	}
+
+	/**
+	 * Set the number of cycles the chains run between state exchanges.
+	 * 
+	 * @param theExchangeCycles
+	 *            The number of cycles between exchanges.
+	 */
+	public final void setExchangeCycles(final int theExchangeCycles) {
+		if (theExchangeCycles < 1) {
+			throw new TrainingError(
+					"There must be at least one cycle between exchanges.");
+		}
+		this.exchangeCycles = theExchangeCycles;
+	}
+
 	/**
 	 * Convert an array of doubles to the current best network.
 	 * 
@@ -23,10 +23,8 @@
  */
 package org.encog.neural.networks.training.genetic;
 
-import org.encog.ml.genetic.genes.DoubleGene;
-import org.encog.ml.genetic.genes.Gene;
 import org.encog.ml.genetic.genome.BasicGenome;
-import org.encog.ml.genetic.genome.Chromosome;
+import org.encog.ml.genetic.genome.DoubleChromosome;
 import org.encog.neural.networks.BasicNetwork;
 import org.encog.neural.networks.structure.NetworkCODEC;
 
@@ -34,6 +32,10 @@ import org.encog.neural.networks.structure.NetworkCODEC;
  * Implements a genome that allows a feedforward neural network to be trained
  * using a genetic algorithm. The chromosome for a feed forward neural network
  * is the weight and bias matrix.
+ * 
+ * The chromosome is a primitive array, and it is the same array that holds
+ * the weights of the flat network. Crossover and mutation therefore change
+ * the network directly, and decoding does not need to copy anything.
  */
 public class NeuralGenome extends BasicGenome {
 	
@@ -45,7 +47,7 @@ public class NeuralGenome extends BasicGenome {
 	/**
 	 * The chromosome.
 	 */
-	private final Chromosome networkChromosome;
+	private final DoubleChromosome networkChromosome;
 
 	/**
 	 * Construct a neural genome.
@@ -55,45 +57,37 @@ public class NeuralGenome extends BasicGenome {
 			final BasicNetwork network) {
 		setOrganism(network);
 
-		this.networkChromosome = new Chromosome();
-
-		// create an array of "double genes"
-		final int size = network.getStructure().calculateSize();
-		for (int i = 0; i < size; i++) {
-			final Gene gene = new DoubleGene();
-			this.networkChromosome.getGenes().add(gene);
-		}
+		network.getStructure().requireFlat();
+		this.networkChromosome = new DoubleChromosome(network.getStructure()
+				.getFlat().getWeights());
 
 		getChromosomes().add(this.networkChromosome);
-
-		encode();
 	}
 
 	/**
-	 * Decode the genomes into a neural network.
+	 * Decode the genomes into a neural network. Nothing needs to be copied
+	 * unless the network's weights were replaced since this genome was
+	 * created.
 	 */
 	public final void decode() {
-		final double[] net = new double[this.networkChromosome.getGenes()
-				.size()];
-		for (int i = 0; i < net.length; i++) {
-			final DoubleGene gene = (DoubleGene) this.networkChromosome
-					.getGenes().get(i);
-			net[i] = gene.getValue();
-
+		final BasicNetwork network = (BasicNetwork) getOrganism();
+		if (network.getStructure().getFlat().getWeights() 
+				!= this.networkChromosome.getData()) {
+			NetworkCODEC.arrayToNetwork(this.networkChromosome.getData(),
+					network);
+			this.networkChromosome.setData(network.getStructure().getFlat()
+					.getWeights());
 		}
-		NetworkCODEC.arrayToNetwork(net, (BasicNetwork) getOrganism());
-
 	}
 
 	/**
-	 * Encode the neural network into genes.
+	 * Encode the neural network into genes. Nothing needs to be copied, the
+	 * chromosome is simply pointed at the network's weights, in case they
+	 * were replaced since this genome was created.
 	 */
 	public final void encode() {
-		final double[] net = NetworkCODEC
-				.networkToArray((BasicNetwork) getOrganism());
-
-		for (int i = 0; i < net.length; i++) {
-			((DoubleGene) this.networkChromosome.getGene(i)).setValue(net[i]);
-		}
+		final BasicNetwork network = (BasicNetwork) getOrganism();
+		this.networkChromosome.setData(network.getStructure().getFlat()
+				.getWeights());
 	}
 }
@@ -31,6 +31,7 @@ import org.encog.ml.train.BasicTraining;
 import org.encog.neural.error.ErrorFunction;
 import org.encog.neural.flat.FlatNetwork;
 import org.encog.neural.flat.train.TrainFlatNetwork;
+import org.encog.neural.flat.train.prop.CPUTrainingProfile;
 import org.encog.neural.flat.train.prop.TrainFlatNetworkProp;
 import org.encog.neural.networks.ContainsFlat;
 import org.encog.neural.networks.training.Train;
@@ -204,4 +205,15 @@ public abstract class Propagation extends BasicTraining implements Train {
 		((TrainFlatNetworkProp) this.flatTraining).setErrorFunction(ef);
 	}
 
+	/**
+	 * Set how the gradient calculation is divided among threads. This must
+	 * be called before the first iteration.
+	 * 
+	 * @param profile
+	 *            The profile, or null for the default.
+	 */
+	public void setProfile(final CPUTrainingProfile profile) {
+		((TrainFlatNetworkProp) this.flatTraining).setProfile(profile);
+	}
+
 }
@@ -81,6 +81,18 @@ public class ResilientPropagation extends Propagation {
 	 */
 	public static final String UPDATE_VALUES = "UPDATE_VALUES";
 
+	/**
+	 * Continuation tag for the last weight changes. Optional, continuations
+	 * saved without it can still be resumed.
+	 */
+	public static final String LAST_WEIGHT_CHANGE = "LAST_WEIGHT_CHANGE";
+
+	/**
+	 * Continuation tag for the last deltas. Optional, continuations saved
+	 * without it can still be resumed.
+	 */
+	public static final String LAST_DELTA = "LAST_DELTA";
+
 	/**
 	 * Construct an RPROP trainer, allows an OpenCL device to be specified. Use
 	 * the defaults for all training parameters. Usually this is the constructor
@@ -176,6 +188,12 @@ public class ResilientPropagation extends Propagation {
 		result.set(ResilientPropagation.UPDATE_VALUES,
 				((TrainFlatNetworkResilient) getFlatTraining())
 						.getUpdateValues());
+		result.set(ResilientPropagation.LAST_WEIGHT_CHANGE,
+				((TrainFlatNetworkResilient) getFlatTraining())
+						.getLastWeightChange());
+		result.set(ResilientPropagation.LAST_DELTA,
+				((TrainFlatNetworkResilient) getFlatTraining())
+						.getLastDelta());
 
 		return result;
 	}
@@ -202,6 +220,22 @@ public class ResilientPropagation extends Propagation {
 		EngineArray.arrayCopy(updateValues,
 				((TrainFlatNetworkResilient) getFlatTraining())
 						.getUpdateValues());
+
+		final double[] lastWeightChange = (double[]) state
+				.get(ResilientPropagation.LAST_WEIGHT_CHANGE);
+		if (lastWeightChange != null) {
+			EngineArray.arrayCopy(lastWeightChange,
+					((TrainFlatNetworkResilient) getFlatTraining())
+							.getLastWeightChange());
+		}
+
+		final double[] lastDelta = (double[]) state
+				.get(ResilientPropagation.LAST_DELTA);
+		if (lastDelta != null) {
+			EngineArray.arrayCopy(lastDelta,
+					((TrainFlatNetworkResilient) getFlatTraining())
+							.getLastDelta());
+		}
 	}
 	
 	/**
@@ -26,8 +26,10 @@ package org.encog.neural.networks.training.propagation.scg;
 import org.encog.ml.data.MLDataSet;
 import org.encog.neural.flat.train.prop.TrainFlatNetworkSCG;
 import org.encog.neural.networks.ContainsFlat;
+import org.encog.neural.networks.training.TrainingError;
 import org.encog.neural.networks.training.propagation.Propagation;
 import org.encog.neural.networks.training.propagation.TrainingContinuation;
+import org.encog.util.EngineArray;
 
 /**
  * This is a training class that makes use of scaled conjugate gradient methods.
@@ -36,6 +38,41 @@ import org.encog.neural.networks.training.propagation.TrainingContinuation;
  */
 public class ScaledConjugateGradient extends Propagation {
 
+	/**
+	 * Continuation tag for the search direction.
+	 */
+	public static final String SEARCH_DIRECTION = "SEARCH_DIRECTION";
+
+	/**
+	 * Continuation tag for the steepest descent direction.
+	 */
+	public static final String DESCENT_DIRECTION = "DESCENT_DIRECTION";
+
+	/**
+	 * Continuation tag for the weights being trained.
+	 */
+	public static final String WEIGHTS = "WEIGHTS";
+
+	/**
+	 * Continuation tag for the weights of the previous step.
+	 */
+	public static final String OLD_WEIGHTS = "OLD_WEIGHTS";
+
+	/**
+	 * Continuation tag for the gradients of the previous step.
+	 */
+	public static final String OLD_GRADIENTS = "OLD_GRADIENTS";
+
+	/**
+	 * Continuation tag for the current gradients.
+	 */
+	public static final String GRADIENTS = "GRADIENTS";
+
+	/**
+	 * Continuation tag for the scalar state, such as lambda and k.
+	 */
+	public static final String STATE = "STATE";
+
 	/**
 	 * Construct a training class.
 	 * 
@@ -54,30 +91,86 @@ public class ScaledConjugateGradient extends Propagation {
 	}
 	
 	/**
-	 * This training type does not support training continue.
-	 * @return Always returns false.
+	 * @return True, as SCG can continue.
 	 */
 	@Override
 	public final boolean canContinue() {
-		return false;
+		return true;
+	}
+
+	/**
+	 * Determine if the specified continuation object is valid to resume with.
+	 * 
+	 * @param state
+	 *            The continuation object to check.
+	 * @return True if the specified continuation object is valid for this
+	 *         training method and network.
+	 */
+	public final boolean isValidResume(final TrainingContinuation state) {
+		final String[] keys = { SEARCH_DIRECTION, DESCENT_DIRECTION, WEIGHTS,
+				OLD_WEIGHTS, OLD_GRADIENTS, GRADIENTS, STATE };
+		for (final String key : keys) {
+			if (!state.getContents().containsKey(key)) {
+				return false;
+			}
+		}
+
+		if (!getClass().getSimpleName().equals(state.getTrainingType())) {
+			return false;
+		}
+
+		final double[] d = (double[]) state.get(WEIGHTS);
+		return d.length == ((ContainsFlat) getMethod()).getFlat().getWeights().length;
 	}
 
 	/**
-	 * This training type does not support training continue.
-	 * @return Always returns null.
+	 * Pause the training.
+	 * 
+	 * @return A training continuation object to continue with.
 	 */
 	@Override
 	public final TrainingContinuation pause() {
-		return null;
+		final TrainFlatNetworkSCG flat = (TrainFlatNetworkSCG) getFlatTraining();
+		final TrainingContinuation result = new TrainingContinuation();
+
+		result.setTrainingType(this.getClass().getSimpleName());
+		result.set(SEARCH_DIRECTION, flat.getP());
+		result.set(DESCENT_DIRECTION, flat.getR());
+		result.set(WEIGHTS, flat.getWeights());
+		result.set(OLD_WEIGHTS, flat.getOldWeights());
+		result.set(OLD_GRADIENTS, flat.getOldGradient());
+		result.set(GRADIENTS, flat.getGradients());
+		result.set(STATE, flat.getState());
+
+		return result;
 	}
 
 	/**
-	 * This training type does not support training continue.
-	 * @param state Not used.
+	 * Resume training.
+	 * 
+	 * @param state
+	 *            The training state to return to.
 	 */
 	@Override
 	public final void resume(final TrainingContinuation state) {
-		
+		if (!isValidResume(state)) {
+			throw new TrainingError("Invalid training resume data length");
+		}
+		final TrainFlatNetworkSCG flat = (TrainFlatNetworkSCG) getFlatTraining();
+
+		EngineArray.arrayCopy((double[]) state.get(SEARCH_DIRECTION),
+				flat.getP());
+		EngineArray.arrayCopy((double[]) state.get(DESCENT_DIRECTION),
+				flat.getR());
+		EngineArray.arrayCopy((double[]) state.get(WEIGHTS),
+				flat.getWeights());
+		EngineArray.arrayCopy((double[]) state.get(OLD_WEIGHTS),
+				flat.getOldWeights());
+		EngineArray.arrayCopy((double[]) state.get(OLD_GRADIENTS),
+				flat.getOldGradient());
+		EngineArray.arrayCopy((double[]) state.get(GRADIENTS),
+				flat.getGradients());
+		flat.setState((double[]) state.get(STATE));
 	}
 
 }
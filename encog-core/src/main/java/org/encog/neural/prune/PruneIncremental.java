@@ -24,13 +24,17 @@
 package org.encog.neural.prune;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.encog.EncogError;
 import org.encog.StatusReportable;
 import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.buffer.BufferedNeuralDataSet;
 import org.encog.ml.train.strategy.StopTrainingStrategy;
+import org.encog.neural.networks.training.propagation.TrainingContinuation;
 import org.encog.neural.networks.BasicNetwork;
 import org.encog.neural.networks.training.propagation.Propagation;
 import org.encog.neural.networks.training.propagation.resilient.ResilientPropagation;
@@ -56,6 +60,12 @@ import org.encog.util.logging.EncogLogging;
  * make, with different weights. All random weights are created using the
  * default Nguyen-Widrow method normally used by Encog.
  * 
+ * For large grids a successive halving mode can be enabled with
+ * {@link #setReductionFactor(int)}. Every configuration and weight try is
+ * then trained briefly, only the best fraction is kept, and the survivors are
+ * trained further. The last round trains the survivors for the full number of
+ * iterations. Each round runs concurrently.
+ * 
  */
 public class PruneIncremental extends ConcurrentJob {
 
@@ -86,11 +96,96 @@ public class PruneIncremental extends ConcurrentJob {
 		return result.toString();
 	}
 
+	/**
+	 * One network in a successive halving search, along with the training
+	 * state it is resumed from in the next round.
+	 */
+	private static class HalvingCandidate {
+
+		/**
+		 * The network being trained.
+		 */
+		private final BasicNetwork network;
+
+		/**
+		 * The RPROP state from the last round, or null before the first.
+		 */
+		private TrainingContinuation continuation;
+
+		/**
+		 * The error after the last round.
+		 */
+		private double error = Double.POSITIVE_INFINITY;
+
+		/**
+		 * The number of iterations trained so far.
+		 */
+		private int iterations;
+
+		/**
+		 * True if training stopped improving, no more iterations are spent.
+		 */
+		private boolean converged;
+
+		/**
+		 * Construct a candidate.
+		 * 
+		 * @param theNetwork
+		 *            The network to train.
+		 */
+		public HalvingCandidate(final BasicNetwork theNetwork) {
+			this.network = theNetwork;
+		}
+	}
+
+	/**
+	 * Orders halving candidates by ascending error.
+	 */
+	private static final Comparator<HalvingCandidate> ERROR_ORDER = 
+		new Comparator<HalvingCandidate>() {
+		public int compare(final HalvingCandidate a, final HalvingCandidate b) {
+			return Double.compare(a.error, b.error);
+		}
+	};
+
 	/**
 	 * Are we done?
 	 */
 	private boolean done = false;
 
+	/**
+	 * The factor the candidates are reduced by each round, or zero to train
+	 * every configuration for the full iterations.
+	 */
+	private int reductionFactor;
+
+	/**
+	 * The candidates of the current successive halving round, or null when
+	 * not halving.
+	 */
+	private List<HalvingCandidate> rung;
+
+	/**
+	 * The next candidate of the current round to hand out.
+	 */
+	private int rungIndex;
+
+	/**
+	 * The current successive halving round.
+	 */
+	private int rungNumber;
+
+	/**
+	 * The total iterations a candidate should have been trained for by the
+	 * end of the current round.
+	 */
+	private int rungIterations;
+
+	/**
+	 * The total number of training iterations performed.
+	 */
+	private final AtomicLong iterationsUsed = new AtomicLong();
+
 	/**
 	 * The training set to use as different neural networks are evaluated.
 	 */
@@ -320,6 +415,40 @@ public class PruneIncremental extends ConcurrentJob {
 		return this.training;
 	}
 
+	/**
+	 * @return The factor the candidates are reduced by each round, or zero if
+	 *         successive halving is disabled.
+	 */
+	public final int getReductionFactor() {
+		return this.reductionFactor;
+	}
+
+	/**
+	 * Enable successive halving. Each round keeps the best 1/factor of the
+	 * candidates, but never fewer than the number of top results, and trains
+	 * the survivors for factor times as many iterations. Every weight try is
+	 * its own candidate.
+	 * 
+	 * @param factor
+	 *            The reduction factor, at least 2, or zero to train every
+	 *            configuration for the full iterations.
+	 */
+	public final void setReductionFactor(final int factor) {
+		if ((factor != 0) && (factor < 2)) {
+			throw new EncogError(
+					"The reduction factor must be zero or at least 2.");
+		}
+		this.reductionFactor = factor;
+	}
+
+	/**
+	 * @return The total number of training iterations performed so far, over
+	 *         all networks.
+	 */
+	public final long getIterationsUsed() {
+		return this.iterationsUsed.get();
+	}
+
 	/**
 	 * Increase the hidden layer counts according to the hidden layer
 	 * parameters. Increase the first hidden layer count by one, if it is maxed
@@ -387,6 +516,10 @@ public class PruneIncremental extends ConcurrentJob {
 	 */
 	@Override
 	public final int loadWorkload() {
+		if (this.rung != null) {
+			return this.rung.size();
+		}
+
 		int result = 1;
 
 		for (final HiddenLayerParams param : this.hidden) {
@@ -408,13 +541,19 @@ public class PruneIncremental extends ConcurrentJob {
 	@Override
 	public final void performJobUnit(final JobUnitContext context) {
 
+		if (context.getJobUnit() instanceof HalvingCandidate) {
+			performCandidate(context);
+			return;
+		}
+
 		final BasicNetwork network = (BasicNetwork) context.getJobUnit();
+		// each worker reads through its own copy of a buffered set
 		BufferedNeuralDataSet buffer = null;
 		MLDataSet useTraining = this.training;
 
 		if (this.training instanceof BufferedNeuralDataSet) {
-			buffer = (BufferedNeuralDataSet) this.training;
-			useTraining = buffer.openAdditional();
+			buffer = ((BufferedNeuralDataSet) this.training).openAdditional();
+			useTraining = buffer;
 		}
 
 		// train the neural network
@@ -433,6 +572,7 @@ public class PruneIncremental extends ConcurrentJob {
 			for (int i = 0; (i < this.iterations) && !getShouldStop()
 					&& !strat.shouldStop(); i++) {
 				train.iteration();
+				this.iterationsUsed.incrementAndGet();
 			}
 
 			error = Math.min(error, train.getError());
@@ -443,41 +583,11 @@ public class PruneIncremental extends ConcurrentJob {
 		}
 
 		if (!getShouldStop()) {
-			// update min and max
-
-			this.high = Math.max(this.high, error);
-			this.low = Math.min(this.low, error);
-
-			if (this.hidden1Size > 0) {
-				int networkHidden1Count;
-				int networkHidden2Count;
-
-				if (network.getLayerCount() > 3) {
-					networkHidden2Count = network.getLayerNeuronCount(1);
-					networkHidden1Count = network.getLayerNeuronCount(2);
-				} else {
-					networkHidden2Count = 0;
-					networkHidden1Count = network.getLayerNeuronCount(1);
-				}
-
-				int row, col;
-
-				if (this.hidden2Size == 0) {
-					row = networkHidden1Count - this.hidden.get(0).getMin();
-					col = 0;
-				} else {
-					row = networkHidden1Count - this.hidden.get(0).getMin();
-					col = networkHidden2Count - this.hidden.get(1).getMin();
-				}
-
-				if ((row < 0) || (col < 0)) {
-					System.out.println("STOP");
-				}
-				this.results[row][col] = error;
-			}
+			recordResult(network, error);
 
 			// report status
 			this.currentTry++;
+			context.setResult(error);
 
 			updateBest(network, error);
 			reportStatus(
@@ -491,6 +601,202 @@ public class PruneIncremental extends ConcurrentJob {
 
 	}
 
+	/**
+	 * Record the error of a network in the results grid.
+	 * 
+	 * @param network
+	 *            The network that was trained.
+	 * @param error
+	 *            The error it reached.
+	 */
+	private void recordResult(final BasicNetwork network, final double error) {
+		// update min and max
+
+		this.high = Math.max(this.high, error);
+		this.low = Math.min(this.low, error);
+
+		if (this.hidden1Size > 0) {
+			int networkHidden1Count;
+			int networkHidden2Count;
+
+			if (network.getLayerCount() > 3) {
+				networkHidden2Count = network.getLayerNeuronCount(1);
+				networkHidden1Count = network.getLayerNeuronCount(2);
+			} else {
+				networkHidden2Count = 0;
+				networkHidden1Count = network.getLayerNeuronCount(1);
+			}
+
+			int row, col;
+
+			if (this.hidden2Size == 0) {
+				row = networkHidden1Count - this.hidden.get(0).getMin();
+				col = 0;
+			} else {
+				row = networkHidden1Count - this.hidden.get(0).getMin();
+				col = networkHidden2Count - this.hidden.get(1).getMin();
+			}
+
+			if ((row < 0) || (col < 0) || (row >= this.results.length)
+					|| (col >= this.results[row].length)) {
+				throw new EncogError("Network "
+						+ PruneIncremental.networkToString(network)
+						+ " is outside of the hidden layer ranges being searched.");
+			}
+			this.results[row][col] = error;
+		}
+	}
+
+	/**
+	 * Train a successive halving candidate up to the iterations of the
+	 * current round. Training resumes from the RPROP state of the previous
+	 * round.
+	 * 
+	 * @param context
+	 *            Contains the candidate.
+	 */
+	private void performCandidate(final JobUnitContext context) {
+		final HalvingCandidate candidate = (HalvingCandidate) context
+				.getJobUnit();
+
+		if (!candidate.converged
+				&& (candidate.iterations < this.rungIterations)) {
+			// each worker reads through its own copy of a buffered set
+			BufferedNeuralDataSet buffer = null;
+			MLDataSet useTraining = this.training;
+
+			if (this.training instanceof BufferedNeuralDataSet) {
+				buffer = ((BufferedNeuralDataSet) this.training).openAdditional();
+				useTraining = buffer;
+			}
+
+			final ResilientPropagation train = new ResilientPropagation(
+					candidate.network, useTraining);
+			train.setNumThreads(1); // force single thread mode
+			if (candidate.continuation != null) {
+				train.resume(candidate.continuation);
+			}
+			final StopTrainingStrategy strat = new StopTrainingStrategy(0.001,
+					5);
+			train.addStrategy(strat);
+
+			boolean trained = false;
+			while ((candidate.iterations < this.rungIterations)
+					&& !getShouldStop() && !strat.shouldStop()) {
+				train.iteration();
+				candidate.iterations++;
+				this.iterationsUsed.incrementAndGet();
+				trained = true;
+			}
+
+			if (trained) {
+				candidate.error = train.getError();
+			}
+			candidate.converged = strat.shouldStop();
+			candidate.continuation = train.pause();
+
+			if (buffer != null) {
+				buffer.close();
+			}
+		}
+
+		if (!getShouldStop()) {
+			context.setResult(candidate.error);
+			reportStatus(context, "Round " + (this.rungNumber + 1)
+					+ ", iterations " + candidate.iterations + ": Current: "
+					+ PruneIncremental.networkToString(candidate.network)
+					+ "; Error: " + candidate.error);
+		}
+	}
+
+	/**
+	 * Run the search as a series of successive halving rounds.
+	 */
+	private void processHalving() {
+		init();
+
+		// every configuration and weight try is a candidate
+		List<HalvingCandidate> candidates = new ArrayList<HalvingCandidate>();
+		do {
+			for (int z = 0; z < this.weightTries; z++) {
+				final BasicNetwork network = generateNetwork();
+				network.reset();
+				candidates.add(new HalvingCandidate(network));
+			}
+		} while (increaseHiddenCounts());
+
+		final int keep = Math.max(1, this.topNetworks.length);
+		int rounds = 0;
+		for (int size = candidates.size(); size > keep; size = nextRungSize(
+				size, keep)) {
+			rounds++;
+		}
+
+		try {
+			for (int k = 0; (k <= rounds) && !getShouldStop(); k++) {
+				this.rung = candidates;
+				this.rungIndex = 0;
+				this.rungNumber = k;
+				this.rungIterations = roundIterations(rounds - k);
+				super.process();
+
+				if (getShouldStop()) {
+					break;
+				}
+
+				Collections.sort(candidates, PruneIncremental.ERROR_ORDER);
+
+				// worst first, so the best weight try ends up in the grid
+				for (int i = candidates.size() - 1; i >= 0; i--) {
+					final HalvingCandidate c = candidates.get(i);
+					recordResult(c.network, c.error);
+				}
+
+				final int size = (k == rounds) ? 0 : nextRungSize(
+						candidates.size(), keep);
+				for (int i = size; i < candidates.size(); i++) {
+					final HalvingCandidate c = candidates.get(i);
+					this.currentTry++;
+					updateBest(c.network, c.error);
+				}
+				candidates = new ArrayList<HalvingCandidate>(
+						candidates.subList(0, size));
+			}
+		} finally {
+			this.rung = null;
+		}
+	}
+
+	/**
+	 * Determine how many candidates survive a round.
+	 * 
+	 * @param size
+	 *            The number of candidates in the round.
+	 * @param keep
+	 *            The least number of candidates to keep.
+	 * @return The number of survivors.
+	 */
+	private int nextRungSize(final int size, final int keep) {
+		final int reduced = (size + this.reductionFactor - 1)
+				/ this.reductionFactor;
+		return Math.min(size, Math.max(keep, reduced));
+	}
+
+	/**
+	 * Determine the iterations a candidate is trained to in a round.
+	 * 
+	 * @param remaining
+	 *            The number of rounds after this one.
+	 * @return The total iterations, the full amount for the last round.
+	 */
+	private int roundIterations(final int remaining) {
+		long divisor = 1;
+		for (int i = 0; (i < remaining) && (divisor <= this.iterations); i++) {
+			divisor *= this.reductionFactor;
+		}
+		return (int) Math.max(1, this.iterations / divisor);
+	}
+
 	/**
 	 * Begin the prune process.
 	 */
@@ -521,7 +827,11 @@ public class PruneIncremental extends ConcurrentJob {
 							+ "one neuron must be the minimum for the first hidden layer.");
 		}
 
-		super.process();
+		if (this.reductionFactor > 0) {
+			processHalving();
+		} else {
+			super.process();
+		}
 	}
 
 	/**
@@ -531,6 +841,13 @@ public class PruneIncremental extends ConcurrentJob {
 	 */
 	@Override
 	public final Object requestNextTask() {
+		if (this.rung != null) {
+			if (getShouldStop() || (this.rungIndex >= this.rung.size())) {
+				return null;
+			}
+			return this.rung.get(this.rungIndex++);
+		}
+
 		if (this.done || getShouldStop()) {
 			return null;
 		}
@@ -604,6 +921,7 @@ public class PruneIncremental extends ConcurrentJob {
 			EncogLogging.log(EncogLogging.LEVEL_DEBUG,
 					"Prune found new best network: error=" + error
 							+ ", network=" + choice);
+			this.bestNetwork = choice;
 		}
 
 	}
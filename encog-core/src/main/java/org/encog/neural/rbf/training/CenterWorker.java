@@ -0,0 +1,169 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.rbf.training;
+
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.util.concurrency.EngineTask;
+
+/**
+ * Performs the assignment step of a k-means iteration for a range of the
+ * training data. Each element is assigned to the nearest center, and the
+ * worker sums the elements assigned to each center, so that the new centers
+ * can be calculated once every worker is done.
+ */
+public class CenterWorker implements EngineTask {
+
+	/**
+	 * The training data, opened for this worker.
+	 */
+	private final MLDataSet training;
+
+	/**
+	 * The first element to process.
+	 */
+	private final int low;
+
+	/**
+	 * The last element to process.
+	 */
+	private final int high;
+
+	/**
+	 * The pair to read into.
+	 */
+	private final MLDataPair pair;
+
+	/**
+	 * The centers.
+	 */
+	private double[][] centers;
+
+	/**
+	 * The sum of the elements assigned to each center.
+	 */
+	private double[][] sums;
+
+	/**
+	 * The number of elements assigned to each center.
+	 */
+	private int[] counts;
+
+	/**
+	 * The error that stopped the worker, if any.
+	 */
+	private RuntimeException error;
+
+	/**
+	 * Construct the worker.
+	 * 
+	 * @param theTraining
+	 *            The training data, this worker reads it with getRecord.
+	 * @param theLow
+	 *            The first element to process.
+	 * @param theHigh
+	 *            The last element to process.
+	 */
+	public CenterWorker(final MLDataSet theTraining, final int theLow,
+			final int theHigh) {
+		this.training = theTraining;
+		this.low = theLow;
+		this.high = theHigh;
+		this.pair = BasicMLDataPair.createPair(theTraining.getInputSize(),
+				theTraining.getIdealSize());
+	}
+
+	/**
+	 * @return The number of elements assigned to each center.
+	 */
+	public final int[] getCounts() {
+		return this.counts;
+	}
+
+	/**
+	 * @return The error that stopped the worker, or null.
+	 */
+	public final RuntimeException getError() {
+		return this.error;
+	}
+
+	/**
+	 * @return The sum of the elements assigned to each center.
+	 */
+	public final double[][] getSums() {
+		return this.sums;
+	}
+
+	/**
+	 * Assign the range to the centers.
+	 */
+	public final void run() {
+		try {
+			this.error = null;
+			final int k = this.centers.length;
+			final int dimensions = this.training.getInputSize();
+			this.sums = new double[k][dimensions];
+			this.counts = new int[k];
+
+			for (int i = this.low; i <= this.high; i++) {
+				this.training.getRecord(i, this.pair);
+				final double[] input = this.pair.getInputArray();
+
+				int best = 0;
+				double bestDistance = Double.POSITIVE_INFINITY;
+				for (int c = 0; c < k; c++) {
+					final double[] center = this.centers[c];
+					double distance = 0;
+					for (int d = 0; d < dimensions && distance < bestDistance; d++) {
+						final double diff = input[d] - center[d];
+						distance += diff * diff;
+					}
+					if (distance < bestDistance) {
+						bestDistance = distance;
+						best = c;
+					}
+				}
+
+				final double[] sum = this.sums[best];
+				for (int d = 0; d < dimensions; d++) {
+					sum[d] += input[d];
+				}
+				this.counts[best]++;
+			}
+		} catch (final RuntimeException ex) {
+			this.error = ex;
+		}
+	}
+
+	/**
+	 * Set the centers to assign to.
+	 * 
+	 * @param theCenters
+	 *            The centers.
+	 */
+	public final void setCenters(final double[][] theCenters) {
+		this.centers = theCenters;
+	}
+}
@@ -0,0 +1,488 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.rbf.training;
+
+import java.util.List;
+
+import org.encog.mathutil.matrices.Matrix;
+import org.encog.mathutil.matrices.decomposition.CholeskyDecomposition;
+import org.encog.mathutil.matrices.decomposition.SingularValueDecomposition;
+import org.encog.mathutil.rbf.RadialBasisFunction;
+import org.encog.ml.TrainingImplementationType;
+import org.encog.mathutil.IntRange;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.ml.train.BasicTraining;
+import org.encog.neural.networks.training.TrainingError;
+import org.encog.neural.networks.training.propagation.TrainingContinuation;
+import org.encog.neural.rbf.RBFNetwork;
+import org.encog.util.concurrency.DetermineWorkload;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.EngineTask;
+import org.encog.util.concurrency.TaskGroup;
+
+/**
+ * Train the output weights of a RBF network by linear least squares. Unlike
+ * SVDTraining, the design matrix is never built. The training data is split
+ * into ranges, and each thread accumulates the normal equations for its
+ * range, which are then summed. The memory used depends only on the number of
+ * RBF's, so very large training sets can be used, and more than one output is
+ * supported.
+ * 
+ * The normal equations are solved with a Cholesky decomposition. If the
+ * equations are singular, or nearly so, a SVD is used instead, and the
+ * smallest singular values are ignored, as SVDTraining does.
+ * 
+ * Optionally, the centers of the RBF's can first be placed with k-means
+ * clustering of the training inputs. Each width is then set to the distance
+ * to the nearest other center.
+ */
+public class LeastSquaresTraining extends BasicTraining {
+
+	/**
+	 * The relative size below which a pivot or singular value of the normal
+	 * equations is treated as zero.
+	 */
+	public static final double SINGULAR_TOLERANCE = 1e-12;
+
+	/**
+	 * The network that is to be trained.
+	 */
+	private final RBFNetwork network;
+
+	/**
+	 * The number of threads to use, zero to pick automatically.
+	 */
+	private int threadCount;
+
+	/**
+	 * The amount added to the diagonal of the normal equations.
+	 */
+	private double regularization;
+
+	/**
+	 * The number of k-means iterations used to place the centers, zero to
+	 * keep the centers the network has.
+	 */
+	private int centerIterations;
+
+	/**
+	 * The workers for the normal equations.
+	 */
+	private LeastSquaresWorker[] workers;
+
+	/**
+	 * The workers for k-means.
+	 */
+	private CenterWorker[] centerWorkers;
+
+	/**
+	 * Construct the training object.
+	 * 
+	 * @param theNetwork
+	 *            The network to train.
+	 * @param training
+	 *            The training data to use. Must be indexable.
+	 */
+	public LeastSquaresTraining(final RBFNetwork theNetwork,
+			final MLDataSet training) {
+		super(TrainingImplementationType.OnePass);
+		if (training.getIdealSize() != theNetwork.getOutputCount()) {
+			throw new TrainingError("Training data has "
+					+ training.getIdealSize()
+					+ " ideal values, but the network has "
+					+ theNetwork.getOutputCount() + " outputs.");
+		}
+		setTraining(training);
+		this.network = theNetwork;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean canContinue() {
+		return false;
+	}
+
+	/**
+	 * Run the tasks, on the thread pool if there is more than one.
+	 * 
+	 * @param tasks
+	 *            The tasks to run.
+	 */
+	private void execute(final EngineTask[] tasks) {
+		if (tasks.length == 1) {
+			tasks[0].run();
+			return;
+		}
+		final TaskGroup group = EngineConcurrency.getInstance()
+				.createTaskGroup();
+		for (final EngineTask task : tasks) {
+			EngineConcurrency.getInstance().processTask(task, group);
+		}
+		group.waitForComplete();
+		EngineConcurrency.getInstance().checkError();
+	}
+
+	/**
+	 * @return The number of k-means iterations used to place the centers.
+	 */
+	public final int getCenterIterations() {
+		return this.centerIterations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final RBFNetwork getMethod() {
+		return this.network;
+	}
+
+	/**
+	 * @return The amount added to the diagonal of the normal equations.
+	 */
+	public final double getRegularization() {
+		return this.regularization;
+	}
+
+	/**
+	 * @return The number of threads to use, zero to pick automatically.
+	 */
+	public final int getThreadCount() {
+		return this.threadCount;
+	}
+
+	/**
+	 * Create the workers, each with its own view of the training data.
+	 */
+	private void init() {
+		final MLDataSet training = getTraining();
+		final long records = training.getRecordCount();
+		if (records > Integer.MAX_VALUE) {
+			throw new TrainingError("Training data has too many elements: "
+					+ records);
+		}
+		final DetermineWorkload determine = new DetermineWorkload(
+				this.threadCount, (int) records);
+		final List<IntRange> ranges = determine.calculateWorkers();
+		final RadialBasisFunction[] funcs = this.network.getRBF();
+
+		this.workers = new LeastSquaresWorker[ranges.size()];
+		this.centerWorkers = new CenterWorker[ranges.size()];
+		for (int i = 0; i < ranges.size(); i++) {
+			final IntRange r = ranges.get(i);
+			final MLDataSet set = training.openAdditional();
+			this.workers[i] = new LeastSquaresWorker(funcs, set, r.getLow(),
+					r.getHigh());
+			this.centerWorkers[i] = new CenterWorker(set, r.getLow(),
+					r.getHigh());
+		}
+	}
+
+	/**
+	 * Perform one iteration. The centers are placed on the first iteration,
+	 * if requested, and the output weights are then solved for.
+	 */
+	@Override
+	public final void iteration() {
+		preIteration();
+
+		if (this.workers == null) {
+			init();
+			if (this.centerIterations > 0) {
+				placeCenters();
+			}
+		}
+
+		final int h = this.network.getRBF().length;
+		final int outputCount = this.network.getOutputCount();
+
+		// accumulate the normal equations, summing in worker order so the
+		// result does not depend on the thread timing
+		for (final LeastSquaresWorker worker : this.workers) {
+			worker.setWeights(null);
+		}
+		execute(this.workers);
+		final double[][] gram = new double[h][h];
+		final double[][] rhs = new double[h][outputCount];
+		for (final LeastSquaresWorker worker : this.workers) {
+			if (worker.getError() != null) {
+				throw worker.getError();
+			}
+			final double[] g = worker.getGram();
+			final double[] r = worker.getRHS();
+			for (int j = 0; j < h; j++) {
+				for (int k = j; k < h; k++) {
+					gram[j][k] += g[j * h + k];
+				}
+				for (int o = 0; o < outputCount; o++) {
+					rhs[j][o] += r[j * outputCount + o];
+				}
+			}
+		}
+		for (int j = 0; j < h; j++) {
+			gram[j][j] += this.regularization;
+			for (int k = j + 1; k < h; k++) {
+				gram[k][j] = gram[j][k];
+			}
+		}
+
+		final double[][] solution = solve(gram, rhs);
+
+		// the output layer is first in the flat weights, one row for each
+		// output neuron
+		final double[] weights = this.network.getFlat().getWeights();
+		for (int o = 0; o < outputCount; o++) {
+			for (int j = 0; j < h; j++) {
+				weights[o * h + j] = solution[j][o];
+			}
+		}
+
+		// calculate the error exactly, rather than from the normal
+		// equations, which would lose precision for a close fit
+		final double[] outputWeights = new double[outputCount * h];
+		System.arraycopy(weights, 0, outputWeights, 0, outputWeights.length);
+		for (final LeastSquaresWorker worker : this.workers) {
+			worker.setWeights(outputWeights);
+		}
+		execute(this.workers);
+		double sse = 0;
+		for (final LeastSquaresWorker worker : this.workers) {
+			if (worker.getError() != null) {
+				throw worker.getError();
+			}
+			sse += worker.getSSE();
+		}
+		setError(Math.sqrt(sse
+				/ (getTraining().getRecordCount() * outputCount)));
+
+		postIteration();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final TrainingContinuation pause() {
+		return null;
+	}
+
+	/**
+	 * Place the centers of the RBF's with k-means clustering. The initial
+	 * centers are training elements spread evenly through the training data.
+	 */
+	private void placeCenters() {
+		final RadialBasisFunction[] funcs = this.network.getRBF();
+		final int k = funcs.length;
+		final long records = getTraining().getRecordCount();
+		if (records < k) {
+			throw new TrainingError("Can't place " + k + " centers with only "
+					+ records + " training elements.");
+		}
+
+		final int dimensions = getTraining().getInputSize();
+		final double[][] centers = new double[k][];
+		final MLDataPair pair = BasicMLDataPair.createPair(dimensions,
+				getTraining().getIdealSize());
+		for (int c = 0; c < k; c++) {
+			getTraining().getRecord((c * records) / k, pair);
+			centers[c] = pair.getInputArray().clone();
+		}
+
+		for (int iteration = 0; iteration < this.centerIterations; iteration++) {
+			for (final CenterWorker worker : this.centerWorkers) {
+				worker.setCenters(centers);
+			}
+			execute(this.centerWorkers);
+
+			final double[][] sums = new double[k][dimensions];
+			final int[] counts = new int[k];
+			for (final CenterWorker worker : this.centerWorkers) {
+				if (worker.getError() != null) {
+					throw worker.getError();
+				}
+				for (int c = 0; c < k; c++) {
+					counts[c] += worker.getCounts()[c];
+					for (int d = 0; d < dimensions; d++) {
+						sums[c][d] += worker.getSums()[c][d];
+					}
+				}
+			}
+
+			boolean changed = false;
+			for (int c = 0; c < k; c++) {
+				// an empty cluster keeps its center
+				if (counts[c] > 0) {
+					for (int d = 0; d < dimensions; d++) {
+						final double value = sums[c][d] / counts[c];
+						if (value != centers[c][d]) {
+							changed = true;
+						}
+						centers[c][d] = value;
+					}
+				}
+			}
+			if (!changed) {
+				break;
+			}
+		}
+
+		for (int c = 0; c < k; c++) {
+			funcs[c].setCenters(centers[c]);
+			double nearest = Double.POSITIVE_INFINITY;
+			for (int other = 0; other < k; other++) {
+				if (other != c) {
+					double distance = 0;
+					for (int d = 0; d < dimensions; d++) {
+						final double diff = centers[c][d] - centers[other][d];
+						distance += diff * diff;
+					}
+					nearest = Math.min(nearest, distance);
+				}
+			}
+			if (nearest > 0 && !Double.isInfinite(nearest)) {
+				funcs[c].setWidth(Math.sqrt(nearest));
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void resume(final TrainingContinuation state) {
+
+	}
+
+	/**
+	 * Set the number of k-means iterations used to place the centers of the
+	 * RBF's before the first iteration. The default of zero keeps the centers
+	 * the network already has.
+	 * 
+	 * @param iterations
+	 *            The number of iterations.
+	 */
+	public final void setCenterIterations(final int iterations) {
+		if (iterations < 0) {
+			throw new TrainingError("Center iterations must not be negative.");
+		}
+		this.centerIterations = iterations;
+	}
+
+	/**
+	 * Set the amount added to the diagonal of the normal equations. This is
+	 * ridge regression, which keeps the weights small when the RBF's overlap
+	 * a great deal. The default of zero gives an ordinary least squares fit.
+	 * 
+	 * @param theRegularization
+	 *            The amount to add.
+	 */
+	public final void setRegularization(final double theRegularization) {
+		if (theRegularization < 0) {
+			throw new TrainingError("Regularization must not be negative.");
+		}
+		this.regularization = theRegularization;
+	}
+
+	/**
+	 * Set the number of threads to use. This takes effect on the first
+	 * iteration.
+	 * 
+	 * @param theThreadCount
+	 *            The number of threads, zero to pick automatically.
+	 */
+	public final void setThreadCount(final int theThreadCount) {
+		if (theThreadCount < 0) {
+			throw new TrainingError("Thread count must not be negative.");
+		}
+		this.threadCount = theThreadCount;
+	}
+
+	/**
+	 * Solve the normal equations.
+	 * 
+	 * @param gram
+	 *            The symmetric left hand side.
+	 * @param rhs
+	 *            The right hand side, one column for each output.
+	 * @return The weights, one column for each output.
+	 */
+	private double[][] solve(final double[][] gram, final double[][] rhs) {
+		final int h = gram.length;
+		final Matrix a = new Matrix(gram);
+		final Matrix b = new Matrix(rhs);
+
+		double maxDiagonal = 0;
+		for (int j = 0; j < h; j++) {
+			maxDiagonal = Math.max(maxDiagonal, gram[j][j]);
+		}
+
+		final CholeskyDecomposition cholesky = new CholeskyDecomposition(a);
+		if (cholesky.isSPD()) {
+			final Matrix l = cholesky.getL();
+			double minPivot = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < h; j++) {
+				minPivot = Math.min(minPivot, l.get(j, j) * l.get(j, j));
+			}
+			if (minPivot > SINGULAR_TOLERANCE * maxDiagonal) {
+				return cholesky.solve(b).getData();
+			}
+		}
+
+		// singular, or nearly so, solve with the pseudo inverse
+		final SingularValueDecomposition svd = new SingularValueDecomposition(
+				a);
+		final double[] s = svd.getSingularValues();
+		final double[][] u = svd.getU().getData();
+		final double[][] v = svd.getV().getData();
+		final double threshold = SINGULAR_TOLERANCE * s[0];
+		final int outputCount = rhs[0].length;
+		final double[][] result = new double[h][outputCount];
+		final double[] temp = new double[h];
+
+		for (int o = 0; o < outputCount; o++) {
+			for (int j = 0; j < h; j++) {
+				double sum = 0;
+				if (s[j] > threshold) {
+					for (int i = 0; i < h; i++) {
+						sum += u[i][j] * rhs[i][o];
+					}
+					sum /= s[j];
+				}
+				temp[j] = sum;
+			}
+			for (int i = 0; i < h; i++) {
+				double sum = 0;
+				for (int j = 0; j < h; j++) {
+					sum += v[i][j] * temp[j];
+				}
+				result[i][o] = sum;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.rbf.training;
+
+import org.encog.mathutil.rbf.RadialBasisFunction;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.util.concurrency.EngineTask;
+
+/**
+ * Processes a range of the training data for least squares training of a RBF
+ * network. Each row of the design matrix holds the output of every RBF for one
+ * training element, and is calculated only when it is needed. The worker
+ * either accumulates the normal equations for its range, or calculates the
+ * squared error of its range for a set of output weights.
+ */
+public class LeastSquaresWorker implements EngineTask {
+
+	/**
+	 * The RBF's.
+	 */
+	private final RadialBasisFunction[] funcs;
+
+	/**
+	 * The training data, opened for this worker.
+	 */
+	private final MLDataSet training;
+
+	/**
+	 * The first element to process.
+	 */
+	private final int low;
+
+	/**
+	 * The last element to process.
+	 */
+	private final int high;
+
+	/**
+	 * The number of outputs.
+	 */
+	private final int outputCount;
+
+	/**
+	 * The upper triangle of the transposed design matrix multiplied by itself.
+	 */
+	private final double[] gram;
+
+	/**
+	 * The transposed design matrix multiplied by the ideal values, one row for
+	 * each RBF.
+	 */
+	private final double[] rhs;
+
+	/**
+	 * The output of each RBF for the current element.
+	 */
+	private final double[] basis;
+
+	/**
+	 * The pair to read into.
+	 */
+	private final MLDataPair pair;
+
+	/**
+	 * The output weights to calculate the error for, or null to accumulate
+	 * the normal equations.
+	 */
+	private double[] weights;
+
+	/**
+	 * The sum of the squared errors.
+	 */
+	private double sse;
+
+	/**
+	 * The error that stopped the worker, if any.
+	 */
+	private RuntimeException error;
+
+	/**
+	 * Construct the worker.
+	 * 
+	 * @param theFuncs
+	 *            The RBF's.
+	 * @param theTraining
+	 *            The training data, this worker reads it with getRecord.
+	 * @param theLow
+	 *            The first element to process.
+	 * @param theHigh
+	 *            The last element to process.
+	 */
+	public LeastSquaresWorker(final RadialBasisFunction[] theFuncs,
+			final MLDataSet theTraining, final int theLow, final int theHigh) {
+		this.funcs = theFuncs;
+		this.training = theTraining;
+		this.low = theLow;
+		this.high = theHigh;
+		this.outputCount = theTraining.getIdealSize();
+		this.gram = new double[theFuncs.length * theFuncs.length];
+		this.rhs = new double[theFuncs.length * this.outputCount];
+		this.basis = new double[theFuncs.length];
+		this.pair = BasicMLDataPair.createPair(theTraining.getInputSize(),
+				this.outputCount);
+	}
+
+	/**
+	 * Accumulate the normal equations for one element.
+	 * 
+	 * @param ideal
+	 *            The ideal values.
+	 */
+	private void accumulate(final double[] ideal) {
+		final int h = this.funcs.length;
+		for (int j = 0; j < h; j++) {
+			final double bj = this.basis[j];
+			if (bj != 0) {
+				final int row = j * h;
+				for (int k = j; k < h; k++) {
+					this.gram[row + k] += bj * this.basis[k];
+				}
+				final int rhsRow = j * this.outputCount;
+				for (int o = 0; o < this.outputCount; o++) {
+					this.rhs[rhsRow + o] += bj * ideal[o];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add the squared error of one element.
+	 * 
+	 * @param ideal
+	 *            The ideal values.
+	 */
+	private void calculateError(final double[] ideal) {
+		final int h = this.funcs.length;
+		for (int o = 0; o < this.outputCount; o++) {
+			double sum = 0;
+			final int row = o * h;
+			for (int j = 0; j < h; j++) {
+				sum += this.basis[j] * this.weights[row + j];
+			}
+			final double diff = ideal[o] - sum;
+			this.sse += diff * diff;
+		}
+	}
+
+	/**
+	 * @return The error that stopped the worker, or null.
+	 */
+	public final RuntimeException getError() {
+		return this.error;
+	}
+
+	/**
+	 * @return The upper triangle of the transposed design matrix multiplied
+	 *         by itself, stored row by row in a square array.
+	 */
+	public final double[] getGram() {
+		return this.gram;
+	}
+
+	/**
+	 * @return The transposed design matrix multiplied by the ideal values.
+	 */
+	public final double[] getRHS() {
+		return this.rhs;
+	}
+
+	/**
+	 * @return The sum of the squared errors.
+	 */
+	public final double getSSE() {
+		return this.sse;
+	}
+
+	/**
+	 * Process the range.
+	 */
+	public final void run() {
+		try {
+			this.error = null;
+			this.sse = 0;
+			if (this.weights == null) {
+				for (int i = 0; i < this.gram.length; i++) {
+					this.gram[i] = 0;
+				}
+				for (int i = 0; i < this.rhs.length; i++) {
+					this.rhs[i] = 0;
+				}
+			}
+
+			for (int i = this.low; i <= this.high; i++) {
+				this.training.getRecord(i, this.pair);
+				final double[] input = this.pair.getInputArray();
+				for (int j = 0; j < this.funcs.length; j++) {
+					this.basis[j] = this.funcs[j].calculate(input);
+				}
+				if (this.weights == null) {
+					accumulate(this.pair.getIdealArray());
+				} else {
+					calculateError(this.pair.getIdealArray());
+				}
+			}
+		} catch (final RuntimeException ex) {
+			this.error = ex;
+		}
+	}
+
+	/**
+	 * Set the output weights to calculate the error for.
+	 * 
+	 * @param theWeights
+	 *            The weights, one row of RBF weights for each output, or null
+	 *            to accumulate the normal equations.
+	 */
+	public final void setWeights(final double[] theWeights) {
+		this.weights = theWeights;
+	}
+}
@@ -22,7 +22,7 @@
  * http://www.heatonresearch.com/copyright
  */
 /**
- * This package contains a SVD trainer for RBF.
+ * This package contains the SVD and least squares trainers for RBF.
  */
 package org.encog.neural.rbf.training;
 
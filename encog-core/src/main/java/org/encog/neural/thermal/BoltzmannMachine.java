@@ -129,7 +129,9 @@ public class BoltzmannMachine extends ThermalNetwork {
 	}
 
 	/**
-	 * Run the network until thermal equilibrium is established.
+	 * Run the network until thermal equilibrium is established. The sum into
+	 * each neuron is calculated once, and then updated as neurons change
+	 * state, rather than calculated again for each neuron that is run.
 	 */
 	public final void establishEquilibrium() {
 		final int count = getNeuronCount();
@@ -144,12 +146,13 @@ public class BoltzmannMachine extends ThermalNetwork {
 			this.off[i] = 0;
 		}
 
+		final double[] fields = calculateFields();
 		for (int n = 0; n < this.runCycles * count; n++) {
-			run((int) RangeRandomizer.randomize(0, count - 1));
+			run((int) RangeRandomizer.randomize(0, count - 1), fields);
 		}
 		for (int n = 0; n < this.annealCycles * count; n++) {
 			final int i = (int) RangeRandomizer.randomize(0, count - 1);
-			run(i);
+			run(i, fields);
 			if (getCurrentState().getBoolean(i)) {
 				this.on[i]++;
 			} else {
@@ -162,6 +165,19 @@ public class BoltzmannMachine extends ThermalNetwork {
 		}
 	}
 
+	/**
+	 * Calculate the sum into each neuron from the neurons that are on.
+	 * @return The sums.
+	 */
+	private double[] calculateFields() {
+		final int count = getNeuronCount();
+		final double[] state = new double[count];
+		final double[] fields = new double[count];
+		copyState(0, state);
+		multiplyWeights(state, fields, true);
+		return fields;
+	}
+
 	/**
 	 * @return the annealCycles
 	 */
@@ -211,8 +227,38 @@ public class BoltzmannMachine extends ThermalNetwork {
 	 */
 	public final void run() {
 		final int count = getNeuronCount();
+		final double[] fields = calculateFields();
 		for (int i = 0; i < count; i++) {
-			run(i);
+			run(i, fields);
+		}
+	}
+
+	/**
+	 * Run the network for the specified neuron, using the sum into each neuron
+	 * calculated beforehand. If the neuron changes state, the sums are
+	 * updated from its row of weights.
+	 * 
+	 * @param i
+	 *            The neuron to run for.
+	 * @param fields
+	 *            The sum into each neuron.
+	 */
+	private void run(final int i, final double[] fields) {
+		final double sum = fields[i] - this.threshold[i];
+		final double probability = 1 / (1 + BoundMath.exp(-sum
+				/ this.temperature));
+		final boolean before = getCurrentState().getBoolean(i);
+		final boolean after = RangeRandomizer.randomize(0, 1) <= probability;
+
+		if (before != after) {
+			getCurrentState().setData(i, after);
+			final int count = getNeuronCount();
+			final double[] weights = getWeights();
+			final double delta = after ? 1 : -1;
+			final int row = i * count;
+			for (int j = 0; j < count; j++) {
+				fields[j] += weights[row + j] * delta;
+			}
 		}
 	}
 
@@ -23,13 +23,18 @@
  */
 package org.encog.neural.thermal;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.encog.mathutil.matrices.BiPolarUtil;
-import org.encog.mathutil.matrices.Matrix;
-import org.encog.mathutil.matrices.MatrixMath;
 import org.encog.ml.data.MLData;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.specific.BiPolarNeuralData;
 import org.encog.neural.NeuralNetworkError;
 import org.encog.util.EngineArray;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.TaskGroup;
 
 /**
  * Implements a Hopfield network.
@@ -66,29 +71,84 @@ public class HopfieldNetwork extends ThermalNetwork {
 	 *            The pattern to train for.
 	 */
 	public final void addPattern(final MLData pattern) {
+		checkPattern(pattern);
+		new PatternWorker(getWeights(), getNeuronCount(),
+				new double[][] { pattern.getData() }, 0, 1).run();
+	}
 
-		if (pattern.size() != getNeuronCount()) {
-			throw new NeuralNetworkError("Network with " + getNeuronCount()
-					+ " neurons, cannot learn a pattern of size "
-					+ pattern.size());
+	/**
+	 * Train the neural network for each of the specified patterns. This gives
+	 * the same weights as calling addPattern for each pattern, but the
+	 * patterns are added in a single pass over the weights, which is split
+	 * across threads for large networks.
+	 * 
+	 * @param patterns
+	 *            The patterns to train for.
+	 */
+	public final void addPatterns(final MLData[] patterns) {
+		final double[][] data = new double[patterns.length][];
+		for (int i = 0; i < patterns.length; i++) {
+			checkPattern(patterns[i]);
+			data[i] = patterns[i].getData();
 		}
+		addPatterns(data);
+	}
 
-		// Create a row matrix from the input, convert boolean to bipolar
-		final Matrix m2 = Matrix.createRowMatrix(pattern.getData());
-		// Transpose the matrix and multiply by the original input matrix
-		final Matrix m1 = MatrixMath.transpose(m2);
-		final Matrix m3 = MatrixMath.multiply(m1, m2);
+	/**
+	 * Train the neural network for the input of each pair in the specified
+	 * data set.
+	 * 
+	 * @param set
+	 *            The patterns to train for.
+	 */
+	public final void addPatterns(final MLDataSet set) {
+		final List<MLData> list = new ArrayList<MLData>();
+		for (final MLDataPair pair : set) {
+			list.add(pair.getInput());
+		}
+		addPatterns(list.toArray(new MLData[list.size()]));
+	}
 
-		// matrix 3 should be square by now, so create an identity
-		// matrix of the same size.
-		final Matrix identity = MatrixMath.identity(m3.getRows());
+	/**
+	 * Add the patterns to the weights, on several threads if the network is
+	 * large enough.
+	 * 
+	 * @param patterns
+	 *            The patterns, which have already been checked.
+	 */
+	private void addPatterns(final double[][] patterns) {
+		final int n = getNeuronCount();
+		final int threads = Math.min(Runtime.getRuntime()
+				.availableProcessors(), n / (PARALLEL_NEURONS / 2));
 
-		// subtract the identity matrix
-		final Matrix m4 = MatrixMath.subtract(m3, identity);
+		if (n < PARALLEL_NEURONS || threads < 2) {
+			new PatternWorker(getWeights(), n, patterns, 0, 1).run();
+			return;
+		}
 
-		// now add the calculated matrix, for this pattern, to the
-		// existing weight matrix.
-		convertHopfieldMatrix(m4);
+		final TaskGroup group = EngineConcurrency.getInstance()
+				.createTaskGroup();
+		for (int i = 0; i < threads; i++) {
+			EngineConcurrency.getInstance().processTask(
+					new PatternWorker(getWeights(), n, patterns, i, threads),
+					group);
+		}
+		group.waitForComplete();
+		EngineConcurrency.getInstance().checkError();
+	}
+
+	/**
+	 * Make sure a pattern is the same size as the network.
+	 * 
+	 * @param pattern
+	 *            The pattern to check.
+	 */
+	private void checkPattern(final MLData pattern) {
+		if (pattern.size() != getNeuronCount()) {
+			throw new NeuralNetworkError("Network with " + getNeuronCount()
+					+ " neurons, cannot learn a pattern of size "
+					+ pattern.size());
+		}
 	}
 
 	/**
@@ -116,21 +176,6 @@ public class HopfieldNetwork extends ThermalNetwork {
 		return result;
 	}
 
-	/**
-	 * Update the Hopfield weights after training.
-	 * 
-	 * @param delta
-	 *            The amount to change the weights by.
-	 */
-	private void convertHopfieldMatrix(final Matrix delta) {
-		// add the new weight matrix to what is there already
-		for (int row = 0; row < delta.getRows(); row++) {
-			for (int col = 0; col < delta.getRows(); col++) {
-				addWeight(row, col, delta.get(row, col));
-			}
-		}
-	}
-
 	/**
 	 * {@inheritDoc}
 	 */
@@ -148,17 +193,40 @@ public class HopfieldNetwork extends ThermalNetwork {
 	}
 
 	/**
-	 * Perform one Hopfield iteration.
+	 * Perform one Hopfield iteration. Each neuron is updated in turn, and
+	 * later neurons see the new state of earlier ones.
 	 */
 	public final void run() {
+		final int n = getNeuronCount();
+		final double[] weights = getWeights();
+		final double[] state = new double[n];
+		copyState(-1, state);
 
-		for (int toNeuron = 0; toNeuron < getNeuronCount(); toNeuron++) {
+		for (int toNeuron = 0; toNeuron < n; toNeuron++) {
+			final int row = toNeuron * n;
 			double sum = 0;
-			for (int fromNeuron = 0; fromNeuron < getNeuronCount(); fromNeuron++) {
-				sum += getCurrentState().getData(fromNeuron)
-						* getWeight(fromNeuron, toNeuron);
+			for (int fromNeuron = 0; fromNeuron < n; fromNeuron++) {
+				sum += state[fromNeuron] * weights[row + fromNeuron];
 			}
 			getCurrentState().setData(toNeuron, sum);
+			state[toNeuron] = getCurrentState().getBoolean(toNeuron) ? 1 : -1;
+		}
+	}
+
+	/**
+	 * Perform one synchronous Hopfield iteration. Every neuron is updated from
+	 * the state before the iteration, so the neurons can be calculated in
+	 * parallel. This converges differently to run, and can settle into a
+	 * cycle of two states rather than a single stable state.
+	 */
+	public final void runSynchronous() {
+		final int n = getNeuronCount();
+		final double[] state = new double[n];
+		final double[] sums = new double[n];
+		copyState(-1, state);
+		multiplyWeights(state, sums, false);
+		for (int i = 0; i < n; i++) {
+			getCurrentState().setData(i, sums[i]);
 		}
 	}
 
@@ -172,17 +240,15 @@ public class HopfieldNetwork extends ThermalNetwork {
 	 */
 	public final int runUntilStable(final int max) {
 		boolean done = false;
-		String lastStateStr = getCurrentState().toString();
-		String currentStateStr = getCurrentState().toString();
+		final boolean[] lastState = new boolean[getNeuronCount()];
 
 		int cycle = 0;
 		do {
+			copyState(lastState);
 			run();
 			cycle++;
 
-			lastStateStr = getCurrentState().toString();
-
-			if (!currentStateStr.equals(lastStateStr)) {
+			if (!isState(lastState)) {
 				if (cycle > max) {
 					done = true;
 				}
@@ -190,13 +256,39 @@ public class HopfieldNetwork extends ThermalNetwork {
 				done = true;
 			}
 
-			currentStateStr = lastStateStr;
-
 		} while (!done);
 
 		return cycle;
 	}
 
+	/**
+	 * Copy the current state.
+	 * 
+	 * @param result
+	 *            The array to copy to.
+	 */
+	private void copyState(final boolean[] result) {
+		for (int i = 0; i < result.length; i++) {
+			result[i] = getCurrentState().getBoolean(i);
+		}
+	}
+
+	/**
+	 * Determine if the current state is the same as the specified state.
+	 * 
+	 * @param state
+	 *            The state to compare to.
+	 * @return True if the states are the same.
+	 */
+	private boolean isState(final boolean[] state) {
+		for (int i = 0; i < state.length; i++) {
+			if (state[i] != getCurrentState().getBoolean(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,117 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.thermal;
+
+import org.encog.util.concurrency.EngineTask;
+
+/**
+ * Adds the outer products of a batch of patterns to the weights of a Hopfield
+ * network, for an interleaved set of rows. The outer product is symmetric, so
+ * only the upper triangle is calculated, and each value is stored in both
+ * halves of the matrix. A worker writes row i at and after the diagonal, and
+ * column i before it, so workers with different rows never write the same
+ * weight.
+ */
+public class PatternWorker implements EngineTask {
+
+	/**
+	 * The weights, row by row.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The neuron count.
+	 */
+	private final int neuronCount;
+
+	/**
+	 * The patterns.
+	 */
+	private final double[][] patterns;
+
+	/**
+	 * The first row.
+	 */
+	private final int first;
+
+	/**
+	 * The distance between rows.
+	 */
+	private final int step;
+
+	/**
+	 * Construct the worker.
+	 * 
+	 * @param theWeights
+	 *            The weights, row by row.
+	 * @param theNeuronCount
+	 *            The neuron count.
+	 * @param thePatterns
+	 *            The patterns.
+	 * @param theFirst
+	 *            The first row.
+	 * @param theStep
+	 *            The distance between rows, this interleaves the rows so each
+	 *            worker has a similar share of the triangle.
+	 */
+	public PatternWorker(final double[] theWeights, final int theNeuronCount,
+			final double[][] thePatterns, final int theFirst,
+			final int theStep) {
+		this.weights = theWeights;
+		this.neuronCount = theNeuronCount;
+		this.patterns = thePatterns;
+		this.first = theFirst;
+		this.step = theStep;
+	}
+
+	/**
+	 * Accumulate the patterns for the rows.
+	 */
+	public final void run() {
+		final int n = this.neuronCount;
+		final double[] sum = new double[n];
+
+		for (int i = this.first; i < n; i += this.step) {
+			for (int j = i; j < n; j++) {
+				sum[j] = 0;
+			}
+
+			for (final double[] pattern : this.patterns) {
+				final double xi = pattern[i];
+				if (xi != 0) {
+					for (int j = i; j < n; j++) {
+						sum[j] += xi * pattern[j];
+					}
+				}
+			}
+
+			// the diagonal has the identity subtracted for each pattern
+			this.weights[i * n + i] += sum[i] - this.patterns.length;
+			for (int j = i + 1; j < n; j++) {
+				this.weights[i * n + j] += sum[j];
+				this.weights[j * n + i] += sum[j];
+			}
+		}
+	}
+}
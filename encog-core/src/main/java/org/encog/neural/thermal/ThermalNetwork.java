@@ -30,6 +30,8 @@ import org.encog.ml.MLResettable;
 import org.encog.ml.data.specific.BiPolarNeuralData;
 import org.encog.neural.NeuralNetworkError;
 import org.encog.util.EngineArray;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.TaskGroup;
 
 /**
  * The thermal network forms the base class for Hopfield and Boltzmann machines.
@@ -44,6 +46,12 @@ public abstract class ThermalNetwork extends BasicML implements MLMethod,
 	 */
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The neuron count at which weight products are split across threads.
+	 * Below this the cost of the threads is more than the work.
+	 */
+	public static final int PARALLEL_NEURONS = 512;
+
 	/**
 	 * The current state of the thermal network.
 	 */
@@ -241,4 +249,50 @@ public abstract class ThermalNetwork extends BasicML implements MLMethod,
 		this.weights = w;
 	}
 
+	/**
+	 * Copy the current state into an array, as 1 for true and 0 or -1 for
+	 * false.
+	 * @param off The value to use for a false neuron.
+	 * @param result The array to copy to.
+	 */
+	protected final void copyState(final double off, final double[] result) {
+		for (int i = 0; i < this.neuronCount; i++) {
+			result[i] = this.currentState.getBoolean(i) ? 1 : off;
+		}
+	}
+
+	/**
+	 * Multiply the weights by a state vector. Large networks split the
+	 * neurons into blocks, which are calculated on separate threads.
+	 * @param input The state vector.
+	 * @param output The product. For the sum into each neuron, the same as
+	 * getWeight(from, to) summed over each from neuron, pass false for
+	 * transpose. Pass true for the sum of getWeight(i, j) over each j.
+	 * @param transpose True to multiply by the transposed weights.
+	 */
+	protected final void multiplyWeights(final double[] input,
+			final double[] output, final boolean transpose) {
+		final int n = this.neuronCount;
+		final int threads = Math.min(Runtime.getRuntime()
+				.availableProcessors(), n / (PARALLEL_NEURONS / 2));
+
+		if (n < PARALLEL_NEURONS || threads < 2) {
+			new WeightProductWorker(this.weights, n, input, output, 0, n,
+					transpose).run();
+			return;
+		}
+
+		final TaskGroup group = EngineConcurrency.getInstance()
+				.createTaskGroup();
+		final int blockSize = (n + threads - 1) / threads;
+		for (int start = 0; start < n; start += blockSize) {
+			final int end = Math.min(n, start + blockSize);
+			EngineConcurrency.getInstance().processTask(
+					new WeightProductWorker(this.weights, n, input, output,
+							start, end, transpose), group);
+		}
+		group.waitForComplete();
+		EngineConcurrency.getInstance().checkError();
+	}
+
 }
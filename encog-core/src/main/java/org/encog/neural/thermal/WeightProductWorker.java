@@ -0,0 +1,133 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.thermal;
+
+import org.encog.util.concurrency.EngineTask;
+
+/**
+ * Multiplies a range of neurons of a thermal network's weight matrix by a
+ * state vector. The weights are stored row by row, one row for each target
+ * neuron, so both forms of the product read the weights sequentially.
+ * Several workers, each with its own range, may run at once, since each only
+ * writes its own range of the output.
+ */
+public class WeightProductWorker implements EngineTask {
+
+	/**
+	 * The weights, row by row.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The neuron count.
+	 */
+	private final int neuronCount;
+
+	/**
+	 * The state vector.
+	 */
+	private final double[] input;
+
+	/**
+	 * The result of the product.
+	 */
+	private final double[] output;
+
+	/**
+	 * The first neuron of the range.
+	 */
+	private final int start;
+
+	/**
+	 * One past the last neuron of the range.
+	 */
+	private final int end;
+
+	/**
+	 * True to multiply by the transposed matrix.
+	 */
+	private final boolean transpose;
+
+	/**
+	 * Construct the worker.
+	 * 
+	 * @param theWeights
+	 *            The weights, row by row.
+	 * @param theNeuronCount
+	 *            The neuron count.
+	 * @param theInput
+	 *            The state vector.
+	 * @param theOutput
+	 *            The result of the product.
+	 * @param theStart
+	 *            The first neuron of the range.
+	 * @param theEnd
+	 *            One past the last neuron of the range.
+	 * @param theTranspose
+	 *            False to calculate the sum into each target neuron, true to
+	 *            calculate the sum out of each source neuron.
+	 */
+	public WeightProductWorker(final double[] theWeights,
+			final int theNeuronCount, final double[] theInput,
+			final double[] theOutput, final int theStart, final int theEnd,
+			final boolean theTranspose) {
+		this.weights = theWeights;
+		this.neuronCount = theNeuronCount;
+		this.input = theInput;
+		this.output = theOutput;
+		this.start = theStart;
+		this.end = theEnd;
+		this.transpose = theTranspose;
+	}
+
+	/**
+	 * Calculate the product for the range.
+	 */
+	public final void run() {
+		final int n = this.neuronCount;
+		if (!this.transpose) {
+			for (int to = this.start; to < this.end; to++) {
+				final int row = to * n;
+				double sum = 0;
+				for (int from = 0; from < n; from++) {
+					sum += this.input[from] * this.weights[row + from];
+				}
+				this.output[to] = sum;
+			}
+		} else {
+			for (int i = this.start; i < this.end; i++) {
+				this.output[i] = 0;
+			}
+			for (int j = 0; j < n; j++) {
+				final double v = this.input[j];
+				if (v != 0) {
+					final int row = j * n;
+					for (int i = this.start; i < this.end; i++) {
+						this.output[i] += this.weights[row + i] * v;
+					}
+				}
+			}
+		}
+	}
+}
@@ -62,6 +62,12 @@ public class EncogReadHelper {
 	 */
 	private EncogFileSection section;
 
+	/**
+	 * A section header that was read by readNextLine, and that will begin the
+	 * next section returned by readNextSectionHeader.
+	 */
+	private String pendingHeader;
+
 	/**
 	 * Construct the object.
 	 * @param is The input stream.
@@ -108,34 +114,7 @@ public class EncogReadHelper {
 
 					// now begin the new section
 					this.lines.clear();
-					String s = line.substring(1).trim();
-					if (!s.endsWith("]")) {
-						throw new PersistError("Invalid section: " + line);
-					}
-					s = s.substring(0, line.length() - 2);
-					final int idx = s.indexOf(':');
-					if (idx == -1) {
-						this.currentSectionName = s;
-						this.currentSubSectionName = "";
-					} else {
-						if (this.currentSectionName.length() < 1) {
-							throw new PersistError(
-									"Can't begin subsection when a section has not yet been defined: "
-											+ line);
-						}
-
-						final String newSection = s.substring(0, idx);
-						final String newSubSection = s.substring(idx + 1);
-
-						if (!newSection.equals(this.currentSectionName)) {
-							throw new PersistError("Can't begin subsection "
-									+ line
-									+ ", while we are still in the section: "
-									+ this.currentSectionName);
-						}
-
-						this.currentSubSectionName = newSubSection;
-					}
+					beginSection(line);
 					return this.section;
 				} else if (line.length() < 1) {
 					continue;
@@ -165,4 +144,119 @@ public class EncogReadHelper {
 		}
 
 	}
+
+	/**
+	 * Parse a section header line and make it the current section.
+	 * 
+	 * @param line
+	 *            The header line, for example [NEAT-POPULATION:GENOMES].
+	 */
+	private void beginSection(final String line) {
+		String s = line.substring(1).trim();
+		if (!s.endsWith("]")) {
+			throw new PersistError("Invalid section: " + line);
+		}
+		s = s.substring(0, s.length() - 1).trim();
+		final int idx = s.indexOf(':');
+		if (idx == -1) {
+			this.currentSectionName = s;
+			this.currentSubSectionName = "";
+		} else {
+			if (this.currentSectionName.length() < 1) {
+				throw new PersistError(
+						"Can't begin subsection when a section has not yet been defined: "
+								+ line);
+			}
+
+			final String newSection = s.substring(0, idx);
+			final String newSubSection = s.substring(idx + 1);
+
+			if (!newSection.equals(this.currentSectionName)) {
+				throw new PersistError("Can't begin subsection " + line
+						+ ", while we are still in the section: "
+						+ this.currentSectionName);
+			}
+
+			this.currentSubSectionName = newSubSection;
+		}
+	}
+
+	/**
+	 * Read the next line that holds content, skipping comments and blank
+	 * lines.
+	 * 
+	 * @return The trimmed line, or null at the end of the file.
+	 * @throws IOException
+	 *             If the file could not be read.
+	 */
+	private String readContentLine() throws IOException {
+		String line;
+		while ((line = this.reader.readLine()) != null) {
+			line = line.trim();
+			if (line.length() > 0 && !line.startsWith("//")) {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Streaming alternative to readNextSection. Advance to the next section
+	 * header and return it, without buffering the lines of the section. The
+	 * lines are then read one at a time with readNextLine. Any lines of the
+	 * previous section that were not read are skipped. The two styles of
+	 * reading should not be mixed on the same helper.
+	 * 
+	 * @return The next section, its line list is always empty. Null if the
+	 *         end of the file was reached.
+	 */
+	public final EncogFileSection readNextSectionHeader() {
+		try {
+			String line = this.pendingHeader;
+			this.pendingHeader = null;
+
+			while (line == null || !line.startsWith("[")) {
+				if (line != null && this.currentSectionName.length() < 1) {
+					throw new PersistError(
+							"Unknown command before first section: " + line);
+				}
+				line = readContentLine();
+				if (line == null) {
+					this.currentSectionName = "";
+					this.currentSubSectionName = "";
+					return null;
+				}
+			}
+
+			beginSection(line);
+			this.section = new EncogFileSection(this.currentSectionName,
+					this.currentSubSectionName);
+			return this.section;
+		} catch (final IOException ex) {
+			throw new PersistError(ex);
+		}
+	}
+
+	/**
+	 * Read the next line of the section most recently returned by
+	 * readNextSectionHeader.
+	 * 
+	 * @return The line, or null once the section has no more lines.
+	 */
+	public final String readNextLine() {
+		if (this.pendingHeader != null) {
+			return null;
+		}
+
+		try {
+			final String line = readContentLine();
+			if (line != null && line.startsWith("[")) {
+				this.pendingHeader = line;
+				return null;
+			}
+			return line;
+		} catch (final IOException ex) {
+			throw new PersistError(ex);
+		}
+	}
 }
@@ -110,6 +110,19 @@ public class EncogWriteHelper {
 		this.line.append(i);
 	}
 
+	/**
+	 * Add a column as a long. Identifiers are written this way, which avoids
+	 * sending them through the shared number formatter.
+	 * @param l The long to add.
+	 */
+	public final void addColumn(final long l) {
+		if (this.line.length() > 0) {
+			this.line.append(EncogWriteHelper.COMMA);
+		}
+
+		this.line.append(l);
+	}
+
 	/**
 	 * Add a column as a string.
 	 * @param str The string to add.
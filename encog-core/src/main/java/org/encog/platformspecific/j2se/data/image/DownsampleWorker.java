@@ -0,0 +1,189 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.platformspecific.j2se.data.image;
+
+import java.awt.Image;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.encog.neural.NeuralNetworkError;
+import org.encog.util.concurrency.EngineTask;
+import org.encog.util.downsample.RasterDownsample;
+
+/**
+ * Downsamples a range of images, each from either an Image or an image file,
+ * and normalizes the result. Each worker has its own RasterDownsample, so
+ * several workers can run at once.
+ */
+public class DownsampleWorker implements EngineTask {
+
+	/**
+	 * The downsampler for this worker.
+	 */
+	private final RasterDownsample downsampler;
+
+	/**
+	 * The images, each an Image or a File.
+	 */
+	private final Object[] sources;
+
+	/**
+	 * The downsampled images, in the same order as the sources.
+	 */
+	private final double[][] results;
+
+	/**
+	 * The first image to downsample.
+	 */
+	private final int low;
+
+	/**
+	 * One past the last image to downsample.
+	 */
+	private final int high;
+
+	/**
+	 * Should the bounds be found and cropped.
+	 */
+	private final boolean findBounds;
+
+	/**
+	 * The height to downsample to.
+	 */
+	private final int height;
+
+	/**
+	 * The width to downsample to.
+	 */
+	private final int width;
+
+	/**
+	 * The high value to normalize to.
+	 */
+	private final double hi;
+
+	/**
+	 * The low value to normalize to.
+	 */
+	private final double lo;
+
+	/**
+	 * The error that stopped the worker, if any.
+	 */
+	private RuntimeException error;
+
+	/**
+	 * Construct the worker.
+	 * 
+	 * @param theDownsampler
+	 *            The downsampler for this worker.
+	 * @param theSources
+	 *            The images, each an Image or a File.
+	 * @param theResults
+	 *            The downsampled images, in the same order as the sources.
+	 * @param theLow
+	 *            The first image to downsample.
+	 * @param theHigh
+	 *            One past the last image to downsample.
+	 * @param theFindBounds
+	 *            Should the bounds be found and cropped.
+	 * @param theHeight
+	 *            The height to downsample to.
+	 * @param theWidth
+	 *            The width to downsample to.
+	 * @param theHi
+	 *            The high value to normalize to.
+	 * @param theLo
+	 *            The low value to normalize to.
+	 */
+	public DownsampleWorker(final RasterDownsample theDownsampler,
+			final Object[] theSources, final double[][] theResults,
+			final int theLow, final int theHigh, final boolean theFindBounds,
+			final int theHeight, final int theWidth, final double theHi,
+			final double theLo) {
+		this.downsampler = theDownsampler;
+		this.sources = theSources;
+		this.results = theResults;
+		this.low = theLow;
+		this.high = theHigh;
+		this.findBounds = theFindBounds;
+		this.height = theHeight;
+		this.width = theWidth;
+		this.hi = theHi;
+		this.lo = theLo;
+	}
+
+	/**
+	 * @return The error that stopped the worker, or null.
+	 */
+	public final RuntimeException getError() {
+		return this.error;
+	}
+
+	/**
+	 * Load an image.
+	 * 
+	 * @param source
+	 *            An Image or a File.
+	 * @return The image.
+	 */
+	private Image load(final Object source) {
+		if (source instanceof Image) {
+			return (Image) source;
+		}
+		final File file = (File) source;
+		try {
+			final Image image = ImageIO.read(file);
+			if (image == null) {
+				throw new NeuralNetworkError("Not a readable image: "
+						+ file.getPath());
+			}
+			return image;
+		} catch (final IOException e) {
+			throw new NeuralNetworkError(e);
+		}
+	}
+
+	/**
+	 * Downsample the range.
+	 */
+	public final void run() {
+		try {
+			for (int i = this.low; i < this.high; i++) {
+				final double[] sample = this.downsampler.downSample(
+						load(this.sources[i]), this.height, this.width,
+						this.findBounds);
+				for (int j = 0; j < sample.length; j++) {
+					sample[j] = (sample[j] / 255) * (this.hi - this.lo)
+							+ this.lo;
+				}
+				this.results[i] = sample;
+			}
+		} catch (final RuntimeException ex) {
+			this.error = ex;
+		}
+	}
+}
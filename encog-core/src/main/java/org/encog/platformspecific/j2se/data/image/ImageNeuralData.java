@@ -27,6 +27,9 @@ import java.awt.Image;
 
 import org.encog.ml.data.basic.BasicMLData;
 import org.encog.util.downsample.Downsample;
+import org.encog.util.downsample.RGBDownsample;
+import org.encog.util.downsample.RasterDownsample;
+import org.encog.util.downsample.SimpleIntensityDownsample;
 
 /**
  * An extension of the BasicNeuralData class that is designed to hold images for
@@ -66,6 +69,10 @@ public class ImageNeuralData extends BasicMLData {
 	 * Downsample, and copy, the image contents into the data of this object.
 	 * Calling this method has no effect on the image, as the same image can be
 	 * downsampled multiple times to different resolutions.
+	 * 
+	 * If the downsampler is a RGBDownsample or a SimpleIntensityDownsample,
+	 * the image is downsampled with a RasterDownsample, so that the result is
+	 * the same as ImageNeuralDataSet.downsample gives for training.
 	 *
 	 * @param downsampler
 	 *            The downsampler object to use.
@@ -83,11 +90,19 @@ public class ImageNeuralData extends BasicMLData {
 	public final void downsample(final Downsample downsampler,
 			final boolean findBounds, final int height, final int width,
 			final double hi, final double lo) {
-		if (findBounds) {
-			downsampler.findBounds();
+		final Class<?> type = downsampler.getClass();
+		final double[] sample;
+		if (type == RGBDownsample.class
+				|| type == SimpleIntensityDownsample.class) {
+			sample = new RasterDownsample(
+					type == SimpleIntensityDownsample.class).downSample(
+					this.image, height, width, findBounds);
+		} else {
+			if (findBounds) {
+				downsampler.findBounds();
+			}
+			sample = downsampler.downSample(this.image, height, width);
 		}
-		final double[] sample = downsampler.downSample(this.image, height,
-				width);
 
 		for (int i = 0; i < sample.length; i++) {
 			
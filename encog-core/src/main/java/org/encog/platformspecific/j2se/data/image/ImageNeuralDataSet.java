@@ -27,6 +27,8 @@ import org.encog.ml.data.MLDataPair;
 import org.encog.ml.data.basic.BasicMLDataSet;
 import org.encog.neural.NeuralNetworkError;
 import org.encog.util.downsample.Downsample;
+import org.encog.util.downsample.RGBDownsample;
+import org.encog.util.downsample.SimpleIntensityDownsample;
 
 /**
  * Store a collection of images for training with a neural network. This class
@@ -79,6 +81,12 @@ public class ImageNeuralDataSet extends BasicMLDataSet {
 	 */
 	private final double lo;
 
+	/**
+	 * The number of threads to downsample with, zero for one for each
+	 * processor.
+	 */
+	private int threadCount;
+
 	/**
 	 * Construct this class with the specified downsampler.
 	 * 
@@ -103,7 +111,10 @@ public class ImageNeuralDataSet extends BasicMLDataSet {
 	}
 
 	/**
-	 * Downsample all images and generate training data.
+	 * Downsample all images and generate training data. If the downsampler
+	 * is a RGBDownsample or a SimpleIntensityDownsample, the images are
+	 * downsampled in parallel from their pixels, with a RasterDownsample for
+	 * each thread. Any other downsampler is used one image at a time.
 	 * 
 	 * @param theHeight
 	 *            The height to downsample to.
@@ -114,17 +125,38 @@ public class ImageNeuralDataSet extends BasicMLDataSet {
 		this.height = theHeight;
 		this.width = theWidth;
 
+		final ImageNeuralData[] images = new ImageNeuralData[getData().size()];
+		int index = 0;
 		for (final MLDataPair pair : this) {
 			if (!(pair.getInput() instanceof ImageNeuralData)) {
 				throw new NeuralNetworkError(
 						"Invalid class type found in ImageNeuralDataSet, only "
 								+ "ImageNeuralData items are allowed.");
 			}
+			images[index++] = (ImageNeuralData) pair.getInput();
+		}
 
-			final ImageNeuralData input = (ImageNeuralData) pair.getInput();
-			input.downsample(this.downsampler, this.findBounds, height, width,
-					this.hi, this.lo);
+		final Class<?> type = this.downsampler.getClass();
+		if (type != RGBDownsample.class
+				&& type != SimpleIntensityDownsample.class) {
+			for (final ImageNeuralData input : images) {
+				input.downsample(this.downsampler, this.findBounds, height,
+						width, this.hi, this.lo);
+			}
+			return;
+		}
 
+		final ParallelImageDownsample parallel = new ParallelImageDownsample(
+				type == SimpleIntensityDownsample.class, this.findBounds,
+				height, width, this.hi, this.lo);
+		parallel.setThreadCount(this.threadCount);
+		final Object[] sources = new Object[images.length];
+		for (int i = 0; i < images.length; i++) {
+			sources[i] = images[i].getImage();
+		}
+		final double[][] results = parallel.process(sources);
+		for (int i = 0; i < images.length; i++) {
+			images[i].setData(results[i]);
 		}
 	}
 
@@ -141,4 +173,22 @@ public class ImageNeuralDataSet extends BasicMLDataSet {
 	public final int getWidth() {
 		return this.width;
 	}
+
+	/**
+	 * @return The number of threads to downsample with, zero for one for
+	 *         each processor.
+	 */
+	public final int getThreadCount() {
+		return this.threadCount;
+	}
+
+	/**
+	 * Set the number of threads to downsample with.
+	 * 
+	 * @param theThreadCount
+	 *            The number of threads, zero for one for each processor.
+	 */
+	public final void setThreadCount(final int theThreadCount) {
+		this.threadCount = theThreadCount;
+	}
 }
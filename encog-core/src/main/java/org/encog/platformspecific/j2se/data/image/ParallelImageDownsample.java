@@ -0,0 +1,280 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.platformspecific.j2se.data.image;
+
+import java.io.File;
+import java.util.List;
+
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.neural.NeuralNetworkError;
+import org.encog.util.concurrency.EngineConcurrency;
+import org.encog.util.concurrency.TaskGroup;
+import org.encog.util.downsample.RasterDownsample;
+
+/**
+ * Downsamples many images at once, on the Encog thread pool. The images can
+ * be given as Image objects, or as image files that are only loaded when they
+ * are downsampled. The results can be kept in memory, or written straight to
+ * an EGB file in batches, so very large image training sets never have to be
+ * held in memory.
+ */
+public class ParallelImageDownsample {
+
+	/**
+	 * The number of images loaded and downsampled at once when writing an
+	 * EGB file.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * True to average the colors into a single intensity.
+	 */
+	private final boolean intensity;
+
+	/**
+	 * Should the bounds be found and cropped.
+	 */
+	private final boolean findBounds;
+
+	/**
+	 * The height to downsample to.
+	 */
+	private final int height;
+
+	/**
+	 * The width to downsample to.
+	 */
+	private final int width;
+
+	/**
+	 * The high value to normalize to.
+	 */
+	private final double hi;
+
+	/**
+	 * The low value to normalize to.
+	 */
+	private final double lo;
+
+	/**
+	 * The number of threads to use, zero for one for each processor.
+	 */
+	private int threadCount;
+
+	/**
+	 * The number of images to process at once when writing an EGB file.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Construct the object.
+	 * 
+	 * @param theIntensity
+	 *            True for one intensity value for each region, false for the
+	 *            red, green and blue values.
+	 * @param theFindBounds
+	 *            Should the bounds be found and cropped.
+	 * @param theHeight
+	 *            The height to downsample to.
+	 * @param theWidth
+	 *            The width to downsample to.
+	 * @param theHi
+	 *            The high value to normalize to.
+	 * @param theLo
+	 *            The low value to normalize to.
+	 */
+	public ParallelImageDownsample(final boolean theIntensity,
+			final boolean theFindBounds, final int theHeight,
+			final int theWidth, final double theHi, final double theLo) {
+		this.intensity = theIntensity;
+		this.findBounds = theFindBounds;
+		this.height = theHeight;
+		this.width = theWidth;
+		this.hi = theHi;
+		this.lo = theLo;
+	}
+
+	/**
+	 * @return The number of images to process at once when writing an EGB
+	 *         file.
+	 */
+	public final int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * @return The number of values produced for each image.
+	 */
+	public final int getOutputSize() {
+		return this.height * this.width * (this.intensity ? 1 : 3);
+	}
+
+	/**
+	 * @return The number of threads to use, zero for one for each processor.
+	 */
+	public final int getThreadCount() {
+		return this.threadCount;
+	}
+
+	/**
+	 * Downsample images.
+	 * 
+	 * @param sources
+	 *            The images, each an Image or a File.
+	 * @return The downsampled and normalized images, in the same order.
+	 */
+	public final double[][] process(final Object[] sources) {
+		final double[][] results = new double[sources.length][];
+		process(sources, results, 0, sources.length);
+		return results;
+	}
+
+	/**
+	 * Downsample a range of images, split across the threads.
+	 * 
+	 * @param sources
+	 *            The images, each an Image or a File.
+	 * @param results
+	 *            The array to hold the results.
+	 * @param start
+	 *            The first image.
+	 * @param end
+	 *            One past the last image.
+	 */
+	private void process(final Object[] sources, final double[][] results,
+			final int start, final int end) {
+		final int count = end - start;
+		if (count == 0) {
+			return;
+		}
+		int threads = this.threadCount;
+		if (threads == 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		threads = Math.min(threads, count);
+
+		final DownsampleWorker[] workers = new DownsampleWorker[threads];
+		for (int i = 0; i < threads; i++) {
+			final int low = start + (int) ((long) count * i / threads);
+			final int high = start + (int) ((long) count * (i + 1) / threads);
+			workers[i] = new DownsampleWorker(new RasterDownsample(
+					this.intensity), sources, results, low, high,
+					this.findBounds, this.height, this.width, this.hi, this.lo);
+		}
+
+		if (threads == 1) {
+			workers[0].run();
+		} else {
+			final TaskGroup group = EngineConcurrency.getInstance()
+					.createTaskGroup();
+			for (final DownsampleWorker worker : workers) {
+				EngineConcurrency.getInstance().processTask(worker, group);
+			}
+			group.waitForComplete();
+		}
+
+		for (final DownsampleWorker worker : workers) {
+			if (worker.getError() != null) {
+				throw worker.getError();
+			}
+		}
+	}
+
+	/**
+	 * Downsample image files and write them to an EGB file. The images are
+	 * processed in batches, and each batch is written in order before the
+	 * next is loaded, so only one batch of images is in memory at once.
+	 * 
+	 * @param images
+	 *            The image files.
+	 * @param ideals
+	 *            The ideal values for each image, or null for an unsupervised
+	 *            training set.
+	 * @param egbFile
+	 *            The EGB file to create.
+	 */
+	public final void processToEGB(final List<File> images,
+			final List<double[]> ideals, final File egbFile) {
+		if (ideals != null && ideals.size() != images.size()) {
+			throw new NeuralNetworkError("There are " + images.size()
+					+ " images, but " + ideals.size() + " ideal values.");
+		}
+
+		final int idealSize = (ideals == null || ideals.size() == 0) ? 0
+				: ideals.get(0).length;
+		final Object[] sources = images.toArray();
+		final double[][] results = new double[sources.length][];
+
+		final BufferedNeuralDataSet set = new BufferedNeuralDataSet(egbFile);
+		set.beginLoad(getOutputSize(), idealSize);
+		try {
+			for (int start = 0; start < sources.length; start += this.batchSize) {
+				final int end = Math.min(sources.length, start
+						+ this.batchSize);
+				process(sources, results, start, end);
+				for (int i = start; i < end; i++) {
+					if (ideals == null) {
+						set.add(new BasicMLData(results[i]));
+					} else {
+						set.add(new BasicMLData(results[i]), new BasicMLData(
+								ideals.get(i)));
+					}
+					// let the batch be collected
+					results[i] = null;
+				}
+			}
+		} finally {
+			set.endLoad();
+			set.close();
+		}
+	}
+
+	/**
+	 * Set the number of images to process at once when writing an EGB file.
+	 * Each thread needs several images from a batch to keep busy.
+	 * 
+	 * @param theBatchSize
+	 *            The batch size.
+	 */
+	public final void setBatchSize(final int theBatchSize) {
+		if (theBatchSize < 1) {
+			throw new NeuralNetworkError("Batch size must be at least 1.");
+		}
+		this.batchSize = theBatchSize;
+	}
+
+	/**
+	 * Set the number of threads to use.
+	 * 
+	 * @param theThreadCount
+	 *            The number of threads, zero for one for each processor.
+	 */
+	public final void setThreadCount(final int theThreadCount) {
+		if (theThreadCount < 0) {
+			throw new NeuralNetworkError("Thread count must not be negative.");
+		}
+		this.threadCount = theThreadCount;
+	}
+}
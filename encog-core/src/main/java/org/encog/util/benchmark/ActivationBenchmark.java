@@ -0,0 +1,188 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.util.benchmark;
+
+import java.util.Random;
+
+import org.encog.StatusReportable;
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.engine.network.activation.ActivationGaussian;
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.engine.network.activation.ActivationSoftMax;
+import org.encog.engine.network.activation.ActivationTANH;
+import org.encog.engine.network.activation.FastActivation;
+import org.encog.util.Format;
+
+/**
+ * Compare the exact activation functions with their fast versions. Each
+ * function is applied to a wide layer for a fixed amount of time, and the
+ * number of layers processed is reported, along with the largest difference
+ * between the exact and fast outputs.
+ */
+public class ActivationBenchmark {
+
+	/**
+	 * The width of the layer to activate.
+	 */
+	public static final int LAYER_SIZE = 1024;
+
+	/**
+	 * The default time to run each function for, in milliseconds.
+	 */
+	public static final int DEFAULT_MILIS = 2 * Evaluate.MILIS;
+
+	/**
+	 * Report progress.
+	 */
+	private final StatusReportable report;
+
+	/**
+	 * The time to run each function for, in milliseconds.
+	 */
+	private final int milis;
+
+	/**
+	 * The input values, the same for every function.
+	 */
+	private final double[] input = new double[ActivationBenchmark.LAYER_SIZE];
+
+	/**
+	 * Construct the benchmark.
+	 * 
+	 * @param theReport
+	 *            The object to report progress to.
+	 * @param theMilis
+	 *            The time to run each function for, in milliseconds.
+	 */
+	public ActivationBenchmark(final StatusReportable theReport,
+			final int theMilis) {
+		this.report = theReport;
+		this.milis = theMilis;
+
+		final Random rnd = new Random(1000);
+		for (int i = 0; i < this.input.length; i++) {
+			this.input[i] = (rnd.nextDouble() * 20.0) - 10.0;
+		}
+	}
+
+	/**
+	 * Construct the benchmark with the default time.
+	 * 
+	 * @param theReport
+	 *            The object to report progress to.
+	 */
+	public ActivationBenchmark(final StatusReportable theReport) {
+		this(theReport, ActivationBenchmark.DEFAULT_MILIS);
+	}
+
+	/**
+	 * Determine how many times a layer can be activated in the time allowed.
+	 * 
+	 * @param af
+	 *            The activation function.
+	 * @return The number of layers activated.
+	 */
+	public final int evaluate(final ActivationFunction af) {
+		final double[] layer = new double[this.input.length];
+		final long stop = System.currentTimeMillis() + this.milis;
+
+		int iterations = 0;
+		while (System.currentTimeMillis() < stop) {
+			// check the time every 100 layers, so the clock is not timed
+			for (int i = 0; i < 100; i++) {
+				System.arraycopy(this.input, 0, layer, 0, layer.length);
+				af.activationFunction(layer, 0, layer.length);
+			}
+			iterations += 100;
+		}
+		return iterations;
+	}
+
+	/**
+	 * Determine the largest difference between two activation functions.
+	 * 
+	 * @param exact
+	 *            The exact activation function.
+	 * @param fast
+	 *            The fast activation function.
+	 * @return The largest absolute difference.
+	 */
+	public final double maxError(final ActivationFunction exact,
+			final ActivationFunction fast) {
+		final double[] a = this.input.clone();
+		final double[] b = this.input.clone();
+		exact.activationFunction(a, 0, a.length);
+		fast.activationFunction(b, 0, b.length);
+
+		double result = 0;
+		for (int i = 0; i < a.length; i++) {
+			result = Math.max(result, Math.abs(a[i] - b[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Run the benchmark.
+	 * 
+	 * @return A report of the results.
+	 */
+	public final String process() {
+		final ActivationFunction[] exact = { new ActivationSigmoid(),
+				new ActivationTANH(), new ActivationSoftMax(),
+				new ActivationGaussian(0, 1, 1) };
+
+		final StringBuilder result = new StringBuilder();
+
+		for (int i = 0; i < exact.length; i++) {
+			final ActivationFunction fast = FastActivation.toFast(exact[i]);
+			final String name = exact[i].getClass().getSimpleName();
+
+			// warm up both, so the JIT has compiled them before timing
+			evaluate(exact[i]);
+			evaluate(fast);
+
+			final int exactScore = evaluate(exact[i]);
+			final int fastScore = evaluate(fast);
+			final double error = maxError(exact[i], fast);
+
+			final StringBuilder line = new StringBuilder();
+			line.append(name);
+			line.append(": exact=");
+			line.append(Format.formatInteger(exactScore));
+			line.append(", fast=");
+			line.append(Format.formatInteger(fastScore));
+			line.append(", speedup=");
+			line.append(Format.formatDouble((double) fastScore
+					/ Math.max(1, exactScore), 2));
+			line.append(", max error=");
+			line.append(error);
+
+			this.report.report(exact.length, i + 1, line.toString());
+			result.append(line);
+			result.append('\n');
+		}
+
+		return result.toString();
+	}
+}
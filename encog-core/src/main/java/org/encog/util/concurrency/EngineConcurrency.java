@@ -23,9 +23,13 @@
  */
 package org.encog.util.concurrency;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.encog.EncogError;
 
@@ -34,20 +38,38 @@ import org.encog.EncogError;
  * concurrency. It is used by other classes inside of Encog to allow tasks to be
  * executed efficiently on multicore machines.
  * 
+ * A single shared instance is available through getInstance. Trainers that
+ * should not compete with other work for the shared pool can be given their
+ * own instance, either with a private pool of a chosen size or wrapping an
+ * executor supplied by the application. Errors thrown by tasks that belong
+ * to a task group are kept with that group, so one job never sees another
+ * job's errors.
+ * 
  * @author jheaton
  * 
  */
 public class EngineConcurrency {
 
+	/**
+	 * The system property that can be used to override the default number of
+	 * pool threads.
+	 */
+	public static final String PROPERTY_THREADS = "encog.threads";
+
 	/**
 	 * Singleton instance.
 	 */
 	private static EngineConcurrency instance;
 
+	/**
+	 * Used to number the pools, for thread names.
+	 */
+	private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
 	/**
 	 * @return The instance to the singleton.
 	 */
-	public static EngineConcurrency getInstance() {
+	public static synchronized EngineConcurrency getInstance() {
 		if (EngineConcurrency.instance == null) {
 			EngineConcurrency.instance = new EngineConcurrency();
 		}
@@ -55,8 +77,55 @@ public class EngineConcurrency {
 	}
 
 	/**
-	 * An error that was caught in one of the threads. Will be thrown by the
-	 * main thread.
+	 * Determine the default number of pool threads. This is the number of
+	 * processors available to the JVM, which honors any CPU set or container
+	 * limit the process runs under, plus one to cover threads that are
+	 * briefly blocked. The encog.threads system property overrides this.
+	 * 
+	 * @return The default number of threads.
+	 */
+	public static int getDefaultThreadCount() {
+		final String str = System.getProperty(
+				EngineConcurrency.PROPERTY_THREADS);
+		if (str != null) {
+			try {
+				final int result = Integer.parseInt(str.trim());
+				if (result > 0) {
+					return result;
+				}
+			} catch (final NumberFormatException e) {
+				// fall through to the processor count
+			}
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (threads > 1) {
+			threads++;
+		}
+		return threads;
+	}
+
+	/**
+	 * Create an executor suited to I/O bound jobs. On a JVM that supports
+	 * virtual threads, each task gets its own virtual thread. Otherwise a
+	 * cached pool of daemon threads is used.
+	 * 
+	 * @return The executor.
+	 */
+	public static ExecutorService createIOExecutor() {
+		try {
+			final Method method = Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (final Exception e) {
+			return Executors.newCachedThreadPool(
+					new EngineThreadFactory(true));
+		}
+	}
+
+	/**
+	 * An error that was caught in one of the threads, for a task that was not
+	 * part of a task group. Will be thrown by the main thread.
 	 */
 	private Throwable threadError;
 
@@ -69,27 +138,114 @@ public class EngineConcurrency {
 	/**
 	 * The executor service we are using.
 	 */
-	private ExecutorService executor;
+	private volatile ExecutorService executor;
+
+	/**
+	 * True if this object created the executor, and so should shut it down.
+	 */
+	private boolean ownsExecutor;
+
+	/**
+	 * The number of threads in the pool, or zero if unknown.
+	 */
+	private int threadCount;
+
+	/**
+	 * The number of pooled tasks that have finished running.
+	 */
+	private final AtomicLong taskCount = new AtomicLong();
+
+	/**
+	 * The total time, in nanoseconds, that pooled tasks spent running.
+	 */
+	private final AtomicLong taskNanos = new AtomicLong();
+
+	/**
+	 * The total time, in nanoseconds, that pooled tasks spent queued before a
+	 * pool thread picked them up.
+	 */
+	private final AtomicLong queueNanos = new AtomicLong();
 
 	/**
-	 * Construct a concurrency object.
+	 * Construct a concurrency object with the default number of threads.
 	 */
 	public EngineConcurrency() {
-		Runtime runtime = Runtime.getRuntime();        
-        int threads = runtime.availableProcessors();
-        if( threads>1 )
-        	threads++;
-		this.executor = Executors.newFixedThreadPool(threads);
+		this(EngineConcurrency.getDefaultThreadCount());
 	}
-	
-	public void setThreadCount(int t) {
-		this.executor.shutdown();
-		this.executor = Executors.newFixedThreadPool(t);
+
+	/**
+	 * Construct a concurrency object with its own pool.
+	 * 
+	 * @param threads
+	 *            The number of pool threads.
+	 */
+	public EngineConcurrency(final int threads) {
+		createPool(threads);
+	}
+
+	/**
+	 * Construct a concurrency object that runs its tasks on an executor
+	 * supplied by the caller. The executor is not shut down by this object.
+	 * 
+	 * @param theExecutor
+	 *            The executor to use.
+	 */
+	public EngineConcurrency(final ExecutorService theExecutor) {
+		this.executor = theExecutor;
+		this.ownsExecutor = false;
+		this.threadCount = 0;
+	}
+
+	/**
+	 * Create a fixed pool owned by this object.
+	 * 
+	 * @param threads
+	 *            The number of threads.
+	 */
+	private void createPool(final int threads) {
+		if (threads < 1) {
+			throw new EncogError("Thread count must be at least one.");
+		}
+		this.executor = Executors.newFixedThreadPool(threads,
+				new EngineThreadFactory(false));
+		this.ownsExecutor = true;
+		this.threadCount = threads;
+	}
+
+	/**
+	 * Replace the pool with a new pool of the specified size. A pool that was
+	 * supplied by the caller is left running.
+	 * 
+	 * @param t
+	 *            The number of threads.
+	 */
+	public synchronized void setThreadCount(final int t) {
+		if (this.executor != null && this.ownsExecutor) {
+			this.executor.shutdown();
+		}
+		createPool(t);
+	}
+
+	/**
+	 * @return The number of pool threads, or zero if the executor was
+	 *         supplied by the caller and its size is unknown.
+	 */
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+
+	/**
+	 * @return The executor that tasks are run on, or null if the pool has
+	 *         been shut down and tasks run on the calling thread.
+	 */
+	public ExecutorService getExecutor() {
+		return this.executor;
 	}
 
 	/**
 	 * Check to see if one of the threads has thrown an error. If so, then throw
-	 * that error.
+	 * that error. Only errors from tasks without a task group are reported
+	 * here, errors from grouped tasks are thrown by the group.
 	 */
 	public void checkError() {
 		if (this.threadError != null) {
@@ -128,20 +284,26 @@ public class EngineConcurrency {
 	 * @param group The task group.
 	 */
 	public void processTask(final EngineTask task, final TaskGroup group) {
-		if (this.executor == null) {
+		final ExecutorService exec = this.executor;
+		if (exec == null) {
 			task.run();
 		} else {
 			if (this.threadError != null) {
-				final Throwable t = this.threadError;
-				this.threadError = null;
-				throw new EncogError(t);
+				final Throwable t;
+				synchronized (this) {
+					t = this.threadError;
+					this.threadError = null;
+				}
+				if (t != null) {
+					throw new EncogError(t);
+				}
 			}
 
-			final PoolItem item = new PoolItem(task, group);
+			final PoolItem item = new PoolItem(this, task, group);
 			if (group != null) {
 				group.taskStarting();
 			}
-			this.executor.execute(item);
+			exec.execute(item);
 		}
 	}
 
@@ -160,20 +322,120 @@ public class EngineConcurrency {
 	}
 
 	/**
-	 * Wait for all threads in the pool to complete.
+	 * Record the timing of a pooled task that has just finished. Called by
+	 * the pool threads.
+	 * 
+	 * @param queued
+	 *            How long the task waited in the queue, in nanoseconds.
+	 * @param running
+	 *            How long the task ran, in nanoseconds.
+	 */
+	void recordTask(final long queued, final long running) {
+		this.taskCount.incrementAndGet();
+		this.queueNanos.addAndGet(queued);
+		this.taskNanos.addAndGet(running);
+	}
+
+	/**
+	 * @return The number of pooled tasks that have finished since the last
+	 *         reset.
+	 */
+	public long getTaskCount() {
+		return this.taskCount.get();
+	}
+
+	/**
+	 * @return The total time, in nanoseconds, that pooled tasks have spent
+	 *         running since the last reset.
+	 */
+	public long getTaskNanos() {
+		return this.taskNanos.get();
+	}
+
+	/**
+	 * @return The total time, in nanoseconds, that pooled tasks have spent
+	 *         waiting for a pool thread since the last reset. A large value
+	 *         relative to the task time means the pool is oversubscribed.
+	 */
+	public long getQueueNanos() {
+		return this.queueNanos.get();
+	}
+
+	/**
+	 * Reset the task statistics.
+	 */
+	public void resetStatistics() {
+		this.taskCount.set(0);
+		this.taskNanos.set(0);
+		this.queueNanos.set(0);
+	}
+
+	/**
+	 * Wait for all threads in the pool to complete. Once shut down, tasks are
+	 * run on the calling thread. An executor supplied by the caller is only
+	 * detached, not shut down.
 	 * 
 	 * @param timeout
 	 *            How long to wait for all threads to complete.
 	 */
 	public void shutdown(final long timeout) {
-		if (this.executor != null) {
+		final ExecutorService exec;
+		synchronized (this) {
+			exec = this.executor;
+			this.executor = null;
+		}
+		if (exec != null && this.ownsExecutor) {
 			try {
-				this.executor.shutdown();
-				this.executor.awaitTermination(timeout, TimeUnit.SECONDS);
-				this.executor = null;
+				exec.shutdown();
+				exec.awaitTermination(timeout, TimeUnit.SECONDS);
 			} catch (final InterruptedException e) {
 				throw new EncogError(e);
 			}
 		}
 	}
+
+	/**
+	 * Creates named pool threads, so that the pool a thread belongs to can be
+	 * seen in a thread dump or profiler.
+	 */
+	private static class EngineThreadFactory implements ThreadFactory {
+
+		/**
+		 * The prefix for thread names.
+		 */
+		private final String prefix;
+
+		/**
+		 * The number of the next thread.
+		 */
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		/**
+		 * Should the threads be daemon threads.
+		 */
+		private final boolean daemon;
+
+		/**
+		 * Construct the factory.
+		 * 
+		 * @param theDaemon
+		 *            Should the threads be daemon threads.
+		 */
+		public EngineThreadFactory(final boolean theDaemon) {
+			this.prefix = "encog-pool-" + POOL_NUMBER.incrementAndGet()
+					+ "-thread-";
+			this.daemon = theDaemon;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread result = new Thread(r, this.prefix
+					+ this.threadNumber.incrementAndGet());
+			result.setDaemon(this.daemon);
+			return result;
+		}
+	}
 }
@@ -38,6 +38,16 @@ public class PoolItem implements Runnable {
 	 */
 	private final TaskGroup group;
 
+	/**
+	 * The concurrency object that queued this item.
+	 */
+	private final EngineConcurrency owner;
+
+	/**
+	 * The time this item was created, used to measure time spent queued.
+	 */
+	private final long created;
+
 	/**
 	 * Create a pool item.
 	 * 
@@ -47,20 +57,45 @@ public class PoolItem implements Runnable {
 	 *            The group this task belongs to.
 	 */
 	public PoolItem(final EngineTask task, final TaskGroup group) {
+		this(EngineConcurrency.getInstance(), task, group);
+	}
+
+	/**
+	 * Create a pool item.
+	 * 
+	 * @param theOwner
+	 *            The concurrency object that queued this item.
+	 * @param task
+	 *            The task to execute.
+	 * @param group
+	 *            The group this task belongs to.
+	 */
+	public PoolItem(final EngineConcurrency theOwner, final EngineTask task,
+			final TaskGroup group) {
+		this.owner = theOwner;
 		this.task = task;
 		this.group = group;
+		this.created = System.nanoTime();
 	}
 
 	/**
 	 * Run the task.
 	 */
 	public void run() {
+		final long start = System.nanoTime();
 		try {
 			this.task.run();
 		} catch (final Throwable t) {
-			EngineConcurrency.getInstance().registerError(t);
+			if (this.group != null) {
+				this.group.registerError(t);
+			} else {
+				this.owner.registerError(t);
+			}
 		} finally {
+			final long running = System.nanoTime() - start;
+			this.owner.recordTask(start - this.created, running);
 			if (this.group != null) {
+				this.group.recordTask(start - this.created, running);
 				this.group.taskStopping();
 			}
 		}
@@ -50,6 +50,22 @@ public class TaskGroup {
 	 */
 	private int completedTasks;
 
+	/**
+	 * The time, in nanoseconds, that tasks in this group spent running.
+	 */
+	private long taskNanos;
+
+	/**
+	 * The time, in nanoseconds, that tasks in this group spent queued before
+	 * a pool thread picked them up.
+	 */
+	private long queueNanos;
+
+	/**
+	 * The first error thrown by a task in this group.
+	 */
+	private Throwable error;
+
 	/**
 	 * The event used to sync waiting for tasks to stop.
 	 */
@@ -119,7 +135,92 @@ public class TaskGroup {
 	}
 
 	/**
-	 * Wait for all tasks to complete in this group.
+	 * Record the timing of a task in this group that has just finished.
+	 * 
+	 * @param queued
+	 *            How long the task waited in the queue, in nanoseconds.
+	 * @param running
+	 *            How long the task ran, in nanoseconds.
+	 */
+	void recordTask(final long queued, final long running) {
+		this.accessLock.lock();
+		try {
+			this.queueNanos += queued;
+			this.taskNanos += running;
+		} finally {
+			this.accessLock.unlock();
+		}
+	}
+
+	/**
+	 * @return The time, in nanoseconds, that tasks in this group spent
+	 *         running on the pool.
+	 */
+	public long getTaskNanos() {
+		this.accessLock.lock();
+		try {
+			return this.taskNanos;
+		} finally {
+			this.accessLock.unlock();
+		}
+	}
+
+	/**
+	 * @return The time, in nanoseconds, that tasks in this group spent
+	 *         waiting for a pool thread.
+	 */
+	public long getQueueNanos() {
+		this.accessLock.lock();
+		try {
+			return this.queueNanos;
+		} finally {
+			this.accessLock.unlock();
+		}
+	}
+
+	/**
+	 * Register an error thrown by one of the tasks in this group. Only the
+	 * first error is kept.
+	 * 
+	 * @param t
+	 *            The error.
+	 */
+	public void registerError(final Throwable t) {
+		this.accessLock.lock();
+		try {
+			if (this.error == null) {
+				this.error = t;
+			}
+		} finally {
+			this.accessLock.unlock();
+		}
+	}
+
+	/**
+	 * @return The first error thrown by a task in this group, or null if none.
+	 */
+	public Throwable getError() {
+		this.accessLock.lock();
+		try {
+			return this.error;
+		} finally {
+			this.accessLock.unlock();
+		}
+	}
+
+	/**
+	 * Throw the first error raised by a task in this group, if there was one.
+	 */
+	public void checkError() {
+		final Throwable t = getError();
+		if (t != null) {
+			throw new EncogError(t);
+		}
+	}
+
+	/**
+	 * Wait for all tasks to complete in this group. If any task threw an
+	 * error, the first such error is thrown once all tasks have finished.
 	 */
 	public void waitForComplete() {
 		while (!getNoTasks()) {
@@ -136,5 +237,6 @@ public class TaskGroup {
 				this.accessLock.unlock();
 			}
 		}
+		checkError();
 	}
 }
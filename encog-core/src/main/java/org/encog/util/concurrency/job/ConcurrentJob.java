@@ -23,12 +23,26 @@
  */
 package org.encog.util.concurrency.job;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+
+import org.encog.EncogError;
 import org.encog.StatusReportable;
 import org.encog.util.concurrency.EngineConcurrency;
 import org.encog.util.concurrency.TaskGroup;
 
 /**
  * This class forms the basis for a job that can be run concurrently.
+ * 
+ * Job units are requested lazily. At most {@link #getMaxInFlight()} units are
+ * submitted to the thread pool at once, and at most the same number are held
+ * in a look-ahead queue, where they are ordered by
+ * {@link #getUnitPriority(Object)}. This keeps memory flat for large sweeps.
+ * Once the job is stopped no further units are requested, and units that are
+ * already queued on the pool are skipped rather than performed.
  */
 public abstract class ConcurrentJob implements Runnable {
 
@@ -50,12 +64,49 @@ public abstract class ConcurrentJob implements Runnable {
 	/**
 	 * Flag to note that the job should stop.
 	 */
-	private boolean shouldStop = false;
+	private volatile boolean shouldStop = false;
 	
 	/**
 	 * Is the job running.
 	 */
-	private boolean running;
+	private volatile boolean running;
+
+	/**
+	 * The maximum number of units submitted at once, or zero to size from the
+	 * engine.
+	 */
+	private int maxInFlight;
+
+	/**
+	 * Permits for the units currently in flight.
+	 */
+	private Semaphore inFlight;
+
+	/**
+	 * The listeners that are told as each unit completes.
+	 */
+	private final List<JobUnitListener> listeners = 
+		new CopyOnWriteArrayList<JobUnitListener>();
+
+	/**
+	 * Orders pending units by descending priority, then by task number.
+	 */
+	private static final Comparator<JobUnitContext> PRIORITY_ORDER = 
+		new Comparator<JobUnitContext>() {
+		public int compare(final JobUnitContext a, final JobUnitContext b) {
+			final int c = Double.compare(b.getPriority(), a.getPriority());
+			if (c != 0) {
+				return c;
+			}
+			return a.getTaskNumber() < b.getTaskNumber() ? -1 : (a
+					.getTaskNumber() == b.getTaskNumber() ? 0 : 1);
+		}
+	};
+
+	/**
+	 * The concurrency object to use, or null for the shared instance.
+	 */
+	private EngineConcurrency engine;
 
 	/**
 	 * Construct a concurrent job.
@@ -84,32 +135,119 @@ public abstract class ConcurrentJob implements Runnable {
 	public abstract void performJobUnit(JobUnitContext context);
 
 	/**
-	 * Process the job.
+	 * Process the job. Units are pulled from {@link #requestNextTask()} only
+	 * as fast as the pool drains them.
 	 */
 	public void process() {
-		Object task;
-
 		this.running = true;
-		this.totalTasks = loadWorkload();
-		int currentTask = 0;
-		TaskGroup group = EngineConcurrency.getInstance().createTaskGroup();
-
-		while (((task = requestNextTask()) != null) && !shouldStop) {
-			currentTask++;
-			final JobUnitContext context = new JobUnitContext();
-			context.setJobUnit(task);
-			context.setOwner(this);
-			context.setTaskNumber(currentTask);
-
-			final JobUnitWorker worker = new JobUnitWorker(context);
-			EngineConcurrency.getInstance().processTask(worker, group);
+		try {
+			this.totalTasks = loadWorkload();
+			this.current = 1;
+			final EngineConcurrency engine = getEngine();
+			final TaskGroup group = engine.createTaskGroup();
+			final int limit = determineMaxInFlight(engine);
+			final PriorityQueue<JobUnitContext> pending = 
+				new PriorityQueue<JobUnitContext>(limit, PRIORITY_ORDER);
+			this.inFlight = new Semaphore(limit);
+			int currentTask = 0;
+			boolean exhausted = false;
+
+			try {
+				while (!this.shouldStop && (group.getError() == null)) {
+					// top up the look-ahead queue
+					while (!exhausted && (pending.size() < limit)) {
+						final Object task = requestNextTask();
+						if (task == null) {
+							exhausted = true;
+						} else {
+							currentTask++;
+							final JobUnitContext context = new JobUnitContext();
+							context.setJobUnit(task);
+							context.setOwner(this);
+							context.setTaskNumber(currentTask);
+							context.setPriority(getUnitPriority(task));
+							pending.add(context);
+						}
+					}
+
+					if (pending.isEmpty()) {
+						break;
+					}
+
+					this.inFlight.acquireUninterruptibly();
+					if (this.shouldStop) {
+						this.inFlight.release();
+						break;
+					}
+					engine.processTask(new JobUnitWorker(pending.poll()),
+							group);
+				}
+			} finally {
+				pending.clear();
+				group.waitForComplete();
+			}
+			engine.checkError();
+		} finally {
+			this.running = false;
 		}
+	}
 
-		group.waitForComplete();
-		this.running = false;
-		EngineConcurrency.getInstance().checkError();		
+	/**
+	 * Determine how many units may be in flight for this run.
+	 * 
+	 * @param engine
+	 *            The concurrency object that will run the units.
+	 * @return The in-flight limit, at least one.
+	 */
+	private int determineMaxInFlight(final EngineConcurrency engine) {
+		if (this.maxInFlight > 0) {
+			return this.maxInFlight;
+		}
+		int threads = engine.getThreadCount();
+		if (threads <= 0) {
+			threads = EngineConcurrency.getDefaultThreadCount();
+		}
+		return Math.max(1, threads * 2);
 	}
-	
+
+	/**
+	 * Run a single unit on a pool thread. The unit is skipped if the job has
+	 * been stopped since it was queued. The listeners are told of each unit
+	 * that is performed.
+	 * 
+	 * @param context
+	 *            The unit to run.
+	 */
+	final void runUnit(final JobUnitContext context) {
+		final Semaphore permits = this.inFlight;
+		try {
+			if (!this.shouldStop) {
+				performJobUnit(context);
+				for (final JobUnitListener listener : this.listeners) {
+					listener.jobUnitComplete(context);
+				}
+			}
+		} finally {
+			if (permits != null) {
+				permits.release();
+			}
+		}
+	}
+
+	/**
+	 * Get the priority of a unit returned by {@link #requestNextTask()}. Units
+	 * with a higher priority are submitted first among those in the
+	 * look-ahead queue; equal priorities keep the order they were requested
+	 * in. The default gives every unit the same priority.
+	 * 
+	 * @param unit
+	 *            The job unit.
+	 * @return The priority of the unit.
+	 */
+	protected double getUnitPriority(final Object unit) {
+		return 0;
+	}
+
 	public void processBackground() {
 		Thread t = new Thread(this);
 		t.start();
@@ -163,6 +301,68 @@ public abstract class ConcurrentJob implements Runnable {
 	public void setReport(StatusReportable r) {
 		this.report = r;		
 	}
-	
-	
+
+	/**
+	 * @return The maximum number of units submitted to the pool at once, or
+	 *         zero if this is twice the engine's thread count.
+	 */
+	public int getMaxInFlight() {
+		return this.maxInFlight;
+	}
+
+	/**
+	 * Set the maximum number of units submitted to the pool at once. The
+	 * look-ahead queue holds up to the same number of requested units.
+	 * 
+	 * @param theMaxInFlight
+	 *            The limit, or zero for twice the engine's thread count.
+	 */
+	public void setMaxInFlight(final int theMaxInFlight) {
+		if (theMaxInFlight < 0) {
+			throw new EncogError("The in-flight limit can not be negative.");
+		}
+		this.maxInFlight = theMaxInFlight;
+	}
+
+	/**
+	 * Add a listener that is told as each unit completes. Listeners are called
+	 * on the pool thread that performed the unit.
+	 * 
+	 * @param listener
+	 *            The listener to add.
+	 */
+	public void addListener(final JobUnitListener listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Remove a unit listener.
+	 * 
+	 * @param listener
+	 *            The listener to remove.
+	 */
+	public void removeListener(final JobUnitListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * @return The concurrency object used to run this job's units.
+	 */
+	public EngineConcurrency getEngine() {
+		if (this.engine == null) {
+			return EngineConcurrency.getInstance();
+		}
+		return this.engine;
+	}
+
+	/**
+	 * Set the concurrency object used to run this job's units. Giving each
+	 * job its own pool keeps one job from starving another.
+	 * 
+	 * @param theEngine
+	 *            The concurrency object, or null for the shared instance.
+	 */
+	public void setEngine(final EngineConcurrency theEngine) {
+		this.engine = theEngine;
+	}
 }
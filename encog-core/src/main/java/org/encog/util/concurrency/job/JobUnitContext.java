@@ -47,6 +47,16 @@ public class JobUnitContext {
 	 */
 	private int taskNumber;
 
+	/**
+	 * The priority the unit was scheduled with.
+	 */
+	private double priority;
+
+	/**
+	 * The result of the unit, as set by the job.
+	 */
+	private volatile Object result;
+
 	/**
 	 * @return The job unit.
 	 */
@@ -98,4 +108,38 @@ public class JobUnitContext {
 		this.taskNumber = taskNumber;
 	}
 
+	/**
+	 * @return The priority the unit was scheduled with.
+	 */
+	public double getPriority() {
+		return this.priority;
+	}
+
+	/**
+	 * Set the priority of this unit.
+	 * 
+	 * @param priority
+	 *            The priority, higher units are submitted first.
+	 */
+	public void setPriority(final double priority) {
+		this.priority = priority;
+	}
+
+	/**
+	 * @return The result of the unit, or null if the job does not set one.
+	 */
+	public Object getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Set the result of this unit, so that job listeners can stream it.
+	 * 
+	 * @param result
+	 *            The result.
+	 */
+	public void setResult(final Object result) {
+		this.result = result;
+	}
+
 }
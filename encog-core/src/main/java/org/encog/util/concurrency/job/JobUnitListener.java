@@ -0,0 +1,41 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.util.concurrency.job;
+
+/**
+ * Receives each job unit as soon as it has been performed, so that results can
+ * be consumed while a long job is still running.
+ */
+public interface JobUnitListener {
+
+	/**
+	 * Called on the pool thread that performed the unit. Implementations must
+	 * be thread safe.
+	 * 
+	 * @param context
+	 *            The context of the completed unit. The result is available
+	 *            from {@link JobUnitContext#getResult()}.
+	 */
+	void jobUnitComplete(JobUnitContext context);
+}
@@ -47,9 +47,9 @@ public class JobUnitWorker implements EngineTask {
 	}
 
 	/**
-	 * Run this job unit.
+	 * Run this job unit, unless the owning job has been stopped.
 	 */
 	public void run() {
-		this.context.getOwner().performJobUnit(this.context);
+		this.context.getOwner().runUnit(this.context);
 	}
 }
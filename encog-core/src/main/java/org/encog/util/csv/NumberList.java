@@ -36,7 +36,7 @@ public final class NumberList {
 	 * @param str The string to parse.
 	 * @return An array of doubles parsed from the string.
 	 */
-	public static synchronized double[] fromList(final CSVFormat format, final String str) {
+	public static double[] fromList(final CSVFormat format, final String str) {
 		// handle empty string
 		if( str.trim().length()==0 ) {
 			return new double[0];
@@ -119,7 +119,7 @@ public final class NumberList {
 		return result;
 	}
 
-	public static synchronized void toList(CSVFormat format, int precision,
+	public static void toList(CSVFormat format, int precision,
 			StringBuilder result, double[] data) {
 		result.setLength(0);
 		for (int i = 0; i < data.length; i++) {
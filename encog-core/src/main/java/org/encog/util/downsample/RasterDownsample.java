@@ -0,0 +1,329 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.util.downsample;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelGrabber;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+import org.encog.EncogError;
+import org.encog.util.ImageSize;
+
+/**
+ * Downsample an image from its pixels in a single pass. The pixels of a
+ * BufferedImage are read straight from its raster when it stores packed
+ * integer pixels, other images are read with a PixelGrabber. A summed area
+ * table, or integral image, is then built for each color, so that the total
+ * of any region is found from four values.
+ * 
+ * The regions and the averages are the same as RGBDownsample, and in
+ * intensity mode each value is the average of the three colors, as
+ * SimpleIntensityDownsample intends. Unlike those classes, this class keeps
+ * no state between images except a buffer that is reused, so one object is
+ * needed for each thread, but the bounds are found from the image being
+ * downsampled.
+ */
+public class RasterDownsample {
+
+	/**
+	 * The color of a pixel that findBounds treats as clear.
+	 */
+	public static final int CLEAR = 0xffffff;
+
+	/**
+	 * True to average the colors into a single intensity.
+	 */
+	private final boolean intensity;
+
+	/**
+	 * The integral image, reused between images.
+	 */
+	private long[] integral = new long[0];
+
+	/**
+	 * Construct the downsampler.
+	 * 
+	 * @param theIntensity
+	 *            True for one intensity value for each region, false for the
+	 *            red, green and blue values.
+	 */
+	public RasterDownsample(final boolean theIntensity) {
+		this.intensity = theIntensity;
+	}
+
+	/**
+	 * Read the pixels of an image as packed RGB integers, one row after
+	 * another.
+	 * 
+	 * @param image
+	 *            The image to read.
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 * @return The pixels.
+	 */
+	public static int[] readPixels(final Image image, final int width,
+			final int height) {
+		if (image instanceof BufferedImage) {
+			final BufferedImage buffered = (BufferedImage) image;
+			final int type = buffered.getType();
+			if ((type == BufferedImage.TYPE_INT_RGB 
+					|| type == BufferedImage.TYPE_INT_ARGB)
+					&& buffered.getRaster().getDataBuffer() 
+						instanceof DataBufferInt
+					&& buffered.getSampleModel() 
+						instanceof SinglePixelPackedSampleModel
+					&& buffered.getRaster().getSampleModelTranslateX() == 0
+					&& buffered.getRaster().getSampleModelTranslateY() == 0) {
+				final int[] data = ((DataBufferInt) buffered.getRaster()
+						.getDataBuffer()).getData();
+				final int stride = ((SinglePixelPackedSampleModel) buffered
+						.getSampleModel()).getScanlineStride();
+				final int offset = buffered.getRaster().getDataBuffer()
+						.getOffset();
+				if (stride == width && offset == 0) {
+					return data;
+				}
+				final int[] result = new int[width * height];
+				for (int y = 0; y < height; y++) {
+					System.arraycopy(data, offset + y * stride, result, y
+							* width, width);
+				}
+				return result;
+			}
+			return buffered.getRGB(0, 0, width, height, null, 0, width);
+		}
+
+		final PixelGrabber grabber = new PixelGrabber(image, 0, 0, width,
+				height, true);
+		try {
+			grabber.grabPixels();
+		} catch (final InterruptedException e) {
+			throw new EncogError(e);
+		}
+		return (int[]) grabber.getPixels();
+	}
+
+	/**
+	 * Downsample an image.
+	 * 
+	 * @param image
+	 *            The image to downsample.
+	 * @param height
+	 *            The height to downsample to.
+	 * @param width
+	 *            The width to downsample to.
+	 * @param findBounds
+	 *            True to crop the image to the pixels that are not white.
+	 * @return The downsampled image, with values from 0 to 255.
+	 */
+	public final double[] downSample(final Image image, final int height,
+			final int width, final boolean findBounds) {
+		final int imageWidth;
+		final int imageHeight;
+		if (image instanceof BufferedImage) {
+			imageWidth = ((BufferedImage) image).getWidth();
+			imageHeight = ((BufferedImage) image).getHeight();
+		} else {
+			final ImageSize size = new ImageSize(image);
+			imageWidth = size.getWidth();
+			imageHeight = size.getHeight();
+		}
+		final int[] pixels = readPixels(image, imageWidth, imageHeight);
+		return downSample(pixels, imageWidth, imageHeight, height, width,
+				findBounds);
+	}
+
+	/**
+	 * Downsample an image from its pixels.
+	 * 
+	 * @param pixels
+	 *            The pixels, as packed RGB integers, one row after another.
+	 * @param imageWidth
+	 *            The width of the image.
+	 * @param imageHeight
+	 *            The height of the image.
+	 * @param height
+	 *            The height to downsample to.
+	 * @param width
+	 *            The width to downsample to.
+	 * @param findBounds
+	 *            True to crop the image to the pixels that are not white.
+	 * @return The downsampled image, with values from 0 to 255.
+	 */
+	public final double[] downSample(final int[] pixels,
+			final int imageWidth, final int imageHeight, final int height,
+			final int width, final boolean findBounds) {
+		int left = 0;
+		int top = 0;
+		int right = imageWidth;
+		int bottom = imageHeight;
+
+		if (findBounds) {
+			int minX = imageWidth;
+			int maxX = -1;
+			int minY = imageHeight;
+			int maxY = -1;
+			for (int y = 0; y < imageHeight; y++) {
+				final int row = y * imageWidth;
+				for (int x = 0; x < imageWidth; x++) {
+					if ((pixels[row + x] & CLEAR) != CLEAR) {
+						minX = Math.min(minX, x);
+						maxX = Math.max(maxX, x);
+						minY = Math.min(minY, y);
+						maxY = y;
+					}
+				}
+			}
+			// an image that is all white is not cropped
+			if (maxX >= 0) {
+				left = minX;
+				top = minY;
+				right = maxX + 1;
+				bottom = maxY + 1;
+			}
+		}
+
+		final int boundsWidth = right - left;
+		final int boundsHeight = bottom - top;
+		buildIntegral(pixels, imageWidth, left, top, boundsWidth,
+				boundsHeight);
+
+		final double ratioX = (double) boundsWidth / (double) width;
+		final double ratioY = (double) boundsHeight / (double) height;
+		final int stride = (boundsWidth + 1) * 3;
+		final double[] result = new double[height * width
+				* (this.intensity ? 1 : 3)];
+
+		int index = 0;
+		for (int y = 0; y < height; y++) {
+			final int startY = (int) (y * ratioY);
+			final int endY = Math.min(boundsHeight,
+					Math.max(startY + 1, (int) (startY + ratioY)));
+			for (int x = 0; x < width; x++) {
+				final int startX = (int) (x * ratioX);
+				final int endX = Math.min(boundsWidth,
+						Math.max(startX + 1, (int) (startX + ratioX)));
+				final long total = (long) (endX - startX) * (endY - startY);
+
+				final int a = startY * stride + startX * 3;
+				final int b = startY * stride + endX * 3;
+				final int c = endY * stride + startX * 3;
+				final int d = endY * stride + endX * 3;
+				final long[] s = this.integral;
+				final long red = (s[d] - s[b] - s[c] + s[a]) / total;
+				final long green = (s[d + 1] - s[b + 1] - s[c + 1] + s[a + 1])
+						/ total;
+				final long blue = (s[d + 2] - s[b + 2] - s[c + 2] + s[a + 2])
+						/ total;
+
+				if (this.intensity) {
+					result[index++] = (red + green + blue) / 3;
+				} else {
+					result[index++] = red;
+					result[index++] = green;
+					result[index++] = blue;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Build the integral image of a region. Entry (y, x) holds the totals of
+	 * each color above and to the left of that point.
+	 * 
+	 * @param pixels
+	 *            The pixels.
+	 * @param imageWidth
+	 *            The width of the image.
+	 * @param left
+	 *            The left of the region.
+	 * @param top
+	 *            The top of the region.
+	 * @param boundsWidth
+	 *            The width of the region.
+	 * @param boundsHeight
+	 *            The height of the region.
+	 */
+	private void buildIntegral(final int[] pixels, final int imageWidth,
+			final int left, final int top, final int boundsWidth,
+			final int boundsHeight) {
+		final int stride = (boundsWidth + 1) * 3;
+		final int size = stride * (boundsHeight + 1);
+		if (this.integral.length < size) {
+			this.integral = new long[size];
+		}
+		final long[] s = this.integral;
+		for (int i = 0; i < stride; i++) {
+			s[i] = 0;
+		}
+
+		for (int y = 0; y < boundsHeight; y++) {
+			final int row = (y + 1) * stride;
+			final int above = y * stride;
+			final int source = (top + y) * imageWidth + left;
+			long red = 0;
+			long green = 0;
+			long blue = 0;
+			s[row] = 0;
+			s[row + 1] = 0;
+			s[row + 2] = 0;
+			for (int x = 0; x < boundsWidth; x++) {
+				final int pixel = pixels[source + x];
+				red += pixel >> 16 & 0xff;
+				green += pixel >> 8 & 0xff;
+				blue += pixel & 0xff;
+				final int i = (x + 1) * 3;
+				s[row + i] = s[above + i] + red;
+				s[row + i + 1] = s[above + i + 1] + green;
+				s[row + i + 2] = s[above + i + 2] + blue;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of values produced for an image.
+	 * 
+	 * @param height
+	 *            The height to downsample to.
+	 * @param width
+	 *            The width to downsample to.
+	 * @return The number of values.
+	 */
+	public final int getOutputSize(final int height, final int width) {
+		return height * width * (this.intensity ? 1 : 3);
+	}
+
+	/**
+	 * @return True if the colors are averaged into a single intensity.
+	 */
+	public final boolean isIntensity() {
+		return this.intensity;
+	}
+}
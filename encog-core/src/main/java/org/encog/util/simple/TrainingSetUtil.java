@@ -29,6 +29,7 @@ import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.basic.BasicMLData;
 import org.encog.ml.data.basic.BasicMLDataPair;
 import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.data.packed.PackedMLDataSet;
 import org.encog.util.EngineArray;
 import org.encog.util.ObjectPair;
 import org.encog.util.csv.CSVFormat;
@@ -75,6 +76,42 @@ public class TrainingSetUtil {
 		return result;
 	}
 
+	/**
+	 * Load a CSV file into a packed memory dataset. The packed dataset does
+	 * not create objects for each record, so this is better suited to very
+	 * large files than loadCSVTOMemory.
+	 * @param format The CSV format to use.
+	 * @param filename The filename to load.
+	 * @param headers True if there is a header line.
+	 * @param inputSize The input size.  Input always comes first in a file.
+	 * @param idealSize The ideal size, 0 for unsupervised.
+	 * @return A PackedMLDataSet that holds the contents of the CSV file.
+	 */
+	public static PackedMLDataSet loadCSVToPacked(CSVFormat format,
+			String filename, boolean headers, int inputSize, int idealSize) {
+		PackedMLDataSet result = new PackedMLDataSet(inputSize, idealSize);
+		ReadCSV csv = new ReadCSV(filename, headers, format);
+		MLData input = new BasicMLData(inputSize);
+		MLData ideal = idealSize > 0 ? new BasicMLData(idealSize) : null;
+
+		while (csv.next()) {
+			int index = 0;
+
+			for (int i = 0; i < inputSize; i++) {
+				input.setData(i, csv.getDouble(index++));
+			}
+
+			for (int i = 0; i < idealSize; i++) {
+				ideal.setData(i, csv.getDouble(index++));
+			}
+
+			result.add(input, ideal);
+		}
+		csv.close();
+
+		return result;
+	}
+
 	public static ObjectPair<double[][], double[][]> trainingToArray(
 			MLDataSet training) {
 		int length = (int)training.getRecordCount();
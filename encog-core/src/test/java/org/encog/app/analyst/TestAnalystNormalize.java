@@ -0,0 +1,117 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.analyst;
+
+import java.io.File;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.encog.app.analyst.csv.normalize.AnalystNormalizeCSV;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.util.TempDir;
+import org.encog.util.csv.CSVFormat;
+import org.encog.util.csv.ReadCSV;
+import org.encog.util.file.FileUtil;
+
+public class TestAnalystNormalize extends TestCase {
+	public final TempDir TEMP_DIR = new TempDir();
+
+	private EncogAnalyst loadAnalyst(File rawFile) {
+		File egaFile = TEMP_DIR.createFile("simple.ega");
+		FileUtil.copyResource("org/encog/data/simple.csv", rawFile);
+		FileUtil.copyResource("org/encog/data/simple-c.ega", egaFile);
+
+		EncogAnalyst analyst = new EncogAnalyst();
+		analyst.load(egaFile);
+		return analyst;
+	}
+
+	private AnalystNormalizeCSV createNorm(EncogAnalyst analyst, File rawFile,
+			int threads, int chunkSize) {
+		AnalystNormalizeCSV norm = new AnalystNormalizeCSV();
+		norm.setScript(analyst.getScript());
+		norm.analyze(rawFile, true, CSVFormat.ENGLISH, analyst);
+		norm.setOutputFormat(CSVFormat.ENGLISH);
+		norm.setProduceOutputHeaders(true);
+		norm.setThreadCount(threads);
+		norm.setChunkSize(chunkSize);
+		return norm;
+	}
+
+	public void testParallelMatchesSerial() throws Exception {
+		File rawFile = TEMP_DIR.createFile("simple.csv");
+		File serialFile = TEMP_DIR.createFile("simple_serial.csv");
+		File parallelFile = TEMP_DIR.createFile("simple_parallel.csv");
+		EncogAnalyst analyst = loadAnalyst(rawFile);
+
+		createNorm(analyst, rawFile, 1, 1000).normalize(serialFile);
+		createNorm(analyst, rawFile, 4, 2).normalize(parallelFile);
+
+		String serial = FileUtil.readFileAsString(serialFile);
+		String parallel = FileUtil.readFileAsString(parallelFile);
+		Assert.assertTrue(serial.length() > 0);
+		Assert.assertEquals(serial, parallel);
+	}
+
+	public void testNormalizeToEGB() throws Exception {
+		File rawFile = TEMP_DIR.createFile("simple.csv");
+		File csvFile = TEMP_DIR.createFile("simple_norm.csv");
+		File egbFile = TEMP_DIR.createFile("simple_norm.egb");
+		EncogAnalyst analyst = loadAnalyst(rawFile);
+
+		createNorm(analyst, rawFile, 1, 1000).normalize(csvFile);
+		createNorm(analyst, rawFile, 3, 5).normalizeToEGB(egbFile);
+
+		BufferedNeuralDataSet egb = new BufferedNeuralDataSet(egbFile);
+		Assert.assertEquals(3, egb.getInputSize());
+		Assert.assertEquals(2, egb.getIdealSize());
+
+		ReadCSV csv = new ReadCSV(csvFile.toString(), true, CSVFormat.ENGLISH);
+		int count = 0;
+		for (MLDataPair pair : egb) {
+			Assert.assertTrue(csv.next());
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals(csv.getDouble(i), pair.getInput()
+						.getData(i), 0.0001);
+			}
+			for (int i = 0; i < 2; i++) {
+				Assert.assertEquals(csv.getDouble(3 + i), pair.getIdeal()
+						.getData(i), 0.0001);
+			}
+			count++;
+		}
+		Assert.assertFalse(csv.next());
+		Assert.assertEquals(12, count);
+		csv.close();
+		egb.close();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		TEMP_DIR.dispose();
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.app.quant;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.encog.app.analyst.csv.basic.BaseCachedColumn;
+import org.encog.app.analyst.csv.basic.FileData;
+import org.encog.app.quant.indicators.Indicator;
+import org.encog.app.quant.indicators.MovingAverage;
+import org.encog.app.quant.indicators.StreamingIndicator;
+import org.encog.app.quant.indicators.StreamingIndicators;
+import org.encog.app.quant.indicators.StreamingMovingAverage;
+import org.encog.app.quant.indicators.predictive.BestClose;
+import org.encog.app.quant.indicators.predictive.BestReturn;
+import org.encog.app.quant.indicators.predictive.StreamingBestClose;
+import org.encog.app.quant.indicators.predictive.StreamingBestReturn;
+import org.encog.app.quant.util.BarBuffer;
+import org.encog.ml.data.MLData;
+import org.encog.ml.data.MLDataPair;
+
+public class TestStreamingIndicators extends TestCase {
+
+	private double[] generateCloses(int length) {
+		Random rnd = new Random(42);
+		double[] result = new double[length];
+		double price = 50;
+		for (int i = 0; i < length; i++) {
+			price += rnd.nextGaussian();
+			result[i] = price;
+		}
+		// make sure negative bases are covered
+		result[length / 2] = -3;
+		return result;
+	}
+
+	private double[] calculateBatch(Indicator indicator, double[] close) {
+		Map<String, BaseCachedColumn> data = new HashMap<String, BaseCachedColumn>();
+		BaseCachedColumn column = new BaseCachedColumn(FileData.CLOSE, true,
+				false);
+		column.allocate(close.length);
+		System.arraycopy(close, 0, column.getData(), 0, close.length);
+		data.put(FileData.CLOSE, column);
+		indicator.allocate(close.length);
+		indicator.calculate(data, close.length);
+		return indicator.getData();
+	}
+
+	private void checkStreaming(Indicator batch, StreamingIndicator stream,
+			double[] close) {
+		double[] expected = calculateBatch(batch, close);
+		int checked = 0;
+		for (int i = 0; i < close.length; i++) {
+			stream.update(close[i]);
+			if (stream.isReady()) {
+				int bar = i - stream.getDelay();
+				Assert.assertEquals(expected[bar], stream.getValue(), 0);
+				checked++;
+			}
+		}
+		Assert.assertEquals(close.length - stream.getPeriods()
+				+ (stream.getDelay() == 0 ? 1 : 0), checked);
+	}
+
+	private double bruteBestClose(double[] close, int i, int periods) {
+		double result = Double.MIN_VALUE;
+		for (int j = 1; j <= periods; j++) {
+			result = Math.max(close[i + j], result);
+		}
+		return result;
+	}
+
+	private double bruteBestReturn(double[] close, int i, int periods) {
+		double result = Double.MIN_VALUE;
+		for (int j = 1; j <= periods; j++) {
+			result = Math.max((close[i + j] - close[i]) / close[i], result);
+		}
+		return result;
+	}
+
+	public void testBatchPredictive() {
+		double[] close = generateCloses(500);
+		double[] bestClose = calculateBatch(new BestClose(7, true), close);
+		double[] bestReturn = calculateBatch(new BestReturn(7, true), close);
+		for (int i = 0; i < close.length - 7; i++) {
+			Assert.assertEquals(bruteBestClose(close, i, 7), bestClose[i], 0);
+			Assert.assertEquals(bruteBestReturn(close, i, 7), bestReturn[i],
+					0);
+		}
+	}
+
+	public void testStreamingMatchesBatch() {
+		double[] close = generateCloses(500);
+		checkStreaming(new MovingAverage(5, false),
+				new StreamingMovingAverage(5), close);
+		checkStreaming(new BestClose(4, true), new StreamingBestClose(4),
+				close);
+		checkStreaming(new BestReturn(4, true), new StreamingBestReturn(4),
+				close);
+	}
+
+	public void testBarBuffer() {
+		double[] close = generateCloses(200);
+		BarBuffer buffer = new BarBuffer(10);
+		for (int i = 0; i < close.length; i++) {
+			buffer.add(new double[] { close[i], -close[i] });
+			int count = Math.min(i + 1, 10);
+			Assert.assertEquals(count, buffer.size());
+
+			double total = 0;
+			double gain = 0;
+			double loss = 0;
+			for (int j = i - count + 1; j <= i; j++) {
+				total += close[j];
+				if (j > i - count + 1) {
+					double diff = close[j] - close[j - 1];
+					if (diff > 0) {
+						gain += diff;
+					} else {
+						loss -= diff;
+					}
+				}
+			}
+			Assert.assertEquals(total / count, buffer.average(0), 1e-9);
+			Assert.assertEquals(-total / count, buffer.average(1), 1e-9);
+			double divisor = Math.max(count - 1, 1);
+			Assert.assertEquals(gain / divisor, buffer.averageGain(0), 1e-9);
+			Assert.assertEquals(loss / divisor, buffer.averageLoss(0), 1e-9);
+			Assert.assertEquals(close[i], buffer.getData().get(0)[0], 0);
+		}
+
+		Assert.assertEquals(close[close.length - 10], buffer.pop()[0], 0);
+		Assert.assertEquals(9, buffer.size());
+	}
+
+	public void testTemporalWindow() {
+		double[] close = generateCloses(50);
+		StreamingIndicators stream = new StreamingIndicators(3, true);
+		stream.addIndicator(new StreamingMovingAverage(2));
+		stream.addIndicator(new StreamingBestClose(2));
+		Assert.assertEquals(6, stream.getInputSize());
+		Assert.assertEquals(1, stream.getIdealSize());
+
+		int pairs = 0;
+		for (int i = 0; i < close.length; i++) {
+			stream.update(close[i]);
+			if (stream.isInputReady()) {
+				MLData input = stream.getInput();
+				Assert.assertEquals(close[i - 2], input.getData(0), 0);
+				Assert.assertEquals(close[i], input.getData(2), 0);
+				Assert.assertEquals((close[i] + close[i - 1]) / 2, input
+						.getData(5), 1e-12);
+			}
+			if (stream.isPairReady()) {
+				MLDataPair pair = stream.getPair();
+				Assert.assertEquals(close[i - 2], pair.getInput().getData(2),
+						0);
+				Assert.assertEquals(bruteBestClose(close, i - 2, 2), pair
+						.getIdeal().getData(0), 0);
+				pairs++;
+			}
+		}
+		// the first window needs 4 bars, the ideal arrives 2 bars later
+		Assert.assertEquals(close.length - 5, pairs);
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.matrix;
+
+import java.util.Random;
+
+import org.encog.mathutil.matrices.Matrix;
+import org.encog.mathutil.matrices.MatrixMath;
+import org.encog.mathutil.matrices.decomposition.LUDecomposition;
+import org.encog.util.Stopwatch;
+
+/**
+ * Compare the time taken by the blocked matrix multiply with the plain triple
+ * loop it replaced, and time the LU decomposition. The best of several runs
+ * is reported, so the JIT compile is not counted.
+ */
+public class EvaluateMatrixMath {
+
+	/**
+	 * The number of times each operation is timed.
+	 */
+	public static final int REPEAT = 3;
+
+	public static Matrix createRandom(int n, long seed) {
+		Random rnd = new Random(seed);
+		Matrix result = new Matrix(n, n);
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				result.set(r, c, rnd.nextDouble() * 2 - 1);
+			}
+		}
+		return result;
+	}
+
+	public static Matrix naiveMultiply(Matrix a, Matrix b) {
+		final double[][] aData = a.getData();
+		final double[][] bData = b.getData();
+		final Matrix x = new Matrix(a.getRows(), b.getCols());
+		final double[][] c = x.getData();
+		final double[] bcolj = new double[a.getCols()];
+		for (int j = 0; j < b.getCols(); j++) {
+			for (int k = 0; k < a.getCols(); k++) {
+				bcolj[k] = bData[k][j];
+			}
+			for (int i = 0; i < a.getRows(); i++) {
+				final double[] arowi = aData[i];
+				double s = 0;
+				for (int k = 0; k < a.getCols(); k++) {
+					s += arowi[k] * bcolj[k];
+				}
+				c[i][j] = s;
+			}
+		}
+		return x;
+	}
+
+	public static void evaluate(int n) {
+		Matrix a = createRandom(n, 1);
+		Matrix b = createRandom(n, 2);
+		long naive = Long.MAX_VALUE;
+		long blocked = Long.MAX_VALUE;
+		long lu = Long.MAX_VALUE;
+
+		for (int i = 0; i < REPEAT; i++) {
+			Stopwatch sw = new Stopwatch();
+			sw.start();
+			naiveMultiply(a, b);
+			sw.stop();
+			naive = Math.min(naive, sw.getElapsedMilliseconds());
+
+			sw = new Stopwatch();
+			sw.start();
+			MatrixMath.multiply(a, b);
+			sw.stop();
+			blocked = Math.min(blocked, sw.getElapsedMilliseconds());
+
+			sw = new Stopwatch();
+			sw.start();
+			new LUDecomposition(a);
+			sw.stop();
+			lu = Math.min(lu, sw.getElapsedMilliseconds());
+		}
+
+		System.out.println(n + "\tnaive multiply: " + naive
+				+ "ms\tblocked multiply: " + blocked + "ms\tLU: " + lu + "ms");
+	}
+
+	public static void main(String[] args) {
+		int[] sizes = { 128, 256, 512, 1024 };
+		for (int n : sizes) {
+			evaluate(n);
+		}
+	}
+}
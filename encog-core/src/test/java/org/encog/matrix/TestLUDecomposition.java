@@ -0,0 +1,87 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.matrix;
+
+import junit.framework.TestCase;
+
+import org.encog.mathutil.matrices.Matrix;
+import org.encog.mathutil.matrices.MatrixMath;
+import org.encog.mathutil.matrices.decomposition.LUDecomposition;
+
+public class TestLUDecomposition extends TestCase {
+
+	private void checkFactors(Matrix a, LUDecomposition lu) {
+		// L*U must equal the rows of a, in pivot order
+		Matrix product = MatrixMath.multiply(lu.getL(), lu.getU());
+		int[] piv = lu.getPivot();
+		for (int i = 0; i < a.getRows(); i++) {
+			for (int j = 0; j < a.getCols(); j++) {
+				assertEquals(a.get(piv[i], j), product.get(i, j), 1e-10);
+			}
+		}
+	}
+
+	public void testSmall() {
+		Matrix a = TestMatrixMath.createRandom(20, 20, 1);
+		checkFactors(a, new LUDecomposition(a));
+	}
+
+	public void testBlocked() {
+		int n = LUDecomposition.BLOCK_SIZE * 3 + 17;
+		Matrix a = TestMatrixMath.createRandom(n, n, 2);
+		LUDecomposition lu = new LUDecomposition(a);
+		assertTrue(lu.isNonsingular());
+		checkFactors(a, lu);
+
+		// solve and check the residual
+		Matrix b = TestMatrixMath.createRandom(n, 2, 3);
+		Matrix x = lu.solve(b);
+		Matrix ax = MatrixMath.multiply(a, x);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < 2; j++) {
+				assertEquals(b.get(i, j), ax.get(i, j), 1e-8);
+			}
+		}
+	}
+
+	public void testBlockedRectangular() {
+		int n = LUDecomposition.BLOCK_SIZE * 2 + 5;
+		Matrix a = TestMatrixMath.createRandom(n + 40, n, 4);
+		checkFactors(a, new LUDecomposition(a));
+	}
+
+	public void testBlockedDeterminant() {
+		// a triangular matrix has the product of its diagonal as determinant
+		int n = LUDecomposition.BLOCK_SIZE * 2;
+		Matrix a = new Matrix(n, n);
+		double expected = 1;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				a.set(i, j, (i == j) ? 1 + (i % 3) * 0.5 : 0.25);
+			}
+			expected *= a.get(i, i);
+		}
+		assertEquals(expected, new LUDecomposition(a).det(), expected * 1e-10);
+	}
+}
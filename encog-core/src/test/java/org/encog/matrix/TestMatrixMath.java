@@ -23,6 +23,8 @@
  */
 package org.encog.matrix;
 
+import java.util.Random;
+
 import org.encog.mathutil.matrices.Matrix;
 import org.encog.mathutil.matrices.MatrixError;
 import org.encog.mathutil.matrices.MatrixMath;
@@ -232,4 +234,43 @@ public class TestMatrixMath extends TestCase {
 		MatrixMath.copy(source, target);
 		TestCase.assertTrue(source.equals(target));
 	}
+	public static Matrix createRandom(int rows, int cols, long seed) {
+		Random rnd = new Random(seed);
+		Matrix result = new Matrix(rows, cols);
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				result.set(r, c, rnd.nextDouble() * 2 - 1);
+			}
+		}
+		return result;
+	}
+
+	public void testMultiplyLarge() {
+		// large enough to be blocked and split across threads
+		Matrix a = createRandom(150, 210, 1);
+		Matrix b = createRandom(210, 330, 2);
+		Matrix c = MatrixMath.multiply(a, b);
+
+		for (int i = 0; i < a.getRows(); i++) {
+			for (int j = 0; j < b.getCols(); j++) {
+				double s = 0;
+				for (int k = 0; k < a.getCols(); k++) {
+					s += a.get(i, k) * b.get(k, j);
+				}
+				assertEquals(s, c.get(i, j), 0.0);
+			}
+		}
+	}
+
+	public void testTransposeLarge() {
+		Matrix a = createRandom(70, 45, 3);
+		Matrix t = MatrixMath.transpose(a);
+		assertEquals(45, t.getRows());
+		assertEquals(70, t.getCols());
+		for (int r = 0; r < a.getRows(); r++) {
+			for (int c = 0; c < a.getCols(); c++) {
+				assertEquals(a.get(r, c), t.get(c, r), 0.0);
+			}
+		}
+	}
 }
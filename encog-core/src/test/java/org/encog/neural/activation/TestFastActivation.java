@@ -0,0 +1,111 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.activation;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.encog.engine.network.activation.ActivationFastSigmoid;
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.engine.network.activation.ActivationGaussian;
+import org.encog.engine.network.activation.ActivationLinear;
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.engine.network.activation.ActivationSoftMax;
+import org.encog.engine.network.activation.ActivationTANH;
+import org.encog.engine.network.activation.FastActivation;
+import org.encog.mathutil.FastMath;
+import org.encog.neural.flat.FlatNetwork;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFastActivation extends TestCase {
+
+	private double[] randomValues(double range) {
+		Random rnd = new Random(42);
+		double[] result = new double[1000];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = (rnd.nextDouble() * 2 * range) - range;
+		}
+		return result;
+	}
+
+	private void compare(ActivationFunction exact, double range, double error) {
+		ActivationFunction fast = FastActivation.toFast(exact);
+		Assert.assertNotSame(exact.getClass(), fast.getClass());
+		double[] a = randomValues(range);
+		double[] b = a.clone();
+		exact.activationFunction(a, 0, a.length);
+		fast.activationFunction(b, 0, b.length);
+		for (int i = 0; i < a.length; i++) {
+			Assert.assertEquals(a[i], b[i], error);
+		}
+		Assert.assertEquals(exact.getClass(), FastActivation.toExact(fast)
+				.getClass());
+	}
+
+	@Test
+	public void testFastMath() throws Throwable {
+		for (double x : randomValues(700)) {
+			double e = Math.exp(x);
+			Assert.assertEquals(e, FastMath.exp(x), e * FastMath.EXP_MAX_ERROR);
+		}
+		for (double x : randomValues(25)) {
+			Assert.assertEquals(Math.tanh(x), FastMath.tanh(x),
+					FastMath.TANH_MAX_ERROR);
+		}
+		Assert.assertFalse(Double.isInfinite(FastMath.exp(10000)));
+		Assert.assertEquals(0.0, FastMath.exp(-10000), 1E-300);
+	}
+
+	@Test
+	public void testFastActivation() throws Throwable {
+		compare(new ActivationSigmoid(), 50, 1E-8);
+		compare(new ActivationTANH(), 25, 1E-8);
+		compare(new ActivationSoftMax(), 10, 1E-8);
+		compare(new ActivationGaussian(0.5, 2, 1.5), 10, 1E-7);
+	}
+
+	@Test
+	public void testNetwork() throws Throwable {
+		FlatNetwork network = new FlatNetwork(2, 3, 0, 1, false);
+		network.randomize();
+		double[] input = { 0.25, 0.75 };
+		double[] exact = new double[1];
+		double[] fast = new double[1];
+
+		network.compute(input, exact);
+		network.useFastActivation(true);
+		Assert.assertTrue(network.getActivationFunctions()[0] 
+		                  instanceof ActivationFastSigmoid);
+		network.compute(input, fast);
+		Assert.assertEquals(exact[0], fast[0], 1E-7);
+
+		network.useFastActivation(false);
+		Assert.assertTrue(network.getActivationFunctions()[0] 
+		                  instanceof ActivationSigmoid);
+		Assert.assertTrue(network.getActivationFunctions()[2] 
+		                  instanceof ActivationLinear);
+	}
+}
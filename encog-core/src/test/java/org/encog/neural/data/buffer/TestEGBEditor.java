@@ -0,0 +1,208 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.data.buffer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.buffer.BufferedDataError;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.ml.data.buffer.EGBEditor;
+import org.encog.ml.data.buffer.EncogEGBFile;
+
+public class TestEGBEditor extends TestCase {
+
+	public static final String FILENAME = "editor.egb";
+
+	private BufferedNeuralDataSet create(int rows, List<List<Double>> expected) {
+		new File(FILENAME).delete();
+		BufferedNeuralDataSet set = new BufferedNeuralDataSet(new File(FILENAME));
+		set.beginLoad(2, 1);
+		for (int i = 0; i < rows; i++) {
+			double[] input = { i, i + 0.5 };
+			double[] ideal = { -i };
+			set.add(new BasicMLData(input), new BasicMLData(ideal));
+			List<Double> row = new ArrayList<Double>();
+			row.add((double) i);
+			row.add(i + 0.5);
+			row.add((double) -i);
+			row.add(1.0);
+			expected.add(row);
+		}
+		set.endLoad();
+		return set;
+	}
+
+	private void compare(List<List<Double>> expected, EGBEditor editor) {
+		assertEquals(expected.size(), editor.getNumberOfRecords());
+		int cols = expected.isEmpty() ? editor.getRecordCount() : expected
+				.get(0).size();
+		assertEquals(cols, editor.getRecordCount());
+		double[] all = new double[expected.size() * cols];
+		editor.readRows(0, expected.size(), all);
+		for (int i = 0; i < expected.size(); i++) {
+			for (int j = 0; j < cols; j++) {
+				double v = expected.get(i).get(j);
+				assertEquals(v, editor.read(i, j), 0);
+				assertEquals(v, all[i * cols + j], 0);
+			}
+		}
+	}
+
+	private List<Double> newRow(int cols) {
+		List<Double> row = new ArrayList<Double>();
+		for (int j = 0; j < cols - 1; j++) {
+			row.add(0.0);
+		}
+		row.add(1.0);
+		return row;
+	}
+
+	public void testRandomEdits() {
+		List<List<Double>> expected = new ArrayList<List<Double>>();
+		BufferedNeuralDataSet set = create(50, expected);
+		try {
+			EGBEditor editor = new EGBEditor(set.getEGB());
+			Random rnd = new Random(7);
+			int inputs = 2;
+			for (int step = 0; step < 300; step++) {
+				int cols = editor.getRecordCount();
+				int rows = editor.getNumberOfRecords();
+				switch (rnd.nextInt(6)) {
+				case 0:
+					int at = rnd.nextInt(rows + 1);
+					editor.addRow(at);
+					expected.add(at, newRow(cols));
+					break;
+				case 1:
+					if (rows > 1) {
+						int del = rnd.nextInt(rows);
+						editor.deleteRow(del);
+						expected.remove(del);
+					}
+					break;
+				case 2:
+					if (cols < 8) {
+						int col = rnd.nextInt(cols - 1);
+						boolean input = col < inputs;
+						editor.addColumn(col, input);
+						if (input) {
+							inputs++;
+						}
+						for (List<Double> row : expected) {
+							row.add(col, 0.0);
+						}
+					}
+					break;
+				case 3:
+					if (cols > 3) {
+						int col = rnd.nextInt(cols - 1);
+						if (col < inputs && inputs == 1) {
+							break;
+						}
+						editor.deleteCol(col);
+						if (col < inputs) {
+							inputs--;
+						}
+						for (List<Double> row : expected) {
+							row.remove(col);
+						}
+					}
+					break;
+				default:
+					int r = rnd.nextInt(rows);
+					int c = rnd.nextInt(cols);
+					double v = rnd.nextDouble();
+					editor.write(r, c, v);
+					expected.get(r).set(c, v);
+					break;
+				}
+			}
+			assertTrue(editor.isEdited());
+			compare(expected, editor);
+			assertEquals(inputs, editor.getInputCount());
+
+			editor.compact();
+			assertFalse(editor.isEdited());
+			assertEquals(1, editor.getExtentCount());
+			compare(expected, editor);
+
+			EncogEGBFile egb = set.getEGB();
+			assertEquals(inputs, egb.getInputCount());
+			assertEquals(expected.size(), egb.getNumberOfRecords());
+			for (int i = 0; i < expected.size(); i++) {
+				for (int j = 0; j < egb.getRecordCount(); j++) {
+					assertEquals(expected.get(i).get(j), egb.read(i, j), 0);
+				}
+			}
+		} finally {
+			set.close();
+		}
+	}
+
+	public void testInsertIsDeferred() {
+		List<List<Double>> expected = new ArrayList<List<Double>>();
+		BufferedNeuralDataSet set = create(20, expected);
+		try {
+			EGBEditor editor = new EGBEditor(set.getEGB());
+			long length = new File(FILENAME).length();
+			for (int i = 0; i < 10; i++) {
+				editor.addRow(i);
+			}
+			editor.deleteRow(15);
+			editor.addColumn(0, true);
+			// nothing written to the file yet
+			assertEquals(length, new File(FILENAME).length());
+			assertEquals(29, editor.getNumberOfRecords());
+			// consecutive inserts share an extent
+			assertEquals(3, editor.getExtentCount());
+			assertEquals(1.0, editor.read(0, 4), 0);
+			assertEquals(4.0, editor.read(14, 1), 0);
+			assertEquals(6.0, editor.read(15, 1), 0);
+		} finally {
+			set.close();
+		}
+	}
+
+	public void testSignificance() {
+		List<List<Double>> expected = new ArrayList<List<Double>>();
+		BufferedNeuralDataSet set = create(3, expected);
+		try {
+			EGBEditor editor = new EGBEditor(set.getEGB());
+			try {
+				editor.deleteCol(3);
+				fail("Expected an error");
+			} catch (BufferedDataError e) {
+				// expected
+			}
+		} finally {
+			set.close();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.data.buffer;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.buffer.BufferedDataError;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.ml.data.buffer.EGBRowCache;
+import org.encog.ml.data.buffer.EncogEGBFile;
+
+public class TestEGBRowCache extends TestCase {
+
+	public static final String FILENAME = "rowcache.egb";
+
+	private BufferedNeuralDataSet create(int rows) {
+		new File(FILENAME).delete();
+		BufferedNeuralDataSet set = new BufferedNeuralDataSet(new File(FILENAME));
+		set.beginLoad(3, 2);
+		for (int i = 0; i < rows; i++) {
+			set.add(new BasicMLData(new double[] { i, i + 0.25, i + 0.5 }),
+					new BasicMLData(new double[] { -i, i * 2 }));
+		}
+		set.endLoad();
+		return set;
+	}
+
+	public void testRead() {
+		BufferedNeuralDataSet set = create(1000);
+		try {
+			EncogEGBFile egb = set.getEGB();
+			EGBRowCache cache = new EGBRowCache(egb, 16, 4, 1);
+			double[] row = new double[egb.getRecordCount()];
+			for (int i = 0; i < 1000; i++) {
+				for (int j = 0; j < egb.getRecordCount(); j++) {
+					assertEquals(egb.read(i, j), cache.read(i, j), 0);
+				}
+				cache.read(i, row);
+				assertEquals(i + 0.5, row[2], 0);
+			}
+			// one read per block, the read ahead past the end is skipped
+			assertEquals((1000 + 15) / 16, cache.getMisses());
+			assertTrue(cache.getBlockCount() <= 4);
+
+			// scrolling back up reads ahead downwards
+			cache.invalidate();
+			cache.read(999, 0);
+			cache.read(990, 0);
+			long misses = cache.getMisses();
+			cache.read(975, 0);
+			assertEquals(misses, cache.getMisses());
+		} finally {
+			set.close();
+		}
+	}
+
+	public void testWriteBack() {
+		BufferedNeuralDataSet set = create(200);
+		try {
+			EncogEGBFile egb = set.getEGB();
+			EGBRowCache cache = new EGBRowCache(egb, 10, 3, 1);
+			cache.write(5, 1, 42.0);
+			assertEquals(42.0, cache.read(5, 1), 0);
+			// not written until flushed or evicted
+			assertEquals(5.25, egb.read(5, 1), 0);
+			cache.flush();
+			assertEquals(42.0, egb.read(5, 1), 0);
+
+			cache.write(0, 4, 7.0);
+			for (int i = 0; i < 200; i++) {
+				cache.read(i, 0);
+			}
+			// block zero was evicted and written back
+			assertEquals(7.0, egb.read(0, 4), 0);
+			assertEquals(4.5, egb.read(4, 2), 0);
+		} finally {
+			set.close();
+		}
+	}
+
+	public void testRange() {
+		BufferedNeuralDataSet set = create(5);
+		try {
+			EGBRowCache cache = new EGBRowCache(set.getEGB());
+			try {
+				cache.read(5, 0);
+				fail("Expected an error");
+			} catch (BufferedDataError e) {
+				// expected
+			}
+			try {
+				new EGBRowCache(set.getEGB(), 10, 1, 1);
+				fail("Expected an error");
+			} catch (BufferedDataError e) {
+				// expected
+			}
+		} finally {
+			set.close();
+		}
+	}
+}
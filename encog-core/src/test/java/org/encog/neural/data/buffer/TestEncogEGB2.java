@@ -0,0 +1,227 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.data.buffer;
+
+import java.io.File;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.data.buffer.BufferedDataError;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.ml.data.buffer.EGBColumnType;
+import org.encog.ml.data.buffer.EGBCompression;
+import org.encog.ml.data.buffer.EncogEGB2File;
+import org.encog.ml.data.buffer.EncogEGB2Writer;
+import org.encog.ml.data.buffer.EncogEGBFile;
+import org.encog.ml.data.buffer.LZ4Block;
+import org.encog.neural.networks.XOR;
+
+public class TestEncogEGB2 extends TestCase {
+
+	public static final String FILENAME = "egb2.egb";
+	
+	private MLDataSet createData(int count) {
+		Random rnd = new Random(42);
+		double[][] input = new double[count][3];
+		double[][] ideal = new double[count][2];
+		for (int i = 0; i < count; i++) {
+			input[i][0] = rnd.nextDouble();
+			input[i][1] = i % 10;
+			input[i][2] = -1 + 2 * rnd.nextDouble();
+			ideal[i][0] = input[i][0] * 2;
+			ideal[i][1] = (i % 2 == 0) ? 1 : 0;
+		}
+		return new BasicMLDataSet(input, ideal);
+	}
+	
+	private void compare(MLDataSet expected, MLDataSet actual, double tolerance) {
+		assertEquals(expected.getRecordCount(), actual.getRecordCount());
+		assertEquals(expected.getInputSize(), actual.getInputSize());
+		assertEquals(expected.getIdealSize(), actual.getIdealSize());
+		MLDataPair a = BasicMLDataPair.createPair(expected.getInputSize(), 
+				expected.getIdealSize());
+		MLDataPair b = BasicMLDataPair.createPair(expected.getInputSize(), 
+				expected.getIdealSize());
+		// read out of order, to cross block boundaries both ways
+		for (long i = expected.getRecordCount() - 1; i >= 0; i -= 7) {
+			expected.getRecord(i, a);
+			actual.getRecord(i, b);
+			for (int j = 0; j < a.getInputArray().length; j++) {
+				assertEquals(a.getInputArray()[j], b.getInputArray()[j], tolerance);
+			}
+			for (int j = 0; j < a.getIdealArray().length; j++) {
+				assertEquals(a.getIdealArray()[j], b.getIdealArray()[j], tolerance);
+			}
+			assertEquals(a.getSignificance(), b.getSignificance(), tolerance);
+		}
+	}
+	
+	private void roundTrip(EGBColumnType type, EGBCompression compression,
+			double tolerance) {
+		File file = new File(FILENAME);
+		MLDataSet data = createData(2500);
+		EncogEGB2Writer writer = new EncogEGB2Writer(file, 3, 2);
+		writer.setBlockRecords(256);
+		writer.setCompression(compression);
+		writer.setColumns(type, -1, 20);
+		for (MLDataPair pair : data) {
+			writer.write(pair);
+		}
+		writer.close();
+		
+		assertEquals(2, EncogEGBFile.readVersion(file));
+		BufferedNeuralDataSet set = new BufferedNeuralDataSet(file);
+		assertNotNull(set.getCompact());
+		assertEquals(compression, set.getCompact().getCompression());
+		compare(data, set, tolerance);
+		
+		// additional sets, as used by multithreaded training
+		MLDataSet additional = set.openAdditional();
+		compare(data, additional, tolerance);
+		set.close();
+		file.delete();
+	}
+	
+	public void testFloat64() {
+		roundTrip(EGBColumnType.Float64, EGBCompression.None, 0);
+		roundTrip(EGBColumnType.Float64, EGBCompression.LZ4, 0);
+		roundTrip(EGBColumnType.Float64, EGBCompression.Deflate, 0);
+	}
+	
+	public void testFloat32() {
+		roundTrip(EGBColumnType.Float32, EGBCompression.LZ4, 1e-5);
+	}
+	
+	public void testQuantized() {
+		roundTrip(EGBColumnType.Int16, EGBCompression.LZ4, 21.0 / 65535);
+		roundTrip(EGBColumnType.Int8, EGBCompression.Deflate, 21.0 / 255);
+	}
+	
+	public void testConvert() {
+		File file = new File(FILENAME);
+		MLDataSet data = createData(1000);
+		EncogEGB2Writer.convert(data, file, EGBColumnType.Int16, 
+				EGBCompression.LZ4);
+		EncogEGB2File egb = new EncogEGB2File(file);
+		egb.open();
+		assertEquals(1000, egb.getRecordCount());
+		assertEquals(EGBColumnType.Int16, egb.getColumnType(0));
+		assertEquals(EGBColumnType.Float64, egb.getColumnType(5));
+		egb.close();
+		
+		BufferedNeuralDataSet set = new BufferedNeuralDataSet(file);
+		// each column is quantized over its own range
+		compare(data, set, 2.0 / 65535 * 10);
+		assertEquals(1000, set.loadToPacked().getRecordCount());
+		set.close();
+		file.delete();
+	}
+	
+	public void testCompression() {
+		File file = new File(FILENAME);
+		MLDataSet data = createData(5000);
+		EncogEGB2Writer.convert(data, file, EGBColumnType.Int8, 
+				EGBCompression.LZ4);
+		// 6 doubles per record in version 0, 5 bytes and a 
+		// significance that compresses to almost nothing in version 2
+		assertTrue(file.length() < 5000 * 6 * 8 / 6);
+		file.delete();
+	}
+	
+	public void testVersion0StillReads() {
+		File file = new File(FILENAME);
+		file.delete();
+		BufferedNeuralDataSet set = new BufferedNeuralDataSet(file);
+		set.load(XOR.createXORDataSet());
+		set.close();
+		assertEquals(0, EncogEGBFile.readVersion(file));
+		set = new BufferedNeuralDataSet(file);
+		assertNull(set.getCompact());
+		XOR.testXORDataSet(set);
+		set.close();
+		
+		// version 2 files are not editable
+		EncogEGB2Writer.convert(XOR.createXORDataSet(), file, 
+				EGBColumnType.Float64, EGBCompression.None);
+		EncogEGBFile egb = new EncogEGBFile(file);
+		try {
+			egb.open();
+			fail("Version 2 files should not open for editing");
+		} catch (BufferedDataError e) {
+			// expected
+		}
+		egb.close();
+		
+		// nor through the data set, as the workbench editor does
+		set = new BufferedNeuralDataSet(file);
+		try {
+			set.getEGB();
+			fail("Version 2 files should not be handed out for editing");
+		} catch (BufferedDataError e) {
+			// expected
+		}
+		set.close();
+		assertEquals(2, EncogEGBFile.readVersion(file));
+		set = new BufferedNeuralDataSet(file);
+		XOR.testXORDataSet(set);
+		set.close();
+		file.delete();
+	}
+	
+	public void testLZ4() {
+		Random rnd = new Random(7);
+		byte[] src = new byte[100000];
+		for (int i = 0; i < src.length; i++) {
+			// runs and repeats, with some noise
+			src[i] = (byte) ((i / 50) % 7 + ((rnd.nextInt(10) == 0) ? rnd.nextInt(3) : 0));
+		}
+		for (int length : new int[] { 0, 1, 12, 13, 100, 70000, src.length }) {
+			byte[] compressed = new byte[LZ4Block.maxCompressedLength(length)];
+			int size = LZ4Block.compress(src, length, compressed);
+			byte[] result = new byte[length];
+			LZ4Block.decompress(compressed, size, result, length);
+			for (int i = 0; i < length; i++) {
+				assertEquals(src[i], result[i]);
+			}
+			if (length == src.length) {
+				assertTrue(size < length / 2);
+			}
+		}
+		
+		// random data must survive expansion
+		rnd.nextBytes(src);
+		byte[] compressed = new byte[LZ4Block.maxCompressedLength(src.length)];
+		int size = LZ4Block.compress(src, src.length, compressed);
+		byte[] result = new byte[src.length];
+		LZ4Block.decompress(compressed, size, result, src.length);
+		for (int i = 0; i < src.length; i++) {
+			assertEquals(src[i], result[i]);
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.data.image;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import junit.framework.TestCase;
+
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.platformspecific.j2se.data.image.ImageNeuralData;
+import org.encog.platformspecific.j2se.data.image.ImageNeuralDataSet;
+import org.encog.platformspecific.j2se.data.image.ParallelImageDownsample;
+import org.encog.util.TempDir;
+import org.encog.util.downsample.Downsample;
+import org.encog.util.downsample.RGBDownsample;
+import org.encog.util.downsample.RasterDownsample;
+import org.encog.util.downsample.SimpleIntensityDownsample;
+
+public class TestRasterDownsample extends TestCase {
+
+	public final TempDir TEMP_DIR = new TempDir();
+
+	private BufferedImage createRandom(int width, int height, int type,
+			long seed) {
+		Random rnd = new Random(seed);
+		BufferedImage image = new BufferedImage(width, height, type);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				image.setRGB(x, y, rnd.nextInt());
+			}
+		}
+		return image;
+	}
+
+	public void testSameAsRGBDownsample() {
+		BufferedImage image = createRandom(40, 40,
+				BufferedImage.TYPE_INT_RGB, 1);
+		double[] expected = new RGBDownsample().downSample(image, 5, 7);
+		double[] actual = new RasterDownsample(false).downSample(image, 5, 7,
+				false);
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i], 0.0);
+		}
+	}
+
+	public void testIntensity() {
+		BufferedImage image = new BufferedImage(10, 10,
+				BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < 10; y++) {
+			for (int x = 5; x < 10; x++) {
+				image.setRGB(x, y, 0xffffff);
+			}
+		}
+		double[] d = new RasterDownsample(true).downSample(image, 1, 2, false);
+		assertEquals(2, d.length);
+		assertEquals(0.0, d[0], 0.0);
+		assertEquals(255.0, d[1], 0.0);
+	}
+
+	public void testFindBounds() {
+		BufferedImage image = new BufferedImage(50, 40,
+				BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < 40; y++) {
+			for (int x = 0; x < 50; x++) {
+				boolean inside = x >= 10 && x < 20 && y >= 20 && y < 30;
+				image.setRGB(x, y, inside ? 0xff000000 : 0xffffffff);
+			}
+		}
+		double[] d = new RasterDownsample(false).downSample(image, 2, 2, true);
+		for (int i = 0; i < d.length; i++) {
+			assertEquals(0.0, d[i], 0.0);
+		}
+	}
+
+	public void testParallelDataSet() {
+		ImageNeuralDataSet set = new ImageNeuralDataSet(
+				new SimpleIntensityDownsample(), false, 1, -1);
+		set.setThreadCount(4);
+		List<BufferedImage> images = new ArrayList<BufferedImage>();
+		for (int i = 0; i < 20; i++) {
+			int type = (i % 2 == 0) ? BufferedImage.TYPE_INT_ARGB
+					: BufferedImage.TYPE_3BYTE_BGR;
+			BufferedImage image = createRandom(30 + i, 20, type, i);
+			images.add(image);
+			set.add(new ImageNeuralData(image), new BasicMLData(1));
+		}
+		set.downsample(4, 3);
+
+		RasterDownsample downsample = new RasterDownsample(true);
+		int index = 0;
+		for (MLDataPair pair : set) {
+			double[] expected = downsample.downSample(images.get(index++), 4,
+					3, false);
+			double[] actual = pair.getInputArray();
+			assertEquals(12, actual.length);
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals((expected[i] / 255) * 2 - 1, actual[i], 1e-12);
+			}
+		}
+	}
+
+	private void checkSameAsImage(Downsample downsample, boolean findBounds) {
+		ImageNeuralDataSet set = new ImageNeuralDataSet(downsample,
+				findBounds, 1, -1);
+		set.setThreadCount(2);
+		List<BufferedImage> images = new ArrayList<BufferedImage>();
+		for (int i = 0; i < 6; i++) {
+			BufferedImage image = createRandom(25 + i, 18, 
+					BufferedImage.TYPE_INT_RGB, i);
+			// a white border, so that findBounds has something to crop
+			for (int x = 0; x < image.getWidth(); x++) {
+				image.setRGB(x, 0, 0xffffff);
+			}
+			images.add(image);
+			set.add(new ImageNeuralData(image), new BasicMLData(1));
+		}
+		set.downsample(4, 5);
+
+		int index = 0;
+		for (MLDataPair pair : set) {
+			ImageNeuralData single = new ImageNeuralData(images.get(index++));
+			single.downsample(downsample, findBounds, 4, 5, 1, -1);
+			assertEquals(single.size(), pair.getInput().size());
+			for (int i = 0; i < single.size(); i++) {
+				assertEquals(single.getData(i), pair.getInput().getData(i), 0.0);
+			}
+		}
+	}
+
+	public void testDataSetSameAsImage() {
+		checkSameAsImage(new SimpleIntensityDownsample(), false);
+		checkSameAsImage(new SimpleIntensityDownsample(), true);
+		checkSameAsImage(new RGBDownsample(), false);
+		checkSameAsImage(new RGBDownsample(), true);
+	}
+
+	public void testProcessToEGB() throws IOException {
+		List<File> files = new ArrayList<File>();
+		List<double[]> ideals = new ArrayList<double[]>();
+		for (int i = 0; i < 5; i++) {
+			File file = TEMP_DIR.createFile("image" + i + ".png");
+			ImageIO.write(createRandom(16, 16, BufferedImage.TYPE_INT_RGB, i),
+					"png", file);
+			files.add(file);
+			ideals.add(new double[] { i });
+		}
+
+		File egb = TEMP_DIR.createFile("images.egb");
+		ParallelImageDownsample parallel = new ParallelImageDownsample(false,
+				false, 2, 2, 1, 0);
+		parallel.setBatchSize(2);
+		parallel.processToEGB(files, ideals, egb);
+
+		BufferedNeuralDataSet set = new BufferedNeuralDataSet(egb);
+		assertEquals(5, set.getRecordCount());
+		assertEquals(12, set.getInputSize());
+		assertEquals(1, set.getIdealSize());
+		RasterDownsample downsample = new RasterDownsample(false);
+		MLDataPair pair = BasicMLDataPair.createPair(12, 1);
+		for (int i = 0; i < 5; i++) {
+			set.getRecord(i, pair);
+			double[] expected = downsample.downSample(ImageIO.read(files
+					.get(i)), 2, 2, false);
+			for (int j = 0; j < 12; j++) {
+				assertEquals(expected[j] / 255, pair.getInputArray()[j], 1e-12);
+			}
+			assertEquals((double) i, pair.getIdealArray()[0], 0.0);
+		}
+		set.close();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		TEMP_DIR.dispose();
+	}
+}
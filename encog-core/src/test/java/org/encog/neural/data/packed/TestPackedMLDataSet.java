@@ -0,0 +1,109 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.data.packed;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.ml.data.packed.PackedMLDataSet;
+import org.encog.neural.networks.XOR;
+
+public class TestPackedMLDataSet extends TestCase {
+
+	public static final String FILENAME = "xor_packed.egb";
+
+	public void testArrays() {
+		PackedMLDataSet set = new PackedMLDataSet(XOR.XOR_INPUT, XOR.XOR_IDEAL);
+		TestCase.assertEquals(4, set.getRecordCount());
+		TestCase.assertEquals(2, set.getInputSize());
+		TestCase.assertEquals(1, set.getIdealSize());
+		TestCase.assertTrue(set.isSupervised());
+		XOR.testXORDataSet(set);
+	}
+
+	public void testBlocks() {
+		// three values per record, so each block holds two records
+		PackedMLDataSet set = new PackedMLDataSet(1, 1, 6);
+		for (int i = 0; i < 101; i++) {
+			BasicMLDataPair pair = new BasicMLDataPair(new BasicMLData(
+					new double[] { i }), new BasicMLData(
+					new double[] { -i }));
+			pair.setSignificance(i / 100.0);
+			set.add(pair);
+		}
+
+		MLDataPair pair = BasicMLDataPair.createPair(1, 1);
+		for (int i = 100; i >= 0; i--) {
+			set.getRecord(i, pair);
+			TestCase.assertEquals((double) i, pair.getInputArray()[0]);
+			TestCase.assertEquals((double) -i, pair.getIdealArray()[0]);
+			TestCase.assertEquals(i / 100.0, pair.getSignificance());
+		}
+	}
+
+	public void testOpenAdditional() {
+		PackedMLDataSet set = new PackedMLDataSet(new BasicMLDataSet(
+				XOR.XOR_INPUT, XOR.XOR_IDEAL));
+		MLDataSet additional = set.openAdditional();
+		XOR.testXORDataSet(additional);
+
+		set.add(new BasicMLData(new double[] { 0.5, 0.5 }), new BasicMLData(
+				new double[] { 0.5 }));
+		TestCase.assertEquals(5, additional.getRecordCount());
+	}
+
+	public void testUnsupervised() {
+		PackedMLDataSet set = new PackedMLDataSet(XOR.XOR_INPUT, null);
+		TestCase.assertFalse(set.isSupervised());
+		int row = 0;
+		for (MLDataPair pair : set) {
+			TestCase.assertEquals(XOR.XOR_INPUT[row][1],
+					pair.getInputArray()[1]);
+			TestCase.assertNull(pair.getIdealArray());
+			row++;
+		}
+		TestCase.assertEquals(4, row);
+	}
+
+	public void testLoadEGB() {
+		File file = new File(FILENAME);
+		file.delete();
+		BufferedNeuralDataSet buffer = new BufferedNeuralDataSet(file);
+		buffer.load(new BasicMLDataSet(XOR.XOR_INPUT, XOR.XOR_IDEAL));
+
+		PackedMLDataSet set = buffer.loadToPacked();
+		buffer.close();
+		file.delete();
+
+		TestCase.assertEquals(4, set.getRecordCount());
+		XOR.testXORDataSet(set);
+	}
+}
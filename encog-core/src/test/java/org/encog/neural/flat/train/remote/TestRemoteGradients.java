@@ -0,0 +1,219 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.flat.train.remote;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.Socket;
+
+import junit.framework.TestCase;
+
+import org.encog.EncogError;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.data.folded.FoldedDataSet;
+import org.encog.neural.error.ErrorFunction;
+import org.encog.neural.flat.train.prop.TrainFlatNetworkProp;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.NetworkUtil;
+import org.encog.neural.networks.XOR;
+import org.encog.neural.networks.training.propagation.Propagation;
+import org.encog.neural.networks.training.propagation.resilient.ResilientPropagation;
+import org.encog.util.concurrency.EngineConcurrency;
+
+public class TestRemoteGradients extends TestCase {
+	
+	private MLDataSet createData() {
+		double[][] input = new double[400][];
+		double[][] ideal = new double[400][];
+		for (int i = 0; i < input.length; i++) {
+			input[i] = XOR.XOR_INPUT[i % 4];
+			ideal[i] = XOR.XOR_IDEAL[i % 4];
+		}
+		return new BasicMLDataSet(input, ideal);
+	}
+	
+	private GradientServer createServer(MLDataSet data, int shard, int count) {
+		FoldedDataSet folded = new FoldedDataSet(data);
+		folded.fold(count);
+		folded.setCurrentFold(shard);
+		GradientServer server = new GradientServer(folded, 0);
+		server.setThreadCount(1);
+		server.start();
+		return server;
+	}
+	
+	public void testRemoteMatchesLocal() {
+		MLDataSet data = createData();
+		GradientServer server1 = createServer(data, 0, 2);
+		GradientServer server2 = createServer(data, 1, 2);
+		EngineConcurrency engine = new EngineConcurrency(2);
+		GradientCoordinator coordinator = new GradientCoordinator();
+		coordinator.addServer("localhost", server1.getPort());
+		coordinator.addServer("localhost", server2.getPort());
+		coordinator.setEngine(engine);
+		
+		try {
+			BasicNetwork localNetwork = NetworkUtil.createXORNetworkUntrained();
+			BasicNetwork remoteNetwork = (BasicNetwork)localNetwork.clone();
+			
+			Propagation local = new ResilientPropagation(localNetwork, data);
+			local.setNumThreads(1);
+			
+			// the coordinator does not need the data itself
+			Propagation remote = new ResilientPropagation(remoteNetwork,
+					new BasicMLDataSet());
+			((TrainFlatNetworkProp)remote.getFlatTraining())
+				.setGradientSource(coordinator);
+			
+			local.iteration();
+			remote.iteration();
+			double startError = remote.getError();
+			
+			for (int i = 0; i < 50; i++) {
+				local.iteration();
+				remote.iteration();
+				assertEquals(local.getError(), remote.getError(), 1e-9);
+			}
+			assertTrue(remote.getError() < startError);
+			
+			double[] w1 = localNetwork.getStructure().getFlat().getWeights();
+			double[] w2 = remoteNetwork.getStructure().getFlat().getWeights();
+			for (int i = 0; i < w1.length; i++) {
+				assertEquals(w1[i], w2[i], 1e-9);
+			}
+			
+			assertEquals(400, coordinator.getRecordCount());
+		} finally {
+			coordinator.close();
+			server1.stop();
+			server2.stop();
+			engine.shutdown(10);
+		}
+	}
+	
+	public void testIOExecutor() {
+		MLDataSet data = createData();
+		GradientServer server1 = createServer(data, 0, 2);
+		GradientServer server2 = createServer(data, 1, 2);
+		// no engine set, so the coordinator runs on its own I/O executor
+		GradientCoordinator coordinator = new GradientCoordinator();
+		coordinator.addServer("localhost", server1.getPort());
+		coordinator.addServer("localhost", server2.getPort());
+		
+		try {
+			BasicNetwork localNetwork = NetworkUtil.createXORNetworkUntrained();
+			BasicNetwork remoteNetwork = (BasicNetwork)localNetwork.clone();
+			
+			Propagation local = new ResilientPropagation(localNetwork, data);
+			local.setNumThreads(1);
+			Propagation remote = new ResilientPropagation(remoteNetwork,
+					new BasicMLDataSet());
+			((TrainFlatNetworkProp)remote.getFlatTraining())
+				.setGradientSource(coordinator);
+			
+			for (int i = 0; i < 5; i++) {
+				local.iteration();
+				remote.iteration();
+				assertEquals(local.getError(), remote.getError(), 1e-9);
+			}
+		} finally {
+			coordinator.close();
+			server1.stop();
+			server2.stop();
+		}
+		
+		try {
+			coordinator.calculateGradients(new double[1], new double[1]);
+			fail("Expected the closed coordinator to refuse");
+		} catch (EncogError e) {
+			// expected
+		}
+	}
+	
+	public void testMismatchedNetwork() {
+		MLDataSet data = new BasicMLDataSet(new double[][] { { 1, 2, 3 } },
+				new double[][] { { 1 } });
+		GradientServer server = createServer(data, 0, 1);
+		GradientCoordinator coordinator = new GradientCoordinator();
+		coordinator.addServer("localhost", server.getPort());
+		try {
+			Propagation remote = new ResilientPropagation(
+					NetworkUtil.createXORNetworkUntrained(), 
+					new BasicMLDataSet());
+			((TrainFlatNetworkProp)remote.getFlatTraining())
+				.setGradientSource(coordinator);
+			remote.iteration();
+			fail("Expected the server to reject the network");
+		} catch (EncogError e) {
+			// expected
+		} finally {
+			coordinator.close();
+			server.stop();
+		}
+	}
+
+	public void testOversizedFrame() throws Exception {
+		GradientServer server = createServer(createData(), 0, 1);
+		Socket socket = new Socket("localhost", server.getPort());
+		try {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			out.writeInt(RemoteConnection.MAGIC);
+			out.writeInt(RemoteConnection.VERSION);
+			out.flush();
+			assertEquals(RemoteConnection.STATUS_OK, in.readInt());
+			
+			// the server must refuse before allocating the buffer
+			out.writeInt(RemoteConnection.COMMAND_INIT);
+			out.writeInt(Integer.MAX_VALUE);
+			out.flush();
+			assertEquals(RemoteConnection.STATUS_ERROR, in.readInt());
+			assertTrue(in.readUTF().indexOf("Invalid network length") != -1);
+		} finally {
+			socket.close();
+			server.stop();
+		}
+	}
+	
+	public void testUnsupportedErrorFunction() {
+		GradientServer server = createServer(createData(), 0, 1);
+		GradientCoordinator coordinator = new GradientCoordinator();
+		coordinator.addServer("localhost", server.getPort());
+		try {
+			coordinator.init(NetworkUtil.createXORNetworkUntrained()
+					.getStructure().getFlat(), new ErrorFunction() {
+				public void calculateError(double[] ideal, double[] actual,
+						double[] error) {
+				}
+			}, true);
+			fail("Expected the error function to be rejected");
+		} catch (EncogError e) {
+			// expected
+		} finally {
+			coordinator.close();
+			server.stop();
+		}
+	}
+}
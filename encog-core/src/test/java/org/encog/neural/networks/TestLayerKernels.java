@@ -0,0 +1,108 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.networks;
+
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.engine.network.activation.ActivationGaussian;
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.engine.network.activation.ActivationSoftMax;
+import org.encog.engine.network.activation.ActivationTANH;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.networks.layers.BasicLayer;
+import org.encog.neural.pattern.ElmanPattern;
+
+public class TestLayerKernels extends TestCase {
+
+	private BasicNetwork create(ActivationFunction hidden,
+			ActivationFunction output) {
+		BasicNetwork network = new BasicNetwork();
+		network.addLayer(new BasicLayer(null, true, 7));
+		network.addLayer(new BasicLayer(hidden, true, 13));
+		network.addLayer(new BasicLayer(output, false, 6));
+		network.getStructure().finalizeStructure();
+		network.reset(42);
+		return network;
+	}
+
+	private void compare(FlatNetwork flat) {
+		FlatNetwork kernels = flat.clone();
+		kernels.useLayerKernels(true);
+		Assert.assertTrue(kernels.isUsingLayerKernels());
+
+		Random rnd = new Random(1);
+		double[] input = new double[flat.getInputCount()];
+		double[] expected = new double[flat.getOutputCount()];
+		double[] actual = new double[flat.getOutputCount()];
+
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < input.length; j++) {
+				input[j] = rnd.nextDouble() * 4 - 2;
+			}
+			flat.compute(input, expected);
+			kernels.compute(input, actual);
+			for (int j = 0; j < expected.length; j++) {
+				Assert.assertEquals(expected[j], actual[j], 0);
+			}
+			for (int j = 0; j < flat.getLayerSums().length; j++) {
+				Assert.assertEquals(flat.getLayerSums()[j], kernels
+						.getLayerSums()[j], 0);
+			}
+		}
+	}
+
+	public void testSpecialized() {
+		compare(create(new ActivationSigmoid(), new ActivationSigmoid())
+				.getFlat());
+		compare(create(new ActivationTANH(), new ActivationTANH()).getFlat());
+		compare(create(new ActivationTANH(), null).getFlat());
+	}
+
+	public void testGeneric() {
+		compare(create(new ActivationGaussian(0, 1, 1),
+				new ActivationSoftMax()).getFlat());
+	}
+
+	public void testFast() {
+		FlatNetwork flat = create(new ActivationTANH(),
+				new ActivationSigmoid()).getFlat();
+		flat.useFastActivation(true);
+		compare(flat);
+	}
+
+	public void testContext() {
+		ElmanPattern pattern = new ElmanPattern();
+		pattern.setActivationFunction(new ActivationSigmoid());
+		pattern.setInputNeurons(3);
+		pattern.addHiddenLayer(9);
+		pattern.setOutputNeurons(2);
+		BasicNetwork network = (BasicNetwork) pattern.generate();
+		network.reset(7);
+		compare(network.getFlat());
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.networks;
+
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.engine.network.activation.ActivationSoftMax;
+import org.encog.engine.network.activation.ActivationTANH;
+import org.encog.neural.flat.FlatNetwork;
+import org.encog.neural.flat.kernel.LayerKernel;
+import org.encog.neural.flat.kernel.LayerKernelVector;
+import org.encog.neural.flat.kernel.VectorOps;
+import org.encog.neural.flat.kernel.VectorOpsFactory;
+import org.encog.neural.flat.kernel.VectorOpsPortable;
+import org.encog.neural.networks.layers.BasicLayer;
+
+public class TestVectorOps extends TestCase {
+
+	public void testPortable() {
+		VectorOps ops = new VectorOpsPortable();
+		double[] a = { 1, 2, 3, 4, 5 };
+		double[] b = { 5, 4, 3, 2, 1 };
+		Assert.assertEquals(1 * 4 + 2 * 3 + 3 * 2, ops.dot(a, 0, b, 1, 3), 0);
+
+		ops.axpy(2, a, 1, b, 0, 3);
+		Assert.assertEquals(9.0, b[0], 0);
+		Assert.assertEquals(10.0, b[1], 0);
+		Assert.assertEquals(11.0, b[2], 0);
+		Assert.assertEquals(2.0, b[3], 0);
+
+		double[] d = { 0, 1, -1 };
+		ops.sigmoid(d, 1, 2);
+		Assert.assertEquals(0.0, d[0], 0);
+		Assert.assertEquals(1.0 / (1.0 + Math.exp(-1)), d[1], 1e-15);
+		Assert.assertEquals(1.0 / (1.0 + Math.exp(1)), d[2], 1e-15);
+	}
+
+	public void testDefault() {
+		// no providers are on the test classpath
+		Assert.assertFalse(VectorOpsFactory.isAccelerated());
+	}
+
+	private void compare(ActivationFunction af) {
+		BasicNetwork network = new BasicNetwork();
+		network.addLayer(new BasicLayer(null, true, 7));
+		network.addLayer(new BasicLayer(af, true, 13));
+		network.addLayer(new BasicLayer(af, false, 6));
+		network.getStructure().finalizeStructure();
+		network.reset(42);
+		FlatNetwork flat = network.getFlat();
+
+		LayerKernel kernel = new LayerKernelVector(af, new VectorOpsPortable());
+		double[] weights = flat.getWeights();
+		double[] expectedOut = flat.getLayerOutput().clone();
+		double[] expectedSums = flat.getLayerSums().clone();
+
+		Random rnd = new Random(1);
+		int inputIndex = flat.getLayerIndex()[1];
+		int inputSize = flat.getLayerCounts()[1];
+		int outputIndex = flat.getLayerIndex()[0];
+		int outputSize = flat.getLayerFeedCounts()[0];
+		int weightIndex = flat.getWeightIndex()[0];
+		for (int i = 0; i < inputSize; i++) {
+			expectedOut[inputIndex + i] = rnd.nextDouble() * 4 - 2;
+		}
+		double[] actualOut = expectedOut.clone();
+		double[] actualSums = expectedSums.clone();
+
+		for (int x = 0; x < outputSize; x++) {
+			double sum = 0;
+			for (int i = 0; i < inputSize; i++) {
+				sum += weights[weightIndex + x * inputSize + i]
+						* expectedOut[inputIndex + i];
+			}
+			expectedSums[outputIndex + x] = sum;
+			expectedOut[outputIndex + x] = sum;
+		}
+		af.activationFunction(expectedOut, outputIndex, outputSize);
+
+		kernel.compute(weights, weightIndex, actualOut, actualSums,
+				inputIndex, inputSize, outputIndex, outputSize);
+
+		for (int i = 0; i < expectedOut.length; i++) {
+			Assert.assertEquals(expectedOut[i], actualOut[i], 0);
+			Assert.assertEquals(expectedSums[i], actualSums[i], 0);
+		}
+	}
+
+	public void testKernel() {
+		compare(new ActivationSigmoid());
+		compare(new ActivationTANH());
+		compare(new ActivationSoftMax());
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Encog(tm) Core Unit Tests v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.networks.training;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.encog.EncogError;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.neural.flat.train.prop.CPUTrainingProfile;
+import org.encog.neural.flat.train.prop.CPUTrainingProfileTuner;
+import org.encog.neural.flat.train.prop.TrainFlatNetworkProp;
+import org.encog.neural.flat.train.prop.TrainingMetrics;
+import org.encog.neural.flat.train.prop.TrainingMetricsListener;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.NetworkUtil;
+import org.encog.neural.networks.XOR;
+import org.encog.neural.networks.structure.NetworkCODEC;
+import org.encog.neural.networks.training.propagation.back.Backpropagation;
+import org.encog.neural.networks.training.propagation.resilient.ResilientPropagation;
+import org.junit.Assert;
+
+public class TestCPUTrainingProfile extends TestCase {
+
+	public void testChunked() {
+		BasicNetwork network1 = NetworkUtil.createXORNetworkUntrained();
+		BasicNetwork network2 = NetworkUtil.createXORNetworkUntrained();
+		MLDataSet trainingData = XOR.createNoisyXORDataSet(250);
+
+		ResilientPropagation rprop1 = new ResilientPropagation(network1,
+				trainingData);
+		rprop1.setNumThreads(1);
+		ResilientPropagation rprop2 = new ResilientPropagation(network2,
+				trainingData);
+		rprop2.setProfile(new CPUTrainingProfile(4, 7, 0));
+
+		for (int i = 0; i < 5; i++) {
+			rprop1.iteration();
+			rprop2.iteration();
+		}
+
+		// only the order the gradients are summed in differs
+		Assert.assertEquals(rprop1.getError(), rprop2.getError(), 1e-8);
+		Assert.assertArrayEquals(NetworkCODEC.networkToArray(network1),
+				NetworkCODEC.networkToArray(network2), 1e-8);
+	}
+
+	public void testBatch() {
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		MLDataSet trainingData = XOR.createNoisyXORDataSet(25);
+		Assert.assertEquals(100, trainingData.getRecordCount());
+
+		Backpropagation train = new Backpropagation(network, trainingData,
+				0.7, 0.3);
+		train.setProfile(new CPUTrainingProfile(2, 0, 30));
+		final List<TrainingMetrics> metrics = new ArrayList<TrainingMetrics>();
+		((TrainFlatNetworkProp) train.getFlatTraining())
+				.addMetricsListener(new TrainingMetricsListener() {
+					public void iterationComplete(TrainingMetrics m) {
+						metrics.add(m);
+					}
+				});
+
+		// the last batch is cut short, then batches start over
+		int[] start = { 0, 30, 60, 90, 0 };
+		int[] end = { 30, 60, 90, 100, 30 };
+		for (int i = 0; i < start.length; i++) {
+			// the error is calculated with the weights before the iteration
+			BasicMLDataSet window = new BasicMLDataSet();
+			for (int j = start[i]; j < end[i]; j++) {
+				MLDataPair pair = BasicMLDataPair.createPair(
+						trainingData.getInputSize(),
+						trainingData.getIdealSize());
+				trainingData.getRecord(j, pair);
+				window.add(pair);
+			}
+			double expected = network.calculateError(window);
+			train.iteration();
+			Assert.assertEquals(expected, train.getError(), 1e-9);
+			Assert.assertEquals(end[i] - start[i], metrics.get(i).getRecords());
+		}
+	}
+
+	public void testSetLate() {
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		ResilientPropagation train = new ResilientPropagation(network,
+				XOR.createXORDataSet());
+		train.iteration();
+		try {
+			train.setProfile(new CPUTrainingProfile());
+			Assert.fail("Profile should not be accepted after training began");
+		} catch (EncogError e) {
+			// expected
+		}
+	}
+
+	public void testInvalid() {
+		try {
+			new CPUTrainingProfile(-1, 0, 0);
+			Assert.fail("Negative thread count should be rejected");
+		} catch (EncogError e) {
+			// expected
+		}
+	}
+
+	public void testTuner() {
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		double[] before = NetworkCODEC.networkToArray(network);
+		CPUTrainingProfileTuner tuner = new CPUTrainingProfileTuner(
+				network.getFlat(), XOR.createNoisyXORDataSet(200), 0, 2);
+		CPUTrainingProfile best = tuner.tune();
+		Assert.assertNotNull(best);
+		Assert.assertSame(best, tuner.getBest());
+		Assert.assertTrue(tuner.getBestMillis() >= 0);
+		Assert.assertArrayEquals(before, NetworkCODEC.networkToArray(network),
+				0);
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.networks.training;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.train.strategy.CheckpointStrategy;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.NetworkUtil;
+import org.encog.neural.networks.XOR;
+import org.encog.neural.networks.structure.NetworkCODEC;
+import org.encog.neural.networks.training.propagation.resilient.ResilientPropagation;
+import org.encog.util.TempDir;
+import org.junit.Assert;
+
+public class TestCheckpointStrategy extends TestCase {
+
+	public final TempDir TEMP_DIR = new TempDir();
+	public final File CHECKPOINT = TEMP_DIR.createFile("checkpoint.eg");
+	public final File MISSING = TEMP_DIR.createFile("checkpoint-missing.eg");
+
+	public void testRestoreRPROP()
+	{
+		BasicNetwork network1 = NetworkUtil.createXORNetworkUntrained();
+		BasicNetwork network2 = NetworkUtil.createXORNetworkUntrained();
+		MLDataSet trainingData = new BasicMLDataSet(XOR.XOR_INPUT,XOR.XOR_IDEAL);
+
+		// train network 1 without interruption
+		ResilientPropagation rprop1 = new ResilientPropagation(network1,trainingData);
+		for (int i = 0; i < 6; i++) {
+			rprop1.iteration();
+		}
+
+		// train network 2 with checkpoints, then stop after the last one
+		CHECKPOINT.delete();
+		ResilientPropagation rprop2 = new ResilientPropagation(network2,trainingData);
+		CheckpointStrategy checkpoint = new CheckpointStrategy(CHECKPOINT, 2);
+		rprop2.addStrategy(checkpoint);
+		for (int i = 0; i < 4; i++) {
+			rprop2.iteration();
+		}
+		checkpoint.close();
+		Assert.assertTrue(checkpoint.getCheckpointCount() >= 1);
+		Assert.assertTrue(CHECKPOINT.exists());
+		Assert.assertFalse(new File(CHECKPOINT.getPath() + ".tmp").exists());
+
+		// restart from the checkpoint, with a freshly randomized network
+		BasicNetwork network3 = NetworkUtil.createXORNetworkUntrained();
+		network3.reset();
+		ResilientPropagation rprop3 = new ResilientPropagation(network3,trainingData);
+		CheckpointStrategy restart = new CheckpointStrategy(CHECKPOINT, 2);
+		rprop3.addStrategy(restart);
+		Assert.assertTrue(restart.restore());
+		Assert.assertEquals(4, rprop3.getIteration());
+		rprop3.iteration();
+		rprop3.iteration();
+		restart.close();
+
+		double[] weights1 = NetworkCODEC.networkToArray(network1);
+		double[] weights3 = NetworkCODEC.networkToArray(network3);
+		Assert.assertEquals(rprop1.getError(), rprop3.getError(), 0.01);
+		Assert.assertArrayEquals(weights1, weights3, 0.01);
+	}
+
+	public void testWriterInterrupted() throws InterruptedException
+	{
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		MLDataSet trainingData = new BasicMLDataSet(XOR.XOR_INPUT,XOR.XOR_IDEAL);
+		ResilientPropagation rprop = new ResilientPropagation(network,trainingData);
+		CHECKPOINT.delete();
+		CheckpointStrategy checkpoint = new CheckpointStrategy(CHECKPOINT, 1);
+		rprop.addStrategy(checkpoint);
+		rprop.iteration();
+		checkpoint.waitForCompletion();
+		Assert.assertEquals(1, checkpoint.getCheckpointCount());
+
+		// stop the idle writer thread, as an application shutting down might
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if ("Encog checkpoint".equals(thread.getName())) {
+				thread.interrupt();
+				thread.join(10000);
+			}
+		}
+
+		// later checkpoints must still be written rather than hang
+		rprop.iteration();
+		checkpoint.waitForCompletion();
+		Assert.assertEquals(2, checkpoint.getCheckpointCount());
+		rprop.iteration();
+		checkpoint.close();
+		Assert.assertEquals(3, checkpoint.getCheckpointCount());
+	}
+
+	public void testNoCheckpoint()
+	{
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		MLDataSet trainingData = new BasicMLDataSet(XOR.XOR_INPUT,XOR.XOR_IDEAL);
+		ResilientPropagation rprop = new ResilientPropagation(network,trainingData);
+		MISSING.delete();
+		CheckpointStrategy checkpoint = new CheckpointStrategy(MISSING, 2);
+		rprop.addStrategy(checkpoint);
+		Assert.assertFalse(checkpoint.restore());
+		checkpoint.close();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		TEMP_DIR.dispose();
+	}
+}
@@ -29,6 +29,7 @@ import org.encog.ml.train.strategy.Greedy;
 import org.encog.ml.train.strategy.HybridStrategy;
 import org.encog.ml.train.strategy.ResetStrategy;
 import org.encog.ml.train.strategy.StopTrainingStrategy;
+import org.encog.ml.train.strategy.end.EarlyStoppingStrategy;
 import org.encog.neural.networks.BasicNetwork;
 import org.encog.neural.networks.XOR;
 import org.encog.neural.networks.training.strategy.SmartLearningRate;
@@ -136,4 +137,42 @@ public class TestStrategy extends TestCase{
 		Assert.assertEquals(0.2475, mock.getLearningRate(),0.1);
 		
 	}
+
+	public void testEarlyStopping()
+	{
+		FeedForwardPattern pattern = new FeedForwardPattern();
+		pattern.setInputNeurons(2);
+		pattern.setOutputNeurons(1);
+		BasicNetwork network = (BasicNetwork)pattern.generate();
+		
+		// find the validation error for each weight that will be "trained"
+		double[] values = { 3.0, 1.0, -2.0, 0.5, 5.0, 4.0, 6.0, 7.0, 8.0 };
+		double bestError = Double.MAX_VALUE;
+		double bestValue = 0;
+		for (double value : values) {
+			MockTrain.setFirstElement(value, network);
+			double error = network.calculateError(XOR.createXORDataSet());
+			if (error < bestError) {
+				bestError = error;
+				bestValue = value;
+			}
+		}
+		
+		EarlyStoppingStrategy strategy = new EarlyStoppingStrategy(
+				XOR.createXORDataSet(), 3);
+		MockTrain mock = new MockTrain();
+		mock.setNetwork(network);
+		mock.addStrategy(strategy);
+		
+		int iterations = 0;
+		do {
+			mock.simulate(0.1, values[iterations++]);
+		} while (!mock.isTrainingDone() && iterations < values.length);
+		strategy.finish();
+		
+		Assert.assertTrue(mock.isTrainingDone());
+		Assert.assertTrue(iterations < values.length);
+		Assert.assertEquals(bestError, strategy.getBestError(), 1e-12);
+		Assert.assertEquals(bestValue, MockTrain.getFirstElement(network), 0.0);
+	}
 }
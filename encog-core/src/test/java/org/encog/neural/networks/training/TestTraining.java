@@ -23,12 +23,18 @@
  */
 package org.encog.neural.networks.training;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import org.encog.mathutil.randomize.RangeRandomizer;
 import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.basic.BasicMLDataSet;
 import org.encog.ml.train.MLTrain;
+import org.encog.neural.flat.train.prop.TrainFlatNetworkProp;
+import org.encog.neural.flat.train.prop.TrainingMetrics;
+import org.encog.neural.flat.train.prop.TrainingMetricsListener;
 import org.encog.neural.networks.BasicNetwork;
 import org.encog.neural.networks.NetworkUtil;
 import org.encog.neural.networks.XOR;
@@ -37,6 +43,7 @@ import org.encog.neural.networks.training.genetic.NeuralGeneticAlgorithm;
 import org.encog.neural.networks.training.lma.LevenbergMarquardtTraining;
 import org.encog.neural.networks.training.pnn.TrainBasicPNN;
 import org.encog.neural.networks.training.propagation.back.Backpropagation;
+import org.encog.neural.networks.training.propagation.Propagation;
 import org.encog.neural.networks.training.propagation.manhattan.ManhattanPropagation;
 import org.encog.neural.networks.training.propagation.resilient.ResilientPropagation;
 import org.encog.neural.networks.training.propagation.scg.ScaledConjugateGradient;
@@ -109,6 +116,35 @@ public class TestTraining extends TestCase   {
 		NetworkUtil.testTraining(anneal,0.01);
 	}
 	
+	@Test
+	public void testAnnealChains() throws Throwable
+	{
+		MLDataSet trainingData = new BasicMLDataSet(XOR.XOR_INPUT,XOR.XOR_IDEAL);		
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		CalculateScore score = new TrainingSetScore(trainingData);
+		NeuralSimulatedAnnealing anneal = new NeuralSimulatedAnnealing(network,score,10,2,100);
+		anneal.setChains(4);
+		anneal.setExchangeCycles(25);
+		NetworkUtil.testTraining(anneal,0.01);
+		assertEquals(anneal.getError(), score.calculateScore(network), 0.000001);
+	}
+	
+	@Test
+	public void testAnnealChainsExchange() throws Throwable
+	{
+		MLDataSet trainingData = new BasicMLDataSet(XOR.XOR_INPUT,XOR.XOR_IDEAL);		
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		CalculateScore score = new TrainingSetScore(trainingData);
+		NeuralSimulatedAnnealing anneal = new NeuralSimulatedAnnealing(network,score,10,2,100);
+		anneal.setChains(8);
+		anneal.setExchangeCycles(2);
+		// many short rounds, the weights kept must always match the score
+		for (int i = 0; i < 10; i++) {
+			anneal.iteration();
+			assertEquals(anneal.getError(), score.calculateScore(network), 0.000001);
+		}
+	}
+	
 	@Test
 	public void testGenetic() throws Throwable
 	{
@@ -150,4 +186,66 @@ public class TestTraining extends TestCase   {
 		
 		XOR.verifyXOR(network, 0.01);
 	}
+
+	private List<TrainingMetrics> collectMetrics(Propagation train, int iterations)
+	{
+		final List<TrainingMetrics> result = new ArrayList<TrainingMetrics>();
+		TrainingMetricsListener listener = new TrainingMetricsListener() {
+			public void iterationComplete(TrainingMetrics metrics) {
+				result.add(metrics);
+			}
+		};
+		TrainFlatNetworkProp flat = (TrainFlatNetworkProp)train.getFlatTraining();
+		flat.addMetricsListener(listener);
+		train.iteration(iterations);
+		// the metrics of the last iteration carry the trainer's error
+		assertEquals(train.getError(), result.get(result.size()-1).getError(), 0.0);
+		flat.removeMetricsListener(listener);
+		// no more metrics once the listener is removed
+		train.iteration();
+		return result;
+	}
+	
+	@Test
+	public void testMetrics() throws Throwable
+	{
+		double[][] input = new double[2000][2];
+		double[][] ideal = new double[2000][1];
+		for(int i=0;i<input.length;i++) {
+			input[i][0] = (i%7)/7.0;
+			input[i][1] = (i%11)/11.0;
+			ideal[i][0] = (input[i][0]+input[i][1])/2;
+		}
+		MLDataSet trainingData = new BasicMLDataSet(input,ideal);
+		
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		Propagation rprop = new ResilientPropagation(network, trainingData);
+		rprop.setNumThreads(2);
+		List<TrainingMetrics> list = collectMetrics(rprop,5);
+		
+		assertEquals(5, list.size());
+		for(int i=0;i<list.size();i++) {
+			TrainingMetrics metrics = list.get(i);
+			assertEquals(i+1, metrics.getIteration());
+			assertEquals(2000, metrics.getRecords());
+			assertEquals(2, metrics.getWorkerCount());
+			assertTrue(metrics.getComputeNanos()>0);
+			assertTrue(metrics.getIterationNanos()>=metrics.getGradientNanos());
+			assertTrue(metrics.getRecordsPerSecond()>0);
+			assertTrue(metrics.getUtilization()>0 && metrics.getUtilization()<=1);
+			assertTrue(metrics.getGCCount()>=0);
+			assertTrue(metrics.getPoolTaskNanos()>0);
+			assertTrue(metrics.getPoolQueueNanos()>=0);
+		}
+		
+		// SCG calculates the gradients more than once per iteration
+		Propagation scg = new ScaledConjugateGradient(
+				NetworkUtil.createXORNetworkUntrained(), trainingData);
+		list = collectMetrics(scg,3);
+		assertEquals(3, list.size());
+		for(TrainingMetrics metrics: list) {
+			assertTrue(metrics.getRecords()>=2000);
+			assertEquals(0, metrics.getRecords()%2000);
+		}
+	}
 }
@@ -34,6 +34,7 @@ import org.encog.neural.networks.structure.NetworkCODEC;
 import org.encog.neural.networks.training.propagation.TrainingContinuation;
 import org.encog.neural.networks.training.propagation.back.Backpropagation;
 import org.encog.neural.networks.training.propagation.resilient.ResilientPropagation;
+import org.encog.neural.networks.training.propagation.scg.ScaledConjugateGradient;
 import org.junit.Assert;
 
 public class TestTrainingContinuation extends TestCase {
@@ -102,4 +103,36 @@ public class TestTrainingContinuation extends TestCase {
 		Assert.assertArrayEquals(weights1, weights2, 0.01);
 		
 	}
+	
+	public void testContSCG()
+	{
+		BasicNetwork network1 = NetworkUtil.createXORNetworkUntrained();
+		BasicNetwork network2 = NetworkUtil.createXORNetworkUntrained();
+		MLDataSet trainingData = new BasicMLDataSet(XOR.XOR_INPUT,XOR.XOR_IDEAL);
+		
+		// train network 1, no continue
+		ScaledConjugateGradient scg1 = new ScaledConjugateGradient(network1,trainingData);
+		scg1.iteration();
+		scg1.iteration();
+		scg1.iteration();
+		scg1.iteration();
+		
+		// train network 2, continue
+		ScaledConjugateGradient scg2 = new ScaledConjugateGradient(network2,trainingData);
+		scg2.iteration();
+		scg2.iteration();
+		TrainingContinuation state = scg2.pause();
+		scg2 = new ScaledConjugateGradient(network2,trainingData);
+		scg2.resume(state);
+		scg2.iteration();
+		scg2.iteration();
+		
+		// verify weights are the same
+		double[] weights1 = NetworkCODEC.networkToArray(network1);
+		double[] weights2 = NetworkCODEC.networkToArray(network2);
+		
+		Assert.assertEquals(scg1.getError(), scg2.getError(), 0.01);
+		Assert.assertEquals(weights1.length, weights2.length);
+		Assert.assertArrayEquals(weights1, weights2, 0.01);
+	}
 }
@@ -0,0 +1,110 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.networks.training.genetic;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.genetic.crossover.Splice;
+import org.encog.ml.genetic.genome.DoubleChromosome;
+import org.encog.ml.genetic.mutate.MutatePerturb;
+import org.encog.ml.genetic.mutate.MutateShuffle;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.NetworkUtil;
+
+public class TestNeuralGenome extends TestCase {
+
+	private DoubleChromosome create(int length, double base) {
+		DoubleChromosome result = new DoubleChromosome(length);
+		for (int i = 0; i < length; i++) {
+			result.getData()[i] = base + i;
+		}
+		return result;
+	}
+
+	public void testSharesWeights() {
+		BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+		NeuralGenome genome = new NeuralGenome(network);
+		DoubleChromosome chromosome = (DoubleChromosome) genome
+				.getChromosomes().get(0);
+
+		Assert.assertEquals(network.encodedArrayLength(), genome
+				.calculateGeneCount());
+		Assert.assertEquals(0, chromosome.getGenes().size());
+		Assert.assertSame(network.getStructure().getFlat().getWeights(),
+				chromosome.getData());
+
+		BasicMLData input = new BasicMLData(new double[] { 1, 0 });
+		double before = network.compute(input).getData(0);
+		for (int i = 0; i < chromosome.size(); i++) {
+			chromosome.getData()[i] += 0.5;
+		}
+		genome.decode();
+		Assert.assertTrue(before != network.compute(input).getData(0));
+	}
+
+	public void testSplice() {
+		DoubleChromosome mother = create(20, 0);
+		DoubleChromosome father = create(20, 100);
+		DoubleChromosome child1 = new DoubleChromosome(20);
+		DoubleChromosome child2 = new DoubleChromosome(20);
+
+		for (int trial = 0; trial < 50; trial++) {
+			new Splice(5).mate(mother, father, child1, child2);
+			int fromFather = 0;
+			for (int i = 0; i < 20; i++) {
+				if (child1.getData()[i] == father.getData()[i]) {
+					Assert.assertEquals(mother.getData()[i], child2.getData()[i]);
+					fromFather++;
+				} else {
+					Assert.assertEquals(mother.getData()[i], child1.getData()[i]);
+					Assert.assertEquals(father.getData()[i], child2.getData()[i]);
+				}
+			}
+			Assert.assertEquals(6, fromFather);
+		}
+	}
+
+	public void testMutate() {
+		DoubleChromosome chromosome = create(50, 0);
+		new MutatePerturb(0.25).performMutation(chromosome);
+		for (int i = 0; i < 50; i++) {
+			Assert.assertEquals(i, chromosome.getData()[i], 0.25);
+		}
+
+		chromosome = create(50, 0);
+		new MutateShuffle().performMutation(chromosome);
+		int moved = 0;
+		double total = 0;
+		for (int i = 0; i < 50; i++) {
+			if (chromosome.getData()[i] != i) {
+				moved++;
+			}
+			total += chromosome.getData()[i];
+		}
+		Assert.assertEquals(2, moved);
+		Assert.assertEquals(49 * 50 / 2, total, 0);
+	}
+}
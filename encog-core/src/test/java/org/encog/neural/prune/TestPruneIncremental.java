@@ -0,0 +1,107 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.prune;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.encog.NullStatusReportable;
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.buffer.BufferedNeuralDataSet;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.XOR;
+import org.encog.neural.pattern.FeedForwardPattern;
+
+public class TestPruneIncremental extends TestCase {
+
+	private PruneIncremental create(int iterations) {
+		return create(XOR.createXORDataSet(), iterations);
+	}
+
+	private PruneIncremental create(MLDataSet training, int iterations) {
+		FeedForwardPattern pattern = new FeedForwardPattern();
+		pattern.setInputNeurons(2);
+		pattern.setOutputNeurons(1);
+		pattern.setActivationFunction(new ActivationSigmoid());
+		PruneIncremental prune = new PruneIncremental(training, pattern,
+				iterations, 2, 2, new NullStatusReportable());
+		prune.addHiddenLayer(1, 8);
+		return prune;
+	}
+
+	public void testSuccessiveHalving() {
+		PruneIncremental prune = create(99);
+		prune.setReductionFactor(3);
+		prune.process();
+
+		// 16 candidates to 11 iterations, 6 on to 33, 2 on to 99
+		assertTrue(prune.getIterationsUsed() > 0);
+		assertTrue(prune.getIterationsUsed() <= 16 * 11 + 6 * 22 + 2 * 66);
+		assertNotNull(prune.getBestNetwork());
+		for (BasicNetwork network : prune.getTopNetworks()) {
+			assertNotNull(network);
+		}
+		double[][] results = prune.getResults();
+		for (int i = 0; i < results.length; i++) {
+			assertTrue(results[i][0] > 0);
+		}
+	}
+
+	public void testFullSearch() {
+		PruneIncremental prune = create(20);
+		prune.process();
+		assertNotNull(prune.getBestNetwork());
+		assertTrue(prune.getIterationsUsed() <= 8 * 2 * 20);
+	}
+
+	public void testBufferedData() throws Exception {
+		File file = File.createTempFile("prune", ".egb");
+		file.delete();
+		BufferedNeuralDataSet buffer = new BufferedNeuralDataSet(file);
+		buffer.load(XOR.createXORDataSet());
+		try {
+			create(buffer, 20).process();
+			PruneIncremental prune = create(buffer, 33);
+			prune.setReductionFactor(3);
+			prune.process();
+			
+			// the workers must only close their own copies of the set
+			XOR.testXORDataSet(buffer);
+		} finally {
+			buffer.close();
+			file.delete();
+		}
+	}
+
+	public void testBadReductionFactor() {
+		try {
+			create(10).setReductionFactor(1);
+			fail("Expected an error");
+		} catch (Exception e) {
+			// expected
+		}
+	}
+}
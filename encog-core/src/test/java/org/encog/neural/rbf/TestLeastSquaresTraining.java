@@ -0,0 +1,150 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.rbf;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.encog.mathutil.rbf.RBFEnum;
+import org.encog.ml.data.MLData;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.neural.rbf.training.LeastSquaresTraining;
+import org.encog.neural.rbf.training.SVDTraining;
+
+public class TestLeastSquaresTraining extends TestCase {
+
+	private BasicMLDataSet createData(int count, int outputs, long seed) {
+		Random rnd = new Random(seed);
+		BasicMLDataSet result = new BasicMLDataSet();
+		for (int i = 0; i < count; i++) {
+			MLData input = new BasicMLData(2);
+			input.setData(0, rnd.nextDouble() * 2 - 1);
+			input.setData(1, rnd.nextDouble() * 2 - 1);
+			MLData ideal = new BasicMLData(outputs);
+			for (int o = 0; o < outputs; o++) {
+				ideal.setData(o, Math.sin(input.getData(0) * (o + 1))
+						* Math.cos(input.getData(1)));
+			}
+			result.add(input, ideal);
+		}
+		return result;
+	}
+
+	private double calculateRMS(RBFNetwork network, BasicMLDataSet data) {
+		double sum = 0;
+		for (MLDataPair pair : data) {
+			MLData output = network.compute(pair.getInput());
+			for (int o = 0; o < output.size(); o++) {
+				double diff = pair.getIdeal().getData(o) - output.getData(o);
+				sum += diff * diff;
+			}
+		}
+		return Math.sqrt(sum / (data.getRecordCount() * data.getIdealSize()));
+	}
+
+	public void testSameAsSVD() {
+		BasicMLDataSet data = createData(500, 1, 1);
+		RBFNetwork network = new RBFNetwork(2, 9, 1, RBFEnum.Gaussian);
+		// the centers are equally spaced, so both networks are the same
+		RBFNetwork network2 = new RBFNetwork(2, 9, 1, RBFEnum.Gaussian);
+
+		SVDTraining svd = new SVDTraining(network, data);
+		svd.iteration();
+		LeastSquaresTraining train = new LeastSquaresTraining(network2, data);
+		train.setThreadCount(4);
+		train.iteration();
+
+		assertEquals(svd.getError(), train.getError(), 1e-6);
+		for (int i = 0; i < 9; i++) {
+			assertEquals(network.getFlat().getWeights()[i], network2.getFlat()
+					.getWeights()[i], 1e-4);
+		}
+	}
+
+	public void testMultipleOutputs() {
+		BasicMLDataSet data = createData(400, 3, 2);
+		RBFNetwork network = new RBFNetwork(2, 16, 3, RBFEnum.Gaussian);
+		network.setRBFCentersAndWidthsEqualSpacing(-1, 1, RBFEnum.Gaussian,
+				0.5, false);
+		LeastSquaresTraining train = new LeastSquaresTraining(network, data);
+		train.iteration();
+		assertTrue(train.getError() < 0.05);
+		assertEquals(calculateRMS(network, data), train.getError(), 1e-10);
+	}
+
+	public void testSingular() {
+		BasicMLDataSet data = createData(300, 1, 3);
+		RBFNetwork network = new RBFNetwork(2, 4, 1, RBFEnum.Gaussian);
+		LeastSquaresTraining train = new LeastSquaresTraining(network, data);
+		train.iteration();
+		double expected = train.getError();
+
+		// the same RBF twice makes the normal equations singular
+		RBFNetwork network2 = new RBFNetwork(2, 5, 1, RBFEnum.Gaussian);
+		for (int i = 0; i < 5; i++) {
+			int from = Math.min(i, 3);
+			network2.setRBFFunction(i, RBFEnum.Gaussian,
+					network.getRBF()[from].getCenters().clone(), network
+							.getRBF()[from].getWidth());
+		}
+		LeastSquaresTraining train2 = new LeastSquaresTraining(network2, data);
+		train2.iteration();
+		assertEquals(expected, train2.getError(), 1e-6);
+		assertEquals(calculateRMS(network2, data), train2.getError(), 1e-10);
+	}
+
+	public void testPlaceCenters() {
+		double[][] clusters = { { 0, 0 }, { 5, 5 }, { -5, 5 } };
+		Random rnd = new Random(4);
+		BasicMLDataSet data = new BasicMLDataSet();
+		for (int i = 0; i < 600; i++) {
+			double[] c = clusters[i % 3];
+			MLData input = new BasicMLData(new double[] {
+					c[0] + rnd.nextGaussian() * 0.1,
+					c[1] + rnd.nextGaussian() * 0.1 });
+			data.add(input, new BasicMLData(new double[] { i % 3 }));
+		}
+
+		RBFNetwork network = new RBFNetwork(2, 3, 1, RBFEnum.Gaussian);
+		LeastSquaresTraining train = new LeastSquaresTraining(network, data);
+		train.setCenterIterations(20);
+		train.iteration();
+
+		for (double[] c : clusters) {
+			boolean found = false;
+			for (int i = 0; i < 3; i++) {
+				double[] center = network.getRBF()[i].getCenters();
+				if (Math.abs(center[0] - c[0]) < 0.1
+						&& Math.abs(center[1] - c[1]) < 0.1) {
+					found = true;
+				}
+			}
+			assertTrue(found);
+		}
+		assertTrue(train.getError() < 0.1);
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.neural.thermal;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.encog.ml.data.MLData;
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.data.specific.BiPolarNeuralData;
+
+public class TestThermal extends TestCase {
+
+	private MLData[] createPatterns(int count, int size, long seed) {
+		Random rnd = new Random(seed);
+		MLData[] result = new MLData[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = new BasicMLData(size);
+			for (int j = 0; j < size; j++) {
+				result[i].setData(j, rnd.nextBoolean() ? 1 : -1);
+			}
+		}
+		return result;
+	}
+
+	private void checkWeights(HopfieldNetwork network, MLData[] patterns) {
+		int n = network.getNeuronCount();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				double expected = 0;
+				for (MLData pattern : patterns) {
+					expected += pattern.getData(i) * pattern.getData(j)
+							- (i == j ? 1 : 0);
+				}
+				assertEquals(expected, network.getWeight(i, j), 0.0);
+			}
+		}
+	}
+
+	public void testAddPattern() {
+		MLData[] patterns = createPatterns(3, 20, 1);
+		HopfieldNetwork network = new HopfieldNetwork(20);
+		for (MLData pattern : patterns) {
+			network.addPattern(pattern);
+		}
+		checkWeights(network, patterns);
+	}
+
+	public void testAddPatternsParallel() {
+		int n = HopfieldNetwork.PARALLEL_NEURONS * 2;
+		MLData[] patterns = createPatterns(5, n, 2);
+		HopfieldNetwork network = new HopfieldNetwork(n);
+		network.addPatterns(patterns);
+		checkWeights(network, patterns);
+
+		HopfieldNetwork network2 = new HopfieldNetwork(n);
+		for (MLData pattern : patterns) {
+			network2.addPattern(pattern);
+		}
+		for (int i = 0; i < network.getWeights().length; i++) {
+			assertEquals(network2.getWeights()[i], network.getWeights()[i],
+					0.0);
+		}
+	}
+
+	public void testAddPatternsDataSet() {
+		MLData[] patterns = createPatterns(4, 16, 3);
+		BasicMLDataSet set = new BasicMLDataSet();
+		for (MLData pattern : patterns) {
+			set.add(pattern);
+		}
+		HopfieldNetwork network = new HopfieldNetwork(16);
+		network.addPatterns(set);
+		checkWeights(network, patterns);
+	}
+
+	private BiPolarNeuralData corrupt(MLData pattern) {
+		BiPolarNeuralData result = new BiPolarNeuralData(pattern.size());
+		for (int i = 0; i < pattern.size(); i++) {
+			result.setData(i, pattern.getData(i));
+		}
+		result.setData(0, !result.getBoolean(0));
+		result.setData(1, !result.getBoolean(1));
+		return result;
+	}
+
+	private void checkRecall(HopfieldNetwork network, MLData pattern) {
+		for (int i = 0; i < pattern.size(); i++) {
+			assertEquals(pattern.getData(i) > 0, network.getCurrentState()
+					.getBoolean(i));
+		}
+	}
+
+	public void testRecall() {
+		int n = HopfieldNetwork.PARALLEL_NEURONS * 2;
+		MLData[] patterns = createPatterns(3, n, 4);
+		HopfieldNetwork network = new HopfieldNetwork(n);
+		network.addPatterns(patterns);
+
+		network.setCurrentState(corrupt(patterns[1]));
+		network.runUntilStable(10);
+		checkRecall(network, patterns[1]);
+
+		network.setCurrentState(corrupt(patterns[2]));
+		network.runSynchronous();
+		checkRecall(network, patterns[2]);
+	}
+
+	public void testBoltzmannThreshold() {
+		BoltzmannMachine network = new BoltzmannMachine(10);
+		network.setTemperature(1);
+		for (int i = 0; i < 10; i++) {
+			network.getThreshold()[i] = (i % 2 == 0) ? -100 : 100;
+		}
+		network.setRunCycles(5);
+		network.setAnnealCycles(5);
+		network.establishEquilibrium();
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i % 2 == 0, network.getCurrentState().getBoolean(i));
+		}
+	}
+
+	public void testBoltzmannWeights() {
+		// neuron 0 is always on, and excites neuron 1 while inhibiting 2
+		BoltzmannMachine network = new BoltzmannMachine(3);
+		network.setTemperature(1);
+		network.getThreshold()[0] = -100;
+		network.setWeight(1, 0, 100);
+		network.setWeight(2, 0, -100);
+		network.run();
+		network.run();
+		assertTrue(network.getCurrentState().getBoolean(0));
+		assertTrue(network.getCurrentState().getBoolean(1));
+		assertFalse(network.getCurrentState().getBoolean(2));
+	}
+}
@@ -32,8 +32,13 @@ import junit.framework.TestCase;
 import org.encog.engine.network.activation.ActivationStep;
 import org.encog.ml.data.MLDataSet;
 import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.ml.genetic.genes.Gene;
+import org.encog.ml.genetic.genome.Genome;
 import org.encog.ml.genetic.population.Population;
 import org.encog.neural.neat.NEATPopulation;
+import org.encog.neural.neat.training.NEATCheckpoint;
+import org.encog.neural.neat.training.NEATGenome;
+import org.encog.neural.neat.training.NEATLinkGene;
 import org.encog.neural.neat.training.NEATTraining;
 import org.encog.neural.networks.XOR;
 import org.encog.neural.networks.training.CalculateScore;
@@ -83,6 +88,73 @@ public class TestPersistPopulation extends TestCase {
 		validate(pop2);
 	}
 	
+	public void testPersistGenes()
+	{
+		NEATPopulation pop = generate();
+
+		EncogDirectoryPersistence.saveObject((EG_FILENAME), pop);
+		NEATPopulation pop2 = (NEATPopulation)EncogDirectoryPersistence.loadObject((EG_FILENAME));
+
+		validateGenes(pop, pop2);
+	}
+
+	public void testCheckpoint()
+	{
+		MLDataSet trainingSet = new BasicMLDataSet(XOR.XOR_INPUT, XOR.XOR_IDEAL);
+		CalculateScore score = new TrainingSetScore(trainingSet);
+		NEATTraining train = new NEATTraining(score, 2, 1, 10);
+		NEATCheckpoint checkpoint = new NEATCheckpoint(EG_FILENAME, 2);
+
+		for (int i = 0; i < 4; i++) {
+			train.iteration();
+			checkpoint.iterationComplete(train);
+		}
+		checkpoint.close();
+
+		Assert.assertEquals(2, checkpoint.getCheckpointCount());
+		Assert.assertFalse(new File(EG_FILENAME.getPath() + ".tmp").exists());
+
+		NEATPopulation pop = (NEATPopulation)train.getPopulation();
+		NEATPopulation pop2 = (NEATPopulation)EncogDirectoryPersistence.loadObject((EG_FILENAME));
+		validateGenes(pop, pop2);
+		validate(pop2);
+	}
+
+	private void validateGenes(NEATPopulation pop, NEATPopulation pop2)
+	{
+		Assert.assertEquals(pop.size(), pop2.size());
+		Assert.assertEquals(pop.getSpecies().size(), pop2.getSpecies().size());
+		Assert.assertEquals(pop.getInnovations().getInnovations().size(),
+				pop2.getInnovations().getInnovations().size());
+
+		for (int i = 0; i < pop.size(); i++) {
+			NEATGenome g1 = (NEATGenome)pop.get(i);
+			NEATGenome g2 = (NEATGenome)pop2.get(i);
+			Assert.assertEquals(g1.getGenomeID(), g2.getGenomeID());
+			Assert.assertEquals(g1.getNeurons().size(), g2.getNeurons().size());
+			Assert.assertEquals(g1.getLinks().size(), g2.getLinks().size());
+			for (int j = 0; j < g1.getLinks().size(); j++) {
+				NEATLinkGene l1 = (NEATLinkGene)g1.getLinks().get(j);
+				NEATLinkGene l2 = (NEATLinkGene)g2.getLinks().get(j);
+				Assert.assertEquals(l1.getInnovationId(), l2.getInnovationId());
+				Assert.assertEquals(l1.isEnabled(), l2.isEnabled());
+				Assert.assertEquals(l1.getWeight(), l2.getWeight(), 0.0001);
+			}
+			for (int j = 0; j < g1.getNeurons().size(); j++) {
+				Gene n1 = g1.getNeurons().get(j);
+				Gene n2 = g2.getNeurons().get(j);
+				Assert.assertEquals(n1.getId(), n2.getId());
+			}
+		}
+
+		for (int i = 0; i < pop2.getSpecies().size(); i++) {
+			Genome leader = pop2.getSpecies().get(i).getLeader();
+			Assert.assertNotNull(leader);
+			Assert.assertEquals(pop.getSpecies().get(i).getLeader().getGenomeID(),
+					leader.getGenomeID());
+		}
+	}
+
 	private void validate(NEATPopulation pop)
 	{
 		Assert.assertEquals(0.3,pop.getOldAgePenalty());
@@ -0,0 +1,163 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.util.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.encog.util.concurrency.job.ConcurrentJob;
+import org.encog.util.concurrency.job.JobUnitContext;
+import org.encog.util.concurrency.job.JobUnitListener;
+
+public class TestConcurrentJob extends TestCase {
+
+	/**
+	 * Hands out the integers 1..count, highest value first when several are
+	 * waiting.
+	 */
+	private static class CountingJob extends ConcurrentJob {
+		private final int count;
+		private final long sleep;
+		private int next;
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final AtomicInteger outstanding = new AtomicInteger();
+		final AtomicInteger maxOutstanding = new AtomicInteger();
+		final AtomicInteger performed = new AtomicInteger();
+		final List<Integer> order = Collections
+				.synchronizedList(new ArrayList<Integer>());
+
+		public CountingJob(int count, long sleep) {
+			super(null);
+			this.count = count;
+			this.sleep = sleep;
+		}
+
+		public int loadWorkload() {
+			return count;
+		}
+
+		public Object requestNextTask() {
+			if (next >= count || getShouldStop()) {
+				return null;
+			}
+			max(maxOutstanding, outstanding.incrementAndGet());
+			return Integer.valueOf(++next);
+		}
+
+		protected double getUnitPriority(Object unit) {
+			return ((Integer) unit).intValue();
+		}
+
+		public void performJobUnit(JobUnitContext context) {
+			max(maxRunning, running.incrementAndGet());
+			try {
+				order.add((Integer) context.getJobUnit());
+				if (sleep > 0) {
+					Thread.sleep(sleep);
+				}
+				context.setResult(((Integer) context.getJobUnit()) * 2);
+				performed.incrementAndGet();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+				outstanding.decrementAndGet();
+			}
+		}
+
+		private static void max(AtomicInteger target, int value) {
+			int current;
+			while ((current = target.get()) < value
+					&& !target.compareAndSet(current, value)) {
+			}
+		}
+	}
+
+	public void testBoundedInFlight() {
+		EngineConcurrency engine = new EngineConcurrency(8);
+		try {
+			CountingJob job = new CountingJob(200, 1);
+			job.setEngine(engine);
+			job.setMaxInFlight(2);
+			final AtomicInteger sum = new AtomicInteger();
+			job.addListener(new JobUnitListener() {
+				public void jobUnitComplete(JobUnitContext context) {
+					sum.addAndGet((Integer) context.getResult());
+				}
+			});
+			job.process();
+
+			assertEquals(200, job.performed.get());
+			assertEquals(200 * 201, sum.get());
+			assertTrue(job.maxRunning.get() <= 2);
+			// two in flight plus two waiting in the look-ahead queue
+			assertTrue(job.maxOutstanding.get() <= 4);
+			assertFalse(job.isRunning());
+		} finally {
+			engine.shutdown(1000);
+		}
+	}
+
+	public void testPriority() {
+		EngineConcurrency engine = new EngineConcurrency(1);
+		try {
+			CountingJob job = new CountingJob(3, 0);
+			job.setEngine(engine);
+			job.setMaxInFlight(3);
+			job.process();
+			assertEquals(3, job.order.size());
+			assertEquals(Integer.valueOf(3), job.order.get(0));
+			assertEquals(Integer.valueOf(2), job.order.get(1));
+			assertEquals(Integer.valueOf(1), job.order.get(2));
+		} finally {
+			engine.shutdown(1000);
+		}
+	}
+
+	public void testStop() {
+		EngineConcurrency engine = new EngineConcurrency(4);
+		try {
+			final CountingJob job = new CountingJob(100000, 1);
+			job.setEngine(engine);
+			job.setMaxInFlight(4);
+			job.addListener(new JobUnitListener() {
+				public void jobUnitComplete(JobUnitContext context) {
+					if (job.performed.get() >= 10) {
+						job.stop();
+					}
+				}
+			});
+			job.process();
+			assertTrue(job.performed.get() >= 10);
+			assertTrue(job.performed.get() < 30);
+		} finally {
+			engine.shutdown(1000);
+		}
+	}
+}
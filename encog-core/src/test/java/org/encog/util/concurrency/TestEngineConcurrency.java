@@ -0,0 +1,141 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.util.concurrency;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.encog.EncogError;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataSet;
+import org.encog.neural.flat.train.prop.TrainFlatNetworkProp;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.NetworkUtil;
+import org.encog.neural.networks.XOR;
+import org.encog.neural.networks.training.propagation.resilient.ResilientPropagation;
+
+public class TestEngineConcurrency extends TestCase {
+
+	private EngineTask createFailingTask() {
+		return new EngineTask() {
+			public void run() {
+				throw new RuntimeException("fail");
+			}
+		};
+	}
+	
+	public void testGroupError() {
+		EngineConcurrency engine = new EngineConcurrency(2);
+		try {
+			final AtomicInteger count = new AtomicInteger();
+			TaskGroup good = engine.createTaskGroup();
+			TaskGroup bad = engine.createTaskGroup();
+			for (int i = 0; i < 10; i++) {
+				engine.processTask(new EngineTask() {
+					public void run() {
+						count.incrementAndGet();
+					}
+				}, good);
+			}
+			engine.processTask(createFailingTask(), bad);
+			
+			good.waitForComplete();
+			assertEquals(10, count.get());
+			assertNull(good.getError());
+			
+			try {
+				bad.waitForComplete();
+				fail("Expected the group to throw");
+			} catch (EncogError e) {
+				assertNotNull(bad.getError());
+			}
+			
+			// grouped errors are not left on the engine
+			engine.checkError();
+			assertEquals(11, engine.getTaskCount());
+		} finally {
+			engine.shutdown(10);
+		}
+	}
+	
+	public void testInjectedExecutor() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			EngineConcurrency engine = new EngineConcurrency(executor);
+			assertEquals(0, engine.getThreadCount());
+			TaskGroup group = engine.createTaskGroup();
+			final AtomicInteger count = new AtomicInteger();
+			for (int i = 0; i < 5; i++) {
+				engine.processTask(new EngineTask() {
+					public void run() {
+						count.incrementAndGet();
+					}
+				}, group);
+			}
+			group.waitForComplete();
+			assertEquals(5, count.get());
+			
+			engine.shutdown(10);
+			assertFalse(executor.isShutdown());
+			
+			// after shutdown tasks run on the calling thread
+			engine.processTask(new EngineTask() {
+				public void run() {
+					count.incrementAndGet();
+				}
+			});
+			assertEquals(6, count.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	public void testTrainerEngine() {
+		EngineConcurrency engine = new EngineConcurrency(3);
+		try {
+			double[][] input = new double[1000][];
+			double[][] ideal = new double[1000][];
+			for (int i = 0; i < input.length; i++) {
+				input[i] = XOR.XOR_INPUT[i % 4];
+				ideal[i] = XOR.XOR_IDEAL[i % 4];
+			}
+			MLDataSet trainingData = new BasicMLDataSet(input, ideal);
+			BasicNetwork network = NetworkUtil.createXORNetworkUntrained();
+			ResilientPropagation train = new ResilientPropagation(network,
+					trainingData);
+			TrainFlatNetworkProp flat = (TrainFlatNetworkProp) train
+					.getFlatTraining();
+			flat.setEngine(engine);
+			assertSame(engine, flat.getEngine());
+			
+			train.iteration(5);
+			assertEquals(3 * 5, engine.getTaskCount());
+		} finally {
+			engine.shutdown(10);
+		}
+	}
+}
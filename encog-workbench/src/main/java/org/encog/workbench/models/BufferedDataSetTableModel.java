@@ -31,22 +31,35 @@ import javax.swing.event.TableModelListener;
 import javax.swing.table.TableModel;
 
 import org.encog.ml.data.buffer.BufferedNeuralDataSet;
-import org.encog.ml.data.buffer.EncogEGBFile;
+import org.encog.ml.data.buffer.EGBEditor;
+import org.encog.ml.data.buffer.EGBRowCache;
 import org.encog.workbench.EncogWorkBench;
 
 public class BufferedDataSetTableModel implements TableModel {
 
 	private final BufferedNeuralDataSet data;
 	private final List<TableModelListener> listeners = new ArrayList<TableModelListener>();
-	private EncogEGBFile egb;
+	private final EGBEditor egb;
+	private final EGBRowCache cache;
 
 
 	public BufferedDataSetTableModel(final BufferedNeuralDataSet data) {
 		this.data = data;
-		this.egb = data.getEGB();
+		this.egb = new EGBEditor(data.getEGB());
+		this.cache = new EGBRowCache(this.egb);
+	}
+
+	/**
+	 * Write any edited cells back to the file, and apply any added or deleted
+	 * rows and columns in one pass.
+	 */
+	public void flush() {
+		this.cache.flush();
+		this.egb.compact();
 	}
 
 	public void addIdealColumn() {
+		this.cache.invalidate();
 		this.egb.addColumn(this.egb.getRecordCount()-1,false);
 
 		final TableModelEvent tce = new TableModelEvent(this,
@@ -56,6 +69,7 @@ public class BufferedDataSetTableModel implements TableModel {
 	}
 
 	public void addInputColumn() {
+		this.cache.invalidate();
 		this.egb.addColumn(this.egb.getInputCount()-1,true);
 
 		final TableModelEvent tce = new TableModelEvent(this,
@@ -64,6 +78,7 @@ public class BufferedDataSetTableModel implements TableModel {
 	}
 
 	public void addRow(final int row) {
+		this.cache.invalidate();
 		if( row<0 ) {
 			this.egb.addRow(0);
 		} else {
@@ -99,6 +114,7 @@ public class BufferedDataSetTableModel implements TableModel {
 			}
 		}
 		
+		this.cache.invalidate();
 		this.egb.deleteCol(col);
 
 		final TableModelEvent tce = new TableModelEvent(this,
@@ -108,6 +124,7 @@ public class BufferedDataSetTableModel implements TableModel {
 
 	public void delRow(final int row) {
 
+		this.cache.invalidate();
 		this.egb.deleteRow(row);
 
 		final TableModelEvent tce = new TableModelEvent(this);
@@ -123,17 +140,24 @@ public class BufferedDataSetTableModel implements TableModel {
 	}
 
 	public String getColumnName(final int columnIndex) {
-		if (columnIndex < this.data.getInputSize()) {
+		if (columnIndex < this.egb.getInputCount()) {
 			return "Input " + (columnIndex + 1);
 		}
 		
-		if( columnIndex <  (this.data.getInputSize()+ this.data.getIdealSize()) ) {
-			return "Ideal " + (columnIndex + 1 - this.data.getInputSize());
+		if( columnIndex <  (this.egb.getInputCount()+ this.egb.getIdealCount()) ) {
+			return "Ideal " + (columnIndex + 1 - this.egb.getInputCount());
 		}
 		
 		return "Significance";
 	}
 
+	/**
+	 * @return The number of input columns, including edits not yet applied.
+	 */
+	public int getInputCount() {
+		return this.egb.getInputCount();
+	}
+
 	public int getRowCount() {
 		return this.egb.getNumberOfRecords();
 	}
@@ -153,7 +177,7 @@ public class BufferedDataSetTableModel implements TableModel {
 	}
 
 	public Object getValueAt(int rowIndex, final int columnIndex) {
-		return this.egb.read(rowIndex, columnIndex);
+		return this.cache.read(rowIndex, columnIndex);
 	}
 
 	public void setValueAt(final Object rawValue, int rowIndex,
@@ -166,7 +190,7 @@ public class BufferedDataSetTableModel implements TableModel {
 			d = (Double.parseDouble(rawValue.toString()));
 		}
 
-		this.egb.write(rowIndex, columnIndex, d);
+		this.cache.write(rowIndex, columnIndex, d);
 
 	}
 
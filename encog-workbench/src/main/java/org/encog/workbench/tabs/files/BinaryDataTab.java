@@ -35,6 +35,7 @@ import javax.swing.JToolBar;
 
 import org.encog.ml.data.buffer.BufferedNeuralDataSet;
 import org.encog.workbench.EncogWorkBench;
+import org.encog.workbench.WorkBenchError;
 import org.encog.workbench.frames.document.tree.ProjectFile;
 import org.encog.workbench.models.BufferedDataSetTableModel;
 import org.encog.workbench.process.ImportExport;
@@ -61,6 +62,13 @@ public class BinaryDataTab extends BasicFileTab implements ActionListener {
 		super(file);
 		
 		this.data = new BufferedNeuralDataSet(file.getFile());
+		
+		// the editor would write a version 0 file over the compact data
+		if (this.data.getCompact() != null) {
+			this.data.close();
+			throw new WorkBenchError(
+					"This file is in the compact EGB format, which is read only, and cannot be edited.");
+		}
 	
 		setLayout(new BorderLayout());
 		this.toolbar = new JToolBar();
@@ -98,8 +106,8 @@ public class BinaryDataTab extends BasicFileTab implements ActionListener {
 				JOptionPane.showMessageDialog(this,
 						"Please move to the column you wish to delete.",
 						"Error", JOptionPane.ERROR_MESSAGE);
-			} else if (col < getData().getInputSize()
-					&& getData().getInputSize() <= 1) {
+			} else if (col < this.model.getInputCount()
+					&& this.model.getInputCount() <= 1) {
 				JOptionPane.showMessageDialog(this,
 						"There must be at least one input column.", "Error",
 						JOptionPane.ERROR_MESSAGE);
@@ -120,6 +128,7 @@ public class BinaryDataTab extends BasicFileTab implements ActionListener {
 			}
 		} else if(action.getSource()==this.export)
 		{			
+			this.model.flush();
 			Object[] list = new Object[2];
 			list[0] = this.getData().getFile();
 			list[1] = null;
@@ -133,6 +142,7 @@ public class BinaryDataTab extends BasicFileTab implements ActionListener {
 	
 	public void dispose()
 	{
+		this.model.flush();
 		super.dispose();
 	}
 
@@ -141,6 +151,7 @@ public class BinaryDataTab extends BasicFileTab implements ActionListener {
 	}
 	
 	public void performVisualize() {
+		this.model.flush();
 		EncogCommonTab tab = new VisualizeGridTab(data);
 		EncogWorkBench.getInstance().getMainWindow().getTabManager().openTab(tab);
 	}
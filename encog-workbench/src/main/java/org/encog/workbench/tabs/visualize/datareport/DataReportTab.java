@@ -23,14 +23,10 @@
  */
 package org.encog.workbench.tabs.visualize.datareport;
 
-import java.nio.ByteOrder;
-import java.util.ArrayList;
-import java.util.List;
+import javax.swing.SwingUtilities;
 
-import org.encog.Encog;
 import org.encog.app.analyst.EncogAnalyst;
 import org.encog.app.analyst.report.AnalystReport;
-import org.encog.util.HTMLReport;
 import org.encog.workbench.EncogWorkBench;
 import org.encog.workbench.tabs.HTMLTab;
 
@@ -44,12 +40,35 @@ public class DataReportTab extends HTMLTab {
 		generate();
 	}
 	
+	/**
+	 * Generate the report. The report reads the whole raw file, so it is
+	 * produced on a background thread and displayed when it is ready.
+	 */
 	public void generate() {
-		HTMLReport report = new HTMLReport();
-		
-		AnalystReport analystReport = new AnalystReport(this.analyst);
-		String str = analystReport.produceReport();
-		this.display(str);
+		this.display("<html><body><h1>Encog Analyst Report</h1>"
+				+ "<p>Reading the data file...</p></body></html>");
+
+		Thread thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					AnalystReport analystReport = new AnalystReport(analyst);
+					final String str = analystReport.produceReport();
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							display(str);
+						}
+					});
+				} catch (final Throwable t) {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							EncogWorkBench.displayError("Error", t);
+						}
+					});
+				}
+			}
+		}, "Data report");
+		thread.setDaemon(true);
+		thread.start();
 	}
 	
 	@Override
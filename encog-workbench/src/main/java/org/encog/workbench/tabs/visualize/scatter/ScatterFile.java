@@ -25,9 +25,14 @@ package org.encog.workbench.tabs.visualize.scatter;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+
+import javax.swing.SwingUtilities;
 
 import org.encog.app.analyst.EncogAnalyst;
 import org.encog.app.analyst.script.AnalystClassItem;
@@ -36,26 +41,102 @@ import org.encog.app.analyst.script.prop.ScriptProperties;
 import org.encog.util.Format;
 import org.encog.util.csv.CSVFormat;
 import org.encog.util.csv.ReadCSV;
+import org.encog.workbench.EncogWorkBench;
 import org.encog.workbench.WorkBenchError;
 
-public class ScatterFile {
-	
+/**
+ * The data behind a scatter plot. The raw file is read on a background thread
+ * and each series is reservoir sampled, so memory is bounded by the sample
+ * size rather than by the size of the file. Snapshots of the samples are
+ * published as the file is read, so the plot can be drawn progressively.
+ * The minimum and maximum of each axis cover every row, not just the sample.
+ */
+public class ScatterFile implements Runnable {
+
+	/**
+	 * The default number of points kept per series. A plot cell is a few
+	 * hundred pixels across, so more points than this only overdraw.
+	 */
+	public static final int DEFAULT_SAMPLE_SIZE = 4096;
+
+	/**
+	 * How often, in milliseconds, a snapshot is published while loading.
+	 */
+	public static final long UPDATE_MILLIS = 250;
+
+	/**
+	 * The reservoir for one series.
+	 */
+	private static class Reservoir {
+		private final double[][] points;
+		private long seen;
+		private int size;
+
+		public Reservoir(int capacity) {
+			this.points = new double[capacity][];
+		}
+
+		public void add(double[] row, Random random) {
+			this.seen++;
+			if (this.size < this.points.length) {
+				this.points[this.size++] = row;
+			} else {
+				long slot = (long) (random.nextDouble() * this.seen);
+				if (slot < this.points.length) {
+					this.points[(int) slot] = row;
+				}
+			}
+		}
+
+		public List<double[]> snapshot() {
+			return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(
+					this.points, this.size)));
+		}
+	}
+
 	private final EncogAnalyst analyst;
 	private final Map<String,Integer> axisMapping = new HashMap<String,Integer>();
 	private int targetIndex;
-	private Map<String,List<double[]>> data = new HashMap<String,List<double[]>>();
+	private final Map<String,Reservoir> reservoirs = new HashMap<String,Reservoir>();
+	private volatile Map<String,List<double[]>> data = new HashMap<String,List<double[]>>();
+	private volatile double[] min;
+	private volatile double[] max;
 	private DataField targetField;
 	private List<String> axis;
 	private List<String> series = new ArrayList<String>();
 	private double regressionSeriesSize;
 	private double[] regressionSeriesPoint;
+	private final int sampleSize;
+	private final Random random = new Random(42);
+	private volatile long rowsRead;
+	private volatile boolean loaded;
+	private volatile boolean stop;
+	private Runnable listener;
 	
 	
 	public ScatterFile(EncogAnalyst analyst, String target, List<String> axis) {
+		this(analyst, target, axis, ScatterFile.DEFAULT_SAMPLE_SIZE);
+	}
+
+	/**
+	 * Create the scatter data. Call {@link #run()} or {@link #startLoading}
+	 * to read the file.
+	 * 
+	 * @param analyst The analyst with the script.
+	 * @param target The field used to split the series.
+	 * @param axis The fields to plot.
+	 * @param sampleSize The most points kept per series.
+	 */
+	public ScatterFile(EncogAnalyst analyst, String target, List<String> axis,
+			int sampleSize) {
 		this.analyst = analyst;
 		this.axis = axis;
+		this.sampleSize = sampleSize;
+		this.min = new double[axis.size()];
+		this.max = new double[axis.size()];
+		Arrays.fill(this.min, Double.POSITIVE_INFINITY);
+		Arrays.fill(this.max, Double.NEGATIVE_INFINITY);
 		buildMappings(target, axis);
-		readRawFile();
 	}
 	
 	private boolean isAxis(String name, List<String> axis) {
@@ -90,7 +171,7 @@ public class ScatterFile {
 			for(int i=0;i<10;i++) {
 				StringBuilder s = new StringBuilder();				
 				s.append(Format.formatDouble(current, 1));
-				this.data.put(s.toString().toLowerCase(), new ArrayList<double[]>());
+				this.reservoirs.put(s.toString().toLowerCase(), new Reservoir(this.sampleSize));
 				this.series.add(s.toString());
 				this.regressionSeriesPoint[i] = current;
 				current+=this.regressionSeriesSize;
@@ -106,6 +187,44 @@ public class ScatterFile {
 		}
 	}
 
+	/**
+	 * Read the file on a background thread.
+	 * 
+	 * @param theListener Run on the event thread each time a snapshot is
+	 * published, and once more when loading is complete.
+	 */
+	public void startLoading(Runnable theListener) {
+		this.listener = theListener;
+		Thread thread = new Thread(this, "Scatter plot loader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop loading, the data read so far is kept.
+	 */
+	public void stopLoading() {
+		this.stop = true;
+	}
+
+	/**
+	 * Read the file.
+	 */
+	public void run() {
+		try {
+			readRawFile();
+		} catch (final Throwable t) {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					EncogWorkBench.displayError("Error", t);
+				}
+			});
+		} finally {
+			this.loaded = true;
+			publish();
+		}
+	}
+
 	private void readRawFile() {
 		ScriptProperties prop = this.analyst.getScript().getProperties();
 		
@@ -122,50 +241,84 @@ public class ScatterFile {
 		int rowSize = this.axisMapping.size();
 		
 		boolean regression = !this.targetField.isClass();
+
+		double[] rowMin = this.min.clone();
+		double[] rowMax = this.max.clone();
+		long lastUpdate = System.currentTimeMillis();
 		
 		// read the file
 		ReadCSV csv = new ReadCSV(sourceFile.toString(),headers,inputFormat);
 		
-		while(csv.next() ) {
-			double[] row = new double[rowSize];
-			List<double[]> dataList;
-			
-			// find a list for this class
-			String cls = "?";
-			
-			if( regression ) {
-				double d = csv.getDouble(targetIndex);
-				for(int i=this.series.size()-1;i>=0;i--) {
-					if( d>this.regressionSeriesPoint[i] ) {
-						cls = this.series.get(i);
-						break;
+		try {
+			while(!this.stop && csv.next() ) {
+				double[] row = new double[rowSize];
+				Reservoir reservoir;
+				
+				// find a reservoir for this class
+				String cls = "?";
+				
+				if( regression ) {
+					double d = csv.getDouble(targetIndex);
+					for(int i=this.series.size()-1;i>=0;i--) {
+						if( d>this.regressionSeriesPoint[i] ) {
+							cls = this.series.get(i);
+							break;
+						}
 					}
+				} else {
+					cls = csv.get(this.targetIndex); 
+					cls = cls.toLowerCase();
+				}
+							
+				if( this.reservoirs.containsKey(cls) ) {
+					reservoir = this.reservoirs.get(cls);
+				} else {
+					reservoir = new Reservoir(this.sampleSize);
+					this.reservoirs.put(cls, reservoir);
+				}
+				
+				// read the data row
+				int rowIndex = 0;
+				for(String key: this.axis) {
+					int index = this.axisMapping.get(key);
+					double d = csv.getDouble(index);
+					rowMin[rowIndex] = Math.min(rowMin[rowIndex], d);
+					rowMax[rowIndex] = Math.max(rowMax[rowIndex], d);
+					row[rowIndex++] = d;
+				}
+				
+				// sample the data row
+				reservoir.add(row, this.random);
+				this.rowsRead++;
+
+				long now = System.currentTimeMillis();
+				if( now-lastUpdate>=ScatterFile.UPDATE_MILLIS ) {
+					this.min = rowMin.clone();
+					this.max = rowMax.clone();
+					publish();
+					lastUpdate = now;
 				}
-			} else {
-				cls = csv.get(this.targetIndex); 
-				cls = cls.toLowerCase();
-			}
-						
-			if( this.data.containsKey(cls) ) {
-				dataList = this.data.get(cls);
-			} else {
-				dataList = new ArrayList<double[]>();
-				this.data.put(cls, dataList);
-			}
-			
-			// read the data row
-			int rowIndex = 0;
-			for(String key: this.axis) {
-				int index = this.axisMapping.get(key);
-				double d = csv.getDouble(index);
-				row[rowIndex++] = d;
 			}
-			
-			// store the data row
-			dataList.add(row);
+		} finally {
+			csv.close();
+			this.min = rowMin;
+			this.max = rowMax;
+		}
+	}
+
+	/**
+	 * Publish a snapshot of the samples and tell the listener.
+	 */
+	private void publish() {
+		Map<String,List<double[]>> snapshot = new HashMap<String,List<double[]>>();
+		for(Map.Entry<String,Reservoir> entry: this.reservoirs.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		this.data = snapshot;
+
+		if( this.listener!=null ) {
+			SwingUtilities.invokeLater(this.listener);
 		}
-		
-		csv.close();
 	}
 
 	/**
@@ -197,38 +350,23 @@ public class ScatterFile {
 	}
 	
 	public List<double[]> getSeries(String name) {
-		return this.data.get(name.toLowerCase());
+		List<double[]> result = this.data.get(name.toLowerCase());
+		if( result==null ) {
+			return Collections.emptyList();
+		}
+		return result;
 	}
 	
 	public List<double[]> getSeries(int index) {
-		String name = this.series.get(index).toLowerCase();
-		return this.data.get(name.toLowerCase());
+		return getSeries(this.series.get(index));
 	}
 
 	public double findMin(int index) {
-		double result = Double.POSITIVE_INFINITY;
-		
-		for(String key: this.data.keySet() ) {
-			List<double[]> list = this.data.get(key);
-			for(double[] array: list) {
-				result = Math.min(result, array[index]);
-			}
-		}
-		
-		return result;
+		return this.min[index];
 	}
 
 	public double findMax(int index) {
-		double result = Double.NEGATIVE_INFINITY;
-		
-		for(String key: this.data.keySet() ) {
-			List<double[]> list = this.data.get(key);
-			for(double[] array: list) {
-				result = Math.max(result, array[index]);
-			}
-		}
-		
-		return result;
+		return this.max[index];
 	}
 
 	public int getSeriesCount() {
@@ -243,4 +381,18 @@ public class ScatterFile {
 		return !this.targetField.isClass();
 	}
 
+	/**
+	 * @return The number of rows read so far.
+	 */
+	public long getRowsRead() {
+		return this.rowsRead;
+	}
+
+	/**
+	 * @return True once the whole file has been read, or loading stopped.
+	 */
+	public boolean isLoaded() {
+		return this.loaded;
+	}
+
 }
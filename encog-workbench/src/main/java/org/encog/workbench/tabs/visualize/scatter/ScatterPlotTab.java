@@ -26,6 +26,8 @@ package org.encog.workbench.tabs.visualize.scatter;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.GridLayout;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.BorderFactory;
@@ -33,6 +35,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import org.encog.app.analyst.EncogAnalyst;
+import org.encog.util.Format;
 import org.encog.workbench.tabs.EncogCommonTab;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -41,13 +44,14 @@ import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYDotRenderer;
-import org.jfree.data.xy.XYDataset;
 
 public class ScatterPlotTab extends EncogCommonTab {
 
 	private EncogAnalyst analyst;
 	private ScatterFile file;
 	private XYPlot samplePlot;
+	private final List<ScatterXY> datasets = new ArrayList<ScatterXY>();
+	private final JLabel status = new JLabel("Loading...");
 	public static Color COLORS[] = { Color.red, Color.green, Color.blue, Color.black, Color.cyan, Color.magenta, Color.orange, Color.pink, Color.white, Color.yellow, Color.lightGray, Color.darkGray };
 	
 	public ScatterPlotTab(EncogAnalyst analyst, String className, List<String> axisList) {
@@ -56,8 +60,9 @@ public class ScatterPlotTab extends EncogCommonTab {
 		this.file = new ScatterFile(this.analyst,className,axisList);
 		
 		if( axisList.size()<=2 ) {
-			this.add(createPanel(0,1,true));
-			return;
+			this.setLayout(new BorderLayout());
+			this.add(createPanel(0,1,true),BorderLayout.CENTER);
+			this.add(this.status,BorderLayout.NORTH);
 		} else {
 			JPanel panel = new JPanel();
 			int count = axisList.size();
@@ -77,12 +82,43 @@ public class ScatterPlotTab extends EncogCommonTab {
 			this.add(panel,BorderLayout.CENTER);
 			LegendPanel legend = new LegendPanel(this.samplePlot);
 			this.add(legend,BorderLayout.SOUTH);
+			this.add(this.status,BorderLayout.NORTH);
+		}
+
+		// draw each sample as it is published, rather than waiting for
+		// the whole file
+		this.file.startLoading(new Runnable() {
+			public void run() {
+				refresh();
+			}
+		});
+	}
+
+	private void refresh() {
+		for (ScatterXY dataset : this.datasets) {
+			dataset.refresh();
 		}
+
+		StringBuilder text = new StringBuilder();
+		text.append(this.file.isLoaded() ? "Loaded " : "Loading... ");
+		text.append(Format.formatInteger((int) Math.min(Integer.MAX_VALUE,
+				this.file.getRowsRead())));
+		text.append(" rows, showing a sample of at most ");
+		text.append(Format.formatInteger(ScatterFile.DEFAULT_SAMPLE_SIZE));
+		text.append(" points per series.");
+		this.status.setText(text.toString());
+	}
+
+	@Override
+	public boolean close() throws IOException {
+		this.file.stopLoading();
+		return super.close();
 	}
 	
 	private JPanel createPanel(int xIndex, int yIndex, boolean legend) {
 		
-		 XYDataset dataset = new ScatterXY(file,xIndex,yIndex);
+		 ScatterXY dataset = new ScatterXY(file,xIndex,yIndex);
+		 this.datasets.add(dataset);
 	        JFreeChart chart = ChartFactory.createScatterPlot(null,
 	            null, null, dataset, PlotOrientation.VERTICAL, legend, true, false);
 
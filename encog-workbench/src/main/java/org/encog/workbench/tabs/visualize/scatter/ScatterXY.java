@@ -69,11 +69,36 @@ public class ScatterXY extends AbstractXYDataset
     	this.xIndex = xIndex;
     	this.yIndex = yIndex;
     	
+    	updateBounds();
+    }
+
+    /**
+     * Pick up the latest sample from the scatter file and redraw.
+     */
+    public void refresh() {
+    	updateBounds();
+    	fireDatasetChanged();
+    }
+
+    /**
+     * Update the bounds from the scatter file. Before any rows have been read
+     * the bounds are zero to one.
+     */
+    private void updateBounds() {
         double minX = scatterFile.findMin(this.xIndex);
         double maxX = scatterFile.findMax(this.xIndex);
         double minY = scatterFile.findMin(this.yIndex);
         double maxY = scatterFile.findMax(this.yIndex);        
 
+        if( minX>maxX ) {
+        	minX = 0;
+        	maxX = 1;
+        }
+        if( minY>maxY ) {
+        	minY = 0;
+        	maxY = 1;
+        }
+
         this.domainMin = new Double(minX);
         this.domainMax = new Double(maxX);
         this.domainRange = new Range(minX, maxX);
@@ -81,7 +106,6 @@ public class ScatterXY extends AbstractXYDataset
         this.rangeMin = new Double(minY);
         this.rangeMax = new Double(maxY);
         this.range = new Range(minY, maxY);
-
     }
 
     /**
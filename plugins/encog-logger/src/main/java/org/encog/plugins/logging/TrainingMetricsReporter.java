@@ -0,0 +1,188 @@
+package org.encog.plugins.logging;
+
+import org.encog.neural.flat.train.prop.TrainingMetrics;
+import org.encog.neural.flat.train.prop.TrainingMetricsListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs propagation training metrics through SLF4J. Register an instance with
+ * TrainFlatNetworkProp.addMetricsListener. A summary line is written every
+ * few iterations, averaged over the iterations since the last line.
+ */
+public class TrainingMetricsReporter implements TrainingMetricsListener {
+
+	/**
+	 * The logger to write to.
+	 */
+	private final Logger logger;
+
+	/**
+	 * How many iterations to average over before logging.
+	 */
+	private final int interval;
+
+	/**
+	 * The number of iterations since the last log line.
+	 */
+	private int count;
+
+	/**
+	 * The number of records processed since the last log line.
+	 */
+	private long records;
+
+	/**
+	 * The iteration wall time since the last log line.
+	 */
+	private long iterationNanos;
+
+	/**
+	 * The gradient wall time since the last log line.
+	 */
+	private long gradientNanos;
+
+	/**
+	 * The weight update wall time since the last log line.
+	 */
+	private long learnNanos;
+
+	/**
+	 * The summed worker compute time since the last log line.
+	 */
+	private long computeNanos;
+
+	/**
+	 * The summed worker report time since the last log line.
+	 */
+	private long reduceNanos;
+
+	/**
+	 * The time spent waiting for workers since the last log line.
+	 */
+	private long waitNanos;
+
+	/**
+	 * The garbage collection time since the last log line, in milliseconds.
+	 */
+	private long gcMillis;
+
+	/**
+	 * The available worker time since the last log line.
+	 */
+	private long workerSlots;
+
+	/**
+	 * The run time of the trainer's pooled tasks since the last log line.
+	 */
+	private long poolTaskNanos;
+
+	/**
+	 * The queue time of the trainer's pooled tasks since the last log line.
+	 */
+	private long poolQueueNanos;
+
+	/**
+	 * Create a reporter that logs every iteration.
+	 */
+	public TrainingMetricsReporter() {
+		this(1);
+	}
+
+	/**
+	 * Create a reporter.
+	 * @param theInterval The number of iterations per log line.
+	 */
+	public TrainingMetricsReporter(int theInterval) {
+		this(LoggerFactory.getLogger(TrainingMetricsReporter.class),
+				theInterval);
+	}
+
+	/**
+	 * Create a reporter.
+	 * @param theLogger The logger to write to.
+	 * @param theInterval The number of iterations per log line.
+	 */
+	public TrainingMetricsReporter(Logger theLogger, int theInterval) {
+		this.logger = theLogger;
+		this.interval = Math.max(1, theInterval);
+	}
+
+	@Override
+	public void iterationComplete(TrainingMetrics metrics) {
+		this.count++;
+		this.records += metrics.getRecords();
+		this.iterationNanos += metrics.getIterationNanos();
+		this.gradientNanos += metrics.getGradientNanos();
+		this.learnNanos += metrics.getLearnNanos();
+		this.computeNanos += metrics.getComputeNanos();
+		this.reduceNanos += metrics.getReduceNanos();
+		this.waitNanos += metrics.getWaitNanos();
+		this.gcMillis += metrics.getGCMillis();
+		this.poolTaskNanos += metrics.getPoolTaskNanos();
+		this.poolQueueNanos += metrics.getPoolQueueNanos();
+		this.workerSlots += metrics.getGradientNanos()
+				* metrics.getWorkerCount();
+
+		if (this.count < this.interval) {
+			return;
+		}
+
+		if (this.logger.isInfoEnabled()) {
+			log(metrics);
+		}
+		reset();
+	}
+
+	/**
+	 * Write the accumulated values to the log.
+	 * @param metrics The metrics for the latest iteration.
+	 */
+	private void log(TrainingMetrics metrics) {
+		double seconds = this.iterationNanos / 1.0e9;
+		double utilization = this.workerSlots > 0 ? 
+				Math.min(1.0, (double) this.computeNanos / this.workerSlots) : 0;
+
+		this.logger.info(String.format(
+				"iteration %d: error=%.6f, %.0f records/sec, utilization=%.1f%%, "
+				+ "gradient=%.3fms, reduce=%.3fms, learn=%.3fms, wait=%.3fms, "
+				+ "gc=%dms, pool task=%.3fms, pool queue=%.3fms",
+				metrics.getIteration(), metrics.getError(),
+				seconds > 0 ? this.records / seconds : 0.0,
+				utilization * 100,
+				perIteration(this.gradientNanos),
+				perIteration(this.reduceNanos),
+				perIteration(this.learnNanos),
+				perIteration(this.waitNanos),
+				this.gcMillis,
+				perIteration(this.poolTaskNanos),
+				perIteration(this.poolQueueNanos)));
+	}
+
+	/**
+	 * Convert an accumulated time to milliseconds per iteration.
+	 * @param nanos The accumulated time.
+	 * @return Milliseconds per iteration.
+	 */
+	private double perIteration(long nanos) {
+		return nanos / 1.0e6 / this.count;
+	}
+
+	/**
+	 * Clear the accumulated values.
+	 */
+	private void reset() {
+		this.count = 0;
+		this.records = 0;
+		this.iterationNanos = 0;
+		this.gradientNanos = 0;
+		this.learnNanos = 0;
+		this.computeNanos = 0;
+		this.reduceNanos = 0;
+		this.waitNanos = 0;
+		this.gcMillis = 0;
+		this.workerSlots = 0;
+		this.poolTaskNanos = 0;
+		this.poolQueueNanos = 0;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.plugins.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import org.encog.mathutil.BoundNumbers;
+import org.encog.neural.flat.kernel.VectorOps;
+
+/**
+ * Vector operations that use explicit SIMD instructions through the JDK
+ * Vector API. Loaded by VectorOpsFactory as a service provider.
+ * 
+ * axpy gives exactly the same results as the portable operations. dot keeps
+ * one partial sum per lane, and sigmoid and tanh use the Vector API's exp and
+ * tanh, so these can differ from the portable results in the last bits.
+ */
+public class VectorOpsSIMD implements VectorOps {
+
+	/**
+	 * The widest vector shape supported by this CPU.
+	 */
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * A vector of ones.
+	 */
+	private static final DoubleVector ONE = DoubleVector.broadcast(SPECIES,
+			1.0);
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double dot(final double[] a, final int aIndex,
+			final double[] b, final int bIndex, final int length) {
+		final int bound = SPECIES.loopBound(length);
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			final DoubleVector va = DoubleVector.fromArray(SPECIES, a, aIndex
+					+ i);
+			final DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bIndex
+					+ i);
+			acc = va.fma(vb, acc);
+		}
+		double sum = acc.reduceLanes(VectorOperators.ADD);
+		for (; i < length; i++) {
+			sum += a[aIndex + i] * b[bIndex + i];
+		}
+		return sum;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void axpy(final double alpha, final double[] x,
+			final int xIndex, final double[] y, final int yIndex,
+			final int length) {
+		final int bound = SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xIndex
+					+ i);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yIndex
+					+ i);
+			// multiply then add, not fma, to round exactly as the scalar code
+			vy.add(vx.mul(alpha)).intoArray(y, yIndex + i);
+		}
+		for (; i < length; i++) {
+			y[yIndex + i] += alpha * x[xIndex + i];
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void sigmoid(final double[] d, final int start,
+			final int size) {
+		final int bound = SPECIES.loopBound(size);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			final DoubleVector v = DoubleVector.fromArray(SPECIES, d, start
+					+ i);
+			// bounded as BoundMath.exp does
+			final DoubleVector e = v.neg().lanewise(VectorOperators.EXP)
+					.min(BoundNumbers.TOO_BIG).max(BoundNumbers.TOO_SMALL);
+			ONE.div(e.add(1.0)).intoArray(d, start + i);
+		}
+		for (; i < size; i++) {
+			final double e = BoundNumbers.bound(Math.exp(-d[start + i]));
+			d[start + i] = 1.0 / (1.0 + e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void tanh(final double[] d, final int start, final int size) {
+		final int bound = SPECIES.loopBound(size);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, d, start + i)
+					.lanewise(VectorOperators.TANH).intoArray(d, start + i);
+		}
+		for (; i < size; i++) {
+			d[start + i] = Math.tanh(d[start + i]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getName() {
+		return "SIMD " + SPECIES.vectorBitSize() + "-bit";
+	}
+}
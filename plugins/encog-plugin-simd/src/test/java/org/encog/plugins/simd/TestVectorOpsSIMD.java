@@ -0,0 +1,83 @@
+/*
+ * Encog(tm) Core v3.0 - Java Version
+ * http://www.heatonresearch.com/encog/
+ * http://code.google.com/p/encog-java/
+ 
+ * Copyright 2008-2011 Heaton Research, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *   
+ * For more information on Heaton Research copyrights, licenses 
+ * and trademarks visit:
+ * http://www.heatonresearch.com/copyright
+ */
+package org.encog.plugins.simd;
+
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.encog.neural.flat.kernel.VectorOps;
+import org.encog.neural.flat.kernel.VectorOpsFactory;
+import org.encog.neural.flat.kernel.VectorOpsPortable;
+
+public class TestVectorOpsSIMD extends TestCase {
+
+	private double[] random(Random rnd, int length) {
+		double[] result = new double[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = rnd.nextDouble() * 4 - 2;
+		}
+		return result;
+	}
+
+	public void testMatchesPortable() {
+		VectorOps simd = new VectorOpsSIMD();
+		VectorOps portable = new VectorOpsPortable();
+		Random rnd = new Random(11);
+
+		// odd lengths and offsets exercise the scalar tails
+		for (int length = 0; length < 40; length++) {
+			double[] a = random(rnd, length + 3);
+			double[] b = random(rnd, length + 5);
+			Assert.assertEquals(portable.dot(a, 3, b, 5, length),
+					simd.dot(a, 3, b, 5, length), 1e-12);
+
+			double[] y1 = b.clone();
+			double[] y2 = b.clone();
+			portable.axpy(0.7, a, 3, y1, 5, length);
+			simd.axpy(0.7, a, 3, y2, 5, length);
+			for (int i = 0; i < y1.length; i++) {
+				Assert.assertEquals(y1[i], y2[i], 0);
+			}
+
+			double[] s1 = b.clone();
+			double[] s2 = b.clone();
+			portable.sigmoid(s1, 5, length);
+			simd.sigmoid(s2, 5, length);
+			double[] t1 = b.clone();
+			double[] t2 = b.clone();
+			portable.tanh(t1, 5, length);
+			simd.tanh(t2, 5, length);
+			for (int i = 0; i < s1.length; i++) {
+				Assert.assertEquals(s1[i], s2[i], 1e-12);
+				Assert.assertEquals(t1[i], t2[i], 1e-12);
+			}
+		}
+	}
+
+	public void testSelected() {
+		Assert.assertTrue(VectorOpsFactory.isAccelerated());
+	}
+}